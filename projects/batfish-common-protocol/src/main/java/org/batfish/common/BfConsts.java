@@ -148,6 +148,7 @@ public class BfConsts {
   public static final String RELPATH_CONVERT_ANSWER_PATH = "convert_answer";
   public static final String RELPATH_DATA_PLANE = "dp";
   public static final String RELPATH_DATA_PLANE_ANSWER_PATH = "dp_answer";
+  public static final String RELPATH_DATA_PLANE_SHARDS_DIR = "dp_shards";
   public static final String RELPATH_EDGE_BLACKLIST_FILE = "edge_blacklist";
   public static final String RELPATH_ENV_TOPOLOGY_FILE = "env_topology";
   public static final String RELPATH_ENVIRONMENT_BGP_TABLES = "bgp";
@@ -188,12 +189,17 @@ public class BfConsts {
   public static final String SUFFIX_LOG_FILE = ".log";
 
   public static final String SVC_BASE_RSC = "/batfishservice";
+  public static final String SVC_CACHED_DATA_PLANES_KEY = "cacheddataplanes";
+  public static final String SVC_CACHED_SNAPSHOTS_KEY = "cachedsnapshots";
   public static final String SVC_FAILURE_KEY = "failure";
+  public static final String SVC_FREE_SLOTS_KEY = "freeslots";
   public static final String SVC_GET_STATUS_RSC = "getstatus";
   public static final String SVC_GET_TASKSTATUS_RSC = "gettaskstatus";
+  public static final String SVC_IDLE_KEY = "idle";
   public static final String SVC_KILL_TASK_RSC = "killtask";
   public static final Integer SVC_PORT = 9999;
   public static final String SVC_RUN_TASK_RSC = "run";
+  public static final String SVC_SLOTS_KEY = "slots";
   public static final String SVC_SUCCESS_KEY = "success";
   public static final String SVC_TASK_KEY = "task";
   public static final String SVC_TASKID_KEY = "taskid";
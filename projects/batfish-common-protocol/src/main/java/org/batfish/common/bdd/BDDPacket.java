@@ -112,6 +112,8 @@ public class BDDPacket {
     _factory.setCacheRatio(JFACTORY_CACHE_RATIO);
     // Do not impose a maximum node table increase
     _factory.setMaxIncrease(0);
+    // Grow the node table when garbage collection dominates, and tune the cache ratio to the load
+    _factory.setAdaptiveSizing(true);
     // Disables printing
     /*
     try {
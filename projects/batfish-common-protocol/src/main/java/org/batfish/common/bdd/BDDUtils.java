@@ -3,6 +3,8 @@ package org.batfish.common.bdd;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
@@ -46,6 +48,34 @@ public class BDDUtils {
     return true;
   }
 
+  /**
+   * Copy a {@link BDD} into another {@link BDDFactory}. {@link BDDFactory BDDFactories} are not
+   * thread-safe, so work done in parallel uses one factory per thread, and results are transferred
+   * back to a single factory with this method. Both factories must number their variables the same
+   * way, e.g. because they were both created for a {@link BDDPacket}. The variable order of the two
+   * factories may differ.
+   */
+  public static BDD copyTo(BDD bdd, BDDFactory target) {
+    return copyTo(bdd, target, new HashMap<>());
+  }
+
+  private static BDD copyTo(BDD bdd, BDDFactory target, Map<BDD, BDD> copies) {
+    if (bdd.isZero()) {
+      return target.zero();
+    }
+    if (bdd.isOne()) {
+      return target.one();
+    }
+    BDD copy = copies.get(bdd);
+    if (copy == null) {
+      BDD high = copyTo(bdd.high(), target, copies);
+      BDD low = copyTo(bdd.low(), target, copies);
+      copy = target.ithVar(bdd.var()).ite(high, low);
+      copies.put(bdd, copy);
+    }
+    return copy;
+  }
+
   /**
    * Swap the constraints on multiple {@link BDDInteger BDDIntegers} in a {@link BDD}. Usage:
    * swap(bdd, a1, a2, b1, b2, ...). Swaps a1 and a2, b1 and b2, etc.
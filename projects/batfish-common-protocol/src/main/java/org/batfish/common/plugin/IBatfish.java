@@ -147,6 +147,13 @@ public interface IBatfish extends IPluginConsumer {
 
   DataPlane loadDataPlane();
 
+  /**
+   * Returns the data plane of the snapshot the current snapshot was forked from, or {@code null}
+   * if there is no such snapshot or its data plane has not been computed by the current version.
+   */
+  @Nullable
+  DataPlane loadParentDataPlane();
+
   SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables();
 
   SortedMap<String, RoutesByVrf> loadEnvironmentRoutingTables();
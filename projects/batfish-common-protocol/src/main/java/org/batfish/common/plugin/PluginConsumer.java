@@ -31,11 +31,14 @@ import net.jpountz.lz4.LZ4FrameInputStream;
 import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.batfish.common.BatfishException;
 import org.batfish.common.util.BatfishObjectInputStream;
+import org.batfish.common.util.CompactObjectInputStream;
+import org.batfish.common.util.CompactObjectOutputStream;
 
 public abstract class PluginConsumer implements IPluginConsumer {
 
   /** Supported formats we can deserialize from */
   public enum Format {
+    COMPACT_SERIALIZED,
     JAVA_SERIALIZED,
     LZ4,
     GZIP,
@@ -90,7 +93,9 @@ public abstract class PluginConsumer implements IPluginConsumer {
       InputStream stream, Class<S> outputClass, Format format) throws IOException {
     try {
       ObjectInputStream ois;
-      if (format != Format.JAVA_SERIALIZED) {
+      if (format == Format.COMPACT_SERIALIZED) {
+        ois = new CompactObjectInputStream(stream, _currentClassLoader);
+      } else if (format != Format.JAVA_SERIALIZED) {
         XStream xstream = new XStream(new DomDriver("UTF-8"));
         xstream.setClassLoader(_currentClassLoader);
         ois = xstream.createObjectInputStream(stream);
@@ -155,7 +160,12 @@ public abstract class PluginConsumer implements IPluginConsumer {
     byte[] header = new byte[DEFAULT_HEADER_LENGTH_BYTES];
     ByteStreams.readFully(stream, header);
     Format format;
-    if (Arrays.equals(header, JAVA_SERIALIZED_OBJECT_HEADER)) {
+    // Match any version, so that CompactObjectInputStream can report an unsupported one.
+    if (Arrays.equals(
+        Arrays.copyOf(header, CompactObjectOutputStream.MAGIC_BYTES.length),
+        CompactObjectOutputStream.MAGIC_BYTES)) {
+      format = Format.COMPACT_SERIALIZED;
+    } else if (Arrays.equals(header, JAVA_SERIALIZED_OBJECT_HEADER)) {
       format = Format.JAVA_SERIALIZED;
     } else if (Arrays.equals(header, LZ4_MAGIC_BYTES)) {
       format = Format.LZ4;
@@ -237,7 +247,7 @@ public abstract class PluginConsumer implements IPluginConsumer {
         XStream xstream = new XStream(new DomDriver("UTF-8"));
         oos = closer.register(xstream.createObjectOutputStream(los));
       } else {
-        oos = closer.register(new ObjectOutputStream(los));
+        oos = closer.register(new CompactObjectOutputStream(los));
       }
       oos.writeObject(object);
     } catch (IOException e) {
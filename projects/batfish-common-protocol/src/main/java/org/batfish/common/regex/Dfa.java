@@ -0,0 +1,68 @@
+package org.batfish.common.regex;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A deterministic automaton that decides whether a regex {@link java.util.regex.Matcher#find()
+ * finds} a match in an input string, in time linear in the length of the input.
+ *
+ * <p>The automaton is defined over ASCII characters other than line terminators. For inputs with
+ * other characters, {@link #find(CharSequence)} returns {@link #UNSUPPORTED_INPUT}, and the caller
+ * must use a {@link java.util.regex.Pattern} instead.
+ */
+@ParametersAreNonnullByDefault
+final class Dfa {
+
+  static final int NO_MATCH = 0;
+
+  static final int MATCH = 1;
+
+  static final int UNSUPPORTED_INPUT = -1;
+
+  /** Size of the alphabet: the ASCII characters */
+  static final int ALPHABET_SIZE = 128;
+
+  /** The initial state, where no input has been read */
+  static final int INITIAL_STATE = 0;
+
+  /** Whether a match has been found on entering each state */
+  private final boolean[] _accepting;
+
+  /** Whether a match has been found if the input ends in each state */
+  private final boolean[] _acceptingAtEnd;
+
+  /** The successor of state s on character c is at index {@code s * ALPHABET_SIZE + c}. */
+  private final int[] _transitions;
+
+  Dfa(boolean[] accepting, boolean[] acceptingAtEnd, int[] transitions) {
+    _accepting = accepting;
+    _acceptingAtEnd = acceptingAtEnd;
+    _transitions = transitions;
+  }
+
+  /**
+   * Returns {@link #MATCH} if the regex finds a match in {@code input}, {@link #NO_MATCH} if it
+   * does not, or {@link #UNSUPPORTED_INPUT} if this automaton cannot decide.
+   */
+  int find(CharSequence input) {
+    int state = INITIAL_STATE;
+    if (_accepting[state]) {
+      return MATCH;
+    }
+    for (int i = 0; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (c >= ALPHABET_SIZE || c == '\n' || c == '\r') {
+        return UNSUPPORTED_INPUT;
+      }
+      state = _transitions[state * ALPHABET_SIZE + c];
+      if (_accepting[state]) {
+        return MATCH;
+      }
+    }
+    return _acceptingAtEnd[state] ? MATCH : NO_MATCH;
+  }
+
+  int getNumStates() {
+    return _accepting.length;
+  }
+}
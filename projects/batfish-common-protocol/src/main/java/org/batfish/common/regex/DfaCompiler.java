@@ -0,0 +1,553 @@
+package org.batfish.common.regex;
+
+import static org.batfish.common.regex.Dfa.ALPHABET_SIZE;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Compiles a {@link java.util.regex.Pattern} regex to a {@link Dfa}, if it is in the subset of the
+ * syntax used by AS-path and community regexes: literals, {@code .}, character classes without
+ * nesting or intersection, the {@code \d \s \w} classes and their complements, groups,
+ * alternation, greedy or lazy quantifiers, and the {@code ^} and {@code $} anchors.
+ *
+ * <p>The regex is parsed to an AST, converted to an NFA whose anchors are zero-width transitions,
+ * and determinized with the subset construction. {@link java.util.regex.Matcher#find()} semantics
+ * are obtained by adding the NFA start state to every subset after the first.
+ */
+@ParametersAreNonnullByDefault
+final class DfaCompiler {
+
+  /** Thrown when a regex uses syntax outside the supported subset. */
+  private static final class UnsupportedRegexException extends Exception {
+    private static final long serialVersionUID = 1L;
+  }
+
+  /** Bound on the size of the NFA, which grows with counted repetitions */
+  private static final int MAX_NFA_STATES = 1 << 12;
+
+  /** Bound on the size of the DFA, which can be exponential in the size of the NFA */
+  private static final int MAX_DFA_STATES = 1 << 12;
+
+  /**
+   * Returns a {@link Dfa} equivalent to {@code regex}, or {@code null} if {@code regex} is not in
+   * the supported subset or its automaton would be too large. {@code regex} must be a valid {@link
+   * java.util.regex.Pattern}.
+   */
+  static @Nullable Dfa compile(String regex) {
+    try {
+      Node ast = new Parser(regex).parse();
+      Nfa nfa = new Nfa();
+      int accept = nfa.addState(Nfa.ACCEPT, null, null, -1);
+      return determinize(nfa, nfa.build(ast, accept), accept);
+    } catch (UnsupportedRegexException e) {
+      return null;
+    }
+  }
+
+  /* ------------------------------------------------------------------ AST */
+
+  private interface Node {}
+
+  private static final class CharsNode implements Node {
+    private final BitSet _chars;
+
+    private CharsNode(BitSet chars) {
+      _chars = chars;
+    }
+  }
+
+  private static final class AnchorNode implements Node {
+    private final boolean _start;
+
+    private AnchorNode(boolean start) {
+      _start = start;
+    }
+  }
+
+  private static final class ConcatNode implements Node {
+    private final List<Node> _children;
+
+    private ConcatNode(List<Node> children) {
+      _children = children;
+    }
+  }
+
+  private static final class AltNode implements Node {
+    private final List<Node> _children;
+
+    private AltNode(List<Node> children) {
+      _children = children;
+    }
+  }
+
+  private static final class RepeatNode implements Node {
+    private final Node _child;
+    private final int _min;
+    /** -1 if unbounded */
+    private final int _max;
+
+    private RepeatNode(Node child, int min, int max) {
+      _child = child;
+      _min = min;
+      _max = max;
+    }
+  }
+
+  /** Returns true if {@code node} can match without reading a character. */
+  private static boolean nullable(Node node) {
+    if (node instanceof CharsNode) {
+      return false;
+    } else if (node instanceof AnchorNode) {
+      return true;
+    } else if (node instanceof ConcatNode) {
+      return ((ConcatNode) node)._children.stream().allMatch(DfaCompiler::nullable);
+    } else if (node instanceof AltNode) {
+      return ((AltNode) node)._children.stream().anyMatch(DfaCompiler::nullable);
+    } else {
+      RepeatNode repeat = (RepeatNode) node;
+      return repeat._min == 0 || nullable(repeat._child);
+    }
+  }
+
+  /* --------------------------------------------------------------- Parser */
+
+  private static final class Parser {
+    private final String _regex;
+    private int _pos;
+
+    private Parser(String regex) {
+      _regex = regex;
+    }
+
+    private Node parse() throws UnsupportedRegexException {
+      Node node = parseAlt();
+      if (_pos != _regex.length()) {
+        throw new UnsupportedRegexException();
+      }
+      return node;
+    }
+
+    private boolean atEnd() {
+      return _pos == _regex.length();
+    }
+
+    private char peek() {
+      return _regex.charAt(_pos);
+    }
+
+    private char next() throws UnsupportedRegexException {
+      if (atEnd()) {
+        throw new UnsupportedRegexException();
+      }
+      return _regex.charAt(_pos++);
+    }
+
+    private Node parseAlt() throws UnsupportedRegexException {
+      List<Node> alternatives = new ArrayList<>();
+      alternatives.add(parseConcat());
+      while (!atEnd() && peek() == '|') {
+        _pos++;
+        alternatives.add(parseConcat());
+      }
+      return alternatives.size() == 1 ? alternatives.get(0) : new AltNode(alternatives);
+    }
+
+    private Node parseConcat() throws UnsupportedRegexException {
+      List<Node> children = new ArrayList<>();
+      while (!atEnd() && peek() != '|' && peek() != ')') {
+        children.add(parseRepeat());
+      }
+      return children.size() == 1 ? children.get(0) : new ConcatNode(children);
+    }
+
+    private Node parseRepeat() throws UnsupportedRegexException {
+      Node atom = parseAtom();
+      if (atEnd()) {
+        return atom;
+      }
+      Node repeat;
+      switch (peek()) {
+        case '*':
+          _pos++;
+          repeat = new RepeatNode(atom, 0, -1);
+          break;
+        case '+':
+          _pos++;
+          repeat = new RepeatNode(atom, 1, -1);
+          break;
+        case '?':
+          _pos++;
+          repeat = new RepeatNode(atom, 0, 1);
+          break;
+        case '{':
+          _pos++;
+          repeat = parseCount(atom);
+          break;
+        default:
+          return atom;
+      }
+      if (!atEnd() && peek() == '?') {
+        // lazy quantifiers find the same strings
+        _pos++;
+      }
+      if (!atEnd() && "*+?{".indexOf(peek()) >= 0) {
+        // possessive or stacked quantifiers
+        throw new UnsupportedRegexException();
+      }
+      if (nullable(atom)) {
+        // Pattern stops repeating after an iteration that matches the empty string, which
+        // the automaton does not model
+        throw new UnsupportedRegexException();
+      }
+      return repeat;
+    }
+
+    /** Parses the rest of a {@code {n}}, {@code {n,}} or {@code {n,m}} quantifier. */
+    private Node parseCount(Node atom) throws UnsupportedRegexException {
+      int min = parseInt();
+      int max;
+      char c = next();
+      if (c == '}') {
+        max = min;
+      } else if (c == ',') {
+        max = !atEnd() && peek() == '}' ? -1 : parseInt();
+        if (next() != '}') {
+          throw new UnsupportedRegexException();
+        }
+      } else {
+        throw new UnsupportedRegexException();
+      }
+      if (max != -1 && max < min) {
+        throw new UnsupportedRegexException();
+      }
+      return new RepeatNode(atom, min, max);
+    }
+
+    private int parseInt() throws UnsupportedRegexException {
+      int start = _pos;
+      while (!atEnd() && Character.isDigit(peek()) && _pos - start < 4) {
+        _pos++;
+      }
+      if (start == _pos || (!atEnd() && Character.isDigit(peek()))) {
+        throw new UnsupportedRegexException();
+      }
+      return Integer.parseInt(_regex.substring(start, _pos));
+    }
+
+    private Node parseAtom() throws UnsupportedRegexException {
+      char c = next();
+      switch (c) {
+        case '(':
+          if (!atEnd() && peek() == '?') {
+            _pos++;
+            if (next() != ':') {
+              // lookaround, named groups, flags, etc.
+              throw new UnsupportedRegexException();
+            }
+          }
+          Node group = parseAlt();
+          if (next() != ')') {
+            throw new UnsupportedRegexException();
+          }
+          return group;
+        case '[':
+          return new CharsNode(parseClass());
+        case '.':
+          return new CharsNode(dot());
+        case '^':
+          return new AnchorNode(true);
+        case '$':
+          return new AnchorNode(false);
+        case '\\':
+          return new CharsNode(parseEscape());
+        case '*':
+        case '+':
+        case '?':
+        case '{':
+          throw new UnsupportedRegexException();
+        default:
+          return new CharsNode(literal(c));
+      }
+    }
+
+    /** Parses the rest of an escape sequence, after the backslash. */
+    private BitSet parseEscape() throws UnsupportedRegexException {
+      char c = next();
+      BitSet predefined = predefinedClass(c);
+      if (predefined != null) {
+        return predefined;
+      }
+      if (Character.isLetterOrDigit(c)) {
+        // word boundaries, quoting, control and hex escapes, back-references, etc.
+        throw new UnsupportedRegexException();
+      }
+      return literal(c);
+    }
+
+    /** Parses the rest of a character class, after the opening bracket. */
+    private BitSet parseClass() throws UnsupportedRegexException {
+      boolean negate = false;
+      if (!atEnd() && peek() == '^') {
+        _pos++;
+        negate = true;
+      }
+      if (!atEnd() && peek() == ']') {
+        throw new UnsupportedRegexException();
+      }
+      BitSet chars = new BitSet(ALPHABET_SIZE);
+      boolean first = true;
+      while (true) {
+        char c = next();
+        if (c == ']') {
+          break;
+        }
+        if (c == '[' || (c == '&' && !atEnd() && peek() == '&')) {
+          // unions and intersections
+          throw new UnsupportedRegexException();
+        }
+        if (c == '-' && !first && !atEnd() && peek() != ']') {
+          // a hyphen that is neither first nor last, e.g. [a-b-c]
+          throw new UnsupportedRegexException();
+        }
+        first = false;
+        char low;
+        if (c == '\\') {
+          char escaped = next();
+          BitSet predefined = predefinedClass(escaped);
+          if (predefined != null) {
+            chars.or(predefined);
+            continue;
+          }
+          if (Character.isLetterOrDigit(escaped)) {
+            throw new UnsupportedRegexException();
+          }
+          low = escaped;
+        } else {
+          low = c;
+        }
+        char high = low;
+        if (_pos + 1 < _regex.length() && peek() == '-' && _regex.charAt(_pos + 1) != ']') {
+          _pos++;
+          high = next();
+          if (high == '[') {
+            throw new UnsupportedRegexException();
+          }
+          if (high == '\\') {
+            high = next();
+            if (Character.isLetterOrDigit(high)) {
+              throw new UnsupportedRegexException();
+            }
+          }
+        }
+        if (low >= ALPHABET_SIZE || high >= ALPHABET_SIZE || high < low) {
+          throw new UnsupportedRegexException();
+        }
+        chars.set(low, high + 1);
+      }
+      if (negate) {
+        chars.flip(0, ALPHABET_SIZE);
+      }
+      return chars;
+    }
+
+    private static BitSet literal(char c) throws UnsupportedRegexException {
+      if (c >= ALPHABET_SIZE) {
+        throw new UnsupportedRegexException();
+      }
+      BitSet chars = new BitSet(ALPHABET_SIZE);
+      chars.set(c);
+      return chars;
+    }
+
+    private static BitSet dot() {
+      BitSet chars = new BitSet(ALPHABET_SIZE);
+      chars.set(0, ALPHABET_SIZE);
+      chars.clear('\n');
+      chars.clear('\r');
+      return chars;
+    }
+
+    /** Returns the set for {@code \c} if {@code c} names a predefined class, else null. */
+    private static @Nullable BitSet predefinedClass(char c) {
+      BitSet chars = new BitSet(ALPHABET_SIZE);
+      switch (Character.toLowerCase(c)) {
+        case 'd':
+          chars.set('0', '9' + 1);
+          break;
+        case 's':
+          chars.set(' ');
+          chars.set('\t', '\r' + 1); // tab, line feed, vertical tab, form feed, carriage return
+          break;
+        case 'w':
+          chars.set('0', '9' + 1);
+          chars.set('a', 'z' + 1);
+          chars.set('A', 'Z' + 1);
+          chars.set('_');
+          break;
+        default:
+          return null;
+      }
+      if (Character.isUpperCase(c)) {
+        chars.flip(0, ALPHABET_SIZE);
+      }
+      return chars;
+    }
+  }
+
+  /* ------------------------------------------------------------------ NFA */
+
+  /** A Thompson NFA. Each state is either a split, a character set, an anchor, or accepting. */
+  private static final class Nfa {
+    private static final int ACCEPT = 0;
+    private static final int CHARS = 1;
+    private static final int SPLIT = 2;
+    private static final int START_ANCHOR = 3;
+    private static final int END_ANCHOR = 4;
+
+    private final List<Integer> _types = new ArrayList<>();
+    private final List<BitSet> _chars = new ArrayList<>();
+    private final List<int[]> _successors = new ArrayList<>();
+
+    private int addState(int type, @Nullable BitSet chars, @Nullable int[] successors, int next)
+        throws UnsupportedRegexException {
+      if (_types.size() == MAX_NFA_STATES) {
+        throw new UnsupportedRegexException();
+      }
+      _types.add(type);
+      _chars.add(chars);
+      _successors.add(successors != null ? successors : next == -1 ? new int[0] : new int[] {next});
+      return _types.size() - 1;
+    }
+
+    private int size() {
+      return _types.size();
+    }
+
+    /** Adds states matching {@code node} and then continuing to {@code next}; returns the start. */
+    private int build(Node node, int next) throws UnsupportedRegexException {
+      if (node instanceof CharsNode) {
+        return addState(CHARS, ((CharsNode) node)._chars, null, next);
+      } else if (node instanceof AnchorNode) {
+        return addState(((AnchorNode) node)._start ? START_ANCHOR : END_ANCHOR, null, null, next);
+      } else if (node instanceof ConcatNode) {
+        List<Node> children = ((ConcatNode) node)._children;
+        int start = next;
+        for (Node child : ImmutableList.copyOf(children).reverse()) {
+          start = build(child, start);
+        }
+        return start;
+      } else if (node instanceof AltNode) {
+        List<Integer> starts = new ArrayList<>();
+        for (Node child : ((AltNode) node)._children) {
+          starts.add(build(child, next));
+        }
+        return addState(SPLIT, null, Ints.toArray(starts), -1);
+      } else {
+        RepeatNode repeat = (RepeatNode) node;
+        int start = next;
+        if (repeat._max == -1) {
+          int loop = addState(SPLIT, null, null, -1);
+          _successors.set(loop, new int[] {build(repeat._child, loop), next});
+          start = loop;
+        } else {
+          for (int i = repeat._min; i < repeat._max; i++) {
+            start = addState(SPLIT, null, new int[] {build(repeat._child, start), start}, -1);
+          }
+        }
+        for (int i = 0; i < repeat._min; i++) {
+          start = build(repeat._child, start);
+        }
+        return start;
+      }
+    }
+
+    /**
+     * Adds to {@code states} all states reachable from them without reading a character.
+     * Anchors are only crossed when allowed.
+     */
+    private BitSet closure(BitSet states, boolean atStart, boolean atEnd) {
+      BitSet closure = new BitSet(size());
+      Deque<Integer> worklist = new ArrayDeque<>();
+      states.stream().forEach(worklist::push);
+      while (!worklist.isEmpty()) {
+        int state = worklist.pop();
+        if (closure.get(state)) {
+          continue;
+        }
+        closure.set(state);
+        int type = _types.get(state);
+        if (type == SPLIT || (type == START_ANCHOR && atStart) || (type == END_ANCHOR && atEnd)) {
+          for (int successor : _successors.get(state)) {
+            worklist.push(successor);
+          }
+        }
+      }
+      return closure;
+    }
+  }
+
+  /* --------------------------------------------------------- Determinize */
+
+  private static Dfa determinize(Nfa nfa, int nfaStart, int nfaAccept)
+      throws UnsupportedRegexException {
+    BitSet seed = new BitSet(nfa.size());
+    seed.set(nfaStart);
+
+    List<BitSet> dfaStates = new ArrayList<>();
+    Map<BitSet, Integer> dfaStateIds = new HashMap<>();
+    // the initial state is at the start of the input, so it is kept apart from the others
+    dfaStates.add(nfa.closure(seed, true, false));
+
+    List<int[]> transitions = new ArrayList<>();
+    for (int dfaState = 0; dfaState < dfaStates.size(); dfaState++) {
+      BitSet nfaStates = dfaStates.get(dfaState);
+      int[] successors = new int[ALPHABET_SIZE];
+      for (int c = 0; c < ALPHABET_SIZE; c++) {
+        BitSet next = new BitSet(nfa.size());
+        next.set(nfaStart);
+        for (int s = nfaStates.nextSetBit(0); s >= 0; s = nfaStates.nextSetBit(s + 1)) {
+          if (nfa._types.get(s) == Nfa.CHARS && nfa._chars.get(s).get(c)) {
+            next.set(nfa._successors.get(s)[0]);
+          }
+        }
+        BitSet closure = nfa.closure(next, false, false);
+        Integer id = dfaStateIds.get(closure);
+        if (id == null) {
+          if (dfaStates.size() == MAX_DFA_STATES) {
+            throw new UnsupportedRegexException();
+          }
+          id = dfaStates.size();
+          dfaStates.add(closure);
+          dfaStateIds.put(closure, id);
+        }
+        successors[c] = id;
+      }
+      transitions.add(successors);
+    }
+
+    int numStates = dfaStates.size();
+    boolean[] accepting = new boolean[numStates];
+    boolean[] acceptingAtEnd = new boolean[numStates];
+    int[] table = new int[numStates * ALPHABET_SIZE];
+    for (int dfaState = 0; dfaState < numStates; dfaState++) {
+      BitSet nfaStates = dfaStates.get(dfaState);
+      accepting[dfaState] = nfaStates.get(nfaAccept);
+      boolean atStart = dfaState == Dfa.INITIAL_STATE;
+      acceptingAtEnd[dfaState] =
+          nfa.closure(atStart ? seed : nfaStates, atStart, true).get(nfaAccept);
+      System.arraycopy(
+          transitions.get(dfaState), 0, table, dfaState * ALPHABET_SIZE, ALPHABET_SIZE);
+    }
+    return new Dfa(accepting, acceptingAtEnd, table);
+  }
+}
@@ -0,0 +1,68 @@
+package org.batfish.common.regex;
+
+import java.io.Serializable;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A compiled regex, shared by all users of the same regex string. Obtain instances from {@link
+ * RegexMatchers#matcher(String)}.
+ *
+ * <p>Regexes in the subset supported by {@link DfaCompiler} are matched with a {@link Dfa}, which
+ * does not backtrack. All others, and inputs the {@link Dfa} does not support, are matched with a
+ * {@link Pattern}.
+ */
+@ParametersAreNonnullByDefault
+public final class RegexMatcher implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final @Nullable transient Dfa _dfa;
+
+  private final transient Pattern _pattern;
+
+  private final String _regex;
+
+  RegexMatcher(String regex, Pattern pattern, @Nullable Dfa dfa) {
+    _regex = regex;
+    _pattern = pattern;
+    _dfa = dfa;
+  }
+
+  /**
+   * Returns true if the regex matches some substring of {@code input}; i.e., the same as {@code
+   * Pattern.compile(getRegex()).matcher(input).find()}.
+   */
+  public boolean find(CharSequence input) {
+    if (_dfa != null) {
+      int result = _dfa.find(input);
+      if (result != Dfa.UNSUPPORTED_INPUT) {
+        RegexMatchers.recordDfaMatch();
+        return result == Dfa.MATCH;
+      }
+    }
+    RegexMatchers.recordPatternMatch();
+    return _pattern.matcher(input).find();
+  }
+
+  public @Nonnull String getRegex() {
+    return _regex;
+  }
+
+  /** Returns true if this regex is matched without backtracking. */
+  public boolean isDfa() {
+    return _dfa != null;
+  }
+
+  /** Deserialize to the shared instance for the same regex. */
+  private Object readResolve() {
+    return RegexMatchers.matcher(_regex);
+  }
+
+  @Override
+  public String toString() {
+    return _regex;
+  }
+}
@@ -0,0 +1,200 @@
+package org.batfish.common.regex;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Compiles and interns {@link RegexMatcher RegexMatchers}, so that each distinct regex in the
+ * network (e.g. in AS-path access lists and community lists) is compiled once, and keeps counters
+ * of regex compilation and matching.
+ */
+@ParametersAreNonnullByDefault
+public final class RegexMatchers {
+
+  /** Counters of regex compilation and matching, as returned by {@link #getStats()}. */
+  public static final class Stats {
+    private final long _internHits;
+    private final long _internMisses;
+    private final long _dfaCompiled;
+    private final long _patternCompiled;
+    private final long _dfaMatches;
+    private final long _patternMatches;
+    private final long _resultCacheHits;
+    private final long _resultCacheMisses;
+
+    private Stats(
+        long internHits,
+        long internMisses,
+        long dfaCompiled,
+        long patternCompiled,
+        long dfaMatches,
+        long patternMatches,
+        long resultCacheHits,
+        long resultCacheMisses) {
+      _internHits = internHits;
+      _internMisses = internMisses;
+      _dfaCompiled = dfaCompiled;
+      _patternCompiled = patternCompiled;
+      _dfaMatches = dfaMatches;
+      _patternMatches = patternMatches;
+      _resultCacheHits = resultCacheHits;
+      _resultCacheMisses = resultCacheMisses;
+    }
+
+    /** Lookups of an already-compiled regex */
+    public long getInternHits() {
+      return _internHits;
+    }
+
+    /** Lookups that compiled a regex */
+    public long getInternMisses() {
+      return _internMisses;
+    }
+
+    /** Regexes compiled to a {@link Dfa} */
+    public long getDfaCompiled() {
+      return _dfaCompiled;
+    }
+
+    /** Regexes that could only be compiled to a {@link Pattern} */
+    public long getPatternCompiled() {
+      return _patternCompiled;
+    }
+
+    /** Inputs matched by a {@link Dfa} */
+    public long getDfaMatches() {
+      return _dfaMatches;
+    }
+
+    /** Inputs matched by a {@link Pattern} */
+    public long getPatternMatches() {
+      return _patternMatches;
+    }
+
+    /** Match results found in the cache of a regex-based filter, e.g. an AS-path access list */
+    public long getResultCacheHits() {
+      return _resultCacheHits;
+    }
+
+    /** Match results that were not found in the cache of a regex-based filter */
+    public long getResultCacheMisses() {
+      return _resultCacheMisses;
+    }
+
+    /** Returns the counts since {@code earlier}, an earlier result of {@link #getStats()}. */
+    public @Nonnull Stats since(Stats earlier) {
+      return new Stats(
+          _internHits - earlier._internHits,
+          _internMisses - earlier._internMisses,
+          _dfaCompiled - earlier._dfaCompiled,
+          _patternCompiled - earlier._patternCompiled,
+          _dfaMatches - earlier._dfaMatches,
+          _patternMatches - earlier._patternMatches,
+          _resultCacheHits - earlier._resultCacheHits,
+          _resultCacheMisses - earlier._resultCacheMisses);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(Stats.class)
+          .add("internHits", _internHits)
+          .add("internMisses", _internMisses)
+          .add("dfaCompiled", _dfaCompiled)
+          .add("patternCompiled", _patternCompiled)
+          .add("dfaMatches", _dfaMatches)
+          .add("patternMatches", _patternMatches)
+          .add("resultCacheHits", _resultCacheHits)
+          .add("resultCacheMisses", _resultCacheMisses)
+          .toString();
+    }
+  }
+
+  /** Bound on the number of interned regexes; well above the number in any network. */
+  private static final int MAX_CACHED_REGEXES = 1 << 16;
+
+  private static final LoadingCache<String, RegexMatcher> MATCHERS =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_REGEXES)
+          .recordStats()
+          .build(CacheLoader.from(RegexMatchers::compile));
+
+  private static final LongAdder DFA_COMPILED = new LongAdder();
+  private static final LongAdder PATTERN_COMPILED = new LongAdder();
+  private static final LongAdder DFA_MATCHES = new LongAdder();
+  private static final LongAdder PATTERN_MATCHES = new LongAdder();
+  private static final LongAdder RESULT_CACHE_HITS = new LongAdder();
+  private static final LongAdder RESULT_CACHE_MISSES = new LongAdder();
+
+  private RegexMatchers() {}
+
+  /**
+   * Returns the shared {@link RegexMatcher} for {@code regex}.
+   *
+   * @throws PatternSyntaxException if {@code regex} is not a valid {@link Pattern}.
+   */
+  public static @Nonnull RegexMatcher matcher(String regex) {
+    try {
+      return MATCHERS.getUnchecked(regex);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  private static RegexMatcher compile(String regex) {
+    // compile the Pattern even when there is a Dfa, so invalid regexes are always rejected
+    Pattern pattern = Pattern.compile(regex);
+    Dfa dfa = DfaCompiler.compile(regex);
+    if (dfa != null) {
+      DFA_COMPILED.increment();
+    } else {
+      PATTERN_COMPILED.increment();
+    }
+    return new RegexMatcher(regex, pattern, dfa);
+  }
+
+  static void recordDfaMatch() {
+    DFA_MATCHES.increment();
+  }
+
+  static void recordPatternMatch() {
+    PATTERN_MATCHES.increment();
+  }
+
+  /** Records a hit in the cache of match results of a regex-based filter. */
+  public static void recordResultCacheHit() {
+    RESULT_CACHE_HITS.increment();
+  }
+
+  /** Records a miss in the cache of match results of a regex-based filter. */
+  public static void recordResultCacheMiss() {
+    RESULT_CACHE_MISSES.increment();
+  }
+
+  /**
+   * Returns the counters accumulated since the JVM started. Use {@link Stats#since(Stats)} to get
+   * the counts for a single computation.
+   */
+  public static @Nonnull Stats getStats() {
+    CacheStats cacheStats = MATCHERS.stats();
+    return new Stats(
+        cacheStats.hitCount(),
+        cacheStats.missCount(),
+        DFA_COMPILED.sum(),
+        PATTERN_COMPILED.sum(),
+        DFA_MATCHES.sum(),
+        PATTERN_MATCHES.sum(),
+        RESULT_CACHE_HITS.sum(),
+        RESULT_CACHE_MISSES.sum());
+  }
+}
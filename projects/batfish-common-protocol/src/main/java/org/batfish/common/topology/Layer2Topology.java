@@ -1,5 +1,6 @@
 package org.batfish.common.topology;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Iterator;
@@ -22,9 +23,26 @@ public final class Layer2Topology {
   }
 
   public static @Nonnull Layer2Topology fromDomains(Collection<Set<Layer2Node>> domains) {
+    return fromEdgesAndDomains(ImmutableSet.of(), domains);
+  }
+
+  public static @Nonnull Layer2Topology fromEdges(Set<Layer2Edge> edges) {
+    return fromEdgesAndDomains(edges, ImmutableList.of());
+  }
+
+  /**
+   * Create a topology in which the two nodes of each of the {@code edges}, and all the nodes of
+   * each of the {@code domains}, are in the same broadcast domain.
+   */
+  public static @Nonnull Layer2Topology fromEdgesAndDomains(
+      Set<Layer2Edge> edges, Collection<? extends Collection<Layer2Node>> domains) {
     UnionFind<Layer2Node> unionFind =
         new UnionFind<>(
-            domains.stream().flatMap(Set::stream).collect(ImmutableSet.toImmutableSet()));
+            Stream.concat(
+                    edges.stream().flatMap(e -> Stream.of(e.getNode1(), e.getNode2())),
+                    domains.stream().flatMap(Collection::stream))
+                .collect(ImmutableSet.toImmutableSet()));
+    edges.forEach(e -> unionFind.union(e.getNode1(), e.getNode2()));
     domains.forEach(
         domain -> {
           if (domain.isEmpty()) {
@@ -39,16 +57,6 @@ public final class Layer2Topology {
     return new Layer2Topology(unionFind);
   }
 
-  public static @Nonnull Layer2Topology fromEdges(Set<Layer2Edge> edges) {
-    UnionFind<Layer2Node> unionFind =
-        new UnionFind<>(
-            edges.stream()
-                .flatMap(e -> Stream.of(e.getNode1(), e.getNode2()))
-                .collect(ImmutableSet.toImmutableSet()));
-    edges.forEach(e -> unionFind.union(e.getNode1(), e.getNode2()));
-    return new Layer2Topology(unionFind);
-  }
-
   /**
    * Return the representative of the broadcast domain of {@code layer2Node}, or {@link
    * Optional#empty} if not represented in the layer-2 topology.
@@ -9,6 +9,7 @@ import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Sets;
 import io.opentracing.ActiveSpan;
 import io.opentracing.util.GlobalTracer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -63,17 +64,17 @@ public final class TopologyUtil {
     if (i1.getSwitchportMode() == SwitchportMode.TRUNK
         && i2.getSwitchportMode() == SwitchportMode.TRUNK) {
       // Both sides are trunks, so add edges from n1,v to n2,v for all shared VLANs.
-      i1.getAllowedVlans().stream()
-          .forEach(
-              vlan -> {
-                if (Objects.equals(i1.getNativeVlan(), vlan) && trunkWithNativeVlanAllowed(i2)) {
-                  // This frame will not be tagged by i1, and i2 accepts untagged frames.
-                  edges.add(new Layer2Edge(node1, vlan, node2, vlan, null /* untagged */));
-                } else if (i2.getAllowedVlans().contains(vlan)) {
-                  // This frame will be tagged by i1 and we can directly check whether i2 allows.
-                  edges.add(new Layer2Edge(node1, vlan, node2, vlan, vlan));
-                }
-              });
+      Integer i1NativeVlan = i1.getNativeVlan();
+      boolean untaggedNative = trunkWithNativeVlanAllowed(i1) && trunkWithNativeVlanAllowed(i2);
+      if (untaggedNative) {
+        // Frames on i1's native VLAN will not be tagged by i1, and i2 accepts untagged frames.
+        edges.add(new Layer2Edge(node1, i1NativeVlan, node2, i1NativeVlan, null /* untagged */));
+      }
+      // Other frames will be tagged by i1, so i2 must allow their VLAN. Intersect the allowed
+      // ranges rather than checking each VLAN of i1 against i2.
+      i1.getAllowedVlans().intersection(i2.getAllowedVlans()).stream()
+          .filter(vlan -> !(untaggedNative && vlan.equals(i1NativeVlan)))
+          .forEach(vlan -> edges.add(new Layer2Edge(node1, vlan, node2, vlan, vlan)));
     } else if (i1Tag != null) {
       // i1 is a tagged layer-3 interface, and the other side is a trunk. The only possible edge is
       // i2 receiving frames for a non-native allowed vlan.
@@ -181,11 +182,18 @@ public final class TopologyUtil {
     edges.add(new Layer2Edge(node1, null, node2, null, i1Tag));
   }
 
+  /**
+   * Compute the groups of layer-2 nodes of {@code config} that the device switches between: for
+   * each VLAN, its switchports carrying the VLAN along with any IRB interface of the VLAN. Only
+   * groups of at least two nodes are returned.
+   *
+   * <p>The nodes of a group are not connected by edges, since a device with many trunks would need
+   * an edge for each pair of its switchports on each VLAN they share.
+   */
   @VisibleForTesting
-  static void computeLayer2SelfEdges(
-      @Nonnull Configuration config, @Nonnull ImmutableSet.Builder<Layer2Edge> edges) {
+  static @Nonnull List<List<Layer2Node>> computeLayer2SelfDomains(@Nonnull Configuration config) {
     String hostname = config.getHostname();
-    Map<Integer, ImmutableList.Builder<String>> switchportsByVlanBuilder = new HashMap<>();
+    Map<Integer, List<Layer2Node>> nodesByVlan = new HashMap<>();
     config.getAllInterfaces().values().stream()
         .filter(Interface::getActive)
         .forEach(
@@ -194,52 +202,30 @@ public final class TopologyUtil {
                 i.getAllowedVlans().stream()
                     .forEach(
                         vlan ->
-                            switchportsByVlanBuilder
-                                .computeIfAbsent(vlan, n -> ImmutableList.builder())
-                                .add(i.getName()));
+                            nodesByVlan
+                                .computeIfAbsent(vlan, n -> new ArrayList<>())
+                                .add(new Layer2Node(hostname, i.getName(), vlan)));
               } else if (i.getSwitchportMode() == SwitchportMode.ACCESS
                   && i.getAccessVlan() != null) {
-                switchportsByVlanBuilder
-                    .computeIfAbsent(i.getAccessVlan(), n -> ImmutableList.builder())
-                    .add(i.getName());
+                nodesByVlan
+                    .computeIfAbsent(i.getAccessVlan(), n -> new ArrayList<>())
+                    .add(new Layer2Node(hostname, i.getName(), i.getAccessVlan()));
               }
             });
-    Map<Integer, List<String>> switchportsByVlan =
-        CommonUtil.toImmutableMap(
-            switchportsByVlanBuilder, Entry::getKey, e -> e.getValue().build());
-    switchportsByVlan.forEach(
-        (vlanId, interfaceNames) -> {
-          CommonUtil.forEachWithIndex(
-              interfaceNames,
-              (i, i1Name) -> {
-                for (int j = i + 1; j < interfaceNames.size(); j++) {
-                  String i2Name = interfaceNames.get(j);
-                  edges.add(
-                      new Layer2Edge(hostname, i1Name, vlanId, hostname, i2Name, vlanId, null));
-                  edges.add(
-                      new Layer2Edge(hostname, i2Name, vlanId, hostname, i1Name, vlanId, null));
-                }
-              });
-        });
+    // An IRB interface is only connected to the switchports of its VLAN, if there are any.
     config.getAllInterfaces().values().stream()
         .filter(Interface::getActive)
         .filter(i -> i.getInterfaceType() == InterfaceType.VLAN && i.getVlan() != null)
         .forEach(
             irbInterface -> {
-              String irbName = irbInterface.getName();
-              int vlanId = irbInterface.getVlan();
-              switchportsByVlan
-                  .getOrDefault(vlanId, ImmutableList.of())
-                  .forEach(
-                      switchportName -> {
-                        edges.add(
-                            new Layer2Edge(
-                                hostname, irbName, null, hostname, switchportName, vlanId, null));
-                        edges.add(
-                            new Layer2Edge(
-                                hostname, switchportName, vlanId, hostname, irbName, null, null));
-                      });
+              List<Layer2Node> switchports = nodesByVlan.get(irbInterface.getVlan());
+              if (switchports != null) {
+                switchports.add(new Layer2Node(hostname, irbInterface.getName(), null));
+              }
             });
+    return nodesByVlan.values().stream()
+        .filter(nodes -> nodes.size() > 1)
+        .collect(ImmutableList.toImmutableList());
   }
 
   /**
@@ -263,10 +249,13 @@ public final class TopologyUtil {
                 computeLayer2EdgesForLayer1Edge(
                     layer1Edge, configurations, edges, parentChildrenMap));
 
-    // Then add edges within each node to connect switchports on the same VLAN(s).
-    configurations.values().forEach(c -> computeLayer2SelfEdges(c, edges));
+    // Then connect switchports on the same VLAN(s) within each node.
+    List<List<Layer2Node>> selfDomains =
+        configurations.values().stream()
+            .flatMap(c -> computeLayer2SelfDomains(c).stream())
+            .collect(ImmutableList.toImmutableList());
 
-    return Layer2Topology.fromEdges(edges.build());
+    return Layer2Topology.fromEdgesAndDomains(edges.build(), selfDomains);
   }
 
   private static Map<Layer1Node, Set<Layer1Node>> computeParentChildrenMap(
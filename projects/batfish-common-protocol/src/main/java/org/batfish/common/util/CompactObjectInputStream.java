@@ -0,0 +1,97 @@
+package org.batfish.common.util;
+
+import static org.batfish.common.util.CompactObjectOutputStream.FORMAT_VERSION;
+import static org.batfish.common.util.CompactObjectOutputStream.MAGIC_BYTES;
+import static org.batfish.common.util.CompactObjectOutputStream.TYPE_CLASS;
+import static org.batfish.common.util.CompactObjectOutputStream.TYPE_PRIMITIVE;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Map;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+
+/**
+ * Reads objects written by {@link CompactObjectOutputStream}.
+ *
+ * <p>Class descriptors are resolved against the local classes rather than parsed from the stream.
+ * Frequently repeated immutable value objects ({@link Ip}, {@link Prefix}) are interned through
+ * their respective caches as they are read, so that a deserialized data plane shares instances the
+ * same way a freshly computed one does.
+ */
+public class CompactObjectInputStream extends BatfishObjectInputStream {
+
+  private static final Map<String, Class<?>> PRIMITIVE_CLASSES =
+      ImmutableMap.<String, Class<?>>builder()
+          .put(boolean.class.getName(), boolean.class)
+          .put(byte.class.getName(), byte.class)
+          .put(char.class.getName(), char.class)
+          .put(double.class.getName(), double.class)
+          .put(float.class.getName(), float.class)
+          .put(int.class.getName(), int.class)
+          .put(long.class.getName(), long.class)
+          .put(short.class.getName(), short.class)
+          .put(void.class.getName(), void.class)
+          .build();
+
+  private final ClassLoader _loader;
+
+  public CompactObjectInputStream(InputStream in, ClassLoader loader) throws IOException {
+    super(in, loader);
+    _loader = loader;
+    enableResolveObject(true);
+  }
+
+  @Override
+  protected void readStreamHeader() throws IOException {
+    // Called from the superclass constructor before block-data mode is enabled, so this reads
+    // directly from the underlying stream.
+    byte[] magic = new byte[MAGIC_BYTES.length];
+    readFully(magic);
+    if (!Arrays.equals(magic, MAGIC_BYTES)) {
+      throw new StreamCorruptedException("Invalid compact stream header");
+    }
+    byte version = readByte();
+    if (version != FORMAT_VERSION) {
+      throw new StreamCorruptedException(
+          String.format(
+              "Unsupported compact format version %s (expected %s)", version, FORMAT_VERSION));
+    }
+  }
+
+  @Override
+  protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+    int type = read();
+    String name = readUTF();
+    Class<?> clazz;
+    switch (type) {
+      case TYPE_PRIMITIVE:
+        clazz = PRIMITIVE_CLASSES.get(name);
+        if (clazz == null) {
+          throw new StreamCorruptedException("Unknown primitive type: " + name);
+        }
+        break;
+      case TYPE_CLASS:
+        clazz = Class.forName(name, false, _loader);
+        break;
+      default:
+        throw new StreamCorruptedException("Unexpected class descriptor type: " + type);
+    }
+    return ObjectStreamClass.lookupAny(clazz);
+  }
+
+  @Override
+  protected Object resolveObject(Object obj) {
+    if (obj instanceof Ip) {
+      return Ip.create(((Ip) obj).asLong());
+    } else if (obj instanceof Prefix) {
+      Prefix prefix = (Prefix) obj;
+      return Prefix.create(prefix.getStartIp(), prefix.getPrefixLength());
+    }
+    return obj;
+  }
+}
@@ -0,0 +1,61 @@
+package org.batfish.common.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+/**
+ * An {@link ObjectOutputStream} producing Batfish's compact binary serialization format.
+ *
+ * <p>Standard Java serialization writes the full field layout, flags, and serialVersionUID of
+ * every class descriptor into the stream, and the reader must parse and reconcile each of them
+ * against the local class. Since serialized Batfish objects are only ever read back by a
+ * compatible version of Batfish (see {@link org.batfish.common.Version}), this stream instead
+ * writes only the name of each class and has {@link CompactObjectInputStream} look up the local
+ * descriptor directly. This yields smaller output and considerably faster deserialization of the
+ * large object graphs (configurations, data planes) that Batfish persists.
+ *
+ * <p>The stream begins with {@link #MAGIC_HEADER} in place of the Java serialization header: the
+ * {@link #MAGIC_BYTES} followed by the {@link #FORMAT_VERSION}.
+ */
+public class CompactObjectOutputStream extends ObjectOutputStream {
+
+  /** Version of the compact encoding. Increment on any incompatible change to the encoding. */
+  @VisibleForTesting static final byte FORMAT_VERSION = 1;
+
+  /** Bytes identifying a compact stream of any {@link #FORMAT_VERSION}. */
+  public static final byte[] MAGIC_BYTES = {(byte) 0xBF, (byte) 0x5E, (byte) 0x0C};
+
+  /** Header written at the beginning of every compact stream. */
+  public static final byte[] MAGIC_HEADER = {
+    MAGIC_BYTES[0], MAGIC_BYTES[1], MAGIC_BYTES[2], FORMAT_VERSION
+  };
+
+  static final int TYPE_PRIMITIVE = 0;
+
+  static final int TYPE_CLASS = 1;
+
+  public CompactObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+  }
+
+  @Override
+  protected void writeStreamHeader() throws IOException {
+    // Called from the superclass constructor before block-data mode is enabled, so this writes
+    // directly to the underlying stream.
+    write(MAGIC_HEADER);
+  }
+
+  @Override
+  protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+    Class<?> clazz = desc.forClass();
+    if (clazz.isPrimitive()) {
+      write(TYPE_PRIMITIVE);
+    } else {
+      write(TYPE_CLASS);
+    }
+    writeUTF(desc.getName());
+  }
+}
@@ -4,15 +4,14 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Ordering;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.apache.commons.lang3.StringUtils;
@@ -41,11 +40,10 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
 
   private final List<AsSet> _asSets;
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
-  //   (24 bytes seems smallest possible entry (list(set(long)), would be 1.5 MiB total).
-  private static final Cache<List<AsSet>, AsPath> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 16).build();
+  // Weak: an instance is shared for as long as anything refers to it, and then garbage collected.
+  // Unlike a bounded cache, every path in use has a single instance however many there are, as
+  // with full Internet tables.
+  private static final Interner<AsPath> INTERNER = Interners.newWeakInterner();
 
   private AsPath(ImmutableList<AsSet> asSets) {
     _asSets = asSets;
@@ -71,13 +69,7 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
     if (asSets.isEmpty()) {
       return empty();
     }
-    ImmutableList<AsSet> immutableValue = ImmutableList.copyOf(asSets);
-    try {
-      return CACHE.get(immutableValue, () -> new AsPath(immutableValue));
-    } catch (ExecutionException e) {
-      // This shouldn't happen, but handle anyway.
-      return new AsPath(immutableValue);
-    }
+    return INTERNER.intern(new AsPath(ImmutableList.copyOf(asSets)));
   }
 
   /**
@@ -130,6 +122,11 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
     return _asSets.size();
   }
 
+  /** Deserialize to the shared instance for the same path. */
+  private Object readResolve() {
+    return of(_asSets);
+  }
+
   @Override
   public String toString() {
     return _asSets.toString();
@@ -4,19 +4,17 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.regex.RegexMatchers;
 
 /** An AsPathAccessList is used to filter e/iBGP routes according to their AS-path attribute. */
 public final class AsPathAccessList implements Serializable {
@@ -27,13 +25,19 @@ public final class AsPathAccessList implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
-  private transient Set<AsPath> _deniedCache;
+  /** Bound on the number of AS-paths whose result is cached by each list */
+  private static final int MAX_CACHED_AS_PATHS = 1 << 16;
+
+  private static Cache<AsPath, Boolean> newPermitsCache() {
+    return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_AS_PATHS).build();
+  }
 
   @Nonnull private final List<AsPathAccessListLine> _lines;
 
   private final String _name;
 
-  private transient Set<AsPath> _permittedCache;
+  /** Whether each recently checked AS-path is permitted */
+  private transient Cache<AsPath, Boolean> _permitsCache;
 
   @JsonCreator
   public AsPathAccessList(
@@ -41,6 +45,7 @@ public final class AsPathAccessList implements Serializable {
       @Nullable @JsonProperty(PROP_LINES) List<AsPathAccessListLine> lines) {
     _lines = firstNonNull(lines, ImmutableList.of());
     _name = name;
+    _permitsCache = newPermitsCache();
   }
 
   @Override
@@ -73,38 +78,29 @@ public final class AsPathAccessList implements Serializable {
   }
 
   private boolean newPermits(AsPath asPath) {
-    boolean accept = false;
+    String asPathString = asPath.getAsPathString();
     for (AsPathAccessListLine line : _lines) {
-      String regex = line.getRegex();
-      Pattern p = Pattern.compile(regex);
-      String asPathString = asPath.getAsPathString();
-      Matcher matcher = p.matcher(asPathString);
-      boolean match = matcher.find();
-      if (match) {
-        accept = line.getAction() == LineAction.PERMIT;
-        break;
+      if (RegexMatchers.matcher(line.getRegex()).find(asPathString)) {
+        return line.getAction() == LineAction.PERMIT;
       }
     }
-    if (accept) {
-      _permittedCache.add(asPath);
-    } else {
-      _deniedCache.add(asPath);
-    }
-    return accept;
+    return false;
   }
 
   public boolean permits(AsPath asPath) {
-    if (_deniedCache.contains(asPath)) {
-      return false;
-    } else if (_permittedCache.contains(asPath)) {
-      return true;
+    Boolean cached = _permitsCache.getIfPresent(asPath);
+    if (cached != null) {
+      RegexMatchers.recordResultCacheHit();
+      return cached;
     }
-    return newPermits(asPath);
+    RegexMatchers.recordResultCacheMiss();
+    boolean permits = newPermits(asPath);
+    _permitsCache.put(asPath, permits);
+    return permits;
   }
 
   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
-    _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    _permitsCache = newPermitsCache();
   }
 }
@@ -8,7 +8,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Ordering;
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Set;
@@ -27,6 +30,156 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public final class BgpRoute extends AbstractRoute {
 
+  /**
+   * The path attributes of a {@link BgpRoute}. Routes with the same attributes share a single
+   * instance, since a router typically receives many prefixes with identical attributes from each
+   * neighbor.
+   */
+  @ParametersAreNonnullByDefault
+  private static final class Attributes implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static @Nonnull Attributes of(
+        @Nullable AsPath asPath,
+        @Nullable SortedSet<Long> clusterList,
+        @Nullable SortedSet<Long> communities,
+        boolean discard,
+        long localPreference,
+        long med,
+        Ip originatorIp,
+        OriginType originType,
+        RoutingProtocol protocol,
+        @Nullable Ip receivedFromIp,
+        boolean receivedFromRouteReflectorClient,
+        @Nullable RoutingProtocol srcProtocol,
+        int weight) {
+      return ATTRIBUTES.intern(
+          new Attributes(
+              firstNonNull(asPath, AsPath.empty()),
+              internLongs(clusterList),
+              internLongs(communities),
+              discard,
+              localPreference,
+              med,
+              originatorIp,
+              originType,
+              protocol,
+              receivedFromIp,
+              receivedFromRouteReflectorClient,
+              srcProtocol,
+              weight));
+    }
+
+    @Nonnull private final AsPath _asPath;
+    @Nonnull private final SortedSet<Long> _clusterList;
+    @Nonnull private final SortedSet<Long> _communities;
+    private final boolean _discard;
+    private final int _hashCode;
+    private final long _localPreference;
+    private final long _med;
+    @Nonnull private final Ip _originatorIp;
+    @Nonnull private final OriginType _originType;
+    @Nonnull private final RoutingProtocol _protocol;
+    @Nullable private final Ip _receivedFromIp;
+    private final boolean _receivedFromRouteReflectorClient;
+    @Nullable private final RoutingProtocol _srcProtocol;
+    /* NOTE: Cisco-only attribute */
+    private final int _weight;
+
+    private Attributes(
+        AsPath asPath,
+        SortedSet<Long> clusterList,
+        SortedSet<Long> communities,
+        boolean discard,
+        long localPreference,
+        long med,
+        Ip originatorIp,
+        OriginType originType,
+        RoutingProtocol protocol,
+        @Nullable Ip receivedFromIp,
+        boolean receivedFromRouteReflectorClient,
+        @Nullable RoutingProtocol srcProtocol,
+        int weight) {
+      _asPath = asPath;
+      _clusterList = clusterList;
+      _communities = communities;
+      _discard = discard;
+      _localPreference = localPreference;
+      _med = med;
+      _originatorIp = originatorIp;
+      _originType = originType;
+      _protocol = protocol;
+      _receivedFromIp = receivedFromIp;
+      _receivedFromRouteReflectorClient = receivedFromRouteReflectorClient;
+      _srcProtocol = srcProtocol;
+      _weight = weight;
+      _hashCode =
+          Objects.hash(
+              _asPath,
+              _clusterList,
+              _communities,
+              _discard,
+              _localPreference,
+              _med,
+              _originatorIp,
+              _originType.ordinal(),
+              _protocol.ordinal(),
+              _receivedFromIp,
+              _receivedFromRouteReflectorClient,
+              _srcProtocol == null ? 0 : _srcProtocol.ordinal(),
+              _weight);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Attributes)) {
+        return false;
+      }
+      Attributes other = (Attributes) o;
+      return _hashCode == other._hashCode
+          && _discard == other._discard
+          && _localPreference == other._localPreference
+          && _med == other._med
+          && _receivedFromRouteReflectorClient == other._receivedFromRouteReflectorClient
+          && _weight == other._weight
+          && _asPath.equals(other._asPath)
+          && _clusterList.equals(other._clusterList)
+          && _communities.equals(other._communities)
+          && _originatorIp.equals(other._originatorIp)
+          && _originType == other._originType
+          && _protocol == other._protocol
+          && Objects.equals(_receivedFromIp, other._receivedFromIp)
+          && _srcProtocol == other._srcProtocol;
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+
+    /** Deserialize to the shared instance for the same attributes. */
+    private Object readResolve() {
+      return of(
+          _asPath,
+          _clusterList,
+          _communities,
+          _discard,
+          _localPreference,
+          _med,
+          _originatorIp,
+          _originType,
+          _protocol,
+          _receivedFromIp,
+          _receivedFromRouteReflectorClient,
+          _srcProtocol,
+          _weight);
+    }
+  }
+
   /** Builder for {@link BgpRoute} */
   @ParametersAreNonnullByDefault
   public static final class Builder extends AbstractRouteBuilder<Builder, BgpRoute> {
@@ -262,24 +415,23 @@ public final class BgpRoute extends AbstractRoute {
           .thenComparing(BgpRoute::getSrcProtocol)
           .thenComparing(BgpRoute::getWeight);
 
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
+
+  // Weak: an instance is shared for as long as any route refers to it.
+  private static final Interner<Attributes> ATTRIBUTES = Interners.newWeakInterner();
+
+  /** Shared community sets and cluster lists */
+  private static final Interner<SortedSet<Long>> LONGS = Interners.newWeakInterner();
+
+  private static @Nonnull SortedSet<Long> internLongs(@Nullable SortedSet<Long> longs) {
+    return longs == null || longs.isEmpty()
+        ? ImmutableSortedSet.of()
+        : LONGS.intern(ImmutableSortedSet.copyOf(longs));
+  }
 
-  @Nonnull private final AsPath _asPath;
-  @Nonnull private final SortedSet<Long> _clusterList;
-  @Nonnull private final SortedSet<Long> _communities;
-  private final boolean _discard;
-  private final long _localPreference;
-  private final long _med;
+  @Nonnull private final Attributes _attributes;
   @Nonnull private final String _nextHopInterface;
   @Nonnull private final Ip _nextHopIp;
-  @Nonnull private final Ip _originatorIp;
-  @Nonnull private final OriginType _originType;
-  @Nonnull private final RoutingProtocol _protocol;
-  @Nullable private final Ip _receivedFromIp;
-  private final boolean _receivedFromRouteReflectorClient;
-  @Nullable private final RoutingProtocol _srcProtocol;
-  /* NOTE: Cisco-only attribute */
-  private final int _weight;
   /* Cache the hashcode */
   private transient volatile int _hashCode = 0;
 
@@ -354,23 +506,23 @@ public final class BgpRoute extends AbstractRoute {
             || protocol == RoutingProtocol.IBGP
             || protocol == RoutingProtocol.AGGREGATE,
         "Invalid BgpRoute protocol");
-    _asPath = firstNonNull(asPath, AsPath.empty());
-    _clusterList =
-        clusterList == null ? ImmutableSortedSet.of() : ImmutableSortedSet.copyOf(clusterList);
-    _communities =
-        communities == null ? ImmutableSortedSet.of() : ImmutableSortedSet.copyOf(communities);
-    _discard = discard;
-    _localPreference = localPreference;
-    _med = med;
+    _attributes =
+        Attributes.of(
+            asPath,
+            clusterList,
+            communities,
+            discard,
+            localPreference,
+            med,
+            originatorIp,
+            originType,
+            protocol,
+            receivedFromIp,
+            receivedFromRouteReflectorClient,
+            srcProtocol,
+            weight);
     _nextHopInterface = nextHopInterface;
     _nextHopIp = firstNonNull(nextHopIp, Route.UNSET_ROUTE_NEXT_HOP_IP);
-    _originatorIp = originatorIp;
-    _originType = originType;
-    _protocol = protocol;
-    _receivedFromIp = receivedFromIp;
-    _receivedFromRouteReflectorClient = receivedFromRouteReflectorClient;
-    _srcProtocol = srcProtocol;
-    _weight = weight;
   }
 
   public static Builder builder() {
@@ -390,21 +542,10 @@ public final class BgpRoute extends AbstractRoute {
         && _admin == other._admin
         && getNonRouting() == other.getNonRouting()
         && getNonForwarding() == other.getNonForwarding()
-        && _discard == other._discard
-        && _localPreference == other._localPreference
-        && _med == other._med
-        && _receivedFromRouteReflectorClient == other._receivedFromRouteReflectorClient
-        && _weight == other._weight
-        && Objects.equals(_asPath, other._asPath)
-        && Objects.equals(_clusterList, other._clusterList)
-        && Objects.equals(_communities, other._communities)
+        // shared, so usually compared by reference
+        && _attributes.equals(other._attributes)
         && _nextHopInterface.equals(other._nextHopInterface)
-        && Objects.equals(_nextHopIp, other._nextHopIp)
-        && Objects.equals(_originatorIp, other._originatorIp)
-        && _originType == other._originType
-        && _protocol == other._protocol
-        && Objects.equals(_receivedFromIp, other._receivedFromIp)
-        && _srcProtocol == other._srcProtocol;
+        && Objects.equals(_nextHopIp, other._nextHopIp);
   }
 
   @Override
@@ -413,60 +554,43 @@ public final class BgpRoute extends AbstractRoute {
       return _hashCode;
     }
     _hashCode =
-        Objects.hash(
-            _admin,
-            _asPath,
-            _clusterList,
-            _communities,
-            _discard,
-            _localPreference,
-            _med,
-            _network,
-            _nextHopInterface,
-            _nextHopIp,
-            _originatorIp,
-            _originType.ordinal(),
-            _protocol.ordinal(),
-            _receivedFromIp,
-            _receivedFromRouteReflectorClient,
-            _srcProtocol == null ? 0 : _srcProtocol.ordinal(),
-            _weight);
+        Objects.hash(_admin, _attributes, _network, _nextHopInterface, _nextHopIp);
     return _hashCode;
   }
 
   @Nonnull
   @JsonProperty(PROP_AS_PATH)
   public AsPath getAsPath() {
-    return _asPath;
+    return _attributes._asPath;
   }
 
   @Nonnull
   @JsonProperty(PROP_CLUSTER_LIST)
   public SortedSet<Long> getClusterList() {
-    return _clusterList;
+    return _attributes._clusterList;
   }
 
   @Nonnull
   @JsonProperty(PROP_COMMUNITIES)
   public SortedSet<Long> getCommunities() {
-    return _communities;
+    return _attributes._communities;
   }
 
   @JsonProperty(PROP_DISCARD)
   public boolean getDiscard() {
-    return _discard;
+    return _attributes._discard;
   }
 
   @JsonProperty(PROP_LOCAL_PREFERENCE)
   public long getLocalPreference() {
-    return _localPreference;
+    return _attributes._localPreference;
   }
 
   @JsonIgnore(false)
   @JsonProperty(PROP_METRIC)
   @Override
   public Long getMetric() {
-    return _med;
+    return _attributes._med;
   }
 
   @JsonIgnore(false)
@@ -488,13 +612,13 @@ public final class BgpRoute extends AbstractRoute {
   @Nonnull
   @JsonProperty(PROP_ORIGINATOR_IP)
   public Ip getOriginatorIp() {
-    return _originatorIp;
+    return _attributes._originatorIp;
   }
 
   @Nonnull
   @JsonProperty(PROP_ORIGIN_TYPE)
   public OriginType getOriginType() {
-    return _originType;
+    return _attributes._originType;
   }
 
   @Nonnull
@@ -502,24 +626,24 @@ public final class BgpRoute extends AbstractRoute {
   @JsonProperty(PROP_PROTOCOL)
   @Override
   public RoutingProtocol getProtocol() {
-    return _protocol;
+    return _attributes._protocol;
   }
 
   @Nullable
   @JsonProperty(PROP_RECEIVED_FROM_IP)
   public Ip getReceivedFromIp() {
-    return _receivedFromIp;
+    return _attributes._receivedFromIp;
   }
 
   @JsonProperty(PROP_RECEIVED_FROM_ROUTE_REFLECTOR_CLIENT)
   public boolean getReceivedFromRouteReflectorClient() {
-    return _receivedFromRouteReflectorClient;
+    return _attributes._receivedFromRouteReflectorClient;
   }
 
   @Nullable
   @JsonProperty(PROP_SRC_PROTOCOL)
   public RoutingProtocol getSrcProtocol() {
-    return _srcProtocol;
+    return _attributes._srcProtocol;
   }
 
   @Override
@@ -529,7 +653,7 @@ public final class BgpRoute extends AbstractRoute {
 
   @JsonProperty(PROP_WEIGHT)
   public int getWeight() {
-    return _weight;
+    return _attributes._weight;
   }
 
   @Override
@@ -547,20 +671,20 @@ public final class BgpRoute extends AbstractRoute {
         .setAdmin(getAdministrativeCost())
         .setNonRouting(getNonRouting())
         .setNonForwarding(getNonForwarding())
-        .setAsPath(_asPath)
-        .setClusterList(_clusterList)
-        .setCommunities(_communities)
-        .setDiscard(_discard)
-        .setLocalPreference(_localPreference)
-        .setMetric(_med)
+        .setAsPath(_attributes._asPath)
+        .setClusterList(_attributes._clusterList)
+        .setCommunities(_attributes._communities)
+        .setDiscard(_attributes._discard)
+        .setLocalPreference(_attributes._localPreference)
+        .setMetric(_attributes._med)
         .setNextHopInterface(_nextHopInterface)
         .setNextHopIp(_nextHopIp)
-        .setOriginatorIp(_originatorIp)
-        .setOriginType(_originType)
-        .setProtocol(_protocol)
-        .setReceivedFromIp(_receivedFromIp)
-        .setReceivedFromRouteReflectorClient(_receivedFromRouteReflectorClient)
-        .setSrcProtocol(_srcProtocol)
-        .setWeight(_weight);
+        .setOriginatorIp(_attributes._originatorIp)
+        .setOriginType(_attributes._originType)
+        .setProtocol(_attributes._protocol)
+        .setReceivedFromIp(_attributes._receivedFromIp)
+        .setReceivedFromRouteReflectorClient(_attributes._receivedFromRouteReflectorClient)
+        .setSrcProtocol(_attributes._srcProtocol)
+        .setWeight(_attributes._weight);
   }
 }
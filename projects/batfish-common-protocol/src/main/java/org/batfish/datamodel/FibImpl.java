@@ -9,10 +9,13 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.Stack;
@@ -75,6 +78,57 @@ public final class FibImpl implements Fib {
     }
   }
 
+  /** Identifies the resolution of a next-hop IP from a given depth and maximum prefix length */
+  private static final class NextHopResolutionKey {
+    private final int _depth;
+    private final int _maxPrefixLength;
+    private final @Nonnull Ip _nextHopIp;
+
+    private NextHopResolutionKey(Ip nextHopIp, int depth, int maxPrefixLength) {
+      _depth = depth;
+      _maxPrefixLength = maxPrefixLength;
+      _nextHopIp = nextHopIp;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof NextHopResolutionKey)) {
+        return false;
+      }
+      NextHopResolutionKey rhs = (NextHopResolutionKey) o;
+      return _depth == rhs._depth
+          && _maxPrefixLength == rhs._maxPrefixLength
+          && _nextHopIp.equals(rhs._nextHopIp);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_depth, _maxPrefixLength, _nextHopIp);
+    }
+  }
+
+  /**
+   * The resolution trees of the routes a next-hop IP resolves to, shared by all the routes with
+   * that next-hop IP
+   */
+  private static final class NextHopResolution {
+    private final @Nonnull List<ResolutionTreeNode> _children;
+
+    /**
+     * The networks of all the routes visited while resolving. The resolution is the same for any
+     * route whose resolution so far went through none of these networks.
+     */
+    private final @Nonnull Set<Prefix> _visitedNetworks;
+
+    private NextHopResolution(List<ResolutionTreeNode> children, Set<Prefix> visitedNetworks) {
+      _children = children;
+      _visitedNetworks = visitedNetworks;
+    }
+  }
+
   private static final int MAX_DEPTH = 10;
   private static final long serialVersionUID = 1L;
 
@@ -87,10 +141,12 @@ public final class FibImpl implements Fib {
 
   public FibImpl(@Nonnull GenericRib<? extends AbstractRouteDecorator> rib) {
     _root = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    // The RIB does not change while the FIB is built, so each next-hop IP is resolved just once
+    Map<NextHopResolutionKey, NextHopResolution> resolutions = new HashMap<>();
     rib.getRoutes()
         .forEach(
             r -> {
-              Set<FibEntry> s = resolveRoute(rib, r);
+              Set<FibEntry> s = resolveRoute(rib, r, resolutions);
               _root.putAll(r.getNetwork(), s);
             });
     initSuppliers();
@@ -133,8 +189,19 @@ public final class FibImpl implements Fib {
    *     an invalid route in the RIB has been encountered.
    */
   @VisibleForTesting
-  Set<FibEntry> resolveRoute(
+  public Set<FibEntry> resolveRoute(
       GenericRib<? extends AbstractRouteDecorator> rib, AbstractRoute route) {
+    return resolveRoute(rib, route, new HashMap<>());
+  }
+
+  /**
+   * Attempt to resolve a RIB route down to an interface route, reusing and adding to the
+   * resolutions of next-hop IPs in {@code resolutions}, which must all be of {@code rib}.
+   */
+  private Set<FibEntry> resolveRoute(
+      GenericRib<? extends AbstractRouteDecorator> rib,
+      AbstractRoute route,
+      Map<NextHopResolutionKey, NextHopResolution> resolutions) {
     ResolutionTreeNode resolutionRoot = ResolutionTreeNode.root(route);
     buildResolutionTree(
         rib,
@@ -144,7 +211,9 @@ public final class FibImpl implements Fib {
         0,
         Prefix.MAX_PREFIX_LENGTH,
         null,
-        resolutionRoot);
+        resolutionRoot,
+        resolutions,
+        new HashSet<>());
     Builder<FibEntry> collector = ImmutableSet.builder();
     collectEntries(resolutionRoot, new Stack<>(), collector);
     return collector.build();
@@ -173,6 +242,9 @@ public final class FibImpl implements Fib {
    * Tail-recursive method to build a route resolution tree. Each top-level route is mapped to a
    * number of leaf {@link ResolutionTreeNode}. Leaf nodes must contain non-null {@link
    * ResolutionTreeNode#_finalNextHopIp}
+   *
+   * <p>Subtrees resolving next-hop IPs are shared through {@code resolutions}. The networks of all
+   * the routes visited are added to {@code visitedNetworks}.
    */
   private void buildResolutionTree(
       GenericRib<? extends AbstractRouteDecorator> rib,
@@ -182,8 +254,11 @@ public final class FibImpl implements Fib {
       int depth,
       int maxPrefixLength,
       @Nullable AbstractRoute parentRoute,
-      ResolutionTreeNode treeNode) {
+      ResolutionTreeNode treeNode,
+      Map<NextHopResolutionKey, NextHopResolution> resolutions,
+      Set<Prefix> visitedNetworks) {
     Prefix network = route.getNetwork();
+    visitedNetworks.add(network);
     if (seenNetworks.contains(network)) {
       // Don't enter a resolution loop
       return;
@@ -210,7 +285,9 @@ public final class FibImpl implements Fib {
             depth + 1,
             maxPrefixLength - 1,
             null,
-            treeNode);
+            treeNode,
+            resolutions,
+            visitedNetworks);
         return;
       }
     }
@@ -234,43 +311,101 @@ public final class FibImpl implements Fib {
         // https://github.com/batfish/batfish/issues/1469
         return;
       }
+      resolveNextHopIp(
+              rib,
+              nextHopIp,
+              depth,
+              maxPrefixLength,
+              newSeenNetworks,
+              route,
+              resolutions,
+              visitedNetworks)
+          .forEach(treeNode::addChild);
+    }
+  }
+
+  /**
+   * Returns the resolution trees of the routes that {@code nextHopIp} of {@code route} resolves to,
+   * from {@code depth}, where {@code seenNetworks} are the networks of {@code route} and of the
+   * routes it resolves. The resolution is shared with other routes with the same next-hop IP through
+   * {@code resolutions}, unless it goes through one of {@code seenNetworks}.
+   */
+  private List<ResolutionTreeNode> resolveNextHopIp(
+      GenericRib<? extends AbstractRouteDecorator> rib,
+      Ip nextHopIp,
+      int depth,
+      int maxPrefixLength,
+      Set<Prefix> seenNetworks,
+      AbstractRoute route,
+      Map<NextHopResolutionKey, NextHopResolution> resolutions,
+      Set<Prefix> visitedNetworks) {
+    NextHopResolutionKey key = new NextHopResolutionKey(nextHopIp, depth, maxPrefixLength);
+    // not computeIfAbsent, since computing a resolution adds the resolutions it depends on
+    NextHopResolution resolution = resolutions.get(key);
+    if (resolution == null) {
+      resolution = computeNextHopResolution(rib, key, new HashSet<>(), route, resolutions);
+      resolutions.put(key, resolution);
+    }
+    visitedNetworks.addAll(resolution._visitedNetworks);
+    if (Collections.disjoint(resolution._visitedNetworks, seenNetworks)) {
+      return resolution._children;
+    }
+    // The shared resolution goes through a network seen by this route, where this one would stop
+    return computeNextHopResolution(rib, key, seenNetworks, route, resolutions)._children;
+  }
+
+  private NextHopResolution computeNextHopResolution(
+      GenericRib<? extends AbstractRouteDecorator> rib,
+      NextHopResolutionKey key,
+      Set<Prefix> seenNetworks,
+      AbstractRoute route,
+      Map<NextHopResolutionKey, NextHopResolution> resolutions) {
+    Set<Prefix> visitedNetworks = new HashSet<>();
+    int depth = key._depth;
+    int maxPrefixLength = key._maxPrefixLength;
+    Set<AbstractRoute> forwardingRoutes;
+    while (true) {
       Set<? extends AbstractRouteDecorator> nextHopLongestPrefixMatchRoutes =
-          rib.longestPrefixMatch(nextHopIp, maxPrefixLength);
+          rib.longestPrefixMatch(key._nextHopIp, maxPrefixLength);
 
       /* Filter out any non-forwarding routes from the matches */
-      Set<AbstractRoute> forwardingRoutes =
+      forwardingRoutes =
           nextHopLongestPrefixMatchRoutes.stream()
               .map(AbstractRouteDecorator::getAbstractRoute)
               .filter(r -> !r.getNonForwarding())
               .collect(ImmutableSet.toImmutableSet());
-
-      if (forwardingRoutes.isEmpty()) {
-        // Re-resolve *this route* with a less specific prefix match
-        seenNetworks.remove(route.getNetwork());
-        buildResolutionTree(
-            rib,
-            route,
-            mostRecentNextHopIp,
-            seenNetworks,
-            depth + 1,
-            maxPrefixLength - 1,
-            parentRoute,
-            treeNode);
-      } else {
-        // We have at least one valid longest-prefix match
-        for (AbstractRoute nextHopLongestPrefixMatchRoute : forwardingRoutes) {
-          buildResolutionTree(
-              rib,
-              nextHopLongestPrefixMatchRoute,
-              nextHopIp,
-              newSeenNetworks,
-              depth + 1,
-              Prefix.MAX_PREFIX_LENGTH,
-              route,
-              ResolutionTreeNode.withParent(nextHopLongestPrefixMatchRoute, treeNode, null));
-        }
+      if (!forwardingRoutes.isEmpty()) {
+        break;
       }
+      // Re-resolve with a less specific prefix match
+      depth++;
+      maxPrefixLength--;
+      if (depth > MAX_DEPTH) {
+        // TODO: Declare this a loop using some warning mechanism
+        // https://github.com/batfish/batfish/issues/1469
+        return new NextHopResolution(ImmutableList.of(), visitedNetworks);
+      }
+    }
+
+    // We have at least one valid longest-prefix match
+    ImmutableList.Builder<ResolutionTreeNode> children = ImmutableList.builder();
+    for (AbstractRoute nextHopLongestPrefixMatchRoute : forwardingRoutes) {
+      ResolutionTreeNode child =
+          ResolutionTreeNode.withParent(nextHopLongestPrefixMatchRoute, null, null);
+      buildResolutionTree(
+          rib,
+          nextHopLongestPrefixMatchRoute,
+          key._nextHopIp,
+          seenNetworks,
+          depth + 1,
+          Prefix.MAX_PREFIX_LENGTH,
+          route,
+          child,
+          resolutions,
+          visitedNetworks);
+      children.add(child);
     }
+    return new NextHopResolution(children.build(), visitedNetworks);
   }
 
   /** Mapping: route -&gt; nextHopInterface -&gt; resolved nextHopIp -&gt; interfaceRoutes */
@@ -1,6 +1,9 @@
 package org.batfish.datamodel;
 
+import static org.batfish.common.util.CommonUtil.toImmutableMap;
+
 import java.util.Map;
+import java.util.Map.Entry;
 
 public interface ForwardingAnalysis {
 
@@ -40,4 +43,54 @@ public interface ForwardingAnalysis {
    * A routable IP is a destination IP for which there is a longest-prefix-match route.
    */
   Map<String, Map<String, IpSpace>> getRoutableIps();
+
+  /*
+   * The following return the IpSpaces above flattened to IpIntervalSets, for fast membership
+   * tests. IpSpaces that cannot be flattened are omitted.
+   */
+
+  /** Same as {@link #getArpReplies()}, flattened. */
+  default Map<String, Map<String, IpIntervalSet>> getArpRepliesIntervals() {
+    return flattenByNode(getArpReplies());
+  }
+
+  /** Same as {@link #getNeighborUnreachableOrExitsNetwork()}, flattened. */
+  default Map<String, Map<String, Map<String, IpIntervalSet>>>
+      getNeighborUnreachableOrExitsNetworkIntervals() {
+    return flattenByNodeAndVrf(getNeighborUnreachableOrExitsNetwork());
+  }
+
+  /** Same as {@link #getDeliveredToSubnet()}, flattened. */
+  default Map<String, Map<String, Map<String, IpIntervalSet>>> getDeliveredToSubnetIntervals() {
+    return flattenByNodeAndVrf(getDeliveredToSubnet());
+  }
+
+  /** Same as {@link #getExitsNetwork()}, flattened. */
+  default Map<String, Map<String, Map<String, IpIntervalSet>>> getExitsNetworkIntervals() {
+    return flattenByNodeAndVrf(getExitsNetwork());
+  }
+
+  /** Same as {@link #getNeighborUnreachable()}, flattened. */
+  default Map<String, Map<String, Map<String, IpIntervalSet>>> getNeighborUnreachableIntervals() {
+    return flattenByNodeAndVrf(getNeighborUnreachable());
+  }
+
+  /** Same as {@link #getInsufficientInfo()}, flattened. */
+  default Map<String, Map<String, Map<String, IpIntervalSet>>> getInsufficientInfoIntervals() {
+    return flattenByNodeAndVrf(getInsufficientInfo());
+  }
+
+  /** Flattens a hostname -&gt; name -&gt; IpSpace map. */
+  static Map<String, Map<String, IpIntervalSet>> flattenByNode(
+      Map<String, Map<String, IpSpace>> ipSpaces) {
+    return toImmutableMap(
+        ipSpaces, Entry::getKey, nodeEntry -> IpIntervalSet.flatten(nodeEntry.getValue()));
+  }
+
+  /** Flattens a hostname -&gt; vrfName -&gt; name -&gt; IpSpace map. */
+  static Map<String, Map<String, Map<String, IpIntervalSet>>> flattenByNodeAndVrf(
+      Map<String, Map<String, Map<String, IpSpace>>> ipSpaces) {
+    return toImmutableMap(
+        ipSpaces, Entry::getKey, nodeEntry -> flattenByNode(nodeEntry.getValue()));
+  }
 }
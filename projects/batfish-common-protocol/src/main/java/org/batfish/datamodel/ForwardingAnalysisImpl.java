@@ -61,6 +61,14 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   // node -> vrf -> interface -> dst ips that end up with insufficient info
   private final Map<String, Map<String, Map<String, IpSpace>>> _insufficientInfo;
 
+  // the IpSpaces above used by traceroute, flattened to IpIntervalSets
+  private final Map<String, Map<String, IpIntervalSet>> _arpRepliesIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _arpFalseIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _deliveredToSubnetIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _exitsNetworkIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _insufficientInfoIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _neighborUnreachableIntervals;
+
   public ForwardingAnalysisImpl(
       Map<String, Configuration> configurations,
       Map<String, Map<String, Fib>> fibs,
@@ -251,6 +259,18 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
               externalIps);
 
       assert sanityCheck(ipSpaceToBDD, configurations);
+
+      try (ActiveSpan flattenSpan =
+          GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.flatten").startActive()) {
+        assert flattenSpan != null; // avoid unused warning
+        _arpRepliesIntervals = ForwardingAnalysis.flattenByNode(_arpReplies);
+        _arpFalseIntervals = ForwardingAnalysis.flattenByNodeAndVrf(_arpFalse);
+        _deliveredToSubnetIntervals = ForwardingAnalysis.flattenByNodeAndVrf(_deliveredToSubnet);
+        _exitsNetworkIntervals = ForwardingAnalysis.flattenByNodeAndVrf(_exitsNetwork);
+        _insufficientInfoIntervals = ForwardingAnalysis.flattenByNodeAndVrf(_insufficientInfo);
+        _neighborUnreachableIntervals =
+            ForwardingAnalysis.flattenByNodeAndVrf(_neighborUnreachable);
+      }
     }
   }
 
@@ -996,6 +1016,37 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     return _deliveredToSubnet;
   }
 
+  @Override
+  public Map<String, Map<String, IpIntervalSet>> getArpRepliesIntervals() {
+    return _arpRepliesIntervals;
+  }
+
+  @Override
+  public Map<String, Map<String, Map<String, IpIntervalSet>>>
+      getNeighborUnreachableOrExitsNetworkIntervals() {
+    return _arpFalseIntervals;
+  }
+
+  @Override
+  public Map<String, Map<String, Map<String, IpIntervalSet>>> getDeliveredToSubnetIntervals() {
+    return _deliveredToSubnetIntervals;
+  }
+
+  @Override
+  public Map<String, Map<String, Map<String, IpIntervalSet>>> getExitsNetworkIntervals() {
+    return _exitsNetworkIntervals;
+  }
+
+  @Override
+  public Map<String, Map<String, Map<String, IpIntervalSet>>> getInsufficientInfoIntervals() {
+    return _insufficientInfoIntervals;
+  }
+
+  @Override
+  public Map<String, Map<String, Map<String, IpIntervalSet>>> getNeighborUnreachableIntervals() {
+    return _neighborUnreachableIntervals;
+  }
+
   private static Map<String, Map<String, BDD>> computeInterfaceHostSubnetIpBDDs(
       Map<String, Map<String, IpSpace>> interfaceHostSubnetIps, IpSpaceToBDD ipSpaceToBDD) {
     try (ActiveSpan span =
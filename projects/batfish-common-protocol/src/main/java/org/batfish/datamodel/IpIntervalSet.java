@@ -0,0 +1,361 @@
+package org.batfish.datamodel;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * An immutable set of IPv4 addresses represented as sorted, disjoint, non-adjacent intervals. This
+ * is a flattened form of an {@link IpSpace}: {@link #containsIp(Ip)} is a binary search over
+ * primitive arrays, rather than a traversal of nested {@link IpSpace IpSpaces}.
+ */
+@ParametersAreNonnullByDefault
+public final class IpIntervalSet implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The largest number of intervals {@link #fromIpSpace} will produce for a single non-prefix
+   * {@link IpWildcard}.
+   */
+  private static final int MAX_WILDCARD_INTERVALS = 1 << 16;
+
+  public static final IpIntervalSet EMPTY = new IpIntervalSet(new long[0], new long[0]);
+
+  public static final IpIntervalSet UNIVERSE =
+      new IpIntervalSet(new long[] {0L}, new long[] {Ip.MAX.asLong()});
+
+  /** Inclusive start of each interval, in increasing order */
+  private final long[] _starts;
+
+  /** Inclusive end of each interval */
+  private final long[] _ends;
+
+  private IpIntervalSet(long[] starts, long[] ends) {
+    _starts = starts;
+    _ends = ends;
+  }
+
+  /** Returns the set of IPs in {@code prefix}. */
+  public static @Nonnull IpIntervalSet of(Prefix prefix) {
+    return range(prefix.getStartIp(), prefix.getEndIp());
+  }
+
+  /** Returns the set of IPs from {@code start} to {@code end}, inclusive. */
+  public static @Nonnull IpIntervalSet range(Ip start, Ip end) {
+    checkArgument(start.asLong() <= end.asLong(), "Invalid range: %s-%s", start, end);
+    return new IpIntervalSet(new long[] {start.asLong()}, new long[] {end.asLong()});
+  }
+
+  /**
+   * Flattens {@code ipSpace}. Returns {@link Optional#empty()} if {@code ipSpace} has a circular
+   * reference, or a non-prefix {@link IpWildcard} that would need too many intervals.
+   *
+   * @param namedIpSpaces Used to resolve {@link IpSpaceReference IpSpaceReferences}.
+   */
+  public static @Nonnull Optional<IpIntervalSet> fromIpSpace(
+      IpSpace ipSpace, Map<String, IpSpace> namedIpSpaces) {
+    return Optional.ofNullable(ipSpace.accept(new Flattener(namedIpSpaces)));
+  }
+
+  /**
+   * Flattens the values of {@code ipSpaces}, which must not reference named {@link IpSpace
+   * IpSpaces}. Values that cannot be flattened are omitted.
+   */
+  public static @Nonnull <K> Map<K, IpIntervalSet> flatten(Map<K, IpSpace> ipSpaces) {
+    ImmutableMap.Builder<K, IpIntervalSet> flattened = ImmutableMap.builder();
+    ipSpaces.forEach(
+        (key, ipSpace) ->
+            fromIpSpace(ipSpace, ImmutableMap.of())
+                .ifPresent(intervals -> flattened.put(key, intervals)));
+    return flattened.build();
+  }
+
+  /** Returns whether this set contains {@code ip}. */
+  public boolean containsIp(Ip ip) {
+    return containsIp(ip.asLong());
+  }
+
+  /** Returns whether this set contains the IP whose {@link Ip#asLong()} is {@code ip}. */
+  public boolean containsIp(long ip) {
+    int index = Arrays.binarySearch(_starts, ip);
+    if (index >= 0) {
+      return true;
+    }
+    // the interval with the largest start below ip
+    int before = -index - 2;
+    return before >= 0 && ip <= _ends[before];
+  }
+
+  /** Returns whether this set is empty. */
+  public boolean isEmpty() {
+    return _starts.length == 0;
+  }
+
+  /** The number of intervals in this set. */
+  public int getNumIntervals() {
+    return _starts.length;
+  }
+
+  /** The IPs in this set or {@code other}. */
+  public @Nonnull IpIntervalSet union(IpIntervalSet other) {
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+    long[] starts = new long[_starts.length + other._starts.length];
+    long[] ends = new long[starts.length];
+    // merge by start, then coalesce
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < _starts.length || j < other._starts.length) {
+      if (j == other._starts.length || (i < _starts.length && _starts[i] <= other._starts[j])) {
+        starts[k] = _starts[i];
+        ends[k++] = _ends[i++];
+      } else {
+        starts[k] = other._starts[j];
+        ends[k++] = other._ends[j++];
+      }
+    }
+    return coalesce(starts, ends, k);
+  }
+
+  /** The IPs in this set but not in {@code other}. */
+  public @Nonnull IpIntervalSet difference(IpIntervalSet other) {
+    if (isEmpty() || other.isEmpty()) {
+      return this;
+    }
+    // each interval of either set adds at most one interval to the result
+    long[] starts = new long[_starts.length + other._starts.length];
+    long[] ends = new long[starts.length];
+    int k = 0;
+    int j = 0;
+    for (int i = 0; i < _starts.length; i++) {
+      long start = _starts[i];
+      long end = _ends[i];
+      // skip removed intervals entirely before this one
+      while (j < other._starts.length && other._ends[j] < start) {
+        j++;
+      }
+      int jj = j;
+      while (start <= end && jj < other._starts.length && other._starts[jj] <= end) {
+        if (other._starts[jj] > start) {
+          starts[k] = start;
+          ends[k++] = other._starts[jj] - 1;
+        }
+        start = Math.max(start, other._ends[jj] + 1);
+        jj++;
+      }
+      if (start <= end) {
+        starts[k] = start;
+        ends[k++] = end;
+      }
+    }
+    return new IpIntervalSet(Arrays.copyOf(starts, k), Arrays.copyOf(ends, k));
+  }
+
+  /** Sorts and coalesces arbitrary intervals into an {@link IpIntervalSet}. */
+  private static IpIntervalSet unionOf(List<IpIntervalSet> sets) {
+    int total = sets.stream().mapToInt(IpIntervalSet::getNumIntervals).sum();
+    long[][] intervals = new long[total][];
+    int n = 0;
+    for (IpIntervalSet set : sets) {
+      for (int i = 0; i < set._starts.length; i++) {
+        intervals[n++] = new long[] {set._starts[i], set._ends[i]};
+      }
+    }
+    Arrays.sort(intervals, (a, b) -> Long.compare(a[0], b[0]));
+    long[] starts = new long[total];
+    long[] ends = new long[total];
+    for (int i = 0; i < total; i++) {
+      starts[i] = intervals[i][0];
+      ends[i] = intervals[i][1];
+    }
+    return coalesce(starts, ends, total);
+  }
+
+  /**
+   * Coalesces the first {@code n} intervals, which are sorted by start, into disjoint non-adjacent
+   * intervals.
+   */
+  private static IpIntervalSet coalesce(long[] starts, long[] ends, int n) {
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      if (k > 0 && starts[i] <= ends[k - 1] + 1) {
+        ends[k - 1] = Math.max(ends[k - 1], ends[i]);
+      } else {
+        starts[k] = starts[i];
+        ends[k++] = ends[i];
+      }
+    }
+    return new IpIntervalSet(Arrays.copyOf(starts, k), Arrays.copyOf(ends, k));
+  }
+
+  /** Returns the intervals of {@code wildcard}, or {@code null} if there are too many. */
+  private static @Nullable IpIntervalSet fromWildcard(IpWildcard wildcard) {
+    long mask = wildcard.getWildcard().asLong();
+    // the trailing don't-care bits form the intervals; the others select one of them
+    int trailing = Long.numberOfTrailingZeros(~mask);
+    long size = 1L << trailing;
+    long selectors = mask & ~(size - 1);
+    if (Long.bitCount(selectors) > Integer.numberOfTrailingZeros(MAX_WILDCARD_INTERVALS)) {
+      return null;
+    }
+    int numIntervals = 1 << Long.bitCount(selectors);
+    long base = wildcard.getIp().asLong() & ~mask;
+    long[] starts = new long[numIntervals];
+    long[] ends = new long[numIntervals];
+    // enumerate the subsets of selectors in increasing order
+    long subset = 0;
+    for (int i = 0; i < numIntervals; i++) {
+      starts[i] = base | subset;
+      ends[i] = starts[i] + size - 1;
+      subset = (subset - selectors) & selectors;
+    }
+    return coalesce(starts, ends, numIntervals);
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof IpIntervalSet)) {
+      return false;
+    }
+    IpIntervalSet other = (IpIntervalSet) o;
+    return Arrays.equals(_starts, other._starts) && Arrays.equals(_ends, other._ends);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(_starts) + Arrays.hashCode(_ends);
+  }
+
+  @Override
+  public String toString() {
+    return IntStream.range(0, _starts.length)
+        .mapToObj(i -> Ip.create(_starts[i]) + "-" + Ip.create(_ends[i]))
+        .collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  /** Flattens an {@link IpSpace}; returns {@code null} if it cannot be flattened. */
+  private static final class Flattener implements GenericIpSpaceVisitor<IpIntervalSet> {
+
+    private final Map<String, IpSpace> _namedIpSpaces;
+
+    /** Named IpSpaces being flattened, to detect cycles */
+    private final Set<String> _visiting;
+
+    Flattener(Map<String, IpSpace> namedIpSpaces) {
+      _namedIpSpaces = namedIpSpaces;
+      _visiting = new HashSet<>();
+    }
+
+    @Override
+    public IpIntervalSet castToGenericIpSpaceVisitorReturnType(Object o) {
+      return (IpIntervalSet) o;
+    }
+
+    @Override
+    public IpIntervalSet visitAclIpSpace(AclIpSpace aclIpSpace) {
+      // The first matching line wins, so apply the lines from last to first. Runs of lines with
+      // the same action are combined first, so that long ACLs are not quadratic.
+      List<AclIpSpaceLine> lines = aclIpSpace.getLines();
+      IpIntervalSet result = EMPTY;
+      int end = lines.size();
+      while (end > 0) {
+        LineAction action = lines.get(end - 1).getAction();
+        int start = end - 1;
+        while (start > 0 && lines.get(start - 1).getAction() == action) {
+          start--;
+        }
+        IpIntervalSet[] spaces = new IpIntervalSet[end - start];
+        for (int i = start; i < end; i++) {
+          spaces[i - start] = lines.get(i).getIpSpace().accept(this);
+          if (spaces[i - start] == null) {
+            return null;
+          }
+        }
+        IpIntervalSet run = unionOf(Arrays.asList(spaces));
+        result = action == LineAction.PERMIT ? run.union(result) : result.difference(run);
+        end = start;
+      }
+      return result;
+    }
+
+    @Override
+    public IpIntervalSet visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+      return EMPTY;
+    }
+
+    @Override
+    public IpIntervalSet visitIpIpSpace(IpIpSpace ipIpSpace) {
+      return range(ipIpSpace.getIp(), ipIpSpace.getIp());
+    }
+
+    @Override
+    public IpIntervalSet visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+      String name = ipSpaceReference.getName();
+      IpSpace referenced = _namedIpSpaces.get(name);
+      if (referenced == null) {
+        // undefined references contain no IPs
+        return EMPTY;
+      }
+      if (!_visiting.add(name)) {
+        return null;
+      }
+      IpIntervalSet result = referenced.accept(this);
+      _visiting.remove(name);
+      return result;
+    }
+
+    @Override
+    public IpIntervalSet visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+      return fromWildcard(ipWildcardIpSpace.getIpWildcard());
+    }
+
+    @Override
+    public IpIntervalSet visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+      IpIntervalSet whitelist = fromWildcards(ipWildcardSetIpSpace.getWhitelist());
+      IpIntervalSet blacklist = fromWildcards(ipWildcardSetIpSpace.getBlacklist());
+      return whitelist == null || blacklist == null ? null : whitelist.difference(blacklist);
+    }
+
+    private @Nullable IpIntervalSet fromWildcards(Set<IpWildcard> wildcards) {
+      IpIntervalSet[] sets = new IpIntervalSet[wildcards.size()];
+      int i = 0;
+      for (IpWildcard wildcard : wildcards) {
+        sets[i] = fromWildcard(wildcard);
+        if (sets[i++] == null) {
+          return null;
+        }
+      }
+      return unionOf(Arrays.asList(sets));
+    }
+
+    @Override
+    public IpIntervalSet visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+      return of(prefixIpSpace.getPrefix());
+    }
+
+    @Override
+    public IpIntervalSet visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+      return UNIVERSE;
+    }
+  }
+}
@@ -9,8 +9,9 @@ import com.google.common.base.Suppliers;
 import java.io.Serializable;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
+import org.batfish.common.regex.RegexMatcher;
+import org.batfish.common.regex.RegexMatchers;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.expr.CommunitySetExpr;
@@ -24,12 +25,12 @@ import org.batfish.datamodel.visitors.VoidCommunitySetExprVisitor;
  */
 public final class RegexCommunitySet extends CommunitySetExpr {
 
-  private final class PatternSupplier implements Supplier<Pattern>, Serializable {
+  private final class MatcherSupplier implements Supplier<RegexMatcher>, Serializable {
     private static final long serialVersionUID = 1L;
 
     @Override
-    public Pattern get() {
-      return Pattern.compile(_regex);
+    public RegexMatcher get() {
+      return RegexMatchers.matcher(_regex);
     }
   }
 
@@ -42,13 +43,13 @@ public final class RegexCommunitySet extends CommunitySetExpr {
     return new RegexCommunitySet(requireNonNull(regex));
   }
 
-  private final Supplier<Pattern> _pattern;
+  private final Supplier<RegexMatcher> _matcher;
 
   private final String _regex;
 
   public RegexCommunitySet(@Nonnull String regex) {
     _regex = regex;
-    _pattern = Suppliers.memoize(new PatternSupplier());
+    _matcher = Suppliers.memoize(new MatcherSupplier());
   }
 
   @Override
@@ -101,7 +102,7 @@ public final class RegexCommunitySet extends CommunitySetExpr {
 
   @Override
   public boolean matchCommunity(Environment environment, long community) {
-    return _pattern.get().matcher(CommonUtil.longToCommunity(community)).find();
+    return _matcher.get().find(CommonUtil.longToCommunity(community));
   }
 
   @Override
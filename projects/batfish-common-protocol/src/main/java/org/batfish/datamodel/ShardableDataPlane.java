@@ -0,0 +1,42 @@
+package org.batfish.datamodel;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A {@link DataPlane} whose per-node state can be persisted as independent shards, so that
+ * questions scoped to a few nodes only need to load the shards of those nodes.
+ *
+ * <p>A sharded data plane is persisted as an index (see {@link #withoutShards()}) plus one shard
+ * per hostname (see {@link #getShards()}). After deserializing the index, a loader must be attached
+ * via {@link #setShardLoader(Function)}; shards are then materialized on first access.
+ *
+ * @param <S> The type of a single shard
+ */
+@ParametersAreNonnullByDefault
+public interface ShardableDataPlane<S extends Serializable> extends DataPlane {
+
+  /** Returns the shards of this data plane, keyed by hostname. */
+  @Nonnull
+  Map<String, S> getShards();
+
+  /** Returns the class of the shards of this data plane. */
+  @Nonnull
+  Class<S> getShardClass();
+
+  /**
+   * Returns a copy of this data plane that holds no shards, suitable for persisting as the shard
+   * index.
+   */
+  @Nonnull
+  ShardableDataPlane<S> withoutShards();
+
+  /**
+   * Sets the function used to load the shard for a given hostname. Each shard is loaded at most
+   * once.
+   */
+  void setShardLoader(Function<String, S> shardLoader);
+}
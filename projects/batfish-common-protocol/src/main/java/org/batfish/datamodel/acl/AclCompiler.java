@@ -0,0 +1,475 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIpSpace;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * Compiles {@link AclLineMatchExpr AclLineMatchExprs} into {@link FlowMatcher FlowMatchers} with
+ * the same semantics as {@link Evaluator}. Named {@link IpSpace IpSpaces} and referenced {@link
+ * IpAccessList IpAccessLists} are resolved once at compile time rather than for every flow.
+ */
+@ParametersAreNonnullByDefault
+final class AclCompiler implements GenericAclLineMatchExprVisitor<AclCompiler.FlowMatcher> {
+
+  /** A compiled {@link AclLineMatchExpr}. */
+  @FunctionalInterface
+  interface FlowMatcher {
+    boolean matches(Flow flow, @Nullable String srcInterface);
+  }
+
+  /** A compiled {@link IpSpace}. */
+  @FunctionalInterface
+  interface IpMatcher {
+    boolean containsIp(long ip);
+  }
+
+  private static final FlowMatcher MATCH_ALL = (flow, srcInterface) -> true;
+
+  private static final FlowMatcher MATCH_NONE = (flow, srcInterface) -> false;
+
+  private static final HeaderSpace UNCONSTRAINED = HeaderSpace.builder().build();
+
+  private final Map<String, IpAccessList> _availableAcls;
+
+  private final Map<String, CompiledAcl> _compiledAcls;
+
+  /** Names of the referenced ACLs currently being compiled, to detect cycles */
+  private final Set<String> _compilingAcls;
+
+  private final Map<String, IpSpace> _namedIpSpaces;
+
+  AclCompiler(Map<String, IpAccessList> availableAcls, Map<String, IpSpace> namedIpSpaces) {
+    _availableAcls = availableAcls;
+    _namedIpSpaces = namedIpSpaces;
+    _compiledAcls = new HashMap<>();
+    _compilingAcls = new HashSet<>();
+  }
+
+  @Nonnull
+  FlowMatcher compile(AclLineMatchExpr expr) {
+    return expr.accept(this);
+  }
+
+  @Override
+  public FlowMatcher visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+    FlowMatcher[] conjuncts =
+        andMatchExpr.getConjuncts().stream().map(this::compile).toArray(FlowMatcher[]::new);
+    return (flow, srcInterface) -> {
+      for (FlowMatcher conjunct : conjuncts) {
+        if (!conjunct.matches(flow, srcInterface)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  @Override
+  public FlowMatcher visitFalseExpr(FalseExpr falseExpr) {
+    return MATCH_NONE;
+  }
+
+  @Override
+  public FlowMatcher visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+    HeaderSpace hs = matchHeaderSpace.getHeaderspace();
+    IpMatcher dstIps = compileNullable(hs.getDstIps());
+    IpMatcher notDstIps = compileNullable(hs.getNotDstIps());
+    IpMatcher srcIps = compileNullable(hs.getSrcIps());
+    IpMatcher notSrcIps = compileNullable(hs.getNotSrcIps());
+    Set<IpProtocol> ipProtocols =
+        hs.getIpProtocols().isEmpty() ? null : EnumSet.copyOf(hs.getIpProtocols());
+    SubRange[] dstPorts = hs.getDstPorts().toArray(new SubRange[0]);
+    SubRange[] srcPorts = hs.getSrcPorts().toArray(new SubRange[0]);
+
+    // Fields other than the most common ones above are checked by the (slower) interpreter
+    HeaderSpace rest =
+        hs.toBuilder()
+            .setDstIps((IpSpace) null)
+            .setNotDstIps((IpSpace) null)
+            .setSrcIps((IpSpace) null)
+            .setNotSrcIps((IpSpace) null)
+            .setIpProtocols(ImmutableSet.of())
+            .setDstPorts(ImmutableSet.of())
+            .setSrcPorts(ImmutableSet.of())
+            .build();
+    HeaderSpace restOrNull = rest.equals(UNCONSTRAINED) ? null : rest;
+    Map<String, IpSpace> namedIpSpaces = _namedIpSpaces;
+
+    return (flow, srcInterface) -> {
+      if (ipProtocols != null && !ipProtocols.contains(flow.getIpProtocol())) {
+        return false;
+      }
+      long dstIp = flow.getDstIp().asLong();
+      if (dstIps != null && !dstIps.containsIp(dstIp)) {
+        return false;
+      }
+      if (notDstIps != null && notDstIps.containsIp(dstIp)) {
+        return false;
+      }
+      long srcIp = flow.getSrcIp().asLong();
+      if (srcIps != null && !srcIps.containsIp(srcIp)) {
+        return false;
+      }
+      if (notSrcIps != null && notSrcIps.containsIp(srcIp)) {
+        return false;
+      }
+      if (dstPorts.length > 0 && !includes(dstPorts, flow.getDstPort())) {
+        return false;
+      }
+      if (srcPorts.length > 0 && !includes(srcPorts, flow.getSrcPort())) {
+        return false;
+      }
+      return restOrNull == null || restOrNull.matches(flow, namedIpSpaces);
+    };
+  }
+
+  private static boolean includes(SubRange[] ranges, @Nullable Integer value) {
+    if (value == null) {
+      return false;
+    }
+    int v = value;
+    for (SubRange range : ranges) {
+      if (range.includes(v)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public FlowMatcher visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+    Set<String> srcInterfaces = ImmutableSet.copyOf(matchSrcInterface.getSrcInterfaces());
+    return (flow, srcInterface) -> srcInterfaces.contains(srcInterface);
+  }
+
+  @Override
+  public FlowMatcher visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+    FlowMatcher operand = compile(notMatchExpr.getOperand());
+    return (flow, srcInterface) -> !operand.matches(flow, srcInterface);
+  }
+
+  @Override
+  public FlowMatcher visitOriginatingFromDevice(OriginatingFromDevice originatingFromDevice) {
+    return (flow, srcInterface) -> srcInterface == null;
+  }
+
+  @Override
+  public FlowMatcher visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+    FlowMatcher[] disjuncts =
+        orMatchExpr.getDisjuncts().stream().map(this::compile).toArray(FlowMatcher[]::new);
+    return (flow, srcInterface) -> {
+      for (FlowMatcher disjunct : disjuncts) {
+        if (disjunct.matches(flow, srcInterface)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  @Override
+  public FlowMatcher visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+    String aclName = permittedByAcl.getAclName();
+    LineAction defaultAction =
+        permittedByAcl.getDefaultAccept() ? LineAction.PERMIT : LineAction.DENY;
+    IpAccessList acl = _availableAcls.get(aclName);
+    if (acl == null || _compilingAcls.contains(aclName)) {
+      // Undefined or circular reference: leave the failure to the interpreter
+      Map<String, IpAccessList> availableAcls = _availableAcls;
+      Map<String, IpSpace> namedIpSpaces = _namedIpSpaces;
+      return (flow, srcInterface) ->
+          Evaluator.matches(permittedByAcl, flow, srcInterface, availableAcls, namedIpSpaces);
+    }
+    CompiledAcl compiled = _compiledAcls.get(aclName);
+    if (compiled == null) {
+      _compilingAcls.add(aclName);
+      compiled = new CompiledAcl(acl, this);
+      _compilingAcls.remove(aclName);
+      _compiledAcls.put(aclName, compiled);
+    }
+    CompiledAcl referenced = compiled;
+    return (flow, srcInterface) ->
+        referenced.filter(flow, srcInterface, defaultAction).getAction() == LineAction.PERMIT;
+  }
+
+  @Override
+  public FlowMatcher visitTrueExpr(TrueExpr trueExpr) {
+    return MATCH_ALL;
+  }
+
+  private @Nullable IpMatcher compileNullable(@Nullable IpSpace ipSpace) {
+    return ipSpace == null ? null : compile(ipSpace);
+  }
+
+  @Nonnull
+  IpMatcher compile(IpSpace ipSpace) {
+    return ipSpace.accept(new IpSpaceCompiler(new HashSet<>()));
+  }
+
+  /**
+   * Returns a list of prefixes that together contain every destination IP of a flow matched by
+   * {@code expr}, or {@code null} if no such list (short of the whole address space) is known.
+   * Used to index ACL lines by destination IP.
+   */
+  @Nullable
+  List<Prefix> dstPrefixes(AclLineMatchExpr expr) {
+    if (expr instanceof FalseExpr) {
+      return ImmutableList.of();
+    } else if (expr instanceof MatchHeaderSpace) {
+      IpSpace dstIps = ((MatchHeaderSpace) expr).getHeaderspace().getDstIps();
+      return dstIps == null ? null : dstIps.accept(new IpSpacePrefixes(new HashSet<>()));
+    } else if (expr instanceof AndMatchExpr) {
+      // any conjunct's prefixes contain the conjunction's
+      for (AclLineMatchExpr conjunct : ((AndMatchExpr) expr).getConjuncts()) {
+        List<Prefix> prefixes = dstPrefixes(conjunct);
+        if (prefixes != null) {
+          return prefixes;
+        }
+      }
+      return null;
+    } else if (expr instanceof OrMatchExpr) {
+      ImmutableList.Builder<Prefix> union = ImmutableList.builder();
+      for (AclLineMatchExpr disjunct : ((OrMatchExpr) expr).getDisjuncts()) {
+        List<Prefix> prefixes = dstPrefixes(disjunct);
+        if (prefixes == null) {
+          return null;
+        }
+        union.addAll(prefixes);
+      }
+      return union.build();
+    }
+    return null;
+  }
+
+  private static IpMatcher wildcardMatcher(IpWildcard wildcard) {
+    long mask = wildcard.getWildcard().asLong();
+    long masked = wildcard.getIp().asLong() | mask;
+    return ip -> (ip | mask) == masked;
+  }
+
+  private static IpMatcher anyOf(IpMatcher[] matchers) {
+    return ip -> {
+      for (IpMatcher matcher : matchers) {
+        if (matcher.containsIp(ip)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /** Compiles an {@link IpSpace} with the semantics of {@link IpSpace#containsIp}. */
+  private final class IpSpaceCompiler implements GenericIpSpaceVisitor<IpMatcher> {
+
+    /** Named IpSpaces being compiled, to detect cycles */
+    private final Set<String> _visiting;
+
+    IpSpaceCompiler(Set<String> visiting) {
+      _visiting = visiting;
+    }
+
+    @Override
+    public IpMatcher castToGenericIpSpaceVisitorReturnType(Object o) {
+      return (IpMatcher) o;
+    }
+
+    @Override
+    public IpMatcher visitAclIpSpace(AclIpSpace aclIpSpace) {
+      List<AclIpSpaceLine> lines = aclIpSpace.getLines();
+      IpMatcher[] matchers = new IpMatcher[lines.size()];
+      boolean[] permits = new boolean[lines.size()];
+      for (int i = 0; i < matchers.length; i++) {
+        matchers[i] = lines.get(i).getIpSpace().accept(this);
+        permits[i] = lines.get(i).getAction() == LineAction.PERMIT;
+      }
+      return ip -> {
+        for (int i = 0; i < matchers.length; i++) {
+          if (matchers[i].containsIp(ip)) {
+            return permits[i];
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public IpMatcher visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+      return ip -> false;
+    }
+
+    @Override
+    public IpMatcher visitIpIpSpace(IpIpSpace ipIpSpace) {
+      long value = ipIpSpace.getIp().asLong();
+      return ip -> ip == value;
+    }
+
+    @Override
+    public IpMatcher visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+      String name = ipSpaceReference.getName();
+      IpSpace referenced = _namedIpSpaces.get(name);
+      if (referenced == null) {
+        return ip -> false;
+      }
+      if (!_visiting.add(name)) {
+        // Circular reference: leave the failure to the interpreter
+        Map<String, IpSpace> namedIpSpaces = _namedIpSpaces;
+        return ip -> ipSpaceReference.containsIp(Ip.create(ip), namedIpSpaces);
+      }
+      IpMatcher matcher = referenced.accept(this);
+      _visiting.remove(name);
+      return matcher;
+    }
+
+    @Override
+    public IpMatcher visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+      return wildcardMatcher(ipWildcardIpSpace.getIpWildcard());
+    }
+
+    @Override
+    public IpMatcher visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+      IpMatcher blacklist =
+          anyOf(
+              ipWildcardSetIpSpace.getBlacklist().stream()
+                  .map(AclCompiler::wildcardMatcher)
+                  .toArray(IpMatcher[]::new));
+      IpMatcher whitelist =
+          anyOf(
+              ipWildcardSetIpSpace.getWhitelist().stream()
+                  .map(AclCompiler::wildcardMatcher)
+                  .toArray(IpMatcher[]::new));
+      return ip -> !blacklist.containsIp(ip) && whitelist.containsIp(ip);
+    }
+
+    @Override
+    public IpMatcher visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+      Prefix prefix = prefixIpSpace.getPrefix();
+      long mask = (1L << (Prefix.MAX_PREFIX_LENGTH - prefix.getPrefixLength())) - 1;
+      long start = prefix.getStartIp().asLong();
+      return ip -> (ip & ~mask) == start;
+    }
+
+    @Override
+    public IpMatcher visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+      return ip -> true;
+    }
+  }
+
+  /**
+   * Over-approximates an {@link IpSpace} by a list of prefixes. Returns {@code null} if there is
+   * no such list short of the whole address space.
+   */
+  private final class IpSpacePrefixes implements GenericIpSpaceVisitor<List<Prefix>> {
+
+    private final Set<String> _visiting;
+
+    IpSpacePrefixes(Set<String> visiting) {
+      _visiting = visiting;
+    }
+
+    @Override
+    public List<Prefix> castToGenericIpSpaceVisitorReturnType(Object o) {
+      @SuppressWarnings("unchecked")
+      List<Prefix> prefixes = (List<Prefix>) o;
+      return prefixes;
+    }
+
+    @Override
+    public List<Prefix> visitAclIpSpace(AclIpSpace aclIpSpace) {
+      // deny lines only remove addresses, so the permitted spaces contain the whole space
+      ImmutableList.Builder<Prefix> union = ImmutableList.builder();
+      for (AclIpSpaceLine line : aclIpSpace.getLines()) {
+        if (line.getAction() == LineAction.PERMIT) {
+          List<Prefix> prefixes = line.getIpSpace().accept(this);
+          if (prefixes == null) {
+            return null;
+          }
+          union.addAll(prefixes);
+        }
+      }
+      return union.build();
+    }
+
+    @Override
+    public List<Prefix> visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public List<Prefix> visitIpIpSpace(IpIpSpace ipIpSpace) {
+      return ImmutableList.of(Prefix.create(ipIpSpace.getIp(), Prefix.MAX_PREFIX_LENGTH));
+    }
+
+    @Override
+    public List<Prefix> visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+      String name = ipSpaceReference.getName();
+      IpSpace referenced = _namedIpSpaces.get(name);
+      if (referenced == null) {
+        return ImmutableList.of();
+      }
+      if (!_visiting.add(name)) {
+        return null;
+      }
+      List<Prefix> prefixes = referenced.accept(this);
+      _visiting.remove(name);
+      return prefixes;
+    }
+
+    @Override
+    public List<Prefix> visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+      IpWildcard wildcard = ipWildcardIpSpace.getIpWildcard();
+      return wildcard.isPrefix() ? ImmutableList.of(wildcard.toPrefix()) : null;
+    }
+
+    @Override
+    public List<Prefix> visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+      // the blacklist only removes addresses, so the whitelist contains the whole space
+      ImmutableList.Builder<Prefix> prefixes = ImmutableList.builder();
+      for (IpWildcard wildcard : ipWildcardSetIpSpace.getWhitelist()) {
+        if (!wildcard.isPrefix()) {
+          return null;
+        }
+        prefixes.add(wildcard.toPrefix());
+      }
+      return prefixes.build();
+    }
+
+    @Override
+    public List<Prefix> visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+      return ImmutableList.of(prefixIpSpace.getPrefix());
+    }
+
+    @Override
+    public List<Prefix> visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.acl.AclCompiler.FlowMatcher;
+
+/**
+ * An {@link IpAccessList} compiled for fast repeated evaluation. {@link #filter(Flow, String)}
+ * returns the same result as {@link IpAccessList#filter(Flow, String, Map, Map)}.
+ *
+ * <p>Each line is compiled to a matcher with named {@link IpSpace IpSpaces} and referenced ACLs
+ * already resolved. Lines are also indexed by the destination prefixes they can match, so that a
+ * flow is only checked against lines that may match its destination IP.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledAcl {
+
+  /**
+   * Compile {@code acl}.
+   *
+   * @param availableAcls The ACLs that may be referenced by {@code acl}.
+   * @param namedIpSpaces The named {@link IpSpace IpSpaces} that may be referenced by {@code acl}.
+   */
+  public static @Nonnull CompiledAcl compile(
+      IpAccessList acl,
+      Map<String, IpAccessList> availableAcls,
+      Map<String, IpSpace> namedIpSpaces) {
+    return new CompiledAcl(acl, new AclCompiler(availableAcls, namedIpSpaces));
+  }
+
+  /** A node of a binary trie of destination IP prefixes */
+  private static final class TrieNode {
+    @Nullable TrieNode _zero;
+    @Nullable TrieNode _one;
+    List<Integer> _lineBuilder = new ArrayList<>();
+    int[] _lines;
+  }
+
+  private final IpAccessList _acl;
+
+  private final LineAction[] _actions;
+
+  private final FlowMatcher[] _matchers;
+
+  /** Root of the index of lines by destination prefix. */
+  private final TrieNode _root;
+
+  CompiledAcl(IpAccessList acl, AclCompiler compiler) {
+    _acl = acl;
+    List<IpAccessListLine> lines = acl.getLines();
+    _actions = new LineAction[lines.size()];
+    _matchers = new FlowMatcher[lines.size()];
+    _root = new TrieNode();
+    for (int i = 0; i < lines.size(); i++) {
+      IpAccessListLine line = lines.get(i);
+      _actions[i] = line.getAction();
+      _matchers[i] = compiler.compile(line.getMatchCondition());
+      List<Prefix> prefixes = compiler.dstPrefixes(line.getMatchCondition());
+      if (prefixes == null) {
+        _root._lineBuilder.add(i);
+      } else {
+        for (Prefix prefix : prefixes) {
+          insert(prefix, i);
+        }
+      }
+    }
+    freeze(_root);
+  }
+
+  private void insert(Prefix prefix, int line) {
+    TrieNode node = _root;
+    long ip = prefix.getStartIp().asLong();
+    for (int depth = 0; depth < prefix.getPrefixLength(); depth++) {
+      if (bit(ip, depth)) {
+        if (node._one == null) {
+          node._one = new TrieNode();
+        }
+        node = node._one;
+      } else {
+        if (node._zero == null) {
+          node._zero = new TrieNode();
+        }
+        node = node._zero;
+      }
+    }
+    List<Integer> lines = node._lineBuilder;
+    // a line may be inserted at the same node more than once
+    if (lines.isEmpty() || lines.get(lines.size() - 1) != line) {
+      lines.add(line);
+    }
+  }
+
+  private static void freeze(@Nullable TrieNode node) {
+    if (node == null) {
+      return;
+    }
+    node._lines = Ints.toArray(node._lineBuilder);
+    node._lineBuilder = null;
+    freeze(node._zero);
+    freeze(node._one);
+  }
+
+  private static boolean bit(long ip, int depth) {
+    return (ip & (1L << (Prefix.MAX_PREFIX_LENGTH - 1 - depth))) != 0;
+  }
+
+  /** The source {@link IpAccessList}. */
+  public @Nonnull IpAccessList getAcl() {
+    return _acl;
+  }
+
+  /**
+   * Returns the indices of the lines that may match a flow with destination IP {@code dstIp}, as
+   * sorted arrays (one for each trie node on the path to {@code dstIp}).
+   */
+  private List<int[]> candidates(long dstIp) {
+    List<int[]> candidates = new ArrayList<>();
+    TrieNode node = _root;
+    int depth = 0;
+    while (node != null) {
+      if (node._lines.length > 0) {
+        candidates.add(node._lines);
+      }
+      if (depth == Prefix.MAX_PREFIX_LENGTH) {
+        break;
+      }
+      node = bit(dstIp, depth) ? node._one : node._zero;
+      depth++;
+    }
+    return candidates;
+  }
+
+  /** Returns the indices of the lines that may match a flow with the given destination IP. */
+  @VisibleForTesting
+  int[] candidateLines(long dstIp) {
+    return candidates(dstIp).stream().flatMapToInt(Arrays::stream).sorted().toArray();
+  }
+
+  /** Same as {@link IpAccessList#filter(Flow, String, Map, Map)}. */
+  public @Nonnull FilterResult filter(Flow flow, @Nullable String srcInterface) {
+    return filter(flow, srcInterface, LineAction.DENY);
+  }
+
+  /** Same as {@link IpAccessList#filter(Flow, String, Map, Map, LineAction)}. */
+  public @Nonnull FilterResult filter(
+      Flow flow, @Nullable String srcInterface, LineAction defaultAction) {
+    List<int[]> candidates = candidates(flow.getDstIp().asLong());
+    int[] positions = new int[candidates.size()];
+    int last = -1;
+    while (true) {
+      // visit the candidates in line order: take the smallest unvisited line of any trie node
+      int next = Integer.MAX_VALUE;
+      int nextList = -1;
+      for (int i = 0; i < positions.length; i++) {
+        int[] lines = candidates.get(i);
+        if (positions[i] < lines.length && lines[positions[i]] < next) {
+          next = lines[positions[i]];
+          nextList = i;
+        }
+      }
+      if (nextList == -1) {
+        return new FilterResult(null, defaultAction);
+      }
+      positions[nextList]++;
+      if (next == last) {
+        // indexed under more than one prefix containing the destination IP
+        continue;
+      }
+      last = next;
+      if (_matchers[next].matches(flow, srcInterface)) {
+        return new FilterResult(next, _actions[next]);
+      }
+    }
+  }
+}
@@ -18,7 +18,6 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.ExcludedRows;
-import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 
 public final class AnswerMetadataUtil {
@@ -98,18 +97,18 @@ public final class AnswerMetadataUtil {
       throw new IllegalArgumentException(message);
     }
     Schema schema = columnMetadata.getSchema();
-    Function<Row, Integer> rowToInteger;
+    Function<Object, Integer> valueToInteger;
     if (schema.equals(Schema.INTEGER)) {
-      rowToInteger = r -> r.getInteger(column);
+      valueToInteger = v -> (Integer) v;
     } else if (schema.equals(Schema.ISSUE)) {
-      rowToInteger = r -> r.getIssue(column).getSeverity();
+      valueToInteger = v -> ((Issue) v).getSeverity();
     } else {
       // unsupported
       return null;
     }
-    return table.getRows().getData().stream()
-        .map(rowToInteger)
+    return table.getColumnarRows().getColumnValues(columnMetadata).stream()
         .filter(Objects::nonNull)
+        .map(valueToInteger)
         .max(Comparator.naturalOrder())
         .orElse(null);
   }
@@ -117,7 +116,7 @@ public final class AnswerMetadataUtil {
   @VisibleForTesting
   static Set<String> computeEmptyColumns(TableAnswerElement table) {
     return table.getMetadata().toColumnMap().keySet().stream()
-        .filter(column -> table.getRowsList().stream().allMatch(row -> !row.hasNonNull(column)))
+        .filter(column -> !table.getColumnarRows().hasNonNull(column))
         .collect(ImmutableSet.toImmutableSet());
   }
 
@@ -127,12 +126,9 @@ public final class AnswerMetadataUtil {
     // For every issue column of every row, extract the issue and use it to update the map
     table.getMetadata().getColumnMetadata().stream()
         .filter(c -> c.getSchema().equals(Schema.ISSUE))
-        .map(ColumnMetadata::getName)
-        .flatMap(
-            column ->
-                table.getRowsList().stream()
-                    .filter(row -> row.hasNonNull(column))
-                    .map(row -> row.getIssue(column)))
+        .flatMap(column -> table.getColumnarRows().getColumnValues(column).stream())
+        .filter(Objects::nonNull)
+        .map(Issue.class::cast)
         .forEach(
             issue ->
                 majorIssueConfigs
@@ -156,7 +152,7 @@ public final class AnswerMetadataUtil {
       return null;
     }
     TableAnswerElement table = (TableAnswerElement) ae;
-    int numRows = table.getRowsList().size();
+    int numRows = table.getColumnarRows().size();
     int numExcludedRows =
         table.getExcludedRows().stream().map(ExcludedRows::getRowsList).mapToInt(List::size).sum();
     ImmutableList.Builder<ColumnAggregation> columnAggregationsBuilder = ImmutableList.builder();
@@ -11,16 +11,24 @@ import org.batfish.common.ErrorDetails;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warning;
 import org.batfish.common.Warnings;
+import org.batfish.datamodel.ConfigurationFormat;
 
 public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  private static final String PROP_DFA_MISSES = "dfaMisses";
+
   private static final String PROP_FILE_MAP = "fileMap";
 
+  private static final String PROP_PARSE_TIMES = "parseTimes";
+
   private static final String PROP_VERSION = "version";
 
+  /* Map of filename to the number of times parsing the file missed the parser DFA */
+  private SortedMap<String, Long> _dfaMisses;
+
   private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
 
   /* Map of hostname to source filenames (e.g. "configs/foo.cfg") */
@@ -30,6 +38,9 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private SortedMap<String, ParseStatus> _parseStatus;
 
+  /* Map of configuration format to the distribution of the times taken to parse files */
+  private SortedMap<ConfigurationFormat, TimingHistogram> _parseTimes;
+
   private SortedMap<String, ParseTreeSentences> _parseTrees;
 
   private String _version;
@@ -38,8 +49,10 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
   private SortedMap<String, Warnings> _warnings;
 
   public ParseVendorConfigurationAnswerElement() {
+    _dfaMisses = new TreeMap<>();
     _fileMap = TreeMultimap.create();
     _parseStatus = new TreeMap<>();
+    _parseTimes = new TreeMap<>();
     _parseTrees = new TreeMap<>();
     _warnings = new TreeMap<>();
     _errors = new TreeMap<>();
@@ -54,6 +67,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _warnings.computeIfAbsent(name, n -> new Warnings()).getUnimplementedWarnings().add(warning);
   }
 
+  /**
+   * Returns the number of predictions that missed the DFA shared by the parsers of the grammar and
+   * had to simulate the ATN, for each file that had any. Most misses mean that the parser caches
+   * were cold.
+   */
+  @JsonProperty(PROP_DFA_MISSES)
+  public SortedMap<String, Long> getDfaMisses() {
+    return _dfaMisses;
+  }
+
   @Override
   public SortedMap<String, BatfishException.BatfishStackTrace> getErrors() {
     return _errors;
@@ -74,6 +97,11 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     return _parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_TIMES)
+  public SortedMap<ConfigurationFormat, TimingHistogram> getParseTimes() {
+    return _parseTimes;
+  }
+
   @Override
   public SortedMap<String, ParseTreeSentences> getParseTrees() {
     return _parseTrees;
@@ -122,6 +150,11 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     return retString.toString();
   }
 
+  @JsonProperty(PROP_DFA_MISSES)
+  public void setDfaMisses(SortedMap<String, Long> dfaMisses) {
+    _dfaMisses = dfaMisses;
+  }
+
   @Override
   public void setErrors(SortedMap<String, BatfishException.BatfishStackTrace> errors) {
     _errors = errors;
@@ -137,6 +170,11 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _parseStatus = parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_TIMES)
+  public void setParseTimes(SortedMap<ConfigurationFormat, TimingHistogram> parseTimes) {
+    _parseTimes = parseTimes;
+  }
+
   @Override
   public void setParseTrees(SortedMap<String, ParseTreeSentences> parseTrees) {
     _parseTrees = parseTrees;
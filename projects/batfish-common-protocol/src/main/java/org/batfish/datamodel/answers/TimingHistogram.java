@@ -0,0 +1,125 @@
+package org.batfish.datamodel.answers;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A histogram of durations, in milliseconds. Each bucket counts the durations that are at most its
+ * bound and more than the bound of the previous bucket; bounds are powers of two, so that the tail
+ * of the distribution is visible without many buckets.
+ */
+public final class TimingHistogram implements Serializable {
+
+  private static final String PROP_BUCKETS = "buckets";
+
+  private static final String PROP_COUNT = "count";
+
+  private static final String PROP_MAX_MILLIS = "maxMillis";
+
+  private static final String PROP_TOTAL_MILLIS = "totalMillis";
+
+  private static final long serialVersionUID = 1L;
+
+  @JsonCreator
+  private static @Nonnull TimingHistogram create(
+      @JsonProperty(PROP_BUCKETS) @Nullable SortedMap<Long, Integer> buckets,
+      @JsonProperty(PROP_COUNT) int count,
+      @JsonProperty(PROP_MAX_MILLIS) long maxMillis,
+      @JsonProperty(PROP_TOTAL_MILLIS) long totalMillis) {
+    return new TimingHistogram(
+        new TreeMap<>(firstNonNull(buckets, new TreeMap<>())), count, maxMillis, totalMillis);
+  }
+
+  /** Returns the bound of the bucket counting {@code millis}. */
+  static long getBucketBound(long millis) {
+    return millis <= 1 ? 1 : Long.highestOneBit(millis - 1) << 1;
+  }
+
+  private final SortedMap<Long, Integer> _buckets;
+
+  private int _count;
+
+  private long _maxMillis;
+
+  private long _totalMillis;
+
+  public TimingHistogram() {
+    this(new TreeMap<>(), 0, 0L, 0L);
+  }
+
+  private TimingHistogram(
+      SortedMap<Long, Integer> buckets, int count, long maxMillis, long totalMillis) {
+    _buckets = buckets;
+    _count = count;
+    _maxMillis = maxMillis;
+    _totalMillis = totalMillis;
+  }
+
+  /** Adds a duration of {@code millis} milliseconds. */
+  public void add(long millis) {
+    _buckets.merge(getBucketBound(millis), 1, Integer::sum);
+    _count++;
+    _maxMillis = Math.max(_maxMillis, millis);
+    _totalMillis += millis;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof TimingHistogram)) {
+      return false;
+    }
+    TimingHistogram rhs = (TimingHistogram) obj;
+    return _buckets.equals(rhs._buckets)
+        && _count == rhs._count
+        && _maxMillis == rhs._maxMillis
+        && _totalMillis == rhs._totalMillis;
+  }
+
+  /** Returns the number of durations in each bucket, keyed by the bound of the bucket. */
+  @JsonProperty(PROP_BUCKETS)
+  public @Nonnull SortedMap<Long, Integer> getBuckets() {
+    return _buckets;
+  }
+
+  @JsonProperty(PROP_COUNT)
+  public int getCount() {
+    return _count;
+  }
+
+  @JsonProperty(PROP_MAX_MILLIS)
+  public long getMaxMillis() {
+    return _maxMillis;
+  }
+
+  @JsonProperty(PROP_TOTAL_MILLIS)
+  public long getTotalMillis() {
+    return _totalMillis;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_buckets, _count, _maxMillis, _totalMillis);
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(getClass())
+        .add(PROP_BUCKETS, _buckets)
+        .add(PROP_COUNT, _count)
+        .add(PROP_MAX_MILLIS, _maxMillis)
+        .add(PROP_TOTAL_MILLIS, _totalMillis)
+        .toString();
+  }
+}
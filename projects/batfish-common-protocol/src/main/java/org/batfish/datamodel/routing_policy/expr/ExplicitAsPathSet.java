@@ -7,10 +7,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.regex.RegexMatchers;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.routing_policy.Environment;
@@ -88,7 +88,7 @@ public final class ExplicitAsPathSet extends AsPathSetExpr {
     String asPathStr = asPath.size() == 0 ? "" : " " + asPath.getAsPathString();
     return _elems.stream()
         .map(AsPathSetElem::regex)
-        .anyMatch(r -> Pattern.compile(r).matcher(asPathStr).find());
+        .anyMatch(r -> RegexMatchers.matcher(r).find(asPathStr));
   }
 
   public void setElems(List<AsPathSetElem> elems) {
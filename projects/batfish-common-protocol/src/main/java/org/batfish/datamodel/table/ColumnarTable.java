@@ -0,0 +1,350 @@
+package org.batfish.datamodel.table;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.SchemaUtils;
+
+/**
+ * The rows of a table, stored column by column.
+ *
+ * <p>Each column is dictionary-encoded: every distinct value in the column is stored once, and each
+ * row holds the code of its value. Answers typically repeat a small set of node, VRF, and protocol
+ * names across many rows, so this takes much less memory than a {@link Row} per row. Filters and
+ * sorts work on the codes, evaluating, decoding, or comparing each distinct value just once.
+ *
+ * <p>{@link Row Rows} are materialized on demand, with their columns in the order they were added.
+ *
+ * <p>Adding rows is not thread-safe. Once all rows are added, the table may be read concurrently.
+ */
+@ParametersAreNonnullByDefault
+public final class ColumnarTable {
+
+  /** The code of a column that is absent from a row */
+  private static final int ABSENT = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Distinct values and the code of each of a sequence of rows */
+  private static final class Dictionary<T> {
+
+    private int[] _codes;
+
+    private final Map<T, Integer> _index;
+
+    private final List<T> _values;
+
+    private Dictionary(int capacity, int size) {
+      _codes = new int[capacity];
+      Arrays.fill(_codes, 0, size, ABSENT);
+      _index = new HashMap<>();
+      _values = new ArrayList<>();
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (_codes.length < capacity) {
+        _codes = Arrays.copyOf(_codes, capacity);
+      }
+    }
+
+    private int getCode(int rowIndex) {
+      return _codes[rowIndex];
+    }
+
+    private @Nonnull T getValue(int code) {
+      return _values.get(code);
+    }
+
+    private int numValues() {
+      return _values.size();
+    }
+
+    private void set(int rowIndex, T value) {
+      _codes[rowIndex] =
+          _index.computeIfAbsent(
+              value,
+              v -> {
+                _values.add(v);
+                return _values.size() - 1;
+              });
+    }
+
+    private void setAbsent(int rowIndex) {
+      _codes[rowIndex] = ABSENT;
+    }
+  }
+
+  /** A column, with its values decoded according to a schema on first use */
+  private static final class Column {
+
+    private @Nullable Object[] _decoded;
+
+    private @Nullable Schema _decodedSchema;
+
+    private final Dictionary<JsonNode> _dictionary;
+
+    private final String _name;
+
+    private Column(String name, int capacity, int size) {
+      _name = name;
+      _dictionary = new Dictionary<>(capacity, size);
+    }
+
+    private int getCode(int rowIndex) {
+      int code = _dictionary.getCode(rowIndex);
+      if (code == ABSENT) {
+        throw new NoSuchElementException(
+            String.format("Column '%s' is not present in row %d", _name, rowIndex));
+      }
+      return code;
+    }
+
+    /** Returns the decoded values, indexed by code. Synchronized since they are cached. */
+    private synchronized @Nonnull Object[] getDecoded(Schema schema) {
+      if (_decoded == null
+          || _decoded.length != _dictionary.numValues()
+          || !schema.equals(_decodedSchema)) {
+        Object[] decoded = new Object[_dictionary.numValues()];
+        for (int code = 0; code < decoded.length; code++) {
+          JsonNode value = _dictionary.getValue(code);
+          decoded[code] = value.isNull() ? null : SchemaUtils.convertType(value, schema);
+        }
+        _decoded = decoded;
+        _decodedSchema = schema;
+      }
+      return _decoded;
+    }
+  }
+
+  private int _capacity;
+
+  private final Map<String, Column> _columns;
+
+  /** The names of the columns of each row, in order */
+  private final Dictionary<List<String>> _layouts;
+
+  private int _size;
+
+  public ColumnarTable() {
+    _capacity = INITIAL_CAPACITY;
+    _columns = new LinkedHashMap<>();
+    _layouts = new Dictionary<>(_capacity, 0);
+  }
+
+  /** Appends {@code row} to the table. */
+  public void add(Row row) {
+    if (_size == _capacity) {
+      _capacity *= 2;
+      _layouts.ensureCapacity(_capacity);
+      _columns.values().forEach(column -> column._dictionary.ensureCapacity(_capacity));
+    }
+    ImmutableList.Builder<String> layout = ImmutableList.builder();
+    Iterator<Map.Entry<String, JsonNode>> fields = row.getData().fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      layout.add(field.getKey());
+      _columns
+          .computeIfAbsent(field.getKey(), name -> new Column(name, _capacity, _size))
+          ._dictionary
+          .set(_size, field.getValue());
+    }
+    List<String> columnNames = layout.build();
+    if (columnNames.size() < _columns.size()) {
+      _columns.values().stream()
+          .filter(column -> !columnNames.contains(column._name))
+          .forEach(column -> column._dictionary.setAbsent(_size));
+    }
+    _layouts.set(_size, columnNames);
+    _size++;
+  }
+
+  private @Nonnull Column getColumn(String columnName) {
+    Column column = _columns.get(columnName);
+    if (column == null) {
+      throw new NoSuchElementException(
+          Row.missingColumnErrorMessage(columnName, _columns.keySet()));
+    }
+    return column;
+  }
+
+  /**
+   * Returns the value of {@code columnMetadata} in each row, converted according to its schema, or
+   * {@code null} in rows where it is null or absent. Each distinct value is converted once and
+   * shared between rows, so the values must not be modified.
+   */
+  public @Nonnull List<Object> getColumnValues(ColumnMetadata columnMetadata) {
+    Column column = _columns.get(columnMetadata.getName());
+    if (column == null) {
+      return Collections.nCopies(_size, null);
+    }
+    Object[] decoded = column.getDecoded(columnMetadata.getSchema());
+    List<Object> values = new ArrayList<>(_size);
+    for (int rowIndex = 0; rowIndex < _size; rowIndex++) {
+      int code = column._dictionary.getCode(rowIndex);
+      values.add(code == ABSENT ? null : decoded[code]);
+    }
+    return values;
+  }
+
+  /** Returns the row at {@code rowIndex}. Each call returns a new {@link Row}. */
+  public @Nonnull Row getRow(int rowIndex) {
+    checkArgument(rowIndex >= 0 && rowIndex < _size, "No row at index %s", rowIndex);
+    ObjectNode data = BatfishObjectMapper.mapper().createObjectNode();
+    for (String columnName : _layouts.getValue(_layouts.getCode(rowIndex))) {
+      Column column = _columns.get(columnName);
+      data.set(columnName, column._dictionary.getValue(column._dictionary.getCode(rowIndex)));
+    }
+    return new Row(data);
+  }
+
+  /** Returns all the rows, in order. */
+  public @Nonnull List<Row> getRows() {
+    return IntStream.range(0, _size)
+        .mapToObj(this::getRow)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Returns the values of {@code columns} in the row at {@code rowIndex}, converted according to
+   * their schemas, as {@link Row#get(String, Schema)} would. Each distinct value is converted once
+   * and shared between rows, so the values must not be modified.
+   *
+   * @throws NoSuchElementException if one of the columns is not present in the row
+   */
+  public @Nonnull List<Object> getValues(int rowIndex, List<ColumnMetadata> columns) {
+    List<Object> values = new ArrayList<>(columns.size());
+    for (ColumnMetadata columnMetadata : columns) {
+      Column column = getColumn(columnMetadata.getName());
+      values.add(column.getDecoded(columnMetadata.getSchema())[column.getCode(rowIndex)]);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the indices of the rows whose value in {@code columnName} satisfies {@code predicate},
+   * which is evaluated once per distinct value.
+   *
+   * @throws NoSuchElementException if the column is not present in some row
+   */
+  public @Nonnull BitSet matching(String columnName, Predicate<JsonNode> predicate) {
+    BitSet matching = new BitSet(_size);
+    if (_size == 0) {
+      return matching;
+    }
+    Column column = getColumn(columnName);
+    BitSet matchingCodes = new BitSet(column._dictionary.numValues());
+    for (int code = 0; code < column._dictionary.numValues(); code++) {
+      if (predicate.test(column._dictionary.getValue(code))) {
+        matchingCodes.set(code);
+      }
+    }
+    for (int rowIndex = 0; rowIndex < _size; rowIndex++) {
+      if (matchingCodes.get(column.getCode(rowIndex))) {
+        matching.set(rowIndex);
+      }
+    }
+    return matching;
+  }
+
+  /**
+   * Returns whether some row has a non-null value in {@code columnName}, as {@link
+   * Row#hasNonNull(String)} would. Checks each distinct value once.
+   */
+  public boolean hasNonNull(String columnName) {
+    Column column = _columns.get(columnName);
+    if (column == null) {
+      return false;
+    }
+    // every value in the dictionary is the value of some row
+    for (int code = 0; code < column._dictionary.numValues(); code++) {
+      if (!column._dictionary.getValue(code).isNull()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the number of rows. */
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * Returns {@code rowIndices} sorted by the values of {@code columns}, converted according to
+   * their schemas and compared with the corresponding {@code comparators}; {@code null} values
+   * must be handled by the comparators. The sort is stable.
+   *
+   * <p>The distinct values of each column are sorted once to rank them, and the rows are then
+   * sorted by rank.
+   *
+   * @throws NoSuchElementException if one of the columns is not present in some row
+   */
+  public @Nonnull int[] sort(
+      int[] rowIndices,
+      List<ColumnMetadata> columns,
+      List<? extends Comparator<Object>> comparators) {
+    checkArgument(
+        columns.size() == comparators.size(), "Need a comparator for each of %s", columns);
+    if (rowIndices.length == 0) {
+      return rowIndices.clone();
+    }
+    int[][] ranks = new int[columns.size()][];
+    for (int i = 0; i < columns.size(); i++) {
+      ranks[i] = rank(columns.get(i), comparators.get(i));
+    }
+    Comparator<Integer> byRank =
+        (a, b) -> {
+          for (int[] columnRanks : ranks) {
+            int result = Integer.compare(columnRanks[a], columnRanks[b]);
+            if (result != 0) {
+              return result;
+            }
+          }
+          return 0;
+        };
+    // sorting a sequential stream is stable
+    return Arrays.stream(rowIndices).boxed().sorted(byRank).mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Returns the rank under {@code comparator} of the value of {@code columnMetadata} in each row,
+   * indexed by row. Equal values have equal ranks.
+   */
+  private @Nonnull int[] rank(ColumnMetadata columnMetadata, Comparator<Object> comparator) {
+    Column column = getColumn(columnMetadata.getName());
+    Object[] decoded = column.getDecoded(columnMetadata.getSchema());
+    Integer[] codes = new Integer[decoded.length];
+    Arrays.setAll(codes, code -> code);
+    Arrays.sort(codes, (a, b) -> comparator.compare(decoded[a], decoded[b]));
+    int[] codeRanks = new int[decoded.length];
+    for (int i = 1; i < codes.length; i++) {
+      boolean tied = comparator.compare(decoded[codes[i - 1]], decoded[codes[i]]) == 0;
+      codeRanks[codes[i]] = tied ? codeRanks[codes[i - 1]] : i;
+    }
+    int[] rowRanks = new int[_size];
+    for (int rowIndex = 0; rowIndex < _size; rowIndex++) {
+      rowRanks[rowIndex] = codeRanks[column.getCode(rowIndex)];
+    }
+    return rowRanks;
+  }
+}
@@ -176,7 +176,7 @@ public class Row implements Comparable<Row>, Serializable {
   }
 
   @JsonCreator
-  private Row(ObjectNode data) {
+  Row(ObjectNode data) {
     _data = firstNonNull(data, BatfishObjectMapper.mapper().createObjectNode());
   }
 
@@ -283,7 +283,7 @@ public class Row implements Comparable<Row>, Serializable {
   }
 
   @JsonValue
-  private ObjectNode getData() {
+  ObjectNode getData() {
     return _data;
   }
 
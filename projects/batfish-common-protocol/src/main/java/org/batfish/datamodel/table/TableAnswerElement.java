@@ -5,7 +5,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,17 +28,14 @@ public final class TableAnswerElement extends AnswerElement {
 
   private List<ExcludedRows> _excludedRows;
 
-  private Rows _rows;
-
-  private List<Row> _rowsList;
+  private ColumnarTable _rows;
 
   private TableMetadata _tableMetadata;
 
   @JsonCreator
   public TableAnswerElement(@Nonnull @JsonProperty(PROP_METADATA) TableMetadata tableMetadata) {
     _tableMetadata = tableMetadata;
-    _rows = new Rows();
-    _rowsList = new LinkedList<>();
+    _rows = new ColumnarTable();
     _excludedRows = new LinkedList<>();
   }
 
@@ -55,7 +51,6 @@ public final class TableAnswerElement extends AnswerElement {
         row.getColumnNames(),
         _tableMetadata.toColumnMap().keySet());
     _rows.add(row);
-    _rowsList.add(row);
     return this;
   }
 
@@ -127,7 +122,7 @@ public final class TableAnswerElement extends AnswerElement {
         } catch (IOException e) {
           throw new BatfishException("Could not recover Rows object from expect", e);
         }
-        return _rows.equals(expectedEntries);
+        return getRows().equals(expectedEntries);
       default:
         throw new BatfishException("Unhandled assertion type: " + assertion.getType());
     }
@@ -143,14 +138,32 @@ public final class TableAnswerElement extends AnswerElement {
     return _tableMetadata;
   }
 
+  /** Returns the rows in columnar form, to filter and sort them without materializing them */
   @JsonIgnore
-  public Rows getRows() {
+  public ColumnarTable getColumnarRows() {
     return _rows;
   }
 
+  /**
+   * Returns a copy of the rows of this table, as a new {@link Rows}. Each call materializes and
+   * copies every row, so prefer {@link #getColumnarRows()} to count, filter, or sort the rows, or
+   * to read some of their columns.
+   */
+  @JsonIgnore
+  public Rows getRows() {
+    Rows rows = new Rows();
+    _rows.getRows().forEach(rows::add);
+    return rows;
+  }
+
+  /**
+   * Returns a copy of the rows of this table, as a new list in the order they were added. Each call
+   * materializes and copies every row, like {@link #getRows()}; prefer {@link #getColumnarRows()}
+   * except to serialize the table.
+   */
   @JsonProperty(PROP_ROWS)
   public List<Row> getRowsList() {
-    return ImmutableList.copyOf(_rowsList);
+    return _rows.getRows();
   }
 
   /**
@@ -182,13 +195,9 @@ public final class TableAnswerElement extends AnswerElement {
 
   @JsonProperty(PROP_ROWS)
   private void setRowsList(List<Row> rows) {
-    _rows = new Rows();
-    if (rows == null) {
-      _rowsList = new LinkedList<>();
-
-    } else {
-      _rowsList = rows;
+    _rows = new ColumnarTable();
+    if (rows != null) {
+      rows.forEach(_rows::add);
     }
-    _rowsList.forEach(_rows::add);
   }
 }
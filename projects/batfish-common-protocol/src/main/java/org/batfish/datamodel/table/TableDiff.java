@@ -6,7 +6,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,20 +37,25 @@ public final class TableDiff {
   }
 
   /**
-   * Returns a map over {@code rows}, where the key is the key of the {@link Row} and the value is a
-   * list of {@link Row}s with that key.
+   * Returns a map over {@code rows}, where the key is the key of a row and the value is a list of
+   * the indices of the rows with that key.
    */
   @VisibleForTesting
-  static Map<List<Object>, List<Row>> buildMap(Rows rows, List<ColumnMetadata> metadata) {
-    Map<List<Object>, List<Row>> map = new HashMap<>();
-    Iterator<Row> iterator = rows.iterator();
-    while (iterator.hasNext()) {
-      Row row = iterator.next();
-      map.computeIfAbsent(row.getKey(metadata), k -> new LinkedList<>()).add(row);
+  static Map<List<Object>, List<Integer>> buildMap(
+      ColumnarTable rows, List<ColumnMetadata> metadata) {
+    List<ColumnMetadata> keyColumns = keyColumns(metadata);
+    Map<List<Object>, List<Integer>> map = new HashMap<>();
+    for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+      map.computeIfAbsent(rows.getValues(rowIndex, keyColumns), k -> new LinkedList<>())
+          .add(rowIndex);
     }
     return map;
   }
 
+  private static List<ColumnMetadata> keyColumns(List<ColumnMetadata> metadata) {
+    return metadata.stream().filter(ColumnMetadata::getIsKey).collect(Collectors.toList());
+  }
+
   /** Returns the modified column name to represent the delta value of the original column */
   public static String deltaColumnName(String originalColumnName) {
     return COL_DELTA_PREFIX + originalColumnName;
@@ -164,33 +168,41 @@ public final class TableDiff {
             .map(ColumnMetadata::getName)
             .collect(Collectors.toList());
 
+    List<ColumnMetadata> keyColumnMetadata = keyColumns(inputMetadata.getColumnMetadata());
+
     List<ColumnMetadata> valueColumns =
         inputMetadata.getColumnMetadata().stream()
             .filter(cm -> (!cm.getIsKey() && cm.getIsValue()))
             .collect(Collectors.toList());
 
+    // keys and values are compared on the columnar rows, so that only the rows that end up in the
+    // diff are materialized
+    ColumnarTable baseRows = baseTable.getColumnarRows();
+    ColumnarTable deltaRows = deltaTable.getColumnarRows();
+
     Set<Object> baseKeys = new HashSet<>();
 
-    Iterator<Row> baseRows = baseTable.getRows().iterator();
-    Map<List<Object>, List<Row>> deltaMap =
-        buildMap(deltaTable.getRows(), inputMetadata.getColumnMetadata());
-    while (baseRows.hasNext()) {
-      Row baseRow = baseRows.next();
-      Object baseKey = baseRow.getKey(inputMetadata.getColumnMetadata());
+    Map<List<Object>, List<Integer>> deltaMap =
+        buildMap(deltaRows, inputMetadata.getColumnMetadata());
+    for (int baseIndex = 0; baseIndex < baseRows.size(); baseIndex++) {
+      List<Object> baseKey = baseRows.getValues(baseIndex, keyColumnMetadata);
       baseKeys.add(baseKey);
-      List<Row> deltaRows = deltaMap.get(baseKey);
-      if (deltaRows == null) { // no matching keys in delta table
+      List<Integer> deltaIndices = deltaMap.get(baseKey);
+      if (deltaIndices == null) { // no matching keys in delta table
         if (includeOneTableKeys) {
+          Row baseRow = baseRows.getRow(baseIndex);
           RowBuilder diffRowBuilder = Row.builder(diffColumnMap).putAll(baseRow, keyColumns);
           diffRowValues(diffRowBuilder, baseRow, null, inputMetadata);
           diffTable.addRow(diffRowBuilder.build());
         }
       } else {
-        for (Row deltaRow : deltaRows) {
+        List<Object> baseValue = baseRows.getValues(baseIndex, valueColumns);
+        for (int deltaIndex : deltaIndices) {
           // insert delta rows that are unequal
-          if (!baseRow.getValue(valueColumns).equals(deltaRow.getValue(valueColumns))) {
+          if (!baseValue.equals(deltaRows.getValues(deltaIndex, valueColumns))) {
+            Row baseRow = baseRows.getRow(baseIndex);
             RowBuilder diffRowBuilder = Row.builder(diffColumnMap).putAll(baseRow, keyColumns);
-            diffRowValues(diffRowBuilder, baseRow, deltaRow, inputMetadata);
+            diffRowValues(diffRowBuilder, baseRow, deltaRows.getRow(deltaIndex), inputMetadata);
             diffTable.addRow(diffRowBuilder.build());
           }
         }
@@ -198,13 +210,11 @@ public final class TableDiff {
     }
     if (includeOneTableKeys) {
       // process keys that are present only in delta
-      Iterator<Row> deltaRows = deltaTable.getRows().iterator();
-      while (deltaRows.hasNext()) {
-        Row deltaRow = deltaRows.next();
-        Object deltaKey = deltaRow.getKey(inputMetadata.getColumnMetadata());
-        if (baseKeys.contains(deltaKey)) {
+      for (int deltaIndex = 0; deltaIndex < deltaRows.size(); deltaIndex++) {
+        if (baseKeys.contains(deltaRows.getValues(deltaIndex, keyColumnMetadata))) {
           continue;
         }
+        Row deltaRow = deltaRows.getRow(deltaIndex);
         RowBuilder diffRowBuilder = Row.builder(diffColumnMap).putAll(deltaRow, keyColumns);
         diffRowValues(diffRowBuilder, null, deltaRow, inputMetadata);
         diffTable.addRow(diffRowBuilder.build());
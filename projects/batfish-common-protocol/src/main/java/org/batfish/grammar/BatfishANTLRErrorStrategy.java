@@ -1,8 +1,9 @@
 package org.batfish.grammar;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.InputMismatchException;
 import org.antlr.v4.runtime.IntStream;
@@ -63,12 +64,17 @@ public class BatfishANTLRErrorStrategy extends DefaultErrorStrategy {
     }
   }
 
-  private final String[] _lines;
+  /** The offset in {@code _text} at which each line starts, computed on first use */
+  @Nullable private int[] _lineStarts;
 
   private boolean _recoveredAtEof;
 
+  private final String _separatorText;
+
   private int _separatorToken;
 
+  private final String _text;
+
   private String _parserStateAtRecovery;
 
   /**
@@ -83,8 +89,9 @@ public class BatfishANTLRErrorStrategy extends DefaultErrorStrategy {
    */
   private BatfishANTLRErrorStrategy(
       int separatorToken, String minimumRequiredSeparatorText, String text) {
-    _lines = text.split(Pattern.quote(minimumRequiredSeparatorText), -1);
+    _separatorText = minimumRequiredSeparatorText;
     _separatorToken = separatorToken;
+    _text = text;
   }
 
   /**
@@ -121,6 +128,27 @@ public class BatfishANTLRErrorStrategy extends DefaultErrorStrategy {
     consumeUntil(parser, IntervalSet.of(_separatorToken));
   }
 
+  /**
+   * Returns the text of the given (1-based) line, without its separator. Lines are located on first
+   * use rather than copied out of the text, since most files have few unrecognized lines.
+   */
+  private String getLineText(int line) {
+    if (_lineStarts == null) {
+      List<Integer> lineStarts = new ArrayList<>();
+      lineStarts.add(0);
+      for (int i = _text.indexOf(_separatorText);
+          i != -1;
+          i = _text.indexOf(_separatorText, i + _separatorText.length())) {
+        lineStarts.add(i + _separatorText.length());
+      }
+      _lineStarts = lineStarts.stream().mapToInt(Integer::intValue).toArray();
+    }
+    int start = _lineStarts[line - 1];
+    int end =
+        line < _lineStarts.length ? _lineStarts[line] - _separatorText.length() : _text.length();
+    return _text.substring(start, end);
+  }
+
   /**
    * Create an error node with the text of the current line and insert it into parse tree
    *
@@ -137,7 +165,7 @@ public class BatfishANTLRErrorStrategy extends DefaultErrorStrategy {
     if (separator.getType() == Lexer.EOF) {
       _recoveredAtEof = true;
     }
-    String lineText = _lines[separator.getLine() - 1] + separator.getText();
+    String lineText = getLineText(separator.getLine()) + separator.getText();
     Token lineToken =
         new UnrecognizedLineToken(lineText, separator.getLine(), _parserStateAtRecovery);
     ErrorNode errorNode = recognizer.createErrorNode(ctx, lineToken);
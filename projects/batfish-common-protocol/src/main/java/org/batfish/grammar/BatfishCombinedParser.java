@@ -1,24 +1,101 @@
 package org.batfish.grammar;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
 import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.common.BatfishException;
 import org.batfish.grammar.flattener.FlattenerLineMap;
 
 public abstract class BatfishCombinedParser<P extends BatfishParser, L extends BatfishLexer> {
 
+  /**
+   * A stream over part of a text that reports the positions of characters in the whole text, so
+   * that tokens lexed from the part have the same positions as if the whole text had been lexed.
+   */
+  private static final class OffsetCharStream implements CharStream {
+
+    private final CharStream _delegate;
+
+    private final int _offset;
+
+    private OffsetCharStream(CharStream delegate, int offset) {
+      _delegate = delegate;
+      _offset = offset;
+    }
+
+    @Override
+    public void consume() {
+      _delegate.consume();
+    }
+
+    @Override
+    public String getSourceName() {
+      return _delegate.getSourceName();
+    }
+
+    @Override
+    public String getText(Interval interval) {
+      return _delegate.getText(Interval.of(interval.a - _offset, interval.b - _offset));
+    }
+
+    @Override
+    public int index() {
+      return _delegate.index() + _offset;
+    }
+
+    @Override
+    public int LA(int i) {
+      return _delegate.LA(i);
+    }
+
+    @Override
+    public int mark() {
+      return _delegate.mark();
+    }
+
+    @Override
+    public void release(int marker) {
+      _delegate.release(marker);
+    }
+
+    @Override
+    public void seek(int index) {
+      _delegate.seek(index - _offset);
+    }
+
+    @Override
+    public int size() {
+      return _delegate.size() + _offset;
+    }
+  }
+
   private int _currentModeStart;
 
+  /** The tree of the chunk parsed by this parser, while chunks are being merged */
+  @Nullable private ParserRuleContext _chunkTree;
+
+  /** DFA misses of the parsers of the chunks merged into this one */
+  private long _chunkDfaMisses;
+
   private final List<String> _errors;
 
   private String _input;
@@ -119,6 +196,20 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
     return offendingTokenText.replace("\n", "\\n").replace("\t", "\\t").replace("\r", "\\r");
   }
 
+  /**
+   * Returns the number of predictions that missed the DFA shared by all parsers of this grammar and
+   * had to simulate the ATN, which is how much parsing the input added to the DFA. This is only
+   * counted with the {@link BatfishParserATNSimulator recovery infrastructure}, and is {@code 0}
+   * otherwise.
+   */
+  public long getDfaMisses() {
+    ParserATNSimulator interpreter = _parser.getInterpreter();
+    return _chunkDfaMisses
+        + (interpreter instanceof BatfishParserATNSimulator
+            ? ((BatfishParserATNSimulator) interpreter).getDfaMisses()
+            : 0L);
+  }
+
   public List<String> getErrors() {
     return _errors;
   }
@@ -185,6 +276,118 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
 
   public abstract ParserRuleContext parse();
 
+  /**
+   * Parses the input as consecutive chunks, in parallel, and returns the parse tree of the whole
+   * input.
+   *
+   * <p>Chunk {@code i} runs from offset {@code chunkStarts.get(i)} of the input to the start of
+   * the next chunk, and must consist of whole top-level statements of the grammar. Each chunk is
+   * parsed by its own parser from {@code newParser}, which must have the same input as this parser;
+   * token positions and lines are those in the whole input. The returned tree is the tree of the
+   * first chunk, with the top-level children of the trees of the other chunks appended in order;
+   * labeled lists of the root rule only hold the children of the first chunk. This parser then
+   * holds the tokens of the whole input, as if it had parsed it, and the errors and warnings of all
+   * chunks.
+   *
+   * <p>Returns {@code null}, leaving this parser untouched, if some chunk cannot be parsed on its
+   * own: its parser fails or reports errors, or its lexer ends in a state other than its initial
+   * state (see {@link BatfishLexer#isInInitialState()}), which means the tokens of the next chunk
+   * depend on this one. {@link #parse()} may then be called.
+   */
+  public @Nullable ParserRuleContext parseInChunks(
+      List<Integer> chunkStarts, Supplier<? extends BatfishCombinedParser<P, L>> newParser) {
+    checkArgument(
+        !chunkStarts.isEmpty() && chunkStarts.get(0) == 0, "The first chunk must start at 0");
+    List<ForkJoinTask<BatfishCombinedParser<P, L>>> tasks = new ArrayList<>(chunkStarts.size());
+    int line = 1;
+    for (int i = 0; i < chunkStarts.size(); i++) {
+      int start = chunkStarts.get(i);
+      int end = i + 1 < chunkStarts.size() ? chunkStarts.get(i + 1) : _input.length();
+      int startLine = line;
+      tasks.add(
+          ForkJoinTask.adapt(
+                  () -> {
+                    BatfishCombinedParser<P, L> parser = newParser.get();
+                    parser.setInputRange(start, end, startLine);
+                    parser._chunkTree = parser.parse();
+                    return parser;
+                  })
+              .fork());
+      for (int j = start; j < end; j++) {
+        if (_input.charAt(j) == '\n') {
+          line++;
+        }
+      }
+    }
+
+    List<BatfishCombinedParser<P, L>> parsers = new ArrayList<>(tasks.size());
+    boolean failed = false;
+    for (ForkJoinTask<BatfishCombinedParser<P, L>> task : tasks) {
+      try {
+        BatfishCombinedParser<P, L> parser = task.join();
+        boolean last = parsers.size() == tasks.size() - 1;
+        failed |= !parser._errors.isEmpty() || (!last && !parser._lexer.isInInitialState());
+        parsers.add(parser);
+      } catch (RuntimeException e) {
+        failed = true;
+      }
+    }
+    if (failed) {
+      return null;
+    }
+
+    ParserRuleContext tree = parsers.get(0)._chunkTree;
+    List<Token> tokens = new ArrayList<>();
+    List<Integer> tokenModes = new ArrayList<>();
+    for (int i = 0; i < parsers.size(); i++) {
+      BatfishCombinedParser<P, L> parser = parsers.get(i);
+      boolean last = i == parsers.size() - 1;
+      for (Token token : parser._tokens.getTokens()) {
+        if (last || token.getType() != Token.EOF) {
+          tokens.add(token);
+          tokenModes.add(parser.getTokenMode(token));
+        }
+      }
+      ParserRuleContext chunkTree = parser._chunkTree;
+      if (i == 0) {
+        tree.children.removeIf(child -> !last && isEof(child));
+      } else {
+        for (ParseTree child : chunkTree.children) {
+          if (last || !isEof(child)) {
+            tree.addAnyChild(child).setParent(tree);
+          }
+        }
+        tree.stop = chunkTree.stop;
+      }
+      parser._chunkTree = null;
+      _errors.addAll(parser._errors);
+      _warnings.addAll(parser._warnings);
+      _chunkDfaMisses += parser.getDfaMisses();
+    }
+    // Renumber the tokens of all chunks in order, so that source intervals refer to this stream
+    _tokens = new CommonTokenStream(new ListTokenSource(tokens));
+    _tokens.fill();
+    _tokenModes = tokenModes;
+    _currentModeStart = tokenModes.size();
+    return tree;
+  }
+
+  private static boolean isEof(ParseTree node) {
+    return node instanceof TerminalNode && ((TerminalNode) node).getSymbol().getType() == Token.EOF;
+  }
+
+  /**
+   * Restricts this parser to the input from offset {@code start} to offset {@code end}, which
+   * starts on line {@code line}. Tokens still have their positions and lines in the whole input.
+   */
+  private void setInputRange(int start, int end, int line) {
+    _lexer.setInputStream(
+        new OffsetCharStream(
+            CharStreams.fromString(_input.substring(start, end)), _input.codePointCount(0, start)));
+    _lexer.setLine(line);
+    _tokens.setTokenSource(_lexer);
+  }
+
   public void setLexerErrorListener(BatfishLexerErrorListener lexerErrorListener) {
     _lexerErrorListener = lexerErrorListener;
   }
@@ -54,6 +54,16 @@ public abstract class BatfishLexer extends Lexer {
     return sb.toString();
   }
 
+  /**
+   * Returns true if lexing the rest of the input from here gives the same tokens as lexing it from
+   * the start on its own, i.e. if the lexer carries no state over into the rest of the input.
+   *
+   * <p>Lexers whose members carry state across lines should override this to check them too.
+   */
+  public boolean isInInitialState() {
+    return _mode == DEFAULT_MODE && _modeStack.isEmpty();
+  }
+
   public boolean isWhitespace(int c) {
     return c == ' ' || c == '\t';
   }
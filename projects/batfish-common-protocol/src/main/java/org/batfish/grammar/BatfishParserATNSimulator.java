@@ -6,15 +6,22 @@ import org.antlr.v4.runtime.NoViableAltException;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
 import org.batfish.grammar.BatfishANTLRErrorStrategy.BatfishRecognitionException;
 
 /**
  * Clones an existing {@link ParserATNSimulator} used by a {@link BatfishParser} and wraps the
  * {@link #adaptivePredict} function with a recovery mechanism. Intended for use with a {@link
  * BatfishParser} employing a {@link BatfishANTLRErrorStrategy} as its error recovery strategy.
+ *
+ * <p>Also counts the predictions that missed the DFA shared by all parsers of the same grammar, and
+ * so had to simulate the ATN. These are what makes the first files of each format slow to parse.
  */
 public class BatfishParserATNSimulator extends ParserATNSimulator {
 
+  private long _dfaMisses;
+
   private BatfishParser _parser;
 
   /**
@@ -28,6 +35,17 @@ public class BatfishParserATNSimulator extends ParserATNSimulator {
     _parser = (BatfishParser) parser;
   }
 
+  @Override
+  protected DFAState computeTargetState(DFA dfa, DFAState previousD, int t) {
+    _dfaMisses++;
+    return super.computeTargetState(dfa, previousD, t);
+  }
+
+  /** Returns the number of DFA edges that had to be computed by simulating the ATN so far. */
+  public long getDfaMisses() {
+    return _dfaMisses;
+  }
+
   @Override
   public int adaptivePredict(TokenStream input, int decision, ParserRuleContext outerContext) {
     while (true) {
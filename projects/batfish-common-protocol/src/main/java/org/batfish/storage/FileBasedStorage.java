@@ -12,7 +12,6 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.errorprone.annotations.MustBeClosed;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,8 +50,11 @@ import org.batfish.common.CompletionMetadata;
 import org.batfish.common.Version;
 import org.batfish.common.plugin.PluginConsumer.Format;
 import org.batfish.common.topology.Layer1Topology;
+import org.batfish.common.util.BatfishObjectInputStream;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.CompactObjectInputStream;
+import org.batfish.common.util.CompactObjectOutputStream;
 import org.batfish.common.util.ZipUtility;
 import org.batfish.datamodel.AnalysisMetadata;
 import org.batfish.datamodel.Configuration;
@@ -402,6 +404,8 @@ public final class FileBasedStorage implements StorageProvider {
     Path answerPath = getAnswerPath(answerId);
     mkdirs(answerPath.getParent());
     CommonUtil.writeFile(answerPath, answerStr);
+    // objects derived from a previous answer with this ID are stale
+    CommonUtil.deleteDirectory(_d.getAnswerObjectsDir(answerId));
   }
 
   @Override
@@ -424,24 +428,18 @@ public final class FileBasedStorage implements StorageProvider {
   private static <S extends Serializable> S deserializeObject(Path inputFile, Class<S> outputClass)
       throws BatfishException {
     try (Closer closer = Closer.create()) {
-      FileInputStream fis = closer.register(new FileInputStream(inputFile.toFile()));
+      InputStream fis = closer.register(StorageUtils.newInputStream(inputFile));
       PushbackInputStream pbstream = new PushbackInputStream(fis, DEFAULT_HEADER_LENGTH_BYTES);
       Format f = detectFormat(pbstream);
-      ObjectInputStream ois;
+      InputStream uncompressed;
       if (f == Format.GZIP) {
-        GZIPInputStream gis =
-            closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
-        ois = new ObjectInputStream(gis);
+        uncompressed = closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
       } else if (f == Format.LZ4) {
-        LZ4FrameInputStream lis = closer.register(new LZ4FrameInputStream(pbstream));
-        ois = new ObjectInputStream(lis);
-      } else if (f == Format.JAVA_SERIALIZED) {
-        ois = new ObjectInputStream(pbstream);
+        uncompressed = closer.register(new LZ4FrameInputStream(pbstream));
       } else {
-        throw new BatfishException(
-            String.format("Could not detect format of the file %s", inputFile));
+        uncompressed = pbstream;
       }
-      closer.register(ois);
+      ObjectInputStream ois = closer.register(newObjectInputStream(uncompressed, inputFile));
       return outputClass.cast(ois.readObject());
     } catch (IOException | ClassNotFoundException | ClassCastException e) {
       throw new BatfishException(
@@ -452,6 +450,23 @@ public final class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Returns an {@link ObjectInputStream} for the given uncompressed stream, choosing between the
+   * compact and standard Java serialization formats based on the stream header.
+   */
+  private static @Nonnull ObjectInputStream newObjectInputStream(InputStream in, Path inputFile)
+      throws IOException {
+    PushbackInputStream pbstream = new PushbackInputStream(in, DEFAULT_HEADER_LENGTH_BYTES);
+    Format f = detectFormat(pbstream);
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    if (f == Format.COMPACT_SERIALIZED) {
+      return new CompactObjectInputStream(pbstream, loader);
+    } else if (f == Format.JAVA_SERIALIZED) {
+      return new BatfishObjectInputStream(pbstream, loader);
+    }
+    throw new BatfishException(String.format("Could not detect format of the file %s", inputFile));
+  }
+
   private <S extends Serializable> SortedMap<String, S> deserializeObjects(
       Map<Path, String> namesByPath, Class<S> outputClass) {
     String outputClassName = outputClass.getName();
@@ -479,14 +494,21 @@ public final class FileBasedStorage implements StorageProvider {
 
   /**
    * Writes a single object of the given class to the given file. Uses the {@link FileBasedStorage}
-   * default file encoding including serialization format and compression.
+   * default file encoding including serialization format and compression. The file is replaced
+   * atomically.
    */
   private static void serializeObject(Serializable object, Path outputFile) {
     try {
-      try (OutputStream out = Files.newOutputStream(outputFile);
-          LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-          ObjectOutputStream oos = new ObjectOutputStream(gos)) {
-        oos.writeObject(object);
+      Path tmpFile = StorageUtils.createTempSibling(outputFile);
+      try {
+        try (OutputStream out = Files.newOutputStream(tmpFile);
+            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
+            ObjectOutputStream oos = new CompactObjectOutputStream(gos)) {
+          oos.writeObject(object);
+        }
+        StorageUtils.moveAtomically(tmpFile, outputFile);
+      } finally {
+        Files.deleteIfExists(tmpFile);
       }
     } catch (IOException e) {
       throw new BatfishException("Failed to serialize object to output file: " + outputFile, e);
@@ -709,21 +731,50 @@ public final class FileBasedStorage implements StorageProvider {
     if (!Files.exists(objectPath)) {
       throw new FileNotFoundException(String.format("Could not load: %s", objectPath));
     }
-    return Files.newInputStream(objectPath);
+    return StorageUtils.newInputStream(objectPath);
   }
 
   @Override
   public void storeNetworkObject(InputStream inputStream, NetworkId networkId, String key)
       throws IOException {
     Path objectPath = getNetworkObjectPath(networkId, key);
-    objectPath.getParent().toFile().mkdirs();
     try {
-      FileUtils.copyInputStreamToFile(inputStream, objectPath.toFile());
+      StorageUtils.writeStreamToFile(inputStream, objectPath);
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  private @Nonnull Path getAnswerObjectPath(AnswerId answerId, String key) {
+    return _d.getAnswerObjectsDir(answerId).resolve(toBase64(key));
+  }
+
+  @Override
+  public @Nonnull InputStream loadAnswerObject(AnswerId answerId, String key)
+      throws FileNotFoundException, IOException {
+    Path objectPath = getAnswerObjectPath(answerId, key);
+    if (!Files.exists(objectPath)) {
+      throw new FileNotFoundException(String.format("Could not load: %s", objectPath));
+    }
+    return StorageUtils.newInputStream(objectPath);
+  }
+
+  @Override
+  public void storeAnswerObject(InputStream inputStream, AnswerId answerId, String key)
+      throws IOException {
+    Path objectPath = getAnswerObjectPath(answerId, key);
+    try {
+      StorageUtils.writeStreamToFile(inputStream, objectPath);
     } finally {
       inputStream.close();
     }
   }
 
+  @Override
+  public boolean hasAnswerObject(AnswerId answerId, String key) {
+    return Files.exists(getAnswerObjectPath(answerId, key));
+  }
+
   private @Nonnull Path getNetworkBlobPath(NetworkId networkId, String key) {
     String encodedKey = toBase64(key);
     return _d.getNetworkBlobsDir(networkId).resolve(encodedKey);
@@ -736,16 +787,15 @@ public final class FileBasedStorage implements StorageProvider {
     if (!Files.exists(objectPath)) {
       throw new FileNotFoundException(String.format("Could not load: %s", objectPath));
     }
-    return Files.newInputStream(objectPath);
+    return StorageUtils.newInputStream(objectPath);
   }
 
   @Override
   public void storeNetworkBlob(InputStream inputStream, NetworkId networkId, String key)
       throws IOException {
     Path objectPath = getNetworkBlobPath(networkId, key);
-    objectPath.getParent().toFile().mkdirs();
     try {
-      FileUtils.copyInputStreamToFile(inputStream, objectPath.toFile());
+      StorageUtils.writeStreamToFile(inputStream, objectPath);
     } finally {
       inputStream.close();
     }
@@ -783,7 +833,7 @@ public final class FileBasedStorage implements StorageProvider {
     if (!Files.exists(objectPath)) {
       throw new FileNotFoundException(String.format("Could not load: %s", objectPath));
     }
-    return Files.newInputStream(objectPath);
+    return StorageUtils.newInputStream(objectPath);
   }
 
   @Override
@@ -791,9 +841,8 @@ public final class FileBasedStorage implements StorageProvider {
       InputStream inputStream, NetworkId networkId, SnapshotId snapshotId, String key)
       throws IOException {
     Path objectPath = getSnapshotObjectPath(networkId, snapshotId, key);
-    objectPath.getParent().toFile().mkdirs();
     try {
-      FileUtils.copyInputStreamToFile(inputStream, objectPath.toFile());
+      StorageUtils.writeStreamToFile(inputStream, objectPath);
     } finally {
       inputStream.close();
     }
@@ -48,6 +48,10 @@ public class FileBasedStorageDirectoryProvider {
     return _baseDir.resolve(BfConsts.RELPATH_ANSWERS_DIR).resolve(answerId.getId());
   }
 
+  public @Nonnull Path getAnswerObjectsDir(AnswerId answerId) {
+    return getAnswerDir(answerId).resolve(RELPATH_EXTENDED);
+  }
+
   public @Nonnull Path getMajorIssueConfigDir(NetworkId network, IssueSettingsId majorIssueType) {
     return getNetworkSettingsDir(network)
         .resolve(BfConsts.RELPATH_CONTAINER_SETTINGS_ISSUES)
@@ -362,6 +362,30 @@ public interface StorageProvider {
   void deleteNetworkObject(NetworkId networkId, String key)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Provide a stream from which an object derived from the answer with the given ID, such as an
+   * index of its rows, may be read.
+   *
+   * @throws FileNotFoundException if the object for the given key does not exist
+   * @throws IOException if there is an error reading the object
+   */
+  @Nonnull
+  @MustBeClosed
+  InputStream loadAnswerObject(AnswerId answerId, String key)
+      throws FileNotFoundException, IOException;
+
+  /**
+   * Writes the object derived from the answer with the given ID for the given key using the
+   * provided input stream. Objects derived from an answer are deleted when the answer is stored.
+   *
+   * @throws IOException if there is an error writing the object
+   */
+  void storeAnswerObject(InputStream inputStream, AnswerId answerId, String key)
+      throws IOException;
+
+  /** Returns {@code true} iff an object derived from the answer with the given ID exists. */
+  boolean hasAnswerObject(AnswerId answerId, String key);
+
   /**
    * Provide a stream from which a network-scoped blob object for the given key may be read.
    *
@@ -0,0 +1,95 @@
+package org.batfish.storage;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.MustBeClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * NIO-based file operations used by storage backends.
+ *
+ * <p>Writes go to a temporary file in the destination directory that is then atomically renamed
+ * over the destination, so readers never observe a partially-written object. Since a stored object
+ * is therefore never modified in place, large objects can safely be read through a memory-mapped
+ * buffer rather than copied through heap buffers.
+ */
+@ParametersAreNonnullByDefault
+public final class StorageUtils {
+
+  /** Files at least this large are memory-mapped when read. */
+  @VisibleForTesting static final long MMAP_THRESHOLD_BYTES = 1L << 20; // 1 MiB
+
+  /**
+   * Returns an {@link InputStream} over the contents of the given file. Files of at least {@link
+   * #MMAP_THRESHOLD_BYTES} bytes (and that fit in a single mapping) are memory-mapped.
+   *
+   * @throws IOException if there is an error opening the file
+   */
+  @MustBeClosed
+  public static @Nonnull InputStream newInputStream(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < MMAP_THRESHOLD_BYTES || size > Integer.MAX_VALUE) {
+        return Files.newInputStream(path);
+      }
+      // The mapping remains valid after the channel is closed.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return new ByteBufferBackedInputStream(buffer);
+    }
+  }
+
+  /**
+   * Writes the contents of the given stream to the given file, replacing any existing file
+   * atomically where the file system supports it. Parent directories are created as needed. The
+   * input stream is not closed.
+   *
+   * @throws IOException if there is an error writing the file
+   */
+  public static void writeStreamToFile(InputStream inputStream, Path outputFile)
+      throws IOException {
+    Path tmpFile = createTempSibling(outputFile);
+    try {
+      Files.copy(inputStream, tmpFile, REPLACE_EXISTING);
+      moveAtomically(tmpFile, outputFile);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  /**
+   * Returns a new empty temporary file in the same directory as {@code file}, creating the
+   * directory if needed. Keeping the temporary file on the same file system is required for the
+   * final rename to be atomic.
+   */
+  static @Nonnull Path createTempSibling(Path file) throws IOException {
+    Path dir = file.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    return Files.createTempFile(dir, "." + file.getFileName(), ".tmp");
+  }
+
+  /**
+   * Renames {@code source} to {@code target}, replacing {@code target}. Falls back to a
+   * non-atomic replacement on file systems that do not support atomic moves.
+   */
+  static void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, REPLACE_EXISTING);
+    }
+  }
+
+  private StorageUtils() {}
+}
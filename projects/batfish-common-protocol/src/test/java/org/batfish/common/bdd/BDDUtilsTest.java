@@ -1,6 +1,7 @@
 package org.batfish.common.bdd;
 
 import static org.batfish.common.bdd.BDDOps.andNull;
+import static org.batfish.common.bdd.BDDUtils.copyTo;
 import static org.batfish.common.bdd.BDDUtils.isAssignment;
 import static org.batfish.common.bdd.BDDUtils.swap;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -15,6 +16,23 @@ import org.batfish.datamodel.Ip;
 import org.junit.Test;
 
 public class BDDUtilsTest {
+  @Test
+  public void testCopyTo() {
+    BDDPacket source = new BDDPacket();
+    BDDPacket target = new BDDPacket();
+    BiFunction<BDDPacket, Long, BDD> mkBdd =
+        (pkt, ip) ->
+            pkt.getDstIp()
+                .value(ip)
+                .and(pkt.getSrcPort().value(22).or(pkt.getDstPort().value(80).not()));
+
+    long ip = Ip.parse("1.2.3.4").asLong();
+    assertThat(
+        copyTo(mkBdd.apply(source, ip), target.getFactory()), equalTo(mkBdd.apply(target, ip)));
+    assertTrue(copyTo(source.getFactory().one(), target.getFactory()).isOne());
+    assertTrue(copyTo(source.getFactory().zero(), target.getFactory()).isZero());
+  }
+
   @Test
   public void testIsAssignment_trivial() {
     BDDFactory factory = BDDUtils.bddFactory(1);
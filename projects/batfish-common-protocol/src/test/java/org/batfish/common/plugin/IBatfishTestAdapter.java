@@ -281,6 +281,11 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public DataPlane loadParentDataPlane() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables() {
     throw new UnsupportedOperationException();
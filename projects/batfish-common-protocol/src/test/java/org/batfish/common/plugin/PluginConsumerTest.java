@@ -3,7 +3,11 @@ package org.batfish.common.plugin;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.batfish.common.BatfishLogger;
 import org.junit.Rule;
 import org.junit.Test;
@@ -42,6 +46,22 @@ public class PluginConsumerTest {
     assertThat(value, equalTo(ints));
   }
 
+  @Test
+  public void testDeserializingLegacyJavaSerialized() throws Exception {
+    Path serializeFile = _folder.newFile().toPath();
+    TestPluginConsumer consumer = new TestPluginConsumer(false);
+
+    int[] ints = new int[] {1, 2, 3};
+    try (OutputStream out = Files.newOutputStream(serializeFile);
+        LZ4FrameOutputStream los = new LZ4FrameOutputStream(out);
+        ObjectOutputStream oos = new ObjectOutputStream(los)) {
+      oos.writeObject(ints);
+    }
+
+    int[] value = consumer.deserializeObject(serializeFile, int[].class);
+    assertThat(value, equalTo(ints));
+  }
+
   @Test
   public void testSerializingAndDeserializingJava() throws Exception {
     runSerializationTest(false);
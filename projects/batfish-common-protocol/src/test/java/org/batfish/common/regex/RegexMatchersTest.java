@@ -0,0 +1,131 @@
+package org.batfish.common.regex;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link RegexMatchers} and {@link RegexMatcher} */
+public class RegexMatchersTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  /** The Java form of the Cisco {@code _} AS-path delimiter */
+  private static final String UNDERSCORE = "(,|\\{|\\}|^|$| )";
+
+  private static final List<String> INPUTS =
+      ImmutableList.of(
+          "",
+          "65000",
+          "1 65000",
+          "65000 2",
+          "1 65000 2",
+          "165000",
+          "650001",
+          "1 {65000,3} 2",
+          "1 2 3 4",
+          "100 100 100");
+
+  private static void assertSameAsPattern(String regex) {
+    RegexMatcher matcher = RegexMatchers.matcher(regex);
+    Pattern pattern = Pattern.compile(regex);
+    for (String input : INPUTS) {
+      assertThat(
+          regex + " on " + input,
+          matcher.find(input),
+          equalTo(pattern.matcher(input).find()));
+    }
+  }
+
+  @Test
+  public void testDfaMatchesPattern() {
+    List<String> regexes =
+        ImmutableList.of(
+            UNDERSCORE + "65000" + UNDERSCORE,
+            "^65000" + UNDERSCORE,
+            UNDERSCORE + "65000$",
+            "^$",
+            "^[0-9]+$",
+            "^(100 )*100$",
+            "^\\d+( \\d+){2,3}$",
+            "[^0-9 ]",
+            "6500[0-9]?",
+            ".*",
+            "^(1|2) ");
+    for (String regex : regexes) {
+      assertTrue(regex, RegexMatchers.matcher(regex).isDfa());
+      assertSameAsPattern(regex);
+    }
+  }
+
+  @Test
+  public void testUnsupportedSyntax() {
+    List<String> regexes =
+        ImmutableList.of(
+            // back-reference
+            "(100) \\1",
+            // word boundary
+            "\\b65000\\b",
+            // lookahead
+            "65000(?= )",
+            // repetition of a group that may match the empty string
+            "(^| )*65000",
+            // possessive quantifier
+            "1 .*+");
+    for (String regex : regexes) {
+      assertFalse(regex, RegexMatchers.matcher(regex).isDfa());
+      assertSameAsPattern(regex);
+    }
+  }
+
+  @Test
+  public void testUnsupportedInput() {
+    RegexMatcher matcher = RegexMatchers.matcher("^a.b$");
+    assertTrue(matcher.isDfa());
+    // non-ASCII and line terminators are matched by the Pattern
+    assertTrue(matcher.find("a\u00e9b"));
+    assertTrue(matcher.find("axb\n"));
+    assertFalse(matcher.find("a\nb"));
+  }
+
+  @Test
+  public void testInterned() {
+    RegexMatcher matcher = RegexMatchers.matcher("^1 2$");
+    assertThat(RegexMatchers.matcher("^1 2$"), sameInstance(matcher));
+    assertThat(SerializationUtils.clone(matcher), sameInstance(matcher));
+  }
+
+  @Test
+  public void testInvalidRegex() {
+    _thrown.expect(PatternSyntaxException.class);
+    RegexMatchers.matcher("(1 2");
+  }
+
+  @Test
+  public void testStats() {
+    RegexMatchers.Stats before = RegexMatchers.getStats();
+    RegexMatcher matcher = RegexMatchers.matcher("^testStats$");
+    RegexMatchers.matcher("^testStats$");
+    matcher.find("testStats");
+    matcher.find("testStats\u00e9");
+    RegexMatchers.Stats stats = RegexMatchers.getStats().since(before);
+
+    // other tests may run concurrently
+    assertThat(stats.getInternMisses(), greaterThanOrEqualTo(1L));
+    assertThat(stats.getInternHits(), greaterThanOrEqualTo(1L));
+    assertThat(stats.getDfaCompiled(), greaterThanOrEqualTo(1L));
+    assertThat(stats.getDfaMatches(), greaterThanOrEqualTo(1L));
+    assertThat(stats.getPatternMatches(), greaterThanOrEqualTo(1L));
+  }
+}
@@ -1,7 +1,11 @@
 package org.batfish.common.topology;
 
 import static org.batfish.common.topology.Layer2Topology.fromEdges;
+import static org.batfish.common.topology.Layer2Topology.fromEdgesAndDomains;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
 
@@ -12,4 +16,23 @@ public final class Layer2TopologyTest {
     // should properly register nodes and initialize without error
     fromEdges(ImmutableSet.of(new Layer2Edge("node1", "i", null, "node2", "i", null, null)));
   }
+
+  @Test
+  public void testFromEdgesAndDomains() {
+    Layer2Node n1 = new Layer2Node("node1", "i1", null);
+    Layer2Node n1Vlan2 = new Layer2Node("node1", "i2", 2);
+    Layer2Node n1Vlan3 = new Layer2Node("node1", "i3", 2);
+    Layer2Node n2 = new Layer2Node("node2", "i", null);
+    Layer2Node n3 = new Layer2Node("node3", "i", null);
+
+    Layer2Topology topology =
+        fromEdgesAndDomains(
+            ImmutableSet.of(new Layer2Edge(n1Vlan3, n2, null), new Layer2Edge(n3, n3, null)),
+            ImmutableList.of(ImmutableList.of(n1, n1Vlan2, n1Vlan3), ImmutableList.of()));
+
+    // joined through the domain on node1 and the edge to node2
+    assertTrue(topology.inSameBroadcastDomain(n1, n2));
+    assertTrue(topology.inSameBroadcastDomain(n1Vlan2, n1Vlan3));
+    assertFalse(topology.inSameBroadcastDomain(n1, n3));
+  }
 }
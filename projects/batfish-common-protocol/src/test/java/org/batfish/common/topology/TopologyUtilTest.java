@@ -4,7 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.topology.TopologyUtil.computeIpInterfaceOwners;
 import static org.batfish.common.topology.TopologyUtil.computeLayer1LogicalTopology;
 import static org.batfish.common.topology.TopologyUtil.computeLayer1PhysicalTopology;
-import static org.batfish.common.topology.TopologyUtil.computeLayer2SelfEdges;
+import static org.batfish.common.topology.TopologyUtil.computeLayer2SelfDomains;
 import static org.batfish.common.topology.TopologyUtil.computeLayer2Topology;
 import static org.batfish.common.topology.TopologyUtil.computeLayer3Topology;
 import static org.batfish.datamodel.matchers.EdgeMatchers.hasHead;
@@ -12,6 +12,7 @@ import static org.batfish.datamodel.matchers.EdgeMatchers.hasNode1;
 import static org.batfish.datamodel.matchers.EdgeMatchers.hasNode2;
 import static org.batfish.datamodel.matchers.EdgeMatchers.hasTail;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -461,15 +462,59 @@ public final class TopologyUtilTest {
     i2.setSwitchportMode(SwitchportMode.ACCESS);
     i2.setAccessVlan(2);
 
-    ImmutableSet.Builder<Layer2Edge> builder = ImmutableSet.builder();
-    computeLayer2SelfEdges(c1, builder);
+    assertThat(
+        computeLayer2SelfDomains(c1),
+        contains(
+            containsInAnyOrder(
+                new Layer2Node(c1Name, i1Name, 2), new Layer2Node(c1Name, i2Name, 2))));
+  }
+
+  @Test
+  public void testComputeLayer2SelfDomainsTrunksAndIrb() {
+    String c1Name = "c1";
 
+    String t1Name = "t1";
+    String t2Name = "t2";
+    String a1Name = "a1";
+    String irb2Name = "vlan2";
+    String irb5Name = "vlan5";
+    Configuration c1 = _cb.setHostname(c1Name).build();
+    Vrf v1 = _vb.setOwner(c1).build();
+    _ib.setOwner(c1).setVrf(v1).setActive(true);
+    Interface t1 = _ib.setName(t1Name).build();
+    t1.setSwitchport(true);
+    t1.setSwitchportMode(SwitchportMode.TRUNK);
+    t1.setAllowedVlans(IntegerSpace.of(new SubRange(1, 3)));
+
+    Interface t2 = _ib.setName(t2Name).build();
+    t2.setSwitchport(true);
+    t2.setSwitchportMode(SwitchportMode.TRUNK);
+    t2.setAllowedVlans(IntegerSpace.of(new SubRange(3, 4)));
+
+    Interface a1 = _ib.setName(a1Name).build();
+    a1.setSwitchport(true);
+    a1.setSwitchportMode(SwitchportMode.ACCESS);
+    a1.setAccessVlan(4);
+
+    Interface irb2 = _ib.setName(irb2Name).build();
+    irb2.setInterfaceType(InterfaceType.VLAN);
+    irb2.setVlan(2);
+
+    // no switchport carries VLAN 5
+    Interface irb5 = _ib.setName(irb5Name).build();
+    irb5.setInterfaceType(InterfaceType.VLAN);
+    irb5.setVlan(5);
+
+    // VLAN 1 has only t1, so it is not a domain
     assertThat(
-        builder.build(),
-        equalTo(
-            ImmutableSet.of(
-                new Layer2Edge(c1Name, i1Name, 2, c1Name, i2Name, 2, null),
-                new Layer2Edge(c1Name, i2Name, 2, c1Name, i1Name, 2, null))));
+        computeLayer2SelfDomains(c1),
+        containsInAnyOrder(
+            containsInAnyOrder(
+                new Layer2Node(c1Name, t1Name, 2), new Layer2Node(c1Name, irb2Name, null)),
+            containsInAnyOrder(
+                new Layer2Node(c1Name, t1Name, 3), new Layer2Node(c1Name, t2Name, 3)),
+            containsInAnyOrder(
+                new Layer2Node(c1Name, t2Name, 4), new Layer2Node(c1Name, a1Name, 4))));
   }
 
   @Test
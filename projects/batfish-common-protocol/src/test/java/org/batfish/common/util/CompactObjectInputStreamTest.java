@@ -0,0 +1,116 @@
+package org.batfish.common.util;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.List;
+import java.util.SortedMap;
+import org.batfish.common.plugin.PluginConsumer;
+import org.batfish.common.plugin.PluginConsumer.Format;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class CompactObjectInputStreamTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static byte[] writeCompact(Serializable object) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new CompactObjectOutputStream(baos)) {
+      oos.writeObject(object);
+    }
+    return baos.toByteArray();
+  }
+
+  private static byte[] writeJava(Serializable object) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(object);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object readCompact(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois =
+        new CompactObjectInputStream(
+            new ByteArrayInputStream(data), CompactObjectInputStreamTest.class.getClassLoader())) {
+      return ois.readObject();
+    }
+  }
+
+  @Test
+  public void testDetectFormat() throws IOException {
+    byte[] data = writeCompact(1);
+    assertThat(
+        PluginConsumer.detectFormat(new PushbackInputStream(new ByteArrayInputStream(data), 4)),
+        equalTo(Format.COMPACT_SERIALIZED));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException, ClassNotFoundException {
+    SortedMap<String, Serializable> object =
+        ImmutableSortedMap.of(
+            "class",
+            int.class,
+            "enum",
+            LineAction.PERMIT,
+            "list",
+            ImmutableList.of("a", 1L, Prefix.parse("1.2.3.0/24")),
+            "string",
+            "b");
+    assertThat(readCompact(writeCompact((Serializable) object)), equalTo(object));
+  }
+
+  @Test
+  public void testRoundTripArrays() throws IOException, ClassNotFoundException {
+    int[] ints = new int[] {1, 2, 3};
+    String[][] strings = new String[][] {{"a"}, {"b", "c"}};
+    assertThat(readCompact(writeCompact(ints)), equalTo(ints));
+    assertThat(readCompact(writeCompact(strings)), equalTo(strings));
+  }
+
+  @Test
+  public void testInterning() throws IOException, ClassNotFoundException {
+    Ip ip = Ip.parse("1.1.1.1");
+    Prefix prefix = Prefix.parse("1.1.1.0/24");
+    List<?> read = (List<?>) readCompact(writeCompact(ImmutableList.of(ip, prefix)));
+    assertThat(read.get(0), sameInstance(ip));
+    assertThat(read.get(1), sameInstance(prefix));
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws IOException {
+    Serializable object = ImmutableList.of(Prefix.parse("1.2.3.0/24"), Ip.parse("2.2.2.2"));
+    assertThat(writeCompact(object).length, lessThan(writeJava(object).length));
+  }
+
+  @Test
+  public void testUnsupportedVersion() throws IOException, ClassNotFoundException {
+    byte[] data = writeCompact(1);
+    data[CompactObjectOutputStream.MAGIC_BYTES.length] =
+        (byte) (CompactObjectOutputStream.FORMAT_VERSION + 1);
+    // a future version is still detected as compact, and rejected with a clear message
+    assertThat(
+        PluginConsumer.detectFormat(new PushbackInputStream(new ByteArrayInputStream(data), 4)),
+        equalTo(Format.COMPACT_SERIALIZED));
+    _thrown.expect(StreamCorruptedException.class);
+    _thrown.expectMessage(
+        "Unsupported compact format version " + (CompactObjectOutputStream.FORMAT_VERSION + 1));
+    readCompact(data);
+  }
+}
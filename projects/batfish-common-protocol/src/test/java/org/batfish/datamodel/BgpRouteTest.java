@@ -1,6 +1,7 @@
 package org.batfish.datamodel;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableSet;
@@ -17,6 +18,34 @@ import org.junit.rules.ExpectedException;
 public class BgpRouteTest {
   @Rule public ExpectedException thrown = ExpectedException.none();
 
+  @Test
+  public void testAttributesShared() {
+    Builder brb =
+        BgpRoute.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setOriginatorIp(Ip.parse("1.1.1.1"))
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP)
+            .setAsPath(AsPath.ofSingletonAsSets(1L, 2L))
+            .setClusterList(ImmutableSet.of(3L))
+            .setCommunities(ImmutableSet.of(4L, 5L));
+    BgpRoute br1 = brb.build();
+    BgpRoute br2 =
+        brb.setNetwork(Prefix.parse("1.1.2.0/24"))
+            .setAsPath(AsPath.ofSingletonAsSets(1L, 2L))
+            .setCommunities(ImmutableSet.of(5L, 4L))
+            .build();
+
+    assertThat(br2.getAsPath(), sameInstance(br1.getAsPath()));
+    assertThat(br2.getClusterList(), sameInstance(br1.getClusterList()));
+    assertThat(br2.getCommunities(), sameInstance(br1.getCommunities()));
+
+    // also after deserialization
+    BgpRoute clone = SerializationUtils.clone(br1);
+    assertThat(clone.getAsPath(), sameInstance(br1.getAsPath()));
+    assertThat(clone.getCommunities(), sameInstance(br1.getCommunities()));
+  }
+
   @Test
   public void testJavaSerialization() {
     BgpRoute br =
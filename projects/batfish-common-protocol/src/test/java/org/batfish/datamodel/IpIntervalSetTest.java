@@ -0,0 +1,162 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Test;
+
+/** Tests of {@link IpIntervalSet} */
+public class IpIntervalSetTest {
+
+  private static IpIntervalSet range(String start, String end) {
+    return IpIntervalSet.range(Ip.parse(start), Ip.parse(end));
+  }
+
+  private static IpIntervalSet flatten(IpSpace ipSpace) {
+    return IpIntervalSet.fromIpSpace(ipSpace, ImmutableMap.of()).get();
+  }
+
+  private static void assertSameMembership(IpSpace ipSpace, List<String> ips) {
+    IpIntervalSet intervals = flatten(ipSpace);
+    for (String ipStr : ips) {
+      Ip ip = Ip.parse(ipStr);
+      assertThat(
+          ipStr, intervals.containsIp(ip), equalTo(ipSpace.containsIp(ip, ImmutableMap.of())));
+    }
+  }
+
+  @Test
+  public void testContainsIp() {
+    IpIntervalSet intervals = range("1.0.0.0", "1.0.0.255").union(range("2.0.0.0", "2.0.0.0"));
+    assertFalse(intervals.containsIp(Ip.parse("0.255.255.255")));
+    assertTrue(intervals.containsIp(Ip.parse("1.0.0.0")));
+    assertTrue(intervals.containsIp(Ip.parse("1.0.0.255")));
+    assertFalse(intervals.containsIp(Ip.parse("1.0.1.0")));
+    assertTrue(intervals.containsIp(Ip.parse("2.0.0.0")));
+    assertFalse(intervals.containsIp(Ip.parse("2.0.0.1")));
+    assertFalse(IpIntervalSet.EMPTY.containsIp(Ip.ZERO));
+    assertTrue(IpIntervalSet.UNIVERSE.containsIp(Ip.MAX));
+  }
+
+  @Test
+  public void testUnion() {
+    // adjacent and overlapping intervals are coalesced
+    assertThat(
+        range("1.0.0.0", "1.0.0.9").union(range("1.0.0.10", "1.0.0.20")),
+        equalTo(range("1.0.0.0", "1.0.0.20")));
+    assertThat(
+        range("1.0.0.0", "1.0.0.15").union(range("1.0.0.10", "1.0.0.20")),
+        equalTo(range("1.0.0.0", "1.0.0.20")));
+    assertThat(
+        range("1.0.0.0", "1.0.0.9").union(range("1.0.0.11", "1.0.0.20")).getNumIntervals(),
+        equalTo(2));
+    assertThat(
+        IpIntervalSet.EMPTY.union(range("1.0.0.0", "1.0.0.9")),
+        equalTo(range("1.0.0.0", "1.0.0.9")));
+  }
+
+  @Test
+  public void testDifference() {
+    IpIntervalSet prefix = IpIntervalSet.of(Prefix.parse("10.0.0.0/8"));
+    assertThat(
+        prefix.difference(IpIntervalSet.of(Prefix.parse("10.128.0.0/9"))),
+        equalTo(IpIntervalSet.of(Prefix.parse("10.0.0.0/9"))));
+    assertThat(
+        prefix.difference(range("10.1.0.0", "10.1.0.255")),
+        equalTo(range("10.0.0.0", "10.0.255.255").union(range("10.1.1.0", "10.255.255.255"))));
+    assertTrue(prefix.difference(IpIntervalSet.UNIVERSE).isEmpty());
+    assertThat(prefix.difference(IpIntervalSet.EMPTY), equalTo(prefix));
+  }
+
+  @Test
+  public void testFromAclIpSpace() {
+    IpSpace ipSpace =
+        AclIpSpace.rejecting(Prefix.parse("10.0.1.0/24").toIpSpace())
+            .thenPermitting(Prefix.parse("10.0.0.0/16").toIpSpace())
+            .thenRejecting(Prefix.parse("10.1.0.0/16").toIpSpace())
+            .thenPermitting(Prefix.parse("10.0.0.0/8").toIpSpace())
+            .build();
+    assertThat(
+        flatten(ipSpace),
+        equalTo(
+            range("10.0.0.0", "10.0.0.255")
+                .union(range("10.0.2.0", "10.0.255.255"))
+                .union(range("10.2.0.0", "10.255.255.255"))));
+    assertSameMembership(
+        ipSpace,
+        ImmutableList.of(
+            "9.255.255.255",
+            "10.0.0.1",
+            "10.0.1.1",
+            "10.0.2.0",
+            "10.1.0.1",
+            "10.2.0.0",
+            "11.0.0.0"));
+  }
+
+  @Test
+  public void testFromIpWildcardSetIpSpace() {
+    IpSpace ipSpace =
+        IpWildcardSetIpSpace.builder()
+            .including(new IpWildcard(Prefix.parse("10.0.0.0/8")))
+            .excluding(new IpWildcard(Ip.parse("10.0.0.1"), Ip.parse("0.255.0.0")))
+            .build();
+    assertSameMembership(
+        ipSpace,
+        ImmutableList.of(
+            "10.0.0.0", "10.0.0.1", "10.1.0.1", "10.255.0.1", "10.255.0.2", "11.0.0.1"));
+  }
+
+  @Test
+  public void testFromNonPrefixWildcard() {
+    IpSpace ipSpace = new IpWildcard(Ip.parse("1.0.0.1"), Ip.parse("0.0.255.0")).toIpSpace();
+    assertThat(flatten(ipSpace).getNumIntervals(), equalTo(256));
+    assertSameMembership(
+        ipSpace, ImmutableList.of("1.0.0.1", "1.0.1.1", "1.0.255.1", "1.0.1.2", "1.1.0.1"));
+
+    // too many intervals
+    IpSpace sparse = new IpWildcard(Ip.ZERO, Ip.parse("255.255.255.254")).toIpSpace();
+    assertThat(IpIntervalSet.fromIpSpace(sparse, ImmutableMap.of()), equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void testFromIpSpaceReference() {
+    Map<String, IpSpace> namedIpSpaces =
+        ImmutableMap.of(
+            "a",
+            Prefix.parse("1.0.0.0/8").toIpSpace(),
+            "loop1",
+            new IpSpaceReference("loop2"),
+            "loop2",
+            new IpSpaceReference("loop1"));
+    assertThat(
+        IpIntervalSet.fromIpSpace(new IpSpaceReference("a"), namedIpSpaces),
+        equalTo(Optional.of(IpIntervalSet.of(Prefix.parse("1.0.0.0/8")))));
+    assertThat(
+        IpIntervalSet.fromIpSpace(new IpSpaceReference("undefined"), namedIpSpaces),
+        equalTo(Optional.of(IpIntervalSet.EMPTY)));
+    assertThat(
+        IpIntervalSet.fromIpSpace(new IpSpaceReference("loop1"), namedIpSpaces),
+        equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void testFlatten() {
+    Map<String, IpSpace> ipSpaces =
+        ImmutableMap.of(
+            "prefix",
+            Prefix.parse("1.0.0.0/8").toIpSpace(),
+            "sparse",
+            new IpWildcard(Ip.ZERO, Ip.parse("255.255.255.254")).toIpSpace());
+    assertThat(
+        IpIntervalSet.flatten(ipSpaces),
+        equalTo(ImmutableMap.of("prefix", IpIntervalSet.of(Prefix.parse("1.0.0.0/8")))));
+  }
+}
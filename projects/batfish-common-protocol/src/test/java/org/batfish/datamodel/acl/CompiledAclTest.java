@@ -0,0 +1,173 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SubRange;
+import org.junit.Test;
+
+/** Tests of {@link CompiledAcl} */
+public class CompiledAclTest {
+
+  private static final String ACL_NAME = "acl";
+
+  private static final String REFERENCED_ACL_NAME = "referenced";
+
+  private static final String IP_SPACE_NAME = "ipSpace";
+
+  private static final IpAccessList REFERENCED_ACL =
+      IpAccessList.builder()
+          .setName(REFERENCED_ACL_NAME)
+          .setLines(
+              ImmutableList.of(
+                  IpAccessListLine.rejecting(matchDst(Prefix.parse("10.0.1.0/24"))),
+                  IpAccessListLine.accepting(matchDst(Prefix.parse("10.0.0.0/16")))))
+          .build();
+
+  private static final IpAccessList ACL =
+      IpAccessList.builder()
+          .setName(ACL_NAME)
+          .setLines(
+              ImmutableList.of(
+                  // 0: only from one interface
+                  IpAccessListLine.rejecting(
+                      and(matchSrcInterface("iface"), matchDst(Prefix.parse("10.0.0.0/8")))),
+                  // 1: tcp to a port range
+                  IpAccessListLine.acceptingHeaderSpace(
+                      HeaderSpace.builder()
+                          .setDstIps(Prefix.parse("10.0.0.0/16").toIpSpace())
+                          .setIpProtocols(ImmutableList.of(IpProtocol.TCP))
+                          .setDstPorts(ImmutableList.of(new SubRange(22, 23)))
+                          .build()),
+                  // 2: named IpSpace
+                  IpAccessListLine.acceptingHeaderSpace(
+                      HeaderSpace.builder()
+                          .setDstIps(new IpSpaceReference(IP_SPACE_NAME))
+                          .setNotSrcIps(Ip.parse("1.1.1.1").toIpSpace())
+                          .build()),
+                  // 3: referenced ACL
+                  IpAccessListLine.accepting(permittedByAcl(REFERENCED_ACL_NAME)),
+                  // 4: not indexed by destination
+                  IpAccessListLine.rejecting(
+                      or(
+                          not(matchDst(Prefix.parse("192.168.0.0/16"))),
+                          matchDst(
+                              new IpWildcard(Ip.parse("192.168.0.1"), Ip.parse("0.0.255.0"))))),
+                  // 5: the rest of 192.168.0.0/16
+                  IpAccessListLine.accepting(matchDst(Prefix.parse("192.168.0.0/16")))))
+          .build();
+
+  private static final Map<String, IpAccessList> AVAILABLE_ACLS =
+      ImmutableMap.of(ACL_NAME, ACL, REFERENCED_ACL_NAME, REFERENCED_ACL);
+
+  private static final Map<String, IpSpace> NAMED_IP_SPACES =
+      ImmutableMap.of(
+          IP_SPACE_NAME,
+          AclIpSpace.rejecting(Prefix.parse("172.16.1.0/24").toIpSpace())
+              .thenPermitting(Prefix.parse("172.16.0.0/16").toIpSpace())
+              .build());
+
+  private static Flow flow(String srcIp, String dstIp, IpProtocol protocol, int dstPort) {
+    return Flow.builder()
+        .setTag("tag")
+        .setIngressNode("node")
+        .setSrcIp(Ip.parse(srcIp))
+        .setDstIp(Ip.parse(dstIp))
+        .setIpProtocol(protocol)
+        .setSrcPort(1024)
+        .setDstPort(dstPort)
+        .build();
+  }
+
+  private static void assertSameResult(CompiledAcl compiled, Flow flow, String srcInterface) {
+    FilterResult expected = ACL.filter(flow, srcInterface, AVAILABLE_ACLS, NAMED_IP_SPACES);
+    FilterResult actual = compiled.filter(flow, srcInterface);
+    assertThat(actual.getMatchLine(), equalTo(expected.getMatchLine()));
+    assertThat(actual.getAction(), equalTo(expected.getAction()));
+  }
+
+  @Test
+  public void testFilterMatchesInterpreter() {
+    CompiledAcl compiled = CompiledAcl.compile(ACL, AVAILABLE_ACLS, NAMED_IP_SPACES);
+    for (String dstIp :
+        ImmutableList.of(
+            "10.0.0.1",
+            "10.0.1.1",
+            "10.0.2.1",
+            "10.1.0.1",
+            "172.16.0.1",
+            "172.16.1.1",
+            "192.168.0.1",
+            "192.168.1.1",
+            "192.168.1.2",
+            "8.8.8.8")) {
+      for (String srcIp : ImmutableList.of("1.1.1.1", "2.2.2.2")) {
+        for (IpProtocol protocol : ImmutableList.of(IpProtocol.TCP, IpProtocol.UDP)) {
+          for (int dstPort : new int[] {22, 80}) {
+            Flow flow = flow(srcIp, dstIp, protocol, dstPort);
+            assertSameResult(compiled, flow, "iface");
+            assertSameResult(compiled, flow, "other");
+            assertSameResult(compiled, flow, null);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFilterDefaultAction() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName(ACL_NAME)
+            .setLines(
+                ImmutableList.of(IpAccessListLine.accepting(matchDst(Prefix.parse("1.0.0.0/8")))))
+            .build();
+    CompiledAcl compiled = CompiledAcl.compile(acl, ImmutableMap.of(), ImmutableMap.of());
+    Flow flow = flow("1.1.1.1", "2.2.2.2", IpProtocol.TCP, 22);
+
+    FilterResult result = compiled.filter(flow, null);
+    assertThat(result.getMatchLine(), nullValue());
+    assertThat(result.getAction(), equalTo(LineAction.DENY));
+    assertThat(
+        compiled.filter(flow, null, LineAction.PERMIT).getAction(), equalTo(LineAction.PERMIT));
+  }
+
+  private static int[] candidateLines(CompiledAcl compiled, String dstIp) {
+    return compiled.candidateLines(Ip.parse(dstIp).asLong());
+  }
+
+  @Test
+  public void testCandidateLines() {
+    CompiledAcl compiled = CompiledAcl.compile(ACL, AVAILABLE_ACLS, NAMED_IP_SPACES);
+    // lines 3 and 4 are not indexed by destination
+    assertArrayEquals(new int[] {0, 1, 3, 4}, candidateLines(compiled, "10.0.0.1"));
+    assertArrayEquals(new int[] {0, 3, 4}, candidateLines(compiled, "10.1.0.1"));
+    assertArrayEquals(new int[] {2, 3, 4}, candidateLines(compiled, "172.16.1.1"));
+    assertArrayEquals(new int[] {3, 4, 5}, candidateLines(compiled, "192.168.0.1"));
+    assertArrayEquals(new int[] {3, 4}, candidateLines(compiled, "8.8.8.8"));
+  }
+}
@@ -0,0 +1,70 @@
+package org.batfish.datamodel.answers;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.testing.EqualsTester;
+import java.io.IOException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Test;
+
+/** Tests of {@link TimingHistogram} */
+public class TimingHistogramTest {
+
+  @Test
+  public void testAdd() {
+    TimingHistogram histogram = new TimingHistogram();
+    histogram.add(0L);
+    histogram.add(3L);
+    histogram.add(4L);
+    histogram.add(100L);
+
+    assertThat(histogram.getCount(), equalTo(4));
+    assertThat(histogram.getMaxMillis(), equalTo(100L));
+    assertThat(histogram.getTotalMillis(), equalTo(107L));
+    assertThat(histogram.getBuckets(), equalTo(ImmutableSortedMap.of(1L, 1, 4L, 2, 128L, 1)));
+  }
+
+  @Test
+  public void testEquals() {
+    TimingHistogram histogram = new TimingHistogram();
+    histogram.add(3L);
+    TimingHistogram sameBucket = new TimingHistogram();
+    sameBucket.add(4L);
+    new EqualsTester()
+        .addEqualityGroup(new TimingHistogram(), new TimingHistogram())
+        .addEqualityGroup(histogram)
+        .addEqualityGroup(sameBucket)
+        .testEquals();
+  }
+
+  @Test
+  public void testGetBucketBound() {
+    assertThat(TimingHistogram.getBucketBound(0L), equalTo(1L));
+    assertThat(TimingHistogram.getBucketBound(1L), equalTo(1L));
+    assertThat(TimingHistogram.getBucketBound(2L), equalTo(2L));
+    assertThat(TimingHistogram.getBucketBound(3L), equalTo(4L));
+    assertThat(TimingHistogram.getBucketBound(4L), equalTo(4L));
+    assertThat(TimingHistogram.getBucketBound(5L), equalTo(8L));
+    assertThat(TimingHistogram.getBucketBound(1000L), equalTo(1024L));
+  }
+
+  @Test
+  public void testJsonSerialization() throws IOException {
+    TimingHistogram histogram = new TimingHistogram();
+    histogram.add(3L);
+    histogram.add(100L);
+
+    assertThat(BatfishObjectMapper.clone(histogram, TimingHistogram.class), equalTo(histogram));
+  }
+
+  @Test
+  public void testJavaSerialization() {
+    TimingHistogram histogram = new TimingHistogram();
+    histogram.add(3L);
+
+    assertThat(SerializationUtils.clone(histogram), equalTo(histogram));
+  }
+}
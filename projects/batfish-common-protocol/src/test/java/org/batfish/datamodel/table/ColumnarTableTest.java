@@ -0,0 +1,179 @@
+package org.batfish.datamodel.table;
+
+import static java.util.Comparator.nullsFirst;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.batfish.datamodel.answers.Schema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link ColumnarTable} */
+public class ColumnarTableTest {
+
+  private static final ColumnMetadata COL_NAME =
+      new ColumnMetadata("name", Schema.STRING, "name", true, false);
+
+  private static final ColumnMetadata COL_VALUE =
+      new ColumnMetadata("value", Schema.INTEGER, "value", false, true);
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private ColumnarTable _table;
+
+  @Before
+  public void setup() {
+    _table = new ColumnarTable();
+    _table.add(Row.of("name", "b", "value", 2));
+    _table.add(Row.of("name", "a", "value", 1));
+    _table.add(Row.of("name", "b", "value", 1));
+    _table.add(Row.of("name", "c", "value", null));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparator<Object> natural() {
+    return nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+  }
+
+  @Test
+  public void testGetRow() {
+    assertThat(_table.size(), equalTo(4));
+    assertThat(_table.getRow(0), equalTo(Row.of("name", "b", "value", 2)));
+    assertThat(
+        _table.getRows(),
+        contains(
+            Row.of("name", "b", "value", 2),
+            Row.of("name", "a", "value", 1),
+            Row.of("name", "b", "value", 1),
+            Row.of("name", "c", "value", null)));
+  }
+
+  @Test
+  public void testGetRowKeepsColumnOrder() {
+    ColumnarTable table = new ColumnarTable();
+    table.add(Row.of("name", "a", "value", 1));
+    table.add(Row.of("value", 2, "name", "b"));
+
+    assertThat(table.getRow(0).getColumnNames(), contains("name", "value"));
+    assertThat(table.getRow(1).getColumnNames(), contains("value", "name"));
+  }
+
+  @Test
+  public void testGetRowAbsentColumn() {
+    ColumnarTable table = new ColumnarTable();
+    table.add(Row.of("name", "a"));
+    table.add(Row.of("name", "b", "value", 2));
+    table.add(Row.of("name", "c"));
+
+    assertThat(
+        table.getRows(),
+        contains(Row.of("name", "a"), Row.of("name", "b", "value", 2), Row.of("name", "c")));
+
+    _thrown.expect(NoSuchElementException.class);
+    table.getValues(2, ImmutableList.of(COL_VALUE));
+  }
+
+  @Test
+  public void testGetRowManyRows() {
+    ColumnarTable table = new ColumnarTable();
+    for (int i = 0; i < 100; i++) {
+      table.add(Row.of("name", "n" + (i % 3), "value", i));
+    }
+
+    assertThat(table.size(), equalTo(100));
+    assertThat(table.getRow(99), equalTo(Row.of("name", "n0", "value", 99)));
+  }
+
+  @Test
+  public void testGetColumnValues() {
+    assertThat(_table.getColumnValues(COL_VALUE), contains(2, 1, 1, null));
+
+    ColumnarTable table = new ColumnarTable();
+    table.add(Row.of("name", "a"));
+    table.add(Row.of("name", "b", "value", 2));
+    assertThat(table.getColumnValues(COL_VALUE), contains(null, 2));
+    assertThat(
+        new ColumnarTable().getColumnValues(COL_VALUE), equalTo(ImmutableList.of()));
+  }
+
+  @Test
+  public void testGetValues() {
+    assertThat(
+        _table.getValues(0, ImmutableList.of(COL_VALUE, COL_NAME)), contains((Object) 2, "b"));
+    assertThat(_table.getValues(3, ImmutableList.of(COL_VALUE)), contains((Object) null));
+  }
+
+  @Test
+  public void testGetValuesMissingColumn() {
+    _thrown.expect(NoSuchElementException.class);
+    _table.getValues(0, ImmutableList.of(new ColumnMetadata("other", Schema.STRING, "other")));
+  }
+
+  @Test
+  public void testHasNonNull() {
+    ColumnarTable table = new ColumnarTable();
+    table.add(Row.of("name", "a", "value", null));
+    table.add(Row.of("name", "b"));
+    assertThat(table.hasNonNull("name"), equalTo(true));
+    assertThat(table.hasNonNull("value"), equalTo(false));
+    assertThat(table.hasNonNull("other"), equalTo(false));
+
+    table.add(Row.of("name", "c", "value", 3));
+    assertThat(table.hasNonNull("value"), equalTo(true));
+  }
+
+  @Test
+  public void testMatching() {
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(2);
+
+    assertThat(_table.matching("name", value -> value.asText().equals("b")), equalTo(expected));
+    assertThat(_table.matching("name", value -> false), equalTo(new BitSet()));
+  }
+
+  @Test
+  public void testMatchingEmptyTable() {
+    assertThat(new ColumnarTable().matching("name", value -> true), equalTo(new BitSet()));
+  }
+
+  @Test
+  public void testSort() {
+    List<Comparator<Object>> comparators = ImmutableList.of(natural());
+
+    // nulls first, and ties keep their order
+    assertArrayEquals(
+        new int[] {3, 1, 2, 0},
+        _table.sort(new int[] {0, 1, 2, 3}, ImmutableList.of(COL_VALUE), comparators));
+    assertArrayEquals(
+        new int[] {0, 2, 1, 3},
+        _table.sort(
+            new int[] {3, 2, 1, 0},
+            ImmutableList.of(COL_VALUE),
+            ImmutableList.of(natural().reversed())));
+
+    // only the given rows are sorted
+    assertArrayEquals(
+        new int[] {2, 0},
+        _table.sort(new int[] {0, 2}, ImmutableList.of(COL_VALUE), comparators));
+  }
+
+  @Test
+  public void testSortMultipleColumns() {
+    assertArrayEquals(
+        new int[] {1, 2, 0, 3},
+        _table.sort(
+            new int[] {0, 1, 2, 3},
+            ImmutableList.of(COL_NAME, COL_VALUE),
+            ImmutableList.of(natural(), natural())));
+  }
+}
@@ -46,11 +46,13 @@ public class TableDiffTest {
         ImmutableList.of(new ColumnMetadata("k1", Schema.STRING, "desc", false, true));
 
     // empty maps is returned when there are no Rows
-    assertThat(TableDiff.buildMap(new Rows(), columns), equalTo(ImmutableMap.of()));
+    assertThat(TableDiff.buildMap(new ColumnarTable(), columns), equalTo(ImmutableMap.of()));
 
+    ColumnarTable rows = new ColumnarTable();
+    rows.add(Row.of("k1", "a"));
     assertThat(
-        TableDiff.buildMap(new Rows().add(Row.of("k1", "a")), columns),
-        equalTo(ImmutableMap.of(new LinkedList<>(), ImmutableList.of(Row.of("k1", "a")))));
+        TableDiff.buildMap(rows, columns),
+        equalTo(ImmutableMap.of(new LinkedList<>(), ImmutableList.of(0))));
   }
 
   @Test
@@ -63,12 +65,14 @@ public class TableDiffTest {
 
     Row row1 = Row.of("key", "key1", "both", "both1", "value", "value1");
     Row row2 = Row.of("key", "key2", "both", "both2", "value", "value2");
-    Rows rows = new Rows().add(row1).add(row2);
+    ColumnarTable rows = new ColumnarTable();
+    rows.add(row1);
+    rows.add(row2);
 
-    Map<List<Object>, List<Row>> map = TableDiff.buildMap(rows, columns);
+    Map<List<Object>, List<Integer>> map = TableDiff.buildMap(rows, columns);
 
     // row1 should be returned
-    assertThat(map.get(ImmutableList.of("key1", "both1")), equalTo(ImmutableList.of(row1)));
+    assertThat(map.get(ImmutableList.of("key1", "both1")), equalTo(ImmutableList.of(0)));
 
     // nothing should be returned since the key is "partial"
     assertNull(map.get(ImmutableList.of("key1")));
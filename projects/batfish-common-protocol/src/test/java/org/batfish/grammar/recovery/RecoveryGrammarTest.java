@@ -1,9 +1,14 @@
 package org.batfish.grammar.recovery;
 
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.grammar.BatfishParseTreeWalker;
@@ -60,4 +65,60 @@ public class RecoveryGrammarTest {
     assertThat(extractor.getFirstErrorLine(), equalTo(4));
     assertThat(extractor.getNumErrorNodes(), equalTo(1));
   }
+
+  @Test
+  public void testParseInChunks() {
+    String text =
+        "# chunk one\n"
+            + "simple simple\n"
+            + "block\n"
+            + " inner simple\n"
+            + "# chunk two\n"
+            + "simple\n"
+            + "block simple\n"
+            + " inner\n"
+            + " inner inner\n"
+            + "# chunk three\n"
+            + "simple block inner\n";
+    GrammarSettings settings = new MockGrammarSettings(false, 0, 0, 0, false, false, true, true);
+    RecoveryCombinedParser cp = new RecoveryCombinedParser(text, settings);
+    ParserRuleContext tree =
+        cp.parseInChunks(
+            ImmutableList.of(0, text.indexOf("# chunk two"), text.indexOf("# chunk three")),
+            () -> new RecoveryCombinedParser(text, settings));
+
+    assertThat(tree, notNullValue());
+    assertThat(cp.getErrors(), empty());
+    RecoveryContext ctx = (RecoveryContext) tree;
+    RecoveryExtractor extractor = new RecoveryExtractor();
+    new BatfishParseTreeWalker(cp).walk(extractor, ctx);
+
+    assertThat(ctx.statement().size(), equalTo(5));
+    assertThat(extractor.getNumBlockStatements(), equalTo(2));
+    assertThat(extractor.getNumErrorNodes(), equalTo(0));
+    assertThat(extractor.getNumInnerStatements(), equalTo(3));
+    assertThat(extractor.getNumSimpleStatements(), equalTo(3));
+    assertThat(extractor.getNumTailWords(), equalTo(6));
+
+    // positions and token indices are those of the whole text
+    ParserRuleContext last = ctx.statement(4);
+    assertThat(last.getStart().getLine(), equalTo(11));
+    assertThat(last.getStart().getStartIndex(), equalTo(text.indexOf("simple block inner")));
+    assertThat(
+        cp.getTokens().getText(last.getSourceInterval()), equalTo("simple block inner\n"));
+  }
+
+  @Test
+  public void testParseInChunksEndingInMode() {
+    // the first chunk ends in a lexer mode, so it cannot be parsed on its own
+    String text = "simple\nenter-bad-modenonexistent\nsimple\n";
+    GrammarSettings settings = new MockGrammarSettings(false, 0, 0, 0, false, false, true, true);
+    RecoveryCombinedParser cp = new RecoveryCombinedParser(text, settings);
+
+    assertThat(
+        cp.parseInChunks(
+            ImmutableList.of(0, text.indexOf("\nsimple", 1)),
+            () -> new RecoveryCombinedParser(text, settings)),
+        nullValue());
+  }
 }
@@ -12,6 +12,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.io.FileMatchers.anExistingDirectory;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -51,6 +52,7 @@ import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.isp_configuration.BorderInterfaceInfo;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspFilter;
+import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.IssueSettingsId;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionSettingsId;
@@ -338,6 +340,25 @@ public final class FileBasedStorageTest {
     assertThat(content, equalTo(loaded));
   }
 
+  @Test
+  public void testAnswerObjectRoundTrip() throws IOException {
+    AnswerId answerId = new AnswerId("answer");
+    String key = "rows";
+    _storage.storeAnswer("answer", answerId);
+    assertFalse(_storage.hasAnswerObject(answerId, key));
+
+    byte[] content = "here's some content".getBytes(StandardCharsets.UTF_8);
+    _storage.storeAnswerObject(new ByteArrayInputStream(content), answerId, key);
+    assertTrue(_storage.hasAnswerObject(answerId, key));
+    try (InputStream inputStream = _storage.loadAnswerObject(answerId, key)) {
+      assertThat(ByteStreams.toByteArray(inputStream), equalTo(content));
+    }
+
+    // storing the answer again invalidates the objects derived from it
+    _storage.storeAnswer("new answer", answerId);
+    assertFalse(_storage.hasAnswerObject(answerId, key));
+  }
+
   @Test
   public void testLoadSnapshotInputObjectFile() throws IOException {
     NetworkId network = new NetworkId("network");
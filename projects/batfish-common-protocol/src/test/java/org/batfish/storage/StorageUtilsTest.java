@@ -0,0 +1,67 @@
+package org.batfish.storage;
+
+import static org.batfish.storage.StorageUtils.MMAP_THRESHOLD_BYTES;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link StorageUtils} */
+public final class StorageUtilsTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(0).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] readAll(Path path) throws IOException {
+    try (InputStream inputStream = StorageUtils.newInputStream(path)) {
+      return ByteStreams.toByteArray(inputStream);
+    }
+  }
+
+  @Test
+  public void testNewInputStreamSmall() throws IOException {
+    Path path = _folder.newFile().toPath();
+    byte[] bytes = randomBytes(100);
+    Files.write(path, bytes);
+    assertThat(readAll(path), equalTo(bytes));
+  }
+
+  @Test
+  public void testNewInputStreamMapped() throws IOException {
+    Path path = _folder.newFile().toPath();
+    byte[] bytes = randomBytes((int) MMAP_THRESHOLD_BYTES + 1);
+    Files.write(path, bytes);
+    assertThat(readAll(path), equalTo(bytes));
+  }
+
+  @Test
+  public void testWriteStreamToFile() throws IOException {
+    Path dir = _folder.getRoot().toPath().resolve("a").resolve("b");
+    Path path = dir.resolve("file");
+    StorageUtils.writeStreamToFile(new ByteArrayInputStream(new byte[] {1, 2}), path);
+    StorageUtils.writeStreamToFile(new ByteArrayInputStream(new byte[] {3}), path);
+
+    assertThat(Files.readAllBytes(path), equalTo(new byte[] {3}));
+    // no temporary files left behind
+    try (Stream<Path> files = Files.list(dir)) {
+      assertThat(files.collect(Collectors.toList()), contains(path));
+    }
+  }
+}
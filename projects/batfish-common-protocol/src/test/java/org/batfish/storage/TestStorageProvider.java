@@ -220,6 +220,22 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public InputStream loadAnswerObject(AnswerId answerId, String key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeAnswerObject(InputStream inputStream, AnswerId answerId, String key)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean hasAnswerObject(AnswerId answerId, String key) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public InputStream loadNetworkBlob(NetworkId networkId, String key) {
     throw new UnsupportedOperationException();
@@ -26,6 +26,20 @@ public void emit(Token token) {
     }
 }
 
+@Override
+public boolean isInInitialState() {
+   // Flags set within a line are reset by its NEWLINE, but some are carried across lines
+   return super.isInInitialState()
+      && enableIPV6_ADDRESS
+      && enableIP_ADDRESS
+      && enableDEC
+      && !enableACL_NUM
+      && !enableCOMMUNITY_LIST_NUM
+      && !enableREGEX
+      && !_inAccessList
+      && !inCommunitySet;
+}
+
 public void setAsa(boolean asa) {
    _asa = asa;
 }
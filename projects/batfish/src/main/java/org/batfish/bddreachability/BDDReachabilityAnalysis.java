@@ -2,6 +2,7 @@ package org.batfish.bddreachability;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeStronglyConnectedComponents;
 import static org.batfish.common.util.CommonUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -11,12 +12,14 @@ import com.google.common.collect.Table;
 import com.google.common.collect.Tables;
 import io.opentracing.ActiveSpan;
 import io.opentracing.util.GlobalTracer;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -118,7 +121,15 @@ public class BDDReachabilityAnalysis {
     fixpoint(reachable, _forwardEdgeTable, Edge::traverseForward);
   }
 
-  /** Apply edges to the reachableSets until a fixed point is reached. */
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached.
+   *
+   * <p>States are processed one strongly connected component at a time, in topological order, so
+   * the reachable sets of a component are final before any state downstream of it is visited.
+   * Within a component, states are taken from a worklist in topological rank order, and only the
+   * part of a state's reachable set that has not yet been pushed across its edges is propagated.
+   * This is sound because traversing an edge distributes over disjunction.
+   */
   @VisibleForTesting
   static void fixpoint(
       Map<StateExpr, BDD> reachableSets,
@@ -127,38 +138,57 @@ public class BDDReachabilityAnalysis {
     try (ActiveSpan span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysis.fixpoint").startActive()) {
       assert span != null; // avoid unused warning
-      Set<StateExpr> dirtyStates = ImmutableSet.copyOf(reachableSets.keySet());
+      List<List<StateExpr>> sccs =
+          computeStronglyConnectedComponents(reachableSets.keySet(), edges);
+      Map<StateExpr, Integer> rank = new HashMap<>();
+      Map<StateExpr, Integer> sccIndex = new HashMap<>();
+      for (int i = 0; i < sccs.size(); i++) {
+        for (StateExpr state : sccs.get(i)) {
+          rank.put(state, rank.size());
+          sccIndex.put(state, i);
+        }
+      }
 
-      while (!dirtyStates.isEmpty()) {
-        Set<StateExpr> newDirtyStates = new HashSet<>();
+      // the part of each state's reachable set not yet propagated to its neighbors
+      Map<StateExpr, BDD> unpropagated = new HashMap<>(reachableSets);
 
-        dirtyStates.forEach(
-            dirtyState -> {
-              Map<StateExpr, Edge> dirtyStateEdges = edges.row(dirtyState);
-              if (dirtyStateEdges == null) {
-                // dirtyState has no edges
-                return;
-              }
+      for (int i = 0; i < sccs.size(); i++) {
+        int currentScc = i;
+        PriorityQueue<StateExpr> worklist = new PriorityQueue<>(Comparator.comparing(rank::get));
+        sccs.get(i).stream().filter(unpropagated::containsKey).forEach(worklist::add);
 
-              BDD dirtyStateBDD = reachableSets.get(dirtyState);
-              dirtyStateEdges.forEach(
+        while (!worklist.isEmpty()) {
+          StateExpr state = worklist.poll();
+          BDD delta = unpropagated.remove(state);
+          edges
+              .row(state)
+              .forEach(
                   (neighbor, edge) -> {
-                    BDD result = traverse.apply(edge, dirtyStateBDD);
+                    BDD result = traverse.apply(edge, delta);
                     if (result.isZero()) {
                       return;
                     }
 
                     // update neighbor's reachable set
                     BDD oldReach = reachableSets.get(neighbor);
-                    BDD newReach = oldReach == null ? result : oldReach.or(result);
-                    if (oldReach == null || !oldReach.equals(newReach)) {
-                      reachableSets.put(neighbor, newReach);
-                      newDirtyStates.add(neighbor);
+                    BDD added = oldReach == null ? result : result.diff(oldReach);
+                    if (added.isZero()) {
+                      return;
+                    }
+                    reachableSets.put(neighbor, oldReach == null ? result : oldReach.or(result));
+
+                    // neighbors in later components are visited when their component is reached
+                    BDD pending = unpropagated.get(neighbor);
+                    if (pending != null) {
+                      unpropagated.put(neighbor, pending.or(added));
+                    } else {
+                      unpropagated.put(neighbor, added);
+                      if (sccIndex.get(neighbor) == currentScc) {
+                        worklist.add(neighbor);
+                      }
                     }
                   });
-            });
-
-        dirtyStates = newDirtyStates;
+        }
       }
     }
   }
@@ -2,8 +2,19 @@ package org.batfish.bddreachability;
 
 import static com.google.common.collect.ImmutableTable.toImmutableTable;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import org.batfish.bddreachability.transition.Transitions;
 import org.batfish.z3.expr.StateExpr;
@@ -25,4 +36,87 @@ final class BDDReachabilityUtils {
                         oldVal.getPostState(),
                         Transitions.or(oldVal.getTransition(), newVal.getTransition()))));
   }
+
+  /** A state being visited by the depth-first search, and its successors not yet explored. */
+  private static final class DfsFrame {
+    private final StateExpr _state;
+    private final Iterator<StateExpr> _successors;
+
+    private DfsFrame(StateExpr state, Iterator<StateExpr> successors) {
+      _state = state;
+      _successors = successors;
+    }
+  }
+
+  /**
+   * Compute the strongly connected components of the subgraph of {@code edges} reachable from
+   * {@code roots}, using Tarjan's algorithm. The components are returned in topological order: if
+   * there is an edge from a state in one component to a state in another, the first component
+   * comes before the second. The search is iterative, so arbitrarily long paths are fine.
+   */
+  static List<List<StateExpr>> computeStronglyConnectedComponents(
+      Iterable<StateExpr> roots, Table<StateExpr, StateExpr, ?> edges) {
+    Map<StateExpr, Integer> index = new HashMap<>();
+    Map<StateExpr, Integer> lowLink = new HashMap<>();
+    Set<StateExpr> onStack = new HashSet<>();
+    Deque<StateExpr> stack = new ArrayDeque<>();
+    Deque<DfsFrame> dfs = new ArrayDeque<>();
+    List<List<StateExpr>> sccs = new ArrayList<>();
+
+    for (StateExpr root : roots) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+      visit(root, edges, index, lowLink, onStack, stack, dfs);
+      while (!dfs.isEmpty()) {
+        DfsFrame frame = dfs.peek();
+        StateExpr state = frame._state;
+        if (frame._successors.hasNext()) {
+          StateExpr next = frame._successors.next();
+          if (!index.containsKey(next)) {
+            visit(next, edges, index, lowLink, onStack, stack, dfs);
+          } else if (onStack.contains(next)) {
+            lowLink.put(state, Math.min(lowLink.get(state), index.get(next)));
+          }
+          continue;
+        }
+
+        // all successors of state have been explored
+        dfs.pop();
+        if (!dfs.isEmpty()) {
+          StateExpr parent = dfs.peek()._state;
+          lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(state)));
+        }
+        if (lowLink.get(state).equals(index.get(state))) {
+          // state is the root of a component
+          ImmutableList.Builder<StateExpr> scc = ImmutableList.builder();
+          StateExpr member;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            scc.add(member);
+          } while (!member.equals(state));
+          sccs.add(scc.build());
+        }
+      }
+    }
+    // Tarjan's algorithm finds components in reverse topological order
+    return Lists.reverse(sccs);
+  }
+
+  private static void visit(
+      StateExpr state,
+      Table<StateExpr, StateExpr, ?> edges,
+      Map<StateExpr, Integer> index,
+      Map<StateExpr, Integer> lowLink,
+      Set<StateExpr> onStack,
+      Deque<StateExpr> stack,
+      Deque<DfsFrame> dfs) {
+    int i = index.size();
+    index.put(state, i);
+    lowLink.put(state, i);
+    stack.push(state);
+    onStack.add(state);
+    dfs.push(new DfsFrame(state, edges.row(state).keySet().iterator()));
+  }
 }
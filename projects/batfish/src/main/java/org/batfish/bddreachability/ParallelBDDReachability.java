@@ -0,0 +1,195 @@
+package org.batfish.bddreachability;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.batfish.common.bdd.BDDUtils.copyTo;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.math.IntMath;
+import io.opentracing.ActiveSpan;
+import io.opentracing.util.GlobalTracer;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDFactory.FactoryStats;
+import org.batfish.common.BatfishException;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.acl.AclLineMatchExpr;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.z3.IngressLocation;
+
+/**
+ * Computes the same result as {@link BDDReachabilityAnalysisFactory#getAllBDDs} using multiple
+ * threads.
+ *
+ * <p>{@link BDDFactory BDDFactories} are not thread-safe, so the query is split into partitions
+ * that are solved by threads that each have their own {@link BDDPacket} and {@link
+ * BDDReachabilityAnalysisFactory}, built once per thread and reused for all the partitions the
+ * thread solves. Each partition restricts the initial header space to one
+ * destination prefix class (i.e. a fixed value of the leading bits of the destination IP). The
+ * initial header space is the only thing that differs between partitions, so the results for a
+ * source location are disjoint across partitions and their union is the unpartitioned result. The
+ * results are copied back to the caller's {@link BDDPacket} when all partitions are done.
+ */
+@ParametersAreNonnullByDefault
+public final class ParallelBDDReachability {
+
+  /** The largest number of partitions supported, to bound the memory used by the factories */
+  private static final int MAX_PARTITIONS = 256;
+
+  private final Map<String, Configuration> _configs;
+
+  @Nullable private final Consumer<FactoryStats> _factoryStatsConsumer;
+
+  private final ForwardingAnalysis _forwardingAnalysis;
+
+  private final boolean _ignoreFilters;
+
+  private final int _numPartitions;
+
+  private final int _parallelism;
+
+  /**
+   * @param configs The configurations of the snapshot.
+   * @param forwardingAnalysis The forwarding analysis of the snapshot.
+   * @param ignoreFilters Whether to ignore filters.
+   * @param numPartitions The number of partitions to split the query into. Rounded up to a power
+   *     of two, at most {@value #MAX_PARTITIONS}. Using more partitions than threads evens out the
+   *     load, since some destination prefix classes are much more expensive than others.
+   * @param parallelism The number of threads to use.
+   */
+  public ParallelBDDReachability(
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      boolean ignoreFilters,
+      int numPartitions,
+      int parallelism) {
+    this(configs, forwardingAnalysis, ignoreFilters, numPartitions, parallelism, null);
+  }
+
+  /**
+   * Same as {@link #ParallelBDDReachability(Map, ForwardingAnalysis, boolean, int, int)}, but
+   * after each query the statistics of the {@link BDDFactory} of each thread are passed to {@code
+   * factoryStatsConsumer}.
+   */
+  public ParallelBDDReachability(
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      boolean ignoreFilters,
+      int numPartitions,
+      int parallelism,
+      @Nullable Consumer<FactoryStats> factoryStatsConsumer) {
+    checkArgument(numPartitions > 0, "numPartitions must be positive");
+    checkArgument(parallelism > 0, "parallelism must be positive");
+    _configs = configs;
+    _factoryStatsConsumer = factoryStatsConsumer;
+    _forwardingAnalysis = forwardingAnalysis;
+    _ignoreFilters = ignoreFilters;
+    _numPartitions = Math.min(numPartitions, MAX_PARTITIONS);
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Split the IPv4 address space into at least {@code numPartitions} prefixes of equal length.
+   * Returns the smallest such partition, so the number of prefixes is a power of two.
+   */
+  @VisibleForTesting
+  static List<Prefix> dstPrefixClasses(int numPartitions) {
+    int prefixLength = IntMath.log2(numPartitions, RoundingMode.CEILING);
+    ImmutableList.Builder<Prefix> prefixes = ImmutableList.builder();
+    long step = 1L << (Prefix.MAX_PREFIX_LENGTH - prefixLength);
+    for (long i = 0; i < 1L << prefixLength; i++) {
+      prefixes.add(Prefix.create(Ip.create(i * step), prefixLength));
+    }
+    return prefixes.build();
+  }
+
+  /**
+   * Same as {@link BDDReachabilityAnalysisFactory#getAllBDDs}. The returned {@link BDD BDDs} belong
+   * to {@code pkt}.
+   */
+  public Map<IngressLocation, BDD> getAllBDDs(
+      BDDPacket pkt,
+      IpSpaceAssignment srcIpSpaceAssignment,
+      AclLineMatchExpr initialHeaderSpace,
+      Set<String> forbiddenTransitNodes,
+      Set<String> requiredTransitNodes,
+      Set<String> finalNodes,
+      Set<FlowDisposition> actions) {
+    try (ActiveSpan span =
+        GlobalTracer.get().buildSpan("ParallelBDDReachability.getAllBDDs").startActive()) {
+      assert span != null; // avoid unused warning
+      List<Prefix> partitions = dstPrefixClasses(_numPartitions);
+      ForkJoinPool pool = new ForkJoinPool(Math.min(_parallelism, partitions.size()));
+      List<Map<IngressLocation, BDD>> results;
+      // building a factory converts every ACL and transformation, so build one per thread
+      ConcurrentLinkedQueue<BDDPacket> packets = new ConcurrentLinkedQueue<>();
+      ThreadLocal<BDDReachabilityAnalysisFactory> factories =
+          ThreadLocal.withInitial(
+              () -> {
+                BDDPacket threadPkt = new BDDPacket();
+                packets.add(threadPkt);
+                return new BDDReachabilityAnalysisFactory(
+                    threadPkt, _configs, _forwardingAnalysis, _ignoreFilters, false);
+              });
+      try {
+        results =
+            pool.submit(
+                    () ->
+                        partitions
+                            .parallelStream()
+                            .map(
+                                prefix ->
+                                    factories
+                                        .get()
+                                        .getAllBDDs(
+                                            srcIpSpaceAssignment,
+                                            and(initialHeaderSpace, matchDst(prefix)),
+                                            forbiddenTransitNodes,
+                                            requiredTransitNodes,
+                                            finalNodes,
+                                            actions))
+                            .collect(ImmutableList.toImmutableList()))
+                .get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new BatfishException("Interrupted while computing reachability", e);
+      } catch (ExecutionException e) {
+        throw new BatfishException("Error computing reachability", e.getCause());
+      } finally {
+        pool.shutdown();
+      }
+      if (_factoryStatsConsumer != null) {
+        // the threads are done with their packets
+        for (BDDPacket threadPkt : packets) {
+          _factoryStatsConsumer.accept(threadPkt.getFactory().getFactoryStats());
+        }
+      }
+
+      // pkt is only ever used from this thread
+      BDDFactory factory = pkt.getFactory();
+      Map<IngressLocation, BDD> merged = new HashMap<>();
+      results.forEach(
+          result -> result.forEach((loc, bdd) -> merged.merge(loc, copyTo(bdd, factory), BDD::or)));
+      return ImmutableMap.copyOf(merged);
+    }
+  }
+}
@@ -24,6 +24,8 @@ import org.batfish.storage.FileBasedStorageDirectoryProvider;
 
 public final class Settings extends BaseSettings implements GrammarSettings {
 
+  private static final String ARG_BDD_REACHABILITY_PARTITIONS = "bddreachabilitypartitions";
+
   public static final String ARG_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
 
   public static final String ARG_COORDINATOR_HOST = "coordinatorhost";
@@ -68,8 +70,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_NO_SHUFFLE = "noshuffle";
 
+  private static final String ARG_PARALLEL_PARSE_LINES = "parallelparselines";
+
   public static final String ARG_PARENT_PID = "parentpid";
 
+  private static final String ARG_PARSER_WARMUP = "parserwarmup";
+
   private static final String ARG_PRINT_PARSE_TREES = "ppt";
 
   private static final String ARG_PRINT_PARSE_TREE_LINE_NUMS = "printparsetreelinenums";
@@ -88,6 +94,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   public static final String ARG_SERVICE_PORT = "serviceport";
 
+  private static final String ARG_SERVICE_SLOTS = "serviceslots";
+
   private static final String ARG_TRACING_AGENT_HOST = "tracingagenthost";
 
   private static final String ARG_TRACING_AGENT_PORT = "tracingagentport";
@@ -208,6 +216,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return Math.min(Runtime.getRuntime().availableProcessors(), getJobs());
   }
 
+  /**
+   * The number of partitions to split BDD reachability queries into, so they can be solved in
+   * parallel. 1 disables parallel BDD reachability.
+   */
+  public int getBddReachabilityPartitions() {
+    return _config.getInt(ARG_BDD_REACHABILITY_PARTITIONS);
+  }
+
   public TestrigSettings getBaseTestrigSettings() {
     return _baseTestrigSettings;
   }
@@ -322,6 +338,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_LOG_TEE);
   }
 
+  /**
+   * Returns the minimum number of lines in each of the chunks in which a large Cisco or Juniper
+   * file is parsed in parallel, or 0 if files are always parsed as a whole.
+   */
+  public int getParallelParseLines() {
+    return _config.getInt(ARG_PARALLEL_PARSE_LINES);
+  }
+
   public int getParentPid() {
     return _config.getInt(ARG_PARENT_PID);
   }
@@ -330,6 +354,15 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  /**
+   * Returns {@code true} iff samples of the parsed configuration files are kept with each network,
+   * so that a worker can parse them to warm up the parser caches before it first parses the
+   * network.
+   */
+  public boolean getParserWarmup() {
+    return _config.getBoolean(ARG_PARSER_WARMUP);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -412,6 +445,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getInt(ARG_SERVICE_PORT);
   }
 
+  /** The number of tasks the batfish service runs concurrently */
+  public int getServiceSlots() {
+    return _config.getInt(ARG_SERVICE_SLOTS);
+  }
+
   public boolean getShuffleJobs() {
     return !_config.getBoolean(ARG_NO_SHUFFLE);
   }
@@ -534,6 +572,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS, false);
+    setDefaultProperty(ARG_BDD_REACHABILITY_PARTITIONS, 1);
     setDefaultProperty(CAN_EXECUTE, true);
     setDefaultProperty(BfConsts.ARG_CONTAINER, null);
     setDefaultProperty(ARG_COORDINATOR_REGISTER, false);
@@ -568,8 +607,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(BfConsts.ARG_PEDANTIC_SUPPRESS, false);
     setDefaultProperty(BfConsts.ARG_PRETTY_PRINT_ANSWER, false);
+    setDefaultProperty(ARG_PARALLEL_PARSE_LINES, 0);
     setDefaultProperty(ARG_PARENT_PID, -1);
     setDefaultProperty(ARG_PARSE_REUSE, true);
+    setDefaultProperty(ARG_PARSER_WARMUP, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
@@ -581,6 +622,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_SERVICE_HOST, "localhost");
     setDefaultProperty(ARG_SERVICE_NAME, "worker-service");
     setDefaultProperty(ARG_SERVICE_PORT, BfConsts.SVC_PORT);
+    setDefaultProperty(ARG_SERVICE_SLOTS, 1);
     setDefaultProperty(BfConsts.ARG_SNAPSHOT_NAME, null);
     setDefaultProperty(BfConsts.ARG_SSL_DISABLE, CoordConsts.SVC_CFG_POOL_SSL_DISABLE);
     setDefaultProperty(BfConsts.ARG_SSL_KEYSTORE_FILE, null);
@@ -645,6 +687,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         "Set to true to record all iterations, including during oscillation. Ignores max recorded "
             + "iterations value.");
 
+    addOption(
+        ARG_BDD_REACHABILITY_PARTITIONS,
+        "number of partitions to split BDD reachability queries into so they can be solved in "
+            + "parallel (1 to disable)",
+        ARGNAME_NUMBER);
+
     addBooleanOption(
         ARG_CHECK_BGP_REACHABILITY,
         "whether to check BGP session reachability during data plane computation");
@@ -746,10 +794,20 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_NO_SHUFFLE, "do not shuffle parallel jobs");
 
+    addOption(
+        ARG_PARALLEL_PARSE_LINES,
+        "min number of lines per chunk when parsing a large Cisco or Juniper file in parallel "
+            + "chunks of whole stanzas (0 to disable)",
+        ARGNAME_NUMBER);
+
     addOption(ARG_PARENT_PID, "name of parent PID", ARGNAME_NUMBER);
 
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
 
+    addBooleanOption(
+        ARG_PARSER_WARMUP,
+        "keep samples of parsed files with each network and parse them before parsing it");
+
     addBooleanOption(BfConsts.ARG_PEDANTIC_SUPPRESS, "suppresses pedantic warnings");
 
     addBooleanOption(BfConsts.ARG_PRETTY_PRINT_ANSWER, "pretty print answer");
@@ -783,6 +841,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addOption(ARG_SERVICE_PORT, "port for batfish service", ARGNAME_PORT);
 
+    addOption(
+        ARG_SERVICE_SLOTS, "number of tasks the batfish service runs concurrently", ARGNAME_NUMBER);
+
     addOption(BfConsts.ARG_SNAPSHOT_NAME, "name of snapshot", ARGNAME_NAME);
 
     addBooleanOption(
@@ -890,6 +951,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(BfConsts.ARG_BDP_MAX_RECORDED_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS);
+    getIntOptionValue(ARG_BDD_REACHABILITY_PARTITIONS);
     getBooleanOptionValue(ARG_CHECK_BGP_REACHABILITY);
     getStringOptionValue(BfConsts.ARG_CONTAINER);
     getStringOptionValue(ARG_COORDINATOR_HOST);
@@ -919,6 +981,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
     getIntOptionValue(ARG_MAX_RUNTIME_MS);
+    getIntOptionValue(ARG_PARALLEL_PARSE_LINES);
     getIntOptionValue(ARG_PARENT_PID);
     getBooleanOptionValue(BfConsts.ARG_PEDANTIC_SUPPRESS);
     getBooleanOptionValue(BfConsts.ARG_PRETTY_PRINT_ANSWER);
@@ -935,8 +998,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getStringOptionValue(ARG_SERVICE_HOST);
     getStringOptionValue(ARG_SERVICE_NAME);
     getIntOptionValue(ARG_SERVICE_PORT);
+    getIntOptionValue(ARG_SERVICE_SLOTS);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
     getBooleanOptionValue(ARG_PARSE_REUSE);
+    getBooleanOptionValue(ARG_PARSER_WARMUP);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getBooleanOptionValue(BfConsts.ARG_SSL_DISABLE);
     getPathOptionValue(BfConsts.ARG_SSL_KEYSTORE_FILE);
@@ -1028,6 +1093,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_MAX_RUNTIME_MS, runtimeMs);
   }
 
+  public void setParallelParseLines(int parallelParseLines) {
+    _config.setProperty(ARG_PARALLEL_PARSE_LINES, parallelParseLines);
+  }
+
+  public void setParserWarmup(boolean parserWarmup) {
+    _config.setProperty(ARG_PARSER_WARMUP, parserWarmup);
+  }
+
   @Override
   public void setPrintParseTree(boolean printParseTree) {
     _config.setProperty(ARG_PRINT_PARSE_TREES, printParseTree);
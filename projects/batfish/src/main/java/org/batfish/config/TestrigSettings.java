@@ -36,6 +36,12 @@ public final class TestrigSettings {
     return getOutputPath().resolve(BfConsts.RELPATH_DATA_PLANE);
   }
 
+  /** Directory holding the per-node shards of a {@link org.batfish.datamodel.ShardableDataPlane} */
+  @Nonnull
+  public Path getDataPlaneShardsDir() {
+    return getOutputPath().resolve(BfConsts.RELPATH_DATA_PLANE_SHARDS_DIR);
+  }
+
   public Path getDataPlaneAnswerPath() {
     return getOutputPath().resolve(BfConsts.RELPATH_DATA_PLANE_ANSWER_PATH);
   }
@@ -8,13 +8,25 @@ import static org.batfish.common.util.CommonUtil.toImmutableSortedMap;
 import static org.batfish.datamodel.bgp.BgpTopologyUtils.initBgpTopology;
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableGraph;
 import com.google.common.graph.Network;
 import com.google.common.graph.ValueGraph;
 import com.google.common.graph.ValueGraphBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import io.opentracing.ActiveSpan;
 import io.opentracing.util.GlobalTracer;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -23,23 +35,29 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BdpOscillationException;
 import org.batfish.common.Version;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.regex.RegexMatchers;
 import org.batfish.common.topology.Layer2Topology;
 import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.BgpActivePeerConfig;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.BgpPeerConfigId;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpSessionProperties;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.eigrp.EigrpEdge;
 import org.batfish.datamodel.eigrp.EigrpInterface;
@@ -128,10 +146,32 @@ class IncrementalBdpEngine {
       @Nullable Layer2Topology layer2Topology,
       OspfTopology ospfTopology,
       Set<BgpAdvertisement> externalAdverts) {
+    return computeFullDataPlane(
+        configurations,
+        topology,
+        layer2Topology,
+        ospfTopology,
+        externalAdverts,
+        _settings.getReuseParentDataPlane() ? hashConfigurations(configurations) : null);
+  }
+
+  /**
+   * Compute the whole data plane. If {@code configurationHashes} is given, each node records the
+   * hash of its configuration, so that a data plane computed later for a fork of the network can
+   * tell whether the node changed.
+   */
+  private ComputeDataPlaneResult computeFullDataPlane(
+      Map<String, Configuration> configurations,
+      Topology topology,
+      @Nullable Layer2Topology layer2Topology,
+      OspfTopology ospfTopology,
+      Set<BgpAdvertisement> externalAdverts,
+      @Nullable Map<String, HashCode> configurationHashes) {
     try (ActiveSpan span = GlobalTracer.get().buildSpan("Compute Data Plane").startActive()) {
       assert span != null; // avoid unused warning
 
       _bfLogger.resetTimer();
+      RegexMatchers.Stats regexStatsBefore = RegexMatchers.getStats();
       IncrementalDataPlane.Builder dpBuilder = IncrementalDataPlane.builder();
       _bfLogger.info("\nComputing Data Plane using iBDP\n");
 
@@ -147,6 +187,16 @@ class IncrementalBdpEngine {
       // Generate our nodes, keyed by name, sorted for determinism
       SortedMap<String, Node> nodes =
           toImmutableSortedMap(configurations.values(), Configuration::getHostname, Node::new);
+      Map<String, Set<BgpAdvertisement>> externalAdvertsByNode =
+          groupExternalAdvertsByNode(externalAdverts);
+      nodes.forEach(
+          (hostname, node) ->
+              node.setExternalAdverts(
+                  externalAdvertsByNode.getOrDefault(hostname, ImmutableSet.of())));
+      if (configurationHashes != null) {
+        nodes.forEach(
+            (hostname, node) -> node.setConfigurationHash(configurationHashes.get(hostname)));
+      }
       NetworkConfigurations networkConfigurations = NetworkConfigurations.of(configurations);
 
       /*
@@ -229,11 +279,226 @@ class IncrementalBdpEngine {
               .setIpVrfOwners(ipVrfOwners)
               .setBgpTopology(newResult._bgpTopology)
               .build();
+      _bfLogger.debugf(
+          "Regex matching during data plane computation: %s\n",
+          RegexMatchers.getStats().since(regexStatsBefore));
       _bfLogger.printElapsedTime();
       return new ComputeDataPlaneResult(answerElement, finalDataplane);
     }
   }
 
+  /**
+   * Compute the data plane, reusing the converged state of {@code previous} wherever it is still
+   * valid.
+   *
+   * <p>Nodes are grouped into components that can exchange routes with each other (via layer-3
+   * edges, OSPF adjacencies, or configured BGP peers). A component whose nodes all have the same
+   * configuration, layer-3 edges, and external BGP advertisements as in {@code previous} converges
+   * to the same fixed point it did before, so its nodes are copied from {@code previous}. Only the
+   * remaining components are recomputed.
+   *
+   * @param previous a data plane computed by this engine for a closely related network, e.g. the
+   *     parent of a forked snapshot. If {@code null}, the whole data plane is computed.
+   */
+  ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations,
+      Topology topology,
+      @Nullable Layer2Topology layer2Topology,
+      OspfTopology ospfTopology,
+      Set<BgpAdvertisement> externalAdverts,
+      @Nullable IncrementalDataPlane previous) {
+    if (previous == null) {
+      return computeDataPlane(
+          configurations, topology, layer2Topology, ospfTopology, externalAdverts);
+    }
+    Map<String, HashCode> configurationHashes = hashConfigurations(configurations);
+    Set<String> reusableNodes =
+        computeReusableNodes(
+            configurations,
+            configurationHashes,
+            topology,
+            ospfTopology,
+            externalAdverts,
+            previous);
+    if (reusableNodes.isEmpty()) {
+      return computeFullDataPlane(
+          configurations,
+          topology,
+          layer2Topology,
+          ospfTopology,
+          externalAdverts,
+          configurationHashes);
+    }
+    _bfLogger.infof(
+        "Reusing converged state of %d of %d nodes from previous data plane\n",
+        reusableNodes.size(), configurations.size());
+
+    Map<String, Configuration> changedConfigurations =
+        configurations.entrySet().stream()
+            .filter(e -> !reusableNodes.contains(e.getKey()))
+            .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
+    IncrementalBdpAnswerElement answerElement;
+    ImmutableSortedMap.Builder<String, Node> nodes = ImmutableSortedMap.naturalOrder();
+    if (changedConfigurations.isEmpty()) {
+      answerElement = new IncrementalBdpAnswerElement();
+      answerElement.setVersion(Version.getVersion());
+    } else {
+      // Components are closed under layer-3 edges, so no edge crosses between the two sets
+      Topology changedTopology =
+          new Topology(
+              topology.getEdges().stream()
+                  .filter(e -> !reusableNodes.contains(e.getNode1()))
+                  .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder())));
+      Set<BgpAdvertisement> changedExternalAdverts =
+          externalAdverts.stream()
+              .filter(a -> !reusableNodes.contains(a.getDstNode()))
+              .collect(ImmutableSet.toImmutableSet());
+      ComputeDataPlaneResult changedResult =
+          computeFullDataPlane(
+              changedConfigurations,
+              changedTopology,
+              layer2Topology,
+              ospfTopology,
+              changedExternalAdverts,
+              configurationHashes);
+      answerElement = (IncrementalBdpAnswerElement) changedResult._answerElement;
+      nodes.putAll(((IncrementalDataPlane) changedResult._dataPlane).getNodes());
+    }
+    Map<String, Node> previousNodes = previous.getNodes();
+    reusableNodes.forEach(hostname -> nodes.put(hostname, previousNodes.get(hostname)));
+
+    // Re-derive network-wide state over the combined nodes
+    IncrementalDataPlane.Builder dpBuilder =
+        IncrementalDataPlane.builder()
+            .setNodes(nodes.build())
+            .setTopology(topology)
+            .setIpVrfOwners(computeIpVrfOwners(true, computeNodeInterfaces(configurations)));
+    ValueGraph<BgpPeerConfigId, BgpSessionProperties> bgpTopology =
+        initBgpTopology(
+            configurations,
+            computeIpNodeOwners(configurations, true),
+            false,
+            true,
+            new TracerouteEngineImpl(dpBuilder.build()),
+            layer2Topology);
+    return new ComputeDataPlaneResult(
+        answerElement, dpBuilder.setBgpTopology(bgpTopology).build());
+  }
+
+  /**
+   * Returns a hash of the contents of each configuration, keyed by hostname. Equal configurations
+   * may hash differently (e.g., due to hash ordering), which only costs a recomputation.
+   */
+  @VisibleForTesting
+  static Map<String, HashCode> hashConfigurations(Map<String, Configuration> configurations) {
+    return configurations.entrySet().parallelStream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                Entry::getKey,
+                e -> Hashing.murmur3_128().hashBytes(SerializationUtils.serialize(e.getValue()))));
+  }
+
+  /**
+   * Return the hostnames whose converged state in {@code previous} is still valid for the given
+   * network, whose configurations have the given {@link #hashConfigurations(Map) hashes}. See
+   * {@link #computeDataPlane(Map, Topology, Layer2Topology, OspfTopology, Set,
+   * IncrementalDataPlane)}.
+   */
+  @VisibleForTesting
+  static Set<String> computeReusableNodes(
+      Map<String, Configuration> configurations,
+      Map<String, HashCode> configurationHashes,
+      Topology topology,
+      OspfTopology ospfTopology,
+      Set<BgpAdvertisement> externalAdverts,
+      IncrementalDataPlane previous) {
+    Map<String, Node> previousNodes = previous.getNodes();
+    Map<String, Set<BgpAdvertisement>> externalAdvertsByNode =
+        groupExternalAdvertsByNode(externalAdverts);
+    Map<String, Set<Edge>> edgesByNode = groupEdgesByNode(topology);
+    Map<String, Set<Edge>> previousEdgesByNode = groupEdgesByNode(previous.getTopology());
+    Set<String> unchangedNodes =
+        configurations.entrySet().stream()
+            .filter(
+                e -> {
+                  String hostname = e.getKey();
+                  Node previousNode = previousNodes.get(hostname);
+                  return previousNode != null
+                      && previousNode.getConfigurationHash() != null
+                      && previousNode
+                          .getConfigurationHash()
+                          .equals(configurationHashes.get(hostname))
+                      && Objects.equals(
+                          previousNode.getExternalAdverts(),
+                          externalAdvertsByNode.getOrDefault(hostname, ImmutableSet.of()))
+                      && edgesByNode
+                          .getOrDefault(hostname, ImmutableSet.of())
+                          .equals(previousEdgesByNode.getOrDefault(hostname, ImmutableSet.of()));
+                })
+            .map(Entry::getKey)
+            .collect(ImmutableSet.toImmutableSet());
+    if (unchangedNodes.isEmpty()) {
+      return ImmutableSet.of();
+    }
+
+    // Connect every pair of nodes that may exchange routes, in either network
+    MutableGraph<String> graph = GraphBuilder.undirected().allowsSelfLoops(true).build();
+    configurations.keySet().forEach(graph::addNode);
+    topology.getEdges().forEach(e -> graph.putEdge(e.getNode1(), e.getNode2()));
+    ospfTopology
+        .edges()
+        .forEach(e -> graph.putEdge(e.getTail().getHostname(), e.getHead().getHostname()));
+    Map<Ip, Set<String>> ipOwners = computeIpNodeOwners(configurations, true);
+    Map<Ip, Set<String>> previousIpOwners =
+        computeIpNodeOwners(previous.getConfigurations(), true);
+    for (Configuration c : configurations.values()) {
+      c.getVrfs().values().stream()
+          .map(Vrf::getBgpProcess)
+          .filter(Objects::nonNull)
+          .flatMap(proc -> proc.getActiveNeighbors().values().stream())
+          .map(BgpActivePeerConfig::getPeerAddress)
+          .filter(Objects::nonNull)
+          .forEach(
+              peerAddress -> {
+                ipOwners
+                    .getOrDefault(peerAddress, ImmutableSet.of())
+                    .forEach(owner -> graph.putEdge(c.getHostname(), owner));
+                previousIpOwners
+                    .getOrDefault(peerAddress, ImmutableSet.of())
+                    .forEach(owner -> graph.putEdge(c.getHostname(), owner));
+              });
+    }
+
+    ImmutableSet.Builder<String> reusableNodes = ImmutableSet.builder();
+    Set<String> visited = new HashSet<>();
+    for (String hostname : graph.nodes()) {
+      if (visited.contains(hostname)) {
+        continue;
+      }
+      Set<String> component = Graphs.reachableNodes(graph, hostname);
+      visited.addAll(component);
+      if (unchangedNodes.containsAll(component)) {
+        reusableNodes.addAll(component);
+      }
+    }
+    return reusableNodes.build();
+  }
+
+  private static Map<String, Set<BgpAdvertisement>> groupExternalAdvertsByNode(
+      Set<BgpAdvertisement> externalAdverts) {
+    return externalAdverts.stream()
+        .collect(Collectors.groupingBy(BgpAdvertisement::getDstNode, Collectors.toSet()));
+  }
+
+  private static Map<String, Set<Edge>> groupEdgesByNode(Topology topology) {
+    Map<String, Set<Edge>> edgesByNode = new HashMap<>();
+    for (Edge edge : topology.getEdges()) {
+      edgesByNode.computeIfAbsent(edge.getNode1(), n -> new HashSet<>()).add(edge);
+      edgesByNode.computeIfAbsent(edge.getNode2(), n -> new HashSet<>()).add(edge);
+    }
+    return edgesByNode;
+  }
+
   /**
    * Perform one iteration of the "dependent routes" dataplane computation. Dependent routes refers
    * to routes that could change because other routes have changed. For example, this includes:
@@ -484,17 +749,19 @@ class IncrementalBdpEngine {
   }
 
   /**
-   * Run {@link VirtualRouter#computeFib} on all of the given nodes (and their virtual routers)
+   * Run {@link VirtualRouter#computeFib} on all of the given nodes (and their virtual routers).
+   * The FIBs of all virtual routers are computed in parallel, so that a node with many VRFs does
+   * not compute them one by one.
    *
    * @param nodes mapping of node names to node instances
    */
   private void computeFibs(Map<String, Node> nodes) {
     try (ActiveSpan span = GlobalTracer.get().buildSpan("Compute FIBs").startActive()) {
       assert span != null; // avoid unused warning
-      nodes
-          .values()
-          .parallelStream()
+      nodes.values().stream()
           .flatMap(n -> n.getVirtualRouters().values().stream())
+          .collect(ImmutableList.toImmutableList())
+          .parallelStream()
           .forEach(VirtualRouter::computeFib);
     }
   }
@@ -1,27 +1,34 @@
 package org.batfish.dataplane.ibdp;
 
+import static com.google.common.base.Preconditions.checkState;
 import static org.batfish.common.util.CommonUtil.toImmutableMap;
 import static org.batfish.common.util.CommonUtil.toImmutableSortedMap;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 import com.google.common.collect.TreeBasedTable;
 import com.google.common.graph.ValueGraph;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.BgpPeerConfigId;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpSessionProperties;
 import org.batfish.datamodel.Configuration;
-import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Fib;
 import org.batfish.datamodel.ForwardingAnalysis;
@@ -29,9 +36,10 @@ import org.batfish.datamodel.ForwardingAnalysisImpl;
 import org.batfish.datamodel.GenericRib;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.ShardableDataPlane;
 import org.batfish.datamodel.Topology;
 
-public final class IncrementalDataPlane implements Serializable, DataPlane {
+public final class IncrementalDataPlane implements Serializable, ShardableDataPlane<Node> {
 
   private static final long serialVersionUID = 1L;
 
@@ -66,7 +74,8 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     }
 
     public IncrementalDataPlane build() {
-      return new IncrementalDataPlane(this);
+      Map<String, Node> nodes = _nodes != null ? _nodes : ImmutableMap.of();
+      return new IncrementalDataPlane(_bgpTopology, _ipVrfOwners, nodes.keySet(), nodes, _topology);
     }
   }
 
@@ -120,34 +129,43 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
 
   private final Map<Ip, Map<String, Set<String>>> _ipVrfOwners;
 
-  private final Map<String, Node> _nodes;
+  private final SortedSet<String> _hostnames;
+
+  /** Lazily-loaded nodes of a data plane deserialized from a shard index. */
+  private transient Map<String, Node> _loadedNodes;
+
+  private transient Function<String, Node> _nodeLoader;
+
+  /** All nodes of this data plane, or {@code null} if this is a shard index. */
+  private final @Nullable Map<String, Node> _nodes;
 
   private transient SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
       _ribs;
 
   private final Topology _topology;
 
-  private IncrementalDataPlane(Builder builder) {
-    _bgpTopology = builder._bgpTopology;
-    _ipVrfOwners = builder._ipVrfOwners;
-    _nodes = builder._nodes;
-    _topology = builder._topology;
+  private IncrementalDataPlane(
+      ValueGraph<BgpPeerConfigId, BgpSessionProperties> bgpTopology,
+      Map<Ip, Map<String, Set<String>>> ipVrfOwners,
+      Set<String> hostnames,
+      @Nullable Map<String, Node> nodes,
+      Topology topology) {
+    _bgpTopology = bgpTopology;
+    _hostnames = ImmutableSortedSet.copyOf(hostnames);
+    _ipVrfOwners = ipVrfOwners;
+    _nodes = nodes;
+    _topology = topology;
   }
 
   private Map<String, Configuration> computeConfigurations() {
-    return _nodes.entrySet().stream()
-        .collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> e.getValue().getConfiguration()));
+    return perNode(Node::getConfiguration);
   }
 
   private Map<String, Map<String, Fib>> computeFibs() {
-    return toImmutableMap(
-        _nodes,
-        Entry::getKey,
-        nodeEntry ->
+    return perNode(
+        node ->
             toImmutableMap(
-                nodeEntry.getValue().getVirtualRouters(),
-                Entry::getKey,
-                vrfEntry -> vrfEntry.getValue().getFib()));
+                node.getVirtualRouters(), Entry::getKey, vrfEntry -> vrfEntry.getValue().getFib()));
   }
 
   private ForwardingAnalysis computeForwardingAnalysis() {
@@ -156,27 +174,51 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
 
   private SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
       computeRibs() {
-    return toImmutableSortedMap(
-        _nodes,
-        Entry::getKey,
-        nodeEntry ->
+    return perNode(
+        node ->
             toImmutableSortedMap(
-                nodeEntry.getValue().getVirtualRouters(),
+                node.getVirtualRouters(),
                 Entry::getKey,
                 vrfEntry -> vrfEntry.getValue().getMainRib()));
   }
 
+  /**
+   * Returns a map from hostname to the result of applying {@code function} to the corresponding
+   * node. If all nodes are in memory, the map is computed eagerly. Otherwise it is a view that
+   * loads the shard of a node and applies {@code function} to it only when its entry is first
+   * accessed.
+   */
+  private <T> SortedMap<String, T> perNode(Function<Node, T> function) {
+    if (_nodes != null) {
+      return toImmutableSortedMap(_nodes, Entry::getKey, e -> function.apply(e.getValue()));
+    }
+    Map<String, T> computed = new ConcurrentHashMap<>();
+    return Collections.unmodifiableSortedMap(
+        Maps.asMap(
+            _hostnames,
+            hostname -> computed.computeIfAbsent(hostname, h -> function.apply(getNode(h)))));
+  }
+
+  private @Nonnull Node getNode(String hostname) {
+    if (_nodes != null) {
+      return _nodes.get(hostname);
+    }
+    checkState(_nodeLoader != null, "No shard loader set for sharded data plane");
+    return _loadedNodes.computeIfAbsent(hostname, _nodeLoader);
+  }
+
   @Override
   public Table<String, String, Set<BgpRoute>> getBgpRoutes(boolean multipath) {
     Table<String, String, Set<BgpRoute>> table = TreeBasedTable.create();
 
-    _nodes.forEach(
-        (hostname, node) ->
-            node.getVirtualRouters()
-                .forEach(
-                    (vrfName, vr) -> {
-                      table.put(hostname, vrfName, vr.getBgpRib().getTypedRoutes());
-                    }));
+    getNodes()
+        .forEach(
+            (hostname, node) ->
+                node.getVirtualRouters()
+                    .forEach(
+                        (vrfName, vr) -> {
+                          table.put(hostname, vrfName, vr.getBgpRib().getTypedRoutes());
+                        }));
     return table;
   }
 
@@ -205,8 +247,33 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     return _ipVrfOwners;
   }
 
+  /**
+   * Return the nodes of this data plane. For a data plane loaded from a shard index, nodes are
+   * loaded as their entries are accessed.
+   */
   public Map<String, Node> getNodes() {
-    return _nodes;
+    return _nodes != null ? _nodes : perNode(Function.identity());
+  }
+
+  @Override
+  public @Nonnull Map<String, Node> getShards() {
+    return getNodes();
+  }
+
+  @Override
+  public @Nonnull Class<Node> getShardClass() {
+    return Node.class;
+  }
+
+  @Override
+  public @Nonnull IncrementalDataPlane withoutShards() {
+    return new IncrementalDataPlane(_bgpTopology, _ipVrfOwners, _hostnames, null, _topology);
+  }
+
+  @Override
+  public void setShardLoader(Function<String, Node> shardLoader) {
+    _loadedNodes = new ConcurrentHashMap<>();
+    _nodeLoader = shardLoader;
   }
 
   /**
@@ -219,7 +286,7 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
      * Sort hostnames and VRF names
      */
     return toImmutableSortedMap(
-        _nodes,
+        getNodes(),
         Entry::getKey,
         nodeEntry ->
             toImmutableSortedMap(
@@ -236,7 +303,7 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
      * Sort hostnames and VRF names
      */
     return toImmutableSortedMap(
-        _nodes,
+        getNodes(),
         Entry::getKey,
         nodeEntry ->
             toImmutableSortedMap(
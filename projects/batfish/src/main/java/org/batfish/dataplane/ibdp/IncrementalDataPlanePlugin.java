@@ -1,10 +1,13 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.auto.service.AutoService;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.Plugin;
 import org.batfish.datamodel.AbstractRoute;
@@ -13,6 +16,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
+import org.batfish.datamodel.ospf.OspfTopology;
 
 /** A batfish plugin that registers the Incremental Batfish Data Plane (ibdp) Engine. */
 @AutoService(Plugin.class)
@@ -22,6 +26,8 @@ public class IncrementalDataPlanePlugin extends DataPlanePlugin {
 
   private IncrementalBdpEngine _engine;
 
+  private IncrementalDataPlaneSettings _engineSettings;
+
   public IncrementalDataPlanePlugin() {}
 
   @Override
@@ -42,6 +48,13 @@ public class IncrementalDataPlanePlugin extends DataPlanePlugin {
   public ComputeDataPlaneResult computeDataPlane(
       Map<String, Configuration> configurations, Topology topology) {
     Set<BgpAdvertisement> externalAdverts = _batfish.loadExternalBgpAnnouncements(configurations);
+    IncrementalDataPlane previous = null;
+    if (_engineSettings.getReuseParentDataPlane()) {
+      DataPlane parentDataPlane = _batfish.loadParentDataPlane();
+      if (parentDataPlane instanceof IncrementalDataPlane) {
+        previous = (IncrementalDataPlane) parentDataPlane;
+      }
+    }
     ComputeDataPlaneResult answer =
         _engine.computeDataPlane(
             configurations,
@@ -51,7 +64,8 @@ public class IncrementalDataPlanePlugin extends DataPlanePlugin {
                 .getLayer2Topology(_batfish.getNetworkSnapshot())
                 .orElse(null),
             _batfish.getTopologyProvider().getOspfTopology(_batfish.getNetworkSnapshot()),
-            externalAdverts);
+            externalAdverts,
+            previous);
     double averageRoutes =
         ((IncrementalDataPlane) answer._dataPlane)
             .getNodes().values().stream()
@@ -74,12 +88,29 @@ public class IncrementalDataPlanePlugin extends DataPlanePlugin {
     return computeDataPlane(configurations, topology);
   }
 
+  /**
+   * Computes the data plane of the given configurations and layer-3 topology with the default
+   * engine settings, no layer-2 or OSPF topology, and no external BGP advertisements. Unlike
+   * {@link #computeDataPlane(Map, Topology)}, this needs no Batfish instance, so the engine can be
+   * run on synthetic networks, e.g. by benchmarks.
+   */
+  @VisibleForTesting
+  public static IncrementalDataPlane computeStandaloneDataPlane(
+      Map<String, Configuration> configurations, Topology topology) {
+    IncrementalBdpEngine engine =
+        new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false));
+    return (IncrementalDataPlane)
+        engine.computeDataPlane(
+                configurations, topology, null, OspfTopology.empty(), ImmutableSet.of())
+            ._dataPlane;
+  }
+
   @Override
   protected void dataPlanePluginInitialize() {
-    _engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration()),
-            _batfish.getLogger());
+    _engineSettings = new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration());
+    _engine = new IncrementalBdpEngine(_engineSettings, _batfish.getLogger());
   }
 
   @Override
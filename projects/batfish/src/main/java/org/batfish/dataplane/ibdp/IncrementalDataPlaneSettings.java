@@ -20,6 +20,7 @@ public class IncrementalDataPlaneSettings {
   public static final String PROP_SCHEDULE = "schedule";
   public static final String PROP_LOG_ROUTES = "logiterationroutes";
   public static final String PROP_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
+  public static final String PROP_REUSE_PARENT_DATA_PLANE = "reuseparentdataplane";
 
   /**
    * Return the underlying configuration (it will be mutable).
@@ -53,6 +54,7 @@ public class IncrementalDataPlaneSettings {
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
     _config.setProperty(PROP_LOG_ROUTES, true);
     _config.setProperty(PROP_CHECK_BGP_REACHABILITY, true);
+    _config.setProperty(PROP_REUSE_PARENT_DATA_PLANE, false);
   }
 
   /** Return the dataplane computation {@link Schedule} */
@@ -65,6 +67,22 @@ public class IncrementalDataPlaneSettings {
     return _config.getBoolean(PROP_CHECK_BGP_REACHABILITY);
   }
 
+  /**
+   * Whether to seed the computation for a forked snapshot with the converged state of its parent
+   * snapshot's data plane, recomputing only the parts of the network affected by the fork
+   */
+  public boolean getReuseParentDataPlane() {
+    return _config.getBoolean(PROP_REUSE_PARENT_DATA_PLANE);
+  }
+
+  /**
+   * Set whether to seed the computation for a forked snapshot with the converged state of its
+   * parent snapshot's data plane
+   */
+  public void setReuseParentDataPlane(boolean reuseParentDataPlane) {
+    _config.setProperty(PROP_REUSE_PARENT_DATA_PLANE, reuseParentDataPlane);
+  }
+
   /**
    * Set the dataplane computation {@link Schedule}
    *
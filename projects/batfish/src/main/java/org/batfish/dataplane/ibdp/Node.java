@@ -1,10 +1,14 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.HashCode;
 import java.io.Serializable;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.dataplane.rib.RibId;
 import org.batfish.dataplane.rib.Rib;
@@ -18,6 +22,10 @@ public final class Node implements Serializable {
 
   private final SortedMap<String, VirtualRouter> _virtualRouters;
 
+  @Nullable private Set<BgpAdvertisement> _externalAdverts;
+
+  @Nullable private HashCode _configurationHash;
+
   /**
    * Create a new node based on the configuration. Initializes virtual routers based on {@link
    * Configuration} VRFs.
@@ -50,6 +58,32 @@ public final class Node implements Serializable {
     return _virtualRouters;
   }
 
+  /**
+   * Return the external BGP advertisements destined for this node that were used to compute its
+   * state, or {@code null} if they were not recorded.
+   */
+  @Nullable
+  Set<BgpAdvertisement> getExternalAdverts() {
+    return _externalAdverts;
+  }
+
+  void setExternalAdverts(@Nullable Set<BgpAdvertisement> externalAdverts) {
+    _externalAdverts = externalAdverts;
+  }
+
+  /**
+   * Return the hash of the configuration this node's state was computed from, taken before the
+   * computation, or {@code null} if it was not recorded.
+   */
+  @Nullable
+  HashCode getConfigurationHash() {
+    return _configurationHash;
+  }
+
+  void setConfigurationHash(@Nullable HashCode configurationHash) {
+    _configurationHash = configurationHash;
+  }
+
   @Nonnull
   Optional<Rib> getRib(RibId ribId) {
     if (!_c.getHostname().equals(ribId.getHostname())) {
@@ -698,10 +698,8 @@ class FlowTracer {
         createFilterStep(
             _currentFlow,
             _ingressInterface,
-            filter,
+            _tracerouteContext.getCompiledAcl(_currentConfig, filter),
             filterType,
-            _aclDefinitions,
-            _namedIpSpaces,
             _tracerouteContext.getIgnoreFilters());
     _steps.add(filterStep);
     if (filterStep.getAction() == DENIED) {
@@ -25,6 +25,10 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIntervalSet;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.acl.CompiledAcl;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.Hop;
@@ -46,7 +50,20 @@ public class TracerouteEngineImplContext {
   private final Map<String, Map<String, Fib>> _fibs;
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
+  /*
+   * Flattened forms of the ForwardingAnalysis IpSpaces used for dispositions. IpSpaces missing
+   * from these are tested directly.
+   */
+  private final Map<String, Map<String, IpIntervalSet>> _arpRepliesIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _deliveredToSubnetIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _exitsNetworkIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _insufficientInfoIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>> _neighborUnreachableIntervals;
+  private final Map<String, Map<String, Map<String, IpIntervalSet>>>
+      _neighborUnreachableOrExitsNetworkIntervals;
   private final boolean _ignoreFilters;
+  /** Compiled filters of each node, by node and filter name */
+  private final Map<String, Map<String, CompiledAcl>> _compiledAcls;
 
   public TracerouteEngineImplContext(
       DataPlane dataPlane,
@@ -60,7 +77,15 @@ public class TracerouteEngineImplContext {
     _fibs = fibs;
     _ignoreFilters = ignoreFilters;
     _forwardingAnalysis = _dataPlane.getForwardingAnalysis();
+    _arpRepliesIntervals = _forwardingAnalysis.getArpRepliesIntervals();
+    _deliveredToSubnetIntervals = _forwardingAnalysis.getDeliveredToSubnetIntervals();
+    _exitsNetworkIntervals = _forwardingAnalysis.getExitsNetworkIntervals();
+    _insufficientInfoIntervals = _forwardingAnalysis.getInsufficientInfoIntervals();
+    _neighborUnreachableIntervals = _forwardingAnalysis.getNeighborUnreachableIntervals();
+    _neighborUnreachableOrExitsNetworkIntervals =
+        _forwardingAnalysis.getNeighborUnreachableOrExitsNetworkIntervals();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
+    _compiledAcls = new ConcurrentHashMap<>();
   }
 
   /**
@@ -101,33 +126,37 @@ public class TracerouteEngineImplContext {
   FlowDisposition computeDisposition(String hostname, String outgoingInterfaceName, Ip dstIp) {
     String vrfName =
         _configurations.get(hostname).getAllInterfaces().get(outgoingInterfaceName).getVrfName();
-    if (_forwardingAnalysis
-        .getDeliveredToSubnet()
-        .get(hostname)
-        .get(vrfName)
-        .get(outgoingInterfaceName)
-        .containsIp(dstIp, ImmutableMap.of())) {
+    if (containsIp(
+        _deliveredToSubnetIntervals,
+        _forwardingAnalysis.getDeliveredToSubnet(),
+        hostname,
+        vrfName,
+        outgoingInterfaceName,
+        dstIp)) {
       return FlowDisposition.DELIVERED_TO_SUBNET;
-    } else if (_forwardingAnalysis
-        .getExitsNetwork()
-        .get(hostname)
-        .get(vrfName)
-        .get(outgoingInterfaceName)
-        .containsIp(dstIp, ImmutableMap.of())) {
+    } else if (containsIp(
+        _exitsNetworkIntervals,
+        _forwardingAnalysis.getExitsNetwork(),
+        hostname,
+        vrfName,
+        outgoingInterfaceName,
+        dstIp)) {
       return FlowDisposition.EXITS_NETWORK;
-    } else if (_forwardingAnalysis
-        .getInsufficientInfo()
-        .get(hostname)
-        .get(vrfName)
-        .get(outgoingInterfaceName)
-        .containsIp(dstIp, ImmutableMap.of())) {
+    } else if (containsIp(
+        _insufficientInfoIntervals,
+        _forwardingAnalysis.getInsufficientInfo(),
+        hostname,
+        vrfName,
+        outgoingInterfaceName,
+        dstIp)) {
       return FlowDisposition.INSUFFICIENT_INFO;
-    } else if (_forwardingAnalysis
-        .getNeighborUnreachable()
-        .get(hostname)
-        .get(vrfName)
-        .get(outgoingInterfaceName)
-        .containsIp(dstIp, ImmutableMap.of())) {
+    } else if (containsIp(
+        _neighborUnreachableIntervals,
+        _forwardingAnalysis.getNeighborUnreachable(),
+        hostname,
+        vrfName,
+        outgoingInterfaceName,
+        dstIp)) {
       return FlowDisposition.NEIGHBOR_UNREACHABLE;
     } else {
       throw new BatfishException(
@@ -141,6 +170,26 @@ public class TracerouteEngineImplContext {
     return _configurations;
   }
 
+  /**
+   * Returns {@code filter}, a filter of {@code config}, compiled for fast evaluation. Filters are
+   * compiled on first use and shared by all flows.
+   */
+  CompiledAcl getCompiledAcl(Configuration config, IpAccessList filter) {
+    return _compiledAcls
+        .computeIfAbsent(config.getHostname(), hostname -> new ConcurrentHashMap<>())
+        // The cache is keyed by name, so replace an entry compiled from a different filter
+        .compute(
+            filter.getName(),
+            (name, compiled) ->
+                compiled != null && compiled.getAcl() == filter
+                    ? compiled
+                    : compile(config, filter));
+  }
+
+  private static CompiledAcl compile(Configuration config, IpAccessList filter) {
+    return CompiledAcl.compile(filter, config.getIpAccessLists(), config.getIpSpaces());
+  }
+
   Optional<Fib> getFib(String node, String vrf) {
     return Optional.ofNullable(_fibs.getOrDefault(node, ImmutableMap.of()).get(vrf));
   }
@@ -170,11 +219,14 @@ public class TracerouteEngineImplContext {
    * @return true if the node will respond to the ARP request
    */
   boolean repliesToArp(String node, String iface, Ip arpIp) {
-    return _forwardingAnalysis
-        .getArpReplies()
-        .get(node)
-        .get(iface)
-        .containsIp(arpIp, ImmutableMap.of());
+    IpIntervalSet intervals = _arpRepliesIntervals.getOrDefault(node, ImmutableMap.of()).get(iface);
+    return intervals != null
+        ? intervals.containsIp(arpIp)
+        : _forwardingAnalysis
+            .getArpReplies()
+            .get(node)
+            .get(iface)
+            .containsIp(arpIp, ImmutableMap.of());
   }
 
   /**
@@ -182,12 +234,34 @@ public class TracerouteEngineImplContext {
    *     receive a reply.
    */
   boolean willNotReceiveArpReply(String node, String vrf, String outIface, Ip arpIp) {
-    return _forwardingAnalysis
-        .getNeighborUnreachableOrExitsNetwork()
-        .get(node)
-        .get(vrf)
-        .get(outIface)
-        .containsIp(arpIp, ImmutableMap.of());
+    return containsIp(
+        _neighborUnreachableOrExitsNetworkIntervals,
+        _forwardingAnalysis.getNeighborUnreachableOrExitsNetwork(),
+        node,
+        vrf,
+        outIface,
+        arpIp);
+  }
+
+  /**
+   * Returns true if the node -&gt; vrf -&gt; interface entry of {@code ipSpaces} contains {@code
+   * ip}, using its flattened form in {@code intervals} when there is one.
+   */
+  private static boolean containsIp(
+      Map<String, Map<String, Map<String, IpIntervalSet>>> intervals,
+      Map<String, Map<String, Map<String, IpSpace>>> ipSpaces,
+      String node,
+      String vrf,
+      String iface,
+      Ip ip) {
+    IpIntervalSet ifaceIntervals =
+        intervals
+            .getOrDefault(node, ImmutableMap.of())
+            .getOrDefault(vrf, ImmutableMap.of())
+            .get(iface);
+    return ifaceIntervals != null
+        ? ifaceIntervals.containsIp(ip)
+        : ipSpaces.get(node).get(vrf).get(iface).containsIp(ip, ImmutableMap.of());
   }
 
   @Nonnull
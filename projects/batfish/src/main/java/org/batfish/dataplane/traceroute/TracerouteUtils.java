@@ -28,10 +28,9 @@ import org.batfish.datamodel.FlowDiff;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
-import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.acl.CompiledAcl;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.EnterInputIfaceStep;
 import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
@@ -108,22 +107,19 @@ public final class TracerouteUtils {
   static FilterStep createFilterStep(
       Flow currentFlow,
       @Nullable String inInterfaceName,
-      IpAccessList filter,
+      CompiledAcl filter,
       FilterType filterType,
-      Map<String, IpAccessList> aclDefinitions,
-      Map<String, IpSpace> namedIpSpaces,
       boolean ignoreFilters) {
     StepAction action = StepAction.PERMITTED;
     // check filter
     if (!ignoreFilters) {
-      FilterResult filterResult =
-          filter.filter(currentFlow, inInterfaceName, aclDefinitions, namedIpSpaces);
+      FilterResult filterResult = filter.filter(currentFlow, inInterfaceName);
       if (filterResult.getAction() == LineAction.DENY) {
         action = StepAction.DENIED;
       }
     }
 
-    return new FilterStep(new FilterStepDetail(filter.getName(), filterType), action);
+    return new FilterStep(new FilterStepDetail(filter.getAcl().getName(), filterType), action);
   }
 
   /**
@@ -14,4 +14,12 @@ public abstract class BatfishJob<R extends BatfishJobResult<?, ?>> implements Ca
     _settings = settings;
     _logger = new BatfishLogger(_settings.getLogLevel(), _settings.getTimestamp());
   }
+
+  /**
+   * Returns an estimate of how long this job will take, in arbitrary units comparable between the
+   * jobs of a batch. {@link BatfishJobExecutor} starts the jobs with the highest estimates first.
+   */
+  public long getEstimatedCost() {
+    return 0L;
+  }
 }
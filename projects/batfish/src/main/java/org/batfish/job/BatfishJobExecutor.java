@@ -1,5 +1,6 @@
 package org.batfish.job;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -112,11 +113,7 @@ public class BatfishJobExecutor {
     ExecutorService pool = createExecutorService();
     ExecutorCompletionService<JobResultT> completionService = new ExecutorCompletionService<>(pool);
 
-    if (!_settings.getSequential() && _settings.getShuffleJobs()) {
-      Collections.shuffle(jobs);
-    }
-
-    for (JobT job : jobs) {
+    for (JobT job : orderJobs(jobs, !_settings.getSequential() && _settings.getShuffleJobs())) {
       completionService.submit(job);
     }
 
@@ -155,12 +152,28 @@ public class BatfishJobExecutor {
     }
   }
 
+  /**
+   * Returns {@code jobs} in the order in which to submit them: longest-processing-time first by
+   * {@link BatfishJob#getEstimatedCost() estimated cost}, so that a long job does not start last
+   * and leave the other threads idle at the end of the batch. Jobs with equal estimates are
+   * shuffled if {@code shuffle} is set, and otherwise keep their order.
+   */
+  @VisibleForTesting
+  static <JobT extends BatfishJob<?>> List<JobT> orderJobs(List<JobT> jobs, boolean shuffle) {
+    List<JobT> orderedJobs = new ArrayList<>(jobs);
+    if (shuffle) {
+      Collections.shuffle(orderedJobs);
+    }
+    orderedJobs.sort((a, b) -> Long.compare(b.getEstimatedCost(), a.getEstimatedCost()));
+    return orderedJobs;
+  }
+
   private ExecutorService createExecutorService() {
     if (_settings.getSequential()) {
       return Executors.newSingleThreadExecutor();
     }
     // if parallel processing is allowed
-    return Executors.newFixedThreadPool(_settings.getAvailableThreads());
+    return Executors.newWorkStealingPool(_settings.getAvailableThreads());
   }
 
   <
@@ -0,0 +1,103 @@
+package org.batfish.job;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.storage.StorageProvider;
+
+/**
+ * A content-addressed cache of the results of {@link ConvertConfigurationJob}, stored as network
+ * blobs so that they are shared by all snapshots of a network. Keys are expected to identify the
+ * parsed input, the converter version, and any settings that affect conversion.
+ */
+@ParametersAreNonnullByDefault
+public final class ConvertConfigurationCache {
+
+  /** The cacheable output of converting a single vendor configuration. */
+  public static final class CachedConversion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final @Nonnull ConvertConfigurationAnswerElement _answerElement;
+    private final @Nonnull Map<String, Configuration> _configurations;
+    private final @Nonnull Map<String, Warnings> _warningsByHost;
+
+    CachedConversion(
+        ConvertConfigurationAnswerElement answerElement,
+        Map<String, Configuration> configurations,
+        Map<String, Warnings> warningsByHost) {
+      _answerElement = answerElement;
+      _configurations = ImmutableMap.copyOf(configurations);
+      _warningsByHost = ImmutableMap.copyOf(warningsByHost);
+    }
+
+    public @Nonnull ConvertConfigurationAnswerElement getAnswerElement() {
+      return _answerElement;
+    }
+
+    public @Nonnull Map<String, Configuration> getConfigurations() {
+      return _configurations;
+    }
+
+    public @Nonnull Map<String, Warnings> getWarningsByHost() {
+      return _warningsByHost;
+    }
+  }
+
+  private final @Nonnull BatfishLogger _logger;
+  private final @Nonnull NetworkId _network;
+  private final @Nonnull StorageProvider _storage;
+
+  public ConvertConfigurationCache(
+      StorageProvider storage, NetworkId network, BatfishLogger logger) {
+    _logger = logger;
+    _network = network;
+    _storage = storage;
+  }
+
+  /**
+   * Returns the cached conversion for the given key, or {@code null} if there is none or it cannot
+   * be read. The returned objects are freshly deserialized and may be modified by the caller.
+   */
+  public @Nullable CachedConversion load(String key) {
+    try (InputStream in = _storage.loadNetworkBlob(_network, key)) {
+      return SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException | SerializationException | ClassCastException e) {
+      _logger.warnf(
+          "Error deserializing cached conversion result %s: %s",
+          key, Throwables.getStackTraceAsString(e));
+      return null;
+    }
+  }
+
+  /**
+   * Stores the given conversion under the given key. Must be called before the converted
+   * configurations are modified by post-processing. Failures are logged and otherwise ignored.
+   */
+  public void store(String key, CachedConversion conversion) {
+    try {
+      byte[] serialized = SerializationUtils.serialize(conversion);
+      _storage.storeNetworkBlob(new ByteArrayInputStream(serialized), _network, key);
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error caching conversion result %s: %s", key, Throwables.getStackTraceAsString(e));
+    }
+  }
+}
@@ -3,11 +3,15 @@ package org.batfish.job;
 import com.google.common.collect.Multimap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.Warnings;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.job.ConvertConfigurationCache.CachedConversion;
 import org.batfish.main.Batfish;
 import org.batfish.representation.aws.AwsConfiguration;
 import org.batfish.representation.host.HostConfiguration;
@@ -16,12 +20,46 @@ import org.batfish.vendor.VendorConfiguration;
 
 public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResult> {
 
-  private Object _configObject;
+  @Nullable private final ConvertConfigurationCache _cache;
+
+  private final Function<Object, String> _cacheKey;
+
+  private final Supplier<?> _configObject;
 
   private String _name;
 
   public ConvertConfigurationJob(Settings settings, Object configObject, String name) {
+    this(settings, configObject, name, null, null);
+  }
+
+  /**
+   * Create a job converting the given configuration object, reusing the result stored in {@code
+   * cache} under {@code cacheKey} if present, and storing the result otherwise.
+   */
+  public ConvertConfigurationJob(
+      Settings settings,
+      Object configObject,
+      String name,
+      @Nullable ConvertConfigurationCache cache,
+      @Nullable String cacheKey) {
+    this(settings, () -> configObject, name, cache, o -> cacheKey);
+  }
+
+  /**
+   * Create a job converting the configuration object produced by {@code configObject}, which is
+   * only invoked when the job runs, so that a batch of jobs does not hold every configuration
+   * object in memory at once. The cache key is computed from the configuration object, and may be
+   * {@code null} if the result should not be cached.
+   */
+  public ConvertConfigurationJob(
+      Settings settings,
+      Supplier<?> configObject,
+      String name,
+      @Nullable ConvertConfigurationCache cache,
+      Function<Object, String> cacheKey) {
     super(settings);
+    _cache = cache;
+    _cacheKey = cacheKey;
     _configObject = configObject;
     _name = name;
   }
@@ -31,15 +69,31 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
     long startTime = System.currentTimeMillis();
     long elapsedTime;
     _logger.infof("Processing: \"%s\"", _name);
+    Object configObject = _configObject.get();
+    String cacheKey = _cache != null ? _cacheKey.apply(configObject) : null;
+    if (_cache != null && cacheKey != null) {
+      CachedConversion cached = _cache.load(cacheKey);
+      if (cached != null) {
+        _logger.info(" ...OK (cached)\n");
+        elapsedTime = System.currentTimeMillis() - startTime;
+        return new ConvertConfigurationResult(
+            elapsedTime,
+            _logger.getHistory(),
+            cached.getWarningsByHost(),
+            _name,
+            cached.getConfigurations(),
+            cached.getAnswerElement());
+      }
+    }
     Map<String, Configuration> configurations = new HashMap<>();
     Map<String, Warnings> warningsByHost = new HashMap<>();
     ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
     Multimap<String, String> fileMap = answerElement.getFileMap();
     try {
       // We have only two options: AWS VPCs or router configs
-      if (VendorConfiguration.class.isInstance(_configObject)) {
+      if (VendorConfiguration.class.isInstance(configObject)) {
         Warnings warnings = Batfish.buildWarnings(_settings);
-        VendorConfiguration vendorConfiguration = ((VendorConfiguration) _configObject);
+        VendorConfiguration vendorConfiguration = ((VendorConfiguration) configObject);
         String filename = vendorConfiguration.getFilename();
         vendorConfiguration.setWarnings(warnings);
         vendorConfiguration.setAnswerElement(answerElement);
@@ -83,9 +137,13 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
         }
       } else {
         configurations =
-            ((AwsConfiguration) _configObject).toConfigurations(_settings, warningsByHost);
+            ((AwsConfiguration) configObject).toConfigurations(_settings, warningsByHost);
       }
       _logger.info(" ...OK\n");
+      if (_cache != null && cacheKey != null) {
+        _cache.store(
+            cacheKey, new CachedConversion(answerElement, configurations, warningsByHost));
+      }
     } catch (Exception e) {
       String error = "Conversion error for node with hostname '" + _name + "'";
       elapsedTime = System.currentTimeMillis() - startTime;
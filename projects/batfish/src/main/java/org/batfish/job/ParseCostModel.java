@@ -0,0 +1,117 @@
+package org.batfish.job;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.ConfigurationFormat;
+
+/**
+ * Estimates how long parsing a configuration file will take, in milliseconds, from the size and
+ * format of the file and from how long files took to parse in earlier runs.
+ *
+ * <p>A file that was parsed before is expected to take as long as it did then, scaled by the change
+ * in its size. Any other file is expected to parse at the average rate of the files of its format,
+ * or of all files if none of its format (or no format) is known.
+ */
+@ParametersAreNonnullByDefault
+public final class ParseCostModel implements Serializable {
+
+  /** The time it took to parse a file */
+  private static final class Sample implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConfigurationFormat _format;
+
+    private final long _millis;
+
+    private final long _size;
+
+    private Sample(ConfigurationFormat format, long size, long millis) {
+      _format = format;
+      _millis = millis;
+      _size = size;
+    }
+  }
+
+  /** The rate assumed before any file has been parsed, roughly a megabyte per second */
+  static final double DEFAULT_MILLIS_PER_CHAR = 0.001;
+
+  private static final long serialVersionUID = 1L;
+
+  /** Rates of parsing, in milliseconds per character, computed from the samples on first use */
+  @Nullable private transient volatile Map<ConfigurationFormat, Double> _millisPerChar;
+
+  @Nullable private transient volatile Double _millisPerCharOverall;
+
+  /** The last sample of each file, by filename */
+  private final Map<String, Sample> _samples;
+
+  public ParseCostModel() {
+    _samples = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the estimated time to parse the file {@code filename}, whose text has {@code size}
+   * characters, in milliseconds. {@code format} is {@link ConfigurationFormat#UNKNOWN} if it has
+   * not been detected yet.
+   */
+  public long estimate(String filename, long size, ConfigurationFormat format) {
+    Sample sample = _samples.get(filename);
+    if (sample != null && sample._size > 0) {
+      return (long) Math.ceil((double) sample._millis * size / sample._size);
+    }
+    Map<ConfigurationFormat, Double> millisPerChar = getMillisPerChar();
+    Double rate = millisPerChar.get(format);
+    if (rate == null) {
+      rate = _millisPerCharOverall;
+    }
+    return (long) Math.ceil(size * (rate != null ? rate : DEFAULT_MILLIS_PER_CHAR));
+  }
+
+  private Map<ConfigurationFormat, Double> getMillisPerChar() {
+    Map<ConfigurationFormat, Double> millisPerChar = _millisPerChar;
+    if (millisPerChar != null) {
+      return millisPerChar;
+    }
+    Map<ConfigurationFormat, long[]> totals = new EnumMap<>(ConfigurationFormat.class);
+    long totalMillis = 0L;
+    long totalSize = 0L;
+    for (Sample sample : _samples.values()) {
+      long[] formatTotals = totals.computeIfAbsent(sample._format, f -> new long[2]);
+      formatTotals[0] += sample._millis;
+      formatTotals[1] += sample._size;
+      totalMillis += sample._millis;
+      totalSize += sample._size;
+    }
+    millisPerChar = new EnumMap<>(ConfigurationFormat.class);
+    for (Map.Entry<ConfigurationFormat, long[]> entry : totals.entrySet()) {
+      if (entry.getValue()[1] > 0) {
+        millisPerChar.put(entry.getKey(), (double) entry.getValue()[0] / entry.getValue()[1]);
+      }
+    }
+    _millisPerCharOverall = totalSize > 0 ? (double) totalMillis / totalSize : null;
+    _millisPerChar = millisPerChar;
+    return millisPerChar;
+  }
+
+  /**
+   * Records that parsing the file {@code filename} of the given format, whose text has {@code
+   * size} characters, took {@code millis} milliseconds. The average rates are computed once, so
+   * they do not reflect samples recorded after the first estimate.
+   */
+  public void record(String filename, ConfigurationFormat format, long size, long millis) {
+    _samples.put(filename, new Sample(format, size, millis));
+  }
+
+  /** Drops the samples of all files not in {@code filenames}, e.g. files deleted from a network. */
+  public void retainFiles(Set<String> filenames) {
+    if (_samples.keySet().retainAll(filenames)) {
+      _millisPerChar = null;
+    }
+  }
+}
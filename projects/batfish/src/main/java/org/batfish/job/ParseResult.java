@@ -6,6 +6,7 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warnings;
+import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.vendor.VendorConfiguration;
 
@@ -18,6 +19,8 @@ public class ParseResult implements Serializable {
   @Nonnull private final ParseTreeSentences _parseTreeSentences;
   @Nullable private final Throwable _failureCause;
   @Nonnull private final String _filename;
+  /* null in results cached before the format was recorded */
+  @Nullable private final ConfigurationFormat _format;
   @Nonnull private final ParseStatus _status;
   @Nonnull private final Warnings _warnings;
 
@@ -25,12 +28,14 @@ public class ParseResult implements Serializable {
       @Nullable VendorConfiguration config,
       @Nullable Throwable failureCause,
       String filename,
+      ConfigurationFormat format,
       ParseTreeSentences parseTreeSentences,
       ParseStatus status,
       Warnings warnings) {
     _config = config;
     _failureCause = failureCause;
     _filename = filename;
+    _format = format;
     _parseTreeSentences = parseTreeSentences;
     _status = status;
     _warnings = warnings;
@@ -51,6 +56,12 @@ public class ParseResult implements Serializable {
     return _filename;
   }
 
+  /** Returns the detected format of the file */
+  @Nonnull
+  public ConfigurationFormat getFormat() {
+    return _format != null ? _format : ConfigurationFormat.UNKNOWN;
+  }
+
   @Nonnull
   public ParseTreeSentences getParseTreeSentences() {
     return _parseTreeSentences;
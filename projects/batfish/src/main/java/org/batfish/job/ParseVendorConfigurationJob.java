@@ -8,7 +8,10 @@ import io.opentracing.References;
 import io.opentracing.SpanContext;
 import io.opentracing.util.GlobalTracer;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
@@ -21,7 +24,9 @@ import org.batfish.config.Settings;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.grammar.BatfishLexer;
 import org.batfish.grammar.BatfishParseException;
+import org.batfish.grammar.BatfishParser;
 import org.batfish.grammar.ControlPlaneExtractor;
 import org.batfish.grammar.ParseTreePrettyPrinter;
 import org.batfish.grammar.VendorConfigurationFormatDetector;
@@ -52,6 +57,21 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   private static final Pattern BANNER_PATTERN =
       Pattern.compile("(?m)banner[ \t][ \t]*[^ \r\n\t][^ \r\n\t]*[ \t][ \t]*([^ \r\n\t])[ \r\n]");
 
+  /**
+   * Matches the end of a line preceding a top-level Cisco stanza at which a file may be split for
+   * parsing in parallel: a line that is just {@code !} or blank, followed by an unindented line.
+   */
+  @VisibleForTesting
+  static final Pattern CISCO_STANZA_START = Pattern.compile("\n!?[ \t]*\r?\n(?=[^\\s!])");
+
+  /**
+   * Matches the end of a line preceding a top-level flat Juniper line at which a file may be split
+   * for parsing in parallel.
+   */
+  @VisibleForTesting
+  static final Pattern FLAT_JUNIPER_STANZA_START =
+      Pattern.compile("\n(?=(deactivate|protect|set) )");
+
   private static final Set<ConfigurationFormat> UNIMPLEMENTED_FORMATS =
       ImmutableSet.of(
           ConfigurationFormat.ALCATEL_AOS,
@@ -104,6 +124,13 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
   private ParseTreeSentences _ptSentences;
 
+  @Nullable private ParseCostModel _costModel;
+
+  /** How many times parsing the file missed the parser DFA, once it has been parsed */
+  private long _dfaMisses;
+
+  @Nullable private ParserWarmup _parserWarmup;
+
   @Nullable private SpanContext _spanContext;
 
   private Warnings _warnings;
@@ -154,6 +181,69 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     }
   }
 
+  /**
+   * Returns the offsets at which to split {@code text} into at most {@code numChunks} chunks of
+   * roughly equal length, each but the first starting at the end of a match of {@code
+   * stanzaStart}.
+   */
+  @VisibleForTesting
+  static List<Integer> getChunkStarts(String text, Pattern stanzaStart, int numChunks) {
+    List<Integer> chunkStarts = new ArrayList<>(numChunks);
+    chunkStarts.add(0);
+    Matcher matcher = stanzaStart.matcher(text);
+    for (int i = 1; i < numChunks; i++) {
+      int target = (int) ((long) text.length() * i / numChunks);
+      // A split that falls within the last chunk moves to the next stanza after that chunk's start,
+      // so that long stanzas do not cost chunks later in the file.
+      if (!matcher.find(Math.max(target, chunkStarts.get(chunkStarts.size() - 1)))) {
+        break;
+      }
+      if (matcher.end() < text.length()) {
+        chunkStarts.add(matcher.end());
+      }
+    }
+    return chunkStarts;
+  }
+
+  /**
+   * Returns the number of chunks in which to parse {@code text} in parallel, or 1 if it should be
+   * parsed as a whole.
+   */
+  private int getNumChunks(String text) {
+    int chunkLines = _settings.getParallelParseLines();
+    if (chunkLines <= 0 || _settings.getSequential() || _settings.getPrintParseTree()) {
+      return 1;
+    }
+    long lines = text.chars().filter(c -> c == '\n').count();
+    return (int) Math.max(1L, Math.min(lines / chunkLines, _settings.getAvailableThreads()));
+  }
+
+  /**
+   * Parses the current file with {@code combinedParser}, in parallel chunks of whole stanzas
+   * matched by {@code stanzaStart} if the file is large enough and the chunks can be parsed on
+   * their own. Each chunk is parsed by a parser from {@code newParser}.
+   */
+  private <P extends BatfishParser, L extends BatfishLexer> ParserRuleContext parseInChunks(
+      BatfishCombinedParser<P, L> combinedParser,
+      Supplier<? extends BatfishCombinedParser<P, L>> newParser,
+      Pattern stanzaStart) {
+    String text = combinedParser.getInput();
+    int numChunks = getNumChunks(text);
+    if (numChunks > 1) {
+      List<Integer> chunkStarts = getChunkStarts(text, stanzaStart, numChunks);
+      if (chunkStarts.size() > 1) {
+        _logger.infof("in %d chunks...", chunkStarts.size());
+        ParserRuleContext tree = combinedParser.parseInChunks(chunkStarts, newParser);
+        if (tree != null) {
+          _logger.info("OK\n");
+          return tree;
+        }
+        _logger.info("chunks cannot be parsed on their own, parsing whole file...");
+      }
+    }
+    return Batfish.parse(combinedParser, _logger, _settings);
+  }
+
   /**
    * Returns the {@link VendorConfiguration vendor configuration} corresponding to the current file
    * with the given format.
@@ -168,6 +258,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     BatfishCombinedParser<?, ?> combinedParser = null;
     ControlPlaneExtractor extractor = null;
     FlattenerLineMap lineMap = null;
+    Supplier<ParserRuleContext> parse = null;
     try (ActiveSpan parseSpan = GlobalTracer.get().buildSpan("Creating parser").startActive()) {
       assert parseSpan != null; // avoid unused warning
 
@@ -193,9 +284,16 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
             }
           } while (!newFileText.equals(fileText));
           _logger.info("OK\n");
-          CiscoCombinedParser ciscoParser = new CiscoCombinedParser(newFileText, _settings, format);
+          String ciscoText = newFileText;
+          CiscoCombinedParser ciscoParser = new CiscoCombinedParser(ciscoText, _settings, format);
           combinedParser = ciscoParser;
-          extractor = new CiscoControlPlaneExtractor(newFileText, ciscoParser, format, _warnings);
+          extractor = new CiscoControlPlaneExtractor(ciscoText, ciscoParser, format, _warnings);
+          parse =
+              () ->
+                  parseInChunks(
+                      ciscoParser,
+                      () -> new CiscoCombinedParser(ciscoText, _settings, format),
+                      CISCO_STANZA_START);
           break;
 
         case CUMULUS_NCLU:
@@ -270,10 +368,21 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
           }
           // fall through
         case FLAT_JUNIPER:
+          String flatJuniperText = _fileText;
+          FlattenerLineMap flatJuniperLineMap = lineMap;
           FlatJuniperCombinedParser flatJuniperParser =
-              new FlatJuniperCombinedParser(_fileText, _settings, lineMap);
+              new FlatJuniperCombinedParser(flatJuniperText, _settings, flatJuniperLineMap);
           combinedParser = flatJuniperParser;
-          extractor = new FlatJuniperControlPlaneExtractor(_fileText, flatJuniperParser, _warnings);
+          extractor =
+              new FlatJuniperControlPlaneExtractor(flatJuniperText, flatJuniperParser, _warnings);
+          parse =
+              () ->
+                  parseInChunks(
+                      flatJuniperParser,
+                      () ->
+                          new FlatJuniperCombinedParser(
+                              flatJuniperText, _settings, flatJuniperLineMap),
+                      FLAT_JUNIPER_STANZA_START);
           break;
 
         case IPTABLES:
@@ -323,7 +432,8 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     try (ActiveSpan parseSpan = GlobalTracer.get().buildSpan("Parsing").startActive()) {
       assert parseSpan != null; // avoid unused warning
       _logger.info("\tParsing...");
-      tree = Batfish.parse(combinedParser, _logger, _settings);
+      tree = parse != null ? parse.get() : Batfish.parse(combinedParser, _logger, _settings);
+      _dfaMisses = combinedParser.getDfaMisses();
 
       if (_settings.getPrintParseTree()) {
         _ptSentences =
@@ -379,21 +489,41 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
    * <p>The returned {@link ParseResult} will always have a valid {@link ParseResult#getStatus()}.
    * It may also contain a {@link ParseResult#getConfig() parsed vendor-specific configuration} or a
    * {@link ParseResult#getFailureCause() failure cause}.
+   *
+   * <p>The time taken is recorded in the {@link #setCostModel(ParseCostModel) cost model}, if any,
+   * and the file is offered to the {@link #setParserWarmup(ParserWarmup) parser warmup}, if any.
    */
   @Nonnull
   public ParseResult parse() {
+    long startTime = System.currentTimeMillis();
     ConfigurationFormat format = detectFormat(_fileText, _settings, _expectedFormat);
+    ParseResult result = parse(format);
+    if (_costModel != null) {
+      _costModel.record(
+          _filename, format, _fileText.length(), System.currentTimeMillis() - startTime);
+    }
+    if (_parserWarmup != null) {
+      _parserWarmup.record(format, _fileText, _dfaMisses);
+    }
+    return result;
+  }
+
+  @Nonnull
+  private ParseResult parse(ConfigurationFormat format) {
 
     // Handle specially some cases that will not produce a vendor configuration file.
     if (format == ConfigurationFormat.EMPTY) {
       _warnings.redFlag("Empty file: '" + _filename + "'\n");
-      return new ParseResult(null, null, _filename, _ptSentences, ParseStatus.EMPTY, _warnings);
+      return new ParseResult(
+          null, null, _filename, format, _ptSentences, ParseStatus.EMPTY, _warnings);
     } else if (format == ConfigurationFormat.IGNORED) {
       _warnings.redFlag("Ignored file: " + _filename + "\n");
-      return new ParseResult(null, null, _filename, _ptSentences, ParseStatus.IGNORED, _warnings);
+      return new ParseResult(
+          null, null, _filename, format, _ptSentences, ParseStatus.IGNORED, _warnings);
     } else if (format == ConfigurationFormat.UNKNOWN) {
       _warnings.redFlag("Unable to detect format for file: '" + _filename + "'\n");
-      return new ParseResult(null, null, _filename, _ptSentences, ParseStatus.UNKNOWN, _warnings);
+      return new ParseResult(
+          null, null, _filename, format, _ptSentences, ParseStatus.UNKNOWN, _warnings);
     } else if (UNIMPLEMENTED_FORMATS.contains(format)) {
       String unsupportedError =
           "Unsupported configuration format: '" + format + "' for file: '" + _filename + "'\n";
@@ -402,13 +532,14 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
             null,
             new BatfishException(unsupportedError),
             _filename,
+            format,
             _ptSentences,
             ParseStatus.FAILED,
             _warnings);
       }
       _warnings.redFlag(unsupportedError);
       return new ParseResult(
-          null, null, _filename, _ptSentences, ParseStatus.UNSUPPORTED, _warnings);
+          null, null, _filename, format, _ptSentences, ParseStatus.UNSUPPORTED, _warnings);
     }
 
     try {
@@ -416,12 +547,13 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       VendorConfiguration vc = parseFile(format);
       ParseStatus status =
           vc.getUnrecognized() ? ParseStatus.PARTIALLY_UNRECOGNIZED : ParseStatus.PASSED;
-      return new ParseResult(vc, null, _filename, _ptSentences, status, _warnings);
+      return new ParseResult(vc, null, _filename, format, _ptSentences, status, _warnings);
     } catch (Exception e) {
       return new ParseResult(
           null,
           new BatfishException("Error parsing configuration file: '" + _filename + "'", e),
           _filename,
+          format,
           _ptSentences,
           ParseStatus.FAILED,
           _warnings);
@@ -429,28 +561,41 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   }
 
   public ParseVendorConfigurationResult fromResult(ParseResult result, long elapsed) {
+    ParseVendorConfigurationResult jobResult;
     if (result.getConfig() != null) {
-      return new ParseVendorConfigurationResult(
-          elapsed,
-          _logger.getHistory(),
-          _filename,
-          result.getConfig(),
-          result.getWarnings(),
-          result.getParseTreeSentences(),
-          result.getStatus(),
-          _duplicateHostnames);
+      jobResult =
+          new ParseVendorConfigurationResult(
+              elapsed,
+              _logger.getHistory(),
+              _filename,
+              result.getFormat(),
+              result.getConfig(),
+              result.getWarnings(),
+              result.getParseTreeSentences(),
+              result.getStatus(),
+              _duplicateHostnames);
     } else if (result.getFailureCause() != null) {
-      return new ParseVendorConfigurationResult(
-          elapsed,
-          _logger.getHistory(),
-          _filename,
-          result.getWarnings(),
-          result.getParseTreeSentences(),
-          result.getFailureCause());
+      jobResult =
+          new ParseVendorConfigurationResult(
+              elapsed,
+              _logger.getHistory(),
+              _filename,
+              result.getFormat(),
+              result.getWarnings(),
+              result.getParseTreeSentences(),
+              result.getFailureCause());
     } else {
-      return new ParseVendorConfigurationResult(
-          elapsed, _logger.getHistory(), _filename, result.getWarnings(), result.getStatus());
+      jobResult =
+          new ParseVendorConfigurationResult(
+              elapsed,
+              _logger.getHistory(),
+              _filename,
+              result.getFormat(),
+              result.getWarnings(),
+              result.getStatus());
     }
+    jobResult.setDfaMisses(_dfaMisses);
+    return jobResult;
   }
 
   @Override
@@ -469,6 +614,17 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     }
   }
 
+  /**
+   * Returns the estimated time to parse the file, according to the {@link
+   * #setCostModel(ParseCostModel) cost model} if any, and otherwise the length of the file.
+   */
+  @Override
+  public long getEstimatedCost() {
+    return _costModel != null
+        ? _costModel.estimate(_filename, _fileText.length(), _expectedFormat)
+        : _fileText.length();
+  }
+
   public String getFilename() {
     return _filename;
   }
@@ -476,4 +632,14 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   public String getFileText() {
     return _fileText;
   }
+
+  /** Sets the model that estimates the cost of this job, and in which its parse time is recorded */
+  public void setCostModel(ParseCostModel costModel) {
+    _costModel = costModel;
+  }
+
+  /** Sets the samples for warming up the parsers, to which the file is offered once parsed */
+  public void setParserWarmup(ParserWarmup parserWarmup) {
+    _parserWarmup = parserWarmup;
+  }
 }
@@ -7,25 +7,40 @@ import com.google.common.collect.Multimap;
 import java.io.File;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
 import org.batfish.common.ErrorDetails;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warnings;
+import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.datamodel.answers.TimingHistogram;
 import org.batfish.vendor.VendorConfiguration;
 
 public class ParseVendorConfigurationResult
     extends BatfishJobResult<
         Map<String, VendorConfiguration>, ParseVendorConfigurationAnswerElement> {
 
+  /** Whether the result was reused from an earlier parse of the same file rather than parsed */
+  private boolean _cached;
+
+  /** How many times parsing the file missed the parser DFA, or 0 if it was not parsed */
+  private long _dfaMisses;
+
   /** Information about duplicate hostnames is collected here */
   private Multimap<String, String> _duplicateHostnames;
 
   private final String _filename;
 
+  /** The detected format of the file */
+  @Nonnull private final ConfigurationFormat _format;
+
+  /** The hostname of the configuration, once the configuration itself has been released */
+  @Nullable private String _hostname;
+
   @Nonnull private ParseTreeSentences _parseTree;
 
   private final ParseStatus _status;
@@ -38,11 +53,13 @@ public class ParseVendorConfigurationResult
       long elapsedTime,
       BatfishLoggerHistory history,
       String filename,
+      @Nonnull ConfigurationFormat format,
       @Nonnull Warnings warnings,
       @Nonnull ParseTreeSentences parseTree,
       @Nonnull Throwable failureCause) {
     super(elapsedTime, history, failureCause);
     _filename = filename;
+    _format = format;
     _parseTree = parseTree;
     _status = ParseStatus.FAILED;
     _warnings = warnings;
@@ -52,6 +69,7 @@ public class ParseVendorConfigurationResult
       long elapsedTime,
       BatfishLoggerHistory history,
       String filename,
+      @Nonnull ConfigurationFormat format,
       VendorConfiguration vc,
       @Nonnull Warnings warnings,
       @Nonnull ParseTreeSentences parseTree,
@@ -59,6 +77,7 @@ public class ParseVendorConfigurationResult
       @Nonnull Multimap<String, String> duplicateHostnames) {
     super(elapsedTime, history);
     _filename = filename;
+    _format = format;
     _parseTree = parseTree;
     _vc = vc;
     _warnings = warnings;
@@ -70,10 +89,12 @@ public class ParseVendorConfigurationResult
       long elapsedTime,
       BatfishLoggerHistory history,
       String filename,
+      @Nonnull ConfigurationFormat format,
       @Nonnull Warnings warnings,
       @Nonnull ParseStatus status) {
     super(elapsedTime, history);
     _filename = filename;
+    _format = format;
     _parseTree = new ParseTreeSentences();
     _status = status;
     _warnings = warnings;
@@ -84,8 +105,8 @@ public class ParseVendorConfigurationResult
     String terseLogLevelPrefix;
     if (logger.isActive(BatfishLogger.LEVEL_INFO)) {
       terseLogLevelPrefix = "";
-    } else if (_vc != null) {
-      terseLogLevelPrefix = _vc.getHostname() + ": ";
+    } else if (_vc != null || _hostname != null) {
+      terseLogLevelPrefix = getHostname() + ": ";
     } else {
       terseLogLevelPrefix = _filename + ": ";
     }
@@ -98,9 +119,9 @@ public class ParseVendorConfigurationResult
       BatfishLogger logger,
       ParseVendorConfigurationAnswerElement answerElement) {
     appendHistory(logger);
-    answerElement.getParseStatus().put(_filename, _status);
+    String hostname = null;
     if (_vc != null) {
-      String hostname = _vc.getHostname();
+      hostname = _vc.getHostname();
       if (vendorConfigurations.containsKey(hostname)) {
         /*
          * Modify the hostname of what is already in the vendorConfigurations map. Ideally, we'd add
@@ -122,6 +143,38 @@ public class ParseVendorConfigurationResult
         hostname = modifiedNewName;
       }
       vendorConfigurations.put(hostname, _vc);
+    }
+    applyToAnswerElement(hostname, answerElement);
+  }
+
+  /**
+   * Records the outcome of parsing in {@code answerElement}, where the configuration, if any, is
+   * stored under {@code hostname}. This is used instead of {@link #applyTo(Map, BatfishLogger,
+   * ParseVendorConfigurationAnswerElement)} when configurations are serialized as soon as they are
+   * parsed, rather than collected.
+   */
+  public void applyTo(
+      @Nullable String hostname,
+      BatfishLogger logger,
+      ParseVendorConfigurationAnswerElement answerElement) {
+    appendHistory(logger);
+    applyToAnswerElement(hostname, answerElement);
+  }
+
+  private void applyToAnswerElement(
+      @Nullable String hostname, ParseVendorConfigurationAnswerElement answerElement) {
+    answerElement.getParseStatus().put(_filename, _status);
+    if (_dfaMisses > 0) {
+      answerElement.getDfaMisses().put(_filename, _dfaMisses);
+    }
+    if (!_cached) {
+      // the time to load a cached result says nothing about how long the file takes to parse
+      answerElement
+          .getParseTimes()
+          .computeIfAbsent(_format, f -> new TimingHistogram())
+          .add(getElapsedTime());
+    }
+    if (hostname != null) {
       answerElement.getFileMap().put(hostname, _filename);
       if (!_warnings.isEmpty()) {
         answerElement.getWarnings().put(_filename, _warnings);
@@ -151,19 +204,41 @@ public class ParseVendorConfigurationResult
     }
   }
 
+  public long getDfaMisses() {
+    return _dfaMisses;
+  }
+
   public String getFilename() {
     return _filename;
   }
 
+  /**
+   * Returns the hostname of the parsed configuration, or {@code null} if no configuration was
+   * produced.
+   */
+  public @Nullable String getHostname() {
+    return _vc != null ? _vc.getHostname() : _hostname;
+  }
+
   @Override
   public BatfishLoggerHistory getHistory() {
     return _history;
   }
 
   private String getModifiedName(String baseName, String filename) {
+    return getModifiedName(baseName, filename, _duplicateHostnames);
+  }
+
+  /**
+   * Returns a modified host name to use for the configuration in {@code filename} with duplicate
+   * hostname {@code baseName}, distinct from the modified names already recorded for {@code
+   * baseName} in {@code modifiedNames}.
+   */
+  public static String getModifiedName(
+      String baseName, String filename, Multimap<String, String> modifiedNames) {
     String modifiedName = getModifiedNameBase(baseName, filename);
     int index = 0;
-    while (_duplicateHostnames.containsEntry(baseName, modifiedName)) {
+    while (modifiedNames.containsEntry(baseName, modifiedName)) {
       modifiedName = getModifiedNameBase(baseName, filename) + "." + index;
       index++;
     }
@@ -179,14 +254,40 @@ public class ParseVendorConfigurationResult
     return _vc;
   }
 
+  @Nonnull
+  public Warnings getWarnings() {
+    return _warnings;
+  }
+
+  /**
+   * Drops the reference to the parsed configuration, so that it can be garbage-collected once it has
+   * been serialized. Its hostname is kept.
+   */
+  public void releaseVendorConfiguration() {
+    if (_vc != null) {
+      _hostname = _vc.getHostname();
+      _vc = null;
+    }
+  }
+
+  /** Sets whether the result was reused from an earlier parse of the same file */
+  public void setCached(boolean cached) {
+    _cached = cached;
+  }
+
+  /** Sets how many times parsing the file missed the parser DFA */
+  public void setDfaMisses(long dfaMisses) {
+    _dfaMisses = dfaMisses;
+  }
+
   @Override
   public String toString() {
-    if (_vc == null) {
+    if (_vc == null && _hostname == null) {
       return "<EMPTY OR UNSUPPORTED FORMAT>";
-    } else if (_vc.getHostname() == null) {
+    } else if (getHostname() == null) {
       return "<File: \"" + _filename + "\" has indeterminate hostname>";
     } else {
-      return "<" + _vc.getHostname() + ">";
+      return "<" + getHostname() + ">";
     }
   }
 }
@@ -0,0 +1,159 @@
+package org.batfish.job;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+
+/**
+ * Samples of parsed configuration files, which a worker parses in the background the first time it
+ * parses their network, to warm up the parser caches while its parse threads are idle.
+ *
+ * <p>ANTLR caches the predictions of each grammar in a DFA shared by all the parsers of the
+ * grammar, which grows as files are parsed, so the first files of each format parse much more
+ * slowly than the rest. The DFA itself cannot be serialized, so the inputs that built it are kept
+ * instead: for each format, the samples whose parse added the most to the DFA.
+ *
+ * <p>The samples are the unredacted text of configuration files, so they must only be kept with,
+ * and parsed for, the network the files belong to.
+ */
+@ParametersAreNonnullByDefault
+public final class ParserWarmup implements Serializable {
+
+  /** A sample of a file and how much parsing it added to the DFA */
+  private static final class Sample implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long _dfaMisses;
+
+    private final String _text;
+
+    private Sample(String text, long dfaMisses) {
+      _dfaMisses = dfaMisses;
+      _text = text;
+    }
+  }
+
+  /** The maximum number of samples kept of each format */
+  static final int MAX_SAMPLES_PER_FORMAT = 4;
+
+  /** The maximum length of a sample; longer files are cut at a line break */
+  static final int MAX_SAMPLE_LENGTH = 1 << 20;
+
+  private static final long serialVersionUID = 1L;
+
+  private static final String WARMUP_FILENAME = "parser warmup";
+
+  /** The samples of each format, from the one that added the most to the DFA to the least */
+  private final Map<ConfigurationFormat, List<Sample>> _samples;
+
+  public ParserWarmup() {
+    _samples = new EnumMap<>(ConfigurationFormat.class);
+  }
+
+  /** Returns the texts of the samples of each format, the most useful first. */
+  public synchronized @Nonnull Map<ConfigurationFormat, List<String>> getSamples() {
+    ImmutableMap.Builder<ConfigurationFormat, List<String>> samples = ImmutableMap.builder();
+    _samples.forEach(
+        (format, formatSamples) ->
+            samples.put(
+                format,
+                formatSamples.stream()
+                    .map(sample -> sample._text)
+                    .collect(ImmutableList.toImmutableList())));
+    return samples.build();
+  }
+
+  /**
+   * Records that parsing {@code text} in the given format missed the DFA {@code dfaMisses} times.
+   * It is kept as a sample if it is among the {@link #MAX_SAMPLES_PER_FORMAT} files of its format
+   * with the most misses.
+   */
+  public synchronized void record(ConfigurationFormat format, String text, long dfaMisses) {
+    if (dfaMisses <= 0) {
+      return;
+    }
+    add(format, new Sample(truncate(text), dfaMisses));
+  }
+
+  /**
+   * Adds the samples of {@code other} to this, keeping the {@link #MAX_SAMPLES_PER_FORMAT} samples
+   * of each format with the most misses.
+   */
+  public void merge(ParserWarmup other) {
+    Map<ConfigurationFormat, List<Sample>> otherSamples = new EnumMap<>(ConfigurationFormat.class);
+    synchronized (other) {
+      other._samples.forEach(
+          (format, formatSamples) -> otherSamples.put(format, ImmutableList.copyOf(formatSamples)));
+    }
+    synchronized (this) {
+      otherSamples.forEach(
+          (format, formatSamples) -> formatSamples.forEach(sample -> add(format, sample)));
+    }
+  }
+
+  private void add(ConfigurationFormat format, Sample newSample) {
+    List<Sample> samples = _samples.computeIfAbsent(format, f -> new ArrayList<>());
+    if (samples.stream().anyMatch(sample -> sample._text.equals(newSample._text))) {
+      return;
+    }
+    samples.add(newSample);
+    samples.sort(Comparator.comparingLong((Sample sample) -> sample._dfaMisses).reversed());
+    if (samples.size() > MAX_SAMPLES_PER_FORMAT) {
+      samples.remove(MAX_SAMPLES_PER_FORMAT);
+    }
+  }
+
+  /** Returns {@code text} cut after its last line break within {@link #MAX_SAMPLE_LENGTH}. */
+  @VisibleForTesting
+  static @Nonnull String truncate(String text) {
+    if (text.length() <= MAX_SAMPLE_LENGTH) {
+      return text;
+    }
+    int lastNewline = text.lastIndexOf('\n', MAX_SAMPLE_LENGTH - 1);
+    return text.substring(0, lastNewline >= 0 ? lastNewline + 1 : MAX_SAMPLE_LENGTH);
+  }
+
+  /**
+   * Parses the given {@link #getSamples() samples} one at a time, the most useful sample of each
+   * format first, and returns how many were parsed. Stops before the next sample once the current
+   * thread is interrupted. Only the parser caches are kept; the results, including any failures,
+   * are dropped.
+   */
+  public static int warmUp(Settings settings, Map<ConfigurationFormat, List<String>> samples) {
+    int parsed = 0;
+    for (int rank = 0; rank < MAX_SAMPLES_PER_FORMAT; rank++) {
+      for (Map.Entry<ConfigurationFormat, List<String>> entry : samples.entrySet()) {
+        if (rank >= entry.getValue().size()) {
+          continue;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          return parsed;
+        }
+        new ParseVendorConfigurationJob(
+                settings,
+                entry.getValue().get(rank),
+                WARMUP_FILENAME,
+                new Warnings(),
+                entry.getKey(),
+                HashMultimap.create(),
+                null)
+            .parse();
+        parsed++;
+      }
+    }
+    return parsed;
+  }
+}
@@ -30,9 +30,11 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.opentracing.ActiveSpan;
 import io.opentracing.References;
 import io.opentracing.SpanContext;
@@ -48,11 +50,12 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -67,9 +70,18 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -81,6 +93,7 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.bddreachability.BDDReachabilityAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.bddreachability.BidirectionalReachabilityAnalysis;
+import org.batfish.bddreachability.ParallelBDDReachability;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
@@ -133,6 +146,8 @@ import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.RipNeighbor;
 import org.batfish.datamodel.RipProcess;
+import org.batfish.datamodel.ShardableDataPlane;
+import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
@@ -194,13 +209,16 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.QuestionSettingsId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.job.BatfishJobExecutor;
+import org.batfish.job.ConvertConfigurationCache;
 import org.batfish.job.ConvertConfigurationJob;
 import org.batfish.job.FlattenVendorConfigurationJob;
+import org.batfish.job.ParseCostModel;
 import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseEnvironmentRoutingTableJob;
 import org.batfish.job.ParseResult;
 import org.batfish.job.ParseVendorConfigurationJob;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.job.ParserWarmup;
 import org.batfish.question.ReachabilityParameters;
 import org.batfish.question.ResolvedReachabilityParameters;
 import org.batfish.question.SrcNattedConstraint;
@@ -248,6 +266,27 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final Pattern MANAGEMENT_VRFS =
       Pattern.compile("(\\Amgmt)|(\\Amanagement)", CASE_INSENSITIVE);
 
+  /** The key of the network blob holding the {@link ParseCostModel} */
+  private static final String PARSE_COST_MODEL_KEY = "Parse Cost Model";
+
+  /** The key of the network blob holding the {@link ParserWarmup} */
+  private static final String PARSER_WARMUP_KEY = "Parser Warmup";
+
+  /** The networks whose parser warmup samples have been parsed in this process */
+  private static final Set<NetworkId> WARMED_UP_NETWORKS = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Parses parser warmup samples in the background, at low priority so that it only takes cores
+   * the parse itself leaves idle.
+   */
+  private static final ExecutorService PARSER_WARMUP_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("parser-warmup-%d")
+              .setPriority(Thread.MIN_PRIORITY)
+              .build());
+
   /** The name of the [optional] topology file within a test-rig */
   public static void applyBaseDir(TestrigSettings settings, Path containerDir, SnapshotId testrig) {
     Path testrigDir =
@@ -361,28 +400,56 @@ public class Batfish extends PluginConsumer implements IBatfish {
    * <p>This method follows all symbolic links.
    */
   static SortedMap<Path, String> readAllFiles(Path directory, BatfishLogger logger) {
+    return listAllFiles(directory).stream()
+        .collect(
+            ImmutableSortedMap.toImmutableSortedMap(
+                Ordering.natural(), Function.identity(), path -> readFileText(path, logger)));
+  }
+
+  /**
+   * Returns the files in the given directory (recursively), omitting temporary files, as {@link
+   * #readAllFiles(Path, BatfishLogger)} would read them.
+   */
+  private static SortedSet<Path> listAllFiles(Path directory) {
     try (Stream<Path> paths = Files.walk(directory, FileVisitOption.FOLLOW_LINKS)) {
       return paths
           .filter(Files::isRegularFile)
           .filter(path -> !path.getFileName().toString().startsWith("."))
-          .map(
-              path -> {
-                logger.debugf("Reading: \"%s\"\n", path);
-                String fileText = CommonUtil.readFile(path.toAbsolutePath());
-                if (!fileText.isEmpty()) {
-                  // Adding a trailing newline helps EOF in some parsers.
-                  fileText += '\n';
-                }
-                return new SimpleEntry<>(path, fileText);
-              })
-          .collect(
-              ImmutableSortedMap.toImmutableSortedMap(
-                  Ordering.natural(), SimpleEntry::getKey, SimpleEntry::getValue));
+          .collect(ImmutableSortedSet.toImmutableSortedSet(Ordering.natural()));
     } catch (IOException e) {
       throw new BatfishException("Failed to walk path: " + directory, e);
     }
   }
 
+  /** Reads the given file, as {@link #readAllFiles(Path, BatfishLogger)} would. */
+  private static String readFileText(Path path, BatfishLogger logger) {
+    logger.debugf("Reading: \"%s\"\n", path);
+    String fileText = CommonUtil.readFile(path.toAbsolutePath());
+    if (!fileText.isEmpty()) {
+      // Adding a trailing newline helps EOF in some parsers.
+      fileText += '\n';
+    }
+    return fileText;
+  }
+
+  /**
+   * Returns the given files ordered from largest to smallest, so that when they are processed in
+   * parallel the largest ones do not start last and hold up the whole batch.
+   */
+  private static List<Path> largestFirst(Collection<Path> files) {
+    Map<Path, Long> sizes = new HashMap<>();
+    for (Path file : files) {
+      try {
+        sizes.put(file, Files.size(file));
+      } catch (IOException e) {
+        throw new BatfishException("Failed to get size of file: " + file, e);
+      }
+    }
+    return files.stream()
+        .sorted(Comparator.comparing(sizes::get, Comparator.reverseOrder()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
   public static void logWarnings(BatfishLogger logger, Warnings warnings) {
     for (Warning warning : warnings.getRedFlagWarnings()) {
       logger.redflag(logWarningsHelper(warning));
@@ -450,6 +517,15 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private BatfishLogger _logger;
 
+  /** The model of parse times in the current network, loaded on first use */
+  @Nullable private ParseCostModel _parseCostModel;
+
+  /** The samples for warming up the parsers in the current network, loaded on first use */
+  @Nullable private ParserWarmup _parserWarmup;
+
+  /** The background parse of the warmup samples started by this job, if any */
+  @Nullable private Future<?> _parserWarmupTask;
+
   private Settings _settings;
 
   private final StorageProvider _storage;
@@ -736,12 +812,44 @@ public class Batfish extends PluginConsumer implements IBatfish {
     try (ActiveSpan writeDataplane =
         GlobalTracer.get().buildSpan("Writing data plane").startActive()) {
       assert writeDataplane != null; // avoid unused warning
-      serializeObject(dataPlane, _testrigSettings.getDataPlanePath());
+      Path shardsDir = _testrigSettings.getDataPlaneShardsDir();
+      CommonUtil.deleteDirectory(shardsDir);
+      if (dataPlane instanceof ShardableDataPlane) {
+        ShardableDataPlane<?> shardableDataPlane = (ShardableDataPlane<?>) dataPlane;
+        createDirectories(shardsDir);
+        serializeObjects(
+            shardableDataPlane.getShards().entrySet().stream()
+                .collect(
+                    ImmutableMap.toImmutableMap(
+                        e -> getShardPath(shardsDir, e.getKey()), Entry::getValue)));
+        serializeObject(shardableDataPlane.withoutShards(), _testrigSettings.getDataPlanePath());
+      } else {
+        serializeObject(dataPlane, _testrigSettings.getDataPlanePath());
+      }
       serializeObject(answerElement, _testrigSettings.getDataPlaneAnswerPath());
     }
     _logger.printElapsedTime();
   }
 
+  /**
+   * Attaches a loader to a deserialized {@link ShardableDataPlane} index that reads each node's
+   * shard from disk on first access.
+   */
+  private <S extends Serializable> void attachShardLoader(
+      ShardableDataPlane<S> dataPlane, Path shardsDir) {
+    Class<S> shardClass = dataPlane.getShardClass();
+    dataPlane.setShardLoader(
+        hostname -> deserializeObject(getShardPath(shardsDir, hostname), shardClass));
+  }
+
+  /**
+   * Returns the path of the shard for the node with the given hostname. The hostname is encoded,
+   * since it may contain characters that are not allowed in file names.
+   */
+  private static Path getShardPath(Path shardsDir, String hostname) {
+    return shardsDir.resolve(Base64.getUrlEncoder().encodeToString(hostname.getBytes(UTF_8)));
+  }
+
   private void computeEnvironmentBgpTables() {
     Path outputPath = _testrigSettings.getSerializeEnvironmentBgpTablesPath();
     Path inputPath = _testrigSettings.getEnvironmentBgpTablesPath();
@@ -759,16 +867,35 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return _storage.loadLayer1Topology(networkSnapshot.getNetwork(), networkSnapshot.getSnapshot());
   }
 
+  /**
+   * Converts the vendor configurations serialized in the given directory. Each job deserializes its
+   * own configuration, so only the configurations being converted are held in memory, and the
+   * largest configurations are converted first.
+   */
   private Map<String, Configuration> convertConfigurations(
-      Map<String, GenericConfigObject> vendorConfigurations,
-      ConvertConfigurationAnswerElement answerElement) {
-    _logger.info("\n*** CONVERTING VENDOR CONFIGURATIONS TO INDEPENDENT FORMAT ***\n");
+      Path serializedVendorConfigPath, ConvertConfigurationAnswerElement answerElement) {
+    _logger.info(
+        "\n*** DESERIALIZING AND CONVERTING VENDOR CONFIGURATIONS TO INDEPENDENT FORMAT ***\n");
     _logger.resetTimer();
+    List<Path> serializedConfigs = new ArrayList<>();
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(serializedVendorConfigPath)) {
+      paths.forEach(serializedConfigs::add);
+    } catch (IOException e) {
+      throw new BatfishException("Error reading vendor configs directory", e);
+    }
     Map<String, Configuration> configurations = new TreeMap<>();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
-    for (Entry<String, GenericConfigObject> config : vendorConfigurations.entrySet()) {
-      GenericConfigObject vc = config.getValue();
-      ConvertConfigurationJob job = new ConvertConfigurationJob(_settings, vc, config.getKey());
+    ConvertConfigurationCache cache =
+        new ConvertConfigurationCache(_storage, getContainerName(), _logger);
+    for (Path serializedConfig : largestFirst(serializedConfigs)) {
+      String name = serializedConfig.getFileName().toString();
+      ConvertConfigurationJob job =
+          new ConvertConfigurationJob(
+              _settings,
+              () -> deserializeObject(serializedConfig, GenericConfigObject.class),
+              name,
+              cache,
+              vc -> getConvertCacheKey(name, vc));
       jobs.add(job);
     }
     BatfishJobExecutor.runJobsInExecutor(
@@ -783,6 +910,40 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return configurations;
   }
 
+  /**
+   * Returns the key under which the result of converting the given configuration object is cached,
+   * or {@code null} if the result should not be cached. Results are only cached for vendor
+   * configurations whose source hash is known (i.e., that were parsed with parse reuse enabled) and
+   * that have no overlay. The key covers the parsed input, the Batfish version, and settings that
+   * affect conversion.
+   */
+  private @Nullable String getConvertCacheKey(String name, Object configObject) {
+    if (!(configObject instanceof VendorConfiguration)) {
+      return null;
+    }
+    VendorConfiguration vc = (VendorConfiguration) configObject;
+    if (vc.getSourceHash() == null || vc.getOverlayConfiguration() != null) {
+      return null;
+    }
+    BatfishLogger logger = _settings.getLogger();
+    return Hashing.murmur3_128()
+        .newHasher()
+        .putString("Cached Convert Result", UTF_8)
+        .putString(Version.getVersion(), UTF_8)
+        .putString(vc.getSourceHash(), UTF_8)
+        .putString(name, UTF_8)
+        .putString(vc.getHostname(), UTF_8)
+        // Same as the arguments to the Warnings constructor in buildWarnings
+        .putBoolean(
+            _settings.getPedanticRecord() && logger.isActive(BatfishLogger.LEVEL_PEDANTIC))
+        .putBoolean(_settings.getRedFlagRecord() && logger.isActive(BatfishLogger.LEVEL_REDFLAG))
+        .putBoolean(
+            _settings.getUnimplementedRecord()
+                && logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED))
+        .hash()
+        .toString();
+  }
+
   private boolean dataPlaneDependenciesExist(TestrigSettings testrigSettings) {
     Path dpPath = testrigSettings.getDataPlaneAnswerPath();
     return Files.exists(dpPath);
@@ -869,26 +1030,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
                 String::compareTo, Entry::getKey, Entry::getValue));
   }
 
-  public Map<String, GenericConfigObject> deserializeVendorConfigurations(
-      Path serializedVendorConfigPath) {
-    _logger.info("\n*** DESERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-    _logger.resetTimer();
-    Map<Path, String> namesByPath = new TreeMap<>();
-    try (DirectoryStream<Path> serializedConfigs =
-        Files.newDirectoryStream(serializedVendorConfigPath)) {
-      for (Path serializedConfig : serializedConfigs) {
-        String name = serializedConfig.getFileName().toString();
-        namesByPath.put(serializedConfig, name);
-      }
-    } catch (IOException e) {
-      throw new BatfishException("Error reading vendor configs directory", e);
-    }
-    Map<String, GenericConfigObject> vendorConfigurations =
-        deserializeObjects(namesByPath, GenericConfigObject.class);
-    _logger.printElapsedTime();
-    return vendorConfigurations;
-  }
-
   private void disableUnusableVlanInterfaces(Map<String, Configuration> configurations) {
     for (Configuration c : configurations.values()) {
       String hostname = c.getHostname();
@@ -1019,10 +1160,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   public Map<String, Configuration> getConfigurations(
       Path serializedVendorConfigPath, ConvertConfigurationAnswerElement answerElement) {
-    Map<String, GenericConfigObject> vendorConfigurations =
-        deserializeVendorConfigurations(serializedVendorConfigPath);
     Map<String, Configuration> configurations =
-        convertConfigurations(vendorConfigurations, answerElement);
+        convertConfigurations(serializedVendorConfigPath, answerElement);
 
     identifyDeviceTypes(configurations.values());
     return configurations;
@@ -1552,6 +1691,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
         if (dp == null) {
           newBatch("Loading data plane from disk", 0);
           dp = deserializeObject(_testrigSettings.getDataPlanePath(), DataPlane.class);
+          if (dp instanceof ShardableDataPlane) {
+            attachShardLoader(
+                (ShardableDataPlane<?>) dp, _testrigSettings.getDataPlaneShardsDir());
+          }
           _cachedDataPlanes.put(snapshot, dp);
         }
       }
@@ -1559,6 +1702,53 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  @Override
+  public @Nullable DataPlane loadParentDataPlane() {
+    NetworkSnapshot snapshot = getNetworkSnapshot();
+    SnapshotId parentId;
+    try {
+      parentId =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(snapshot.getNetwork(), snapshot.getSnapshot()),
+                  SnapshotMetadata.class)
+              .getParentSnapshotId();
+    } catch (IOException e) {
+      _logger.warnf(
+          "Could not read metadata for snapshot %s: %s\n",
+          snapshot.getSnapshot(), Throwables.getStackTraceAsString(e));
+      return null;
+    }
+    if (parentId == null) {
+      return null;
+    }
+    NetworkSnapshot parent = new NetworkSnapshot(snapshot.getNetwork(), parentId);
+    DataPlane dp = _cachedDataPlanes.getIfPresent(parent);
+    if (dp != null) {
+      return dp;
+    }
+    TestrigSettings parentSettings = new TestrigSettings();
+    applyBaseDir(
+        parentSettings, _settings.getStorageBase().resolve(parent.getNetwork().getId()), parentId);
+    if (!Files.exists(parentSettings.getDataPlanePath())
+        || !Files.exists(parentSettings.getDataPlaneAnswerPath())) {
+      return null;
+    }
+    // Only reuse state computed by exactly this version, since the computation itself may differ
+    DataPlaneAnswerElement parentAnswerElement =
+        deserializeObject(parentSettings.getDataPlaneAnswerPath(), DataPlaneAnswerElement.class);
+    if (!Version.getVersion().equals(parentAnswerElement.getVersion())) {
+      return null;
+    }
+    newBatch("Loading parent data plane from disk", 0);
+    dp = deserializeObject(parentSettings.getDataPlanePath(), DataPlane.class);
+    if (dp instanceof ShardableDataPlane) {
+      attachShardLoader((ShardableDataPlane<?>) dp, parentSettings.getDataPlaneShardsDir());
+    }
+    _cachedDataPlanes.put(parent, dp);
+    return dp;
+  }
+
   private DataPlaneAnswerElement loadDataPlaneAnswerElement() {
     return loadDataPlaneAnswerElement(true);
   }
@@ -1949,6 +2139,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
               expectedFormat,
               HashMultimap.create(),
               parseVendorConfigurationSpanContext);
+      job.setCostModel(getParseCostModel());
+      if (_settings.getParserWarmup()) {
+        job.setParserWarmup(getParserWarmup());
+      }
       jobs.add(job);
     }
     return jobs;
@@ -2358,6 +2552,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private void repairDataPlane() {
     CommonUtil.deleteIfExists(_testrigSettings.getDataPlanePath());
+    CommonUtil.deleteDirectory(_testrigSettings.getDataPlaneShardsDir());
     CommonUtil.deleteIfExists(_testrigSettings.getDataPlaneAnswerPath());
 
     computeDataPlane();
@@ -2764,6 +2959,135 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  /**
+   * Returns the model of parse times in the current network, which is kept next to the cached parse
+   * results so that it carries over from one snapshot to the next.
+   */
+  private ParseCostModel getParseCostModel() {
+    if (_parseCostModel == null) {
+      try (InputStream in = _storage.loadNetworkBlob(getContainerName(), PARSE_COST_MODEL_KEY)) {
+        _parseCostModel = SerializationUtils.deserialize(in);
+      } catch (FileNotFoundException e) {
+        _parseCostModel = new ParseCostModel();
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error deserializing parse cost model: %s", Throwables.getStackTraceAsString(e));
+        _parseCostModel = new ParseCostModel();
+      }
+    }
+    return _parseCostModel;
+  }
+
+  /**
+   * Stores the model of parse times in the current network, keeping only the files in {@code
+   * filenames}, those of the snapshot just parsed, so that the model does not grow without bound.
+   */
+  private void storeParseCostModel(Set<String> filenames) {
+    if (_parseCostModel == null) {
+      return;
+    }
+    _parseCostModel.retainFiles(filenames);
+    try {
+      byte[] serialized = SerializationUtils.serialize(_parseCostModel);
+      _storage.storeNetworkBlob(
+          new ByteArrayInputStream(serialized), getContainerName(), PARSE_COST_MODEL_KEY);
+    } catch (Exception e) {
+      _logger.warnf("Error storing parse cost model: %s", Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  /**
+   * Returns the samples for warming up the parsers in the current network, or no samples if there
+   * are none or they cannot be read. The samples are the text of the network's own files, so they
+   * are kept with the network and never parsed for another one.
+   */
+  private ParserWarmup loadParserWarmup() {
+    try (InputStream in = _storage.loadNetworkBlob(getContainerName(), PARSER_WARMUP_KEY)) {
+      return SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return new ParserWarmup();
+    } catch (Exception e) {
+      _logger.warnf("Error deserializing parser warmup: %s", Throwables.getStackTraceAsString(e));
+      return new ParserWarmup();
+    }
+  }
+
+  /**
+   * Returns the samples for warming up the parsers in the current network. The first time the
+   * network is parsed in this process, its samples are parsed in the background; nothing waits for
+   * them.
+   */
+  private synchronized ParserWarmup getParserWarmup() {
+    if (_parserWarmup == null) {
+      _parserWarmup = loadParserWarmup();
+      Map<ConfigurationFormat, List<String>> samples = _parserWarmup.getSamples();
+      if (!samples.isEmpty() && WARMED_UP_NETWORKS.add(getContainerName())) {
+        Settings settings = _settings;
+        BatfishLogger logger = _logger;
+        _parserWarmupTask =
+            PARSER_WARMUP_EXECUTOR.submit(
+                () -> {
+                  long startTime = System.currentTimeMillis();
+                  int parsed = ParserWarmup.warmUp(settings, samples);
+                  logger.infof(
+                      "Warmed up parsers with %d samples in %d ms\n",
+                      parsed, System.currentTimeMillis() - startTime);
+                });
+      }
+    }
+    return _parserWarmup;
+  }
+
+  /**
+   * Stores the samples for warming up the parsers in the current network, merged with those stored
+   * since they were loaded. Samples stored by another worker between the load and the store here
+   * are lost, which only makes the warmup less effective.
+   */
+  private void storeParserWarmup() {
+    if (_parserWarmupTask != null) {
+      // the files are parsed, so whatever is left of the warmup would no longer help
+      _parserWarmupTask.cancel(true);
+      _parserWarmupTask = null;
+    }
+    if (_parserWarmup == null) {
+      return;
+    }
+    try {
+      ParserWarmup merged = loadParserWarmup();
+      merged.merge(_parserWarmup);
+      byte[] serialized = SerializationUtils.serialize(merged);
+      _storage.storeNetworkBlob(
+          new ByteArrayInputStream(serialized), getContainerName(), PARSER_WARMUP_KEY);
+    } catch (Exception e) {
+      _logger.warnf("Error storing parser warmup: %s", Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  /**
+   * Returns the given configuration files ordered from the longest to the shortest estimated parse
+   * time, so that when they are parsed in parallel the slowest ones do not start last and hold up
+   * the whole batch.
+   */
+  private List<Path> longestParseFirst(Path userUploadPath, Collection<Path> files) {
+    ParseCostModel costModel = getParseCostModel();
+    Map<Path, Long> costs = new HashMap<>();
+    for (Path file : files) {
+      try {
+        costs.put(
+            file,
+            costModel.estimate(
+                userUploadPath.relativize(file).toString(),
+                Files.size(file),
+                ConfigurationFormat.UNKNOWN));
+      } catch (IOException e) {
+        throw new BatfishException("Failed to get size of file: " + file, e);
+      }
+    }
+    return files.stream()
+        .sorted(Comparator.comparing(costs::get, Comparator.reverseOrder()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
   private ParseVendorConfigurationResult getOrParse(
       ParseVendorConfigurationJob job, @Nullable SpanContext span, GrammarSettings settings) {
     String filename = job.getFilename();
@@ -2815,6 +3139,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
             filename, Throwables.getStackTraceAsString(e));
         result = job.parse();
       }
+      if (result.getConfig() != null) {
+        // Lets conversion results be reused for identical input. See convertConfigurations.
+        result.getConfig().setSourceHash(id);
+      }
       if (!cached) {
         try {
           byte[] serialized = SerializationUtils.serialize(result);
@@ -2826,7 +3154,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
         }
       }
       long elapsed = System.currentTimeMillis() - startTime;
-      return job.fromResult(result, elapsed);
+      ParseVendorConfigurationResult jobResult = job.fromResult(result, elapsed);
+      jobResult.setCached(cached);
+      return jobResult;
     }
   }
 
@@ -2849,80 +3179,170 @@ public class Batfish extends PluginConsumer implements IBatfish {
       return;
     }
 
-    _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
-
-    List<ParseVendorConfigurationResult> parseResults;
-    try (ActiveSpan parseNetworkConfigsSpan =
-        GlobalTracer.get().buildSpan("Parse network configs").startActive()) {
-      assert parseNetworkConfigsSpan != null; // avoid unused warning
+    _logger.info("\n*** PARSING AND SERIALIZING DEVICE CONFIGURATION FILES ***\n");
+    _logger.resetTimer();
+    createDirectories(outputPath);
+    if (_settings.getParserWarmup()) {
+      // start warming up the parsers in the background; the files are not held up by it
+      getParserWarmup();
+    }
+
+    // Each file is read, parsed, and serialized by a single task, so only the files in flight are
+    // held in memory. A hostname is claimed by the first configuration serialized under it; later
+    // configurations with the same hostname are staged elsewhere. Once all files are parsed, every
+    // configuration with a duplicate hostname is given a modified name, in file order.
+    ConcurrentMap<String, String> filenameByHostname = new ConcurrentHashMap<>();
+    Set<String> duplicateHostnames = ConcurrentHashMap.newKeySet();
+    // a fresh staging directory, so that nothing left by an earlier run can be mistaken for ours
+    Path stagingPath = CommonUtil.createTempDirectory("duplicates");
+    try {
+      ConcurrentMap<String, Path> stagedByFilename = new ConcurrentHashMap<>();
+      List<ParseVendorConfigurationResult> parseResults;
+      try (ActiveSpan parseNetworkConfigsSpan =
+          GlobalTracer.get().buildSpan("Parse network configs").startActive()) {
+        assert parseNetworkConfigsSpan != null; // avoid unused warning
+        List<Path> files =
+            longestParseFirst(
+                userUploadPath,
+                listAllFiles(userUploadPath.resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR)));
+        AtomicInteger batch = newBatch("Parse and serialize network configs", files.size());
+        ForkJoinPool pool =
+            new ForkJoinPool(_settings.getSequential() ? 1 : _settings.getAvailableThreads());
+        try {
+          List<ForkJoinTask<ParseVendorConfigurationResult>> tasks =
+              IntStream.range(0, files.size())
+                  .mapToObj(
+                      i ->
+                          pool.submit(
+                              () -> {
+                                ParseVendorConfigurationResult result =
+                                    parseAndSerializeNetworkConfig(
+                                        userUploadPath,
+                                        files.get(i),
+                                        outputPath,
+                                        stagingPath.resolve(Integer.toString(i)),
+                                        parseNetworkConfigsSpan.context(),
+                                        filenameByHostname,
+                                        duplicateHostnames,
+                                        stagedByFilename);
+                                batch.incrementAndGet();
+                                return result;
+                              }))
+                  .collect(ImmutableList.toImmutableList());
+          parseResults =
+              tasks.stream()
+                  .map(ForkJoinTask::join)
+                  .sorted(Comparator.comparing(ParseVendorConfigurationResult::getFilename))
+                  .collect(ImmutableList.toImmutableList());
+        } finally {
+          pool.shutdown();
+        }
+      }
 
-      // user filename (configs/foo) -> text of configs/foo
-      Map<String, String> keyedConfigText =
-          readAllFiles(userUploadPath.resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR), _logger)
-              .entrySet().stream()
-              .collect(
-                  ImmutableMap.toImmutableMap(
-                      e -> userUploadPath.relativize(e.getKey()).toString(), Entry::getValue));
-      List<ParseVendorConfigurationJob> jobs =
-          makeParseVendorConfigurationsJobs(keyedConfigText, ConfigurationFormat.UNKNOWN);
-      AtomicInteger batch = newBatch("Parse network configs", keyedConfigText.size());
-      parseResults =
-          jobs.parallelStream()
-              .map(
-                  j -> {
-                    ParseVendorConfigurationResult result =
-                        this.getOrParse(j, parseNetworkConfigsSpan.context(), _settings);
-                    batch.incrementAndGet();
-                    return result;
-                  })
-              .collect(ImmutableList.toImmutableList());
-    }
+      if (_settings.getHaltOnParseError()
+          && parseResults.stream().anyMatch(r -> r.getFailureCause() != null)) {
+        BatfishException e = new BatfishException("Exiting due to parser errors");
+        parseResults.stream()
+            .map(ParseVendorConfigurationResult::getFailureCause)
+            .filter(Objects::nonNull)
+            .forEach(e::addSuppressed);
+        // none of the configurations will be used, so drop those serialized so far
+        CommonUtil.deleteDirectory(outputPath);
+        throw e;
+      }
 
-    if (_settings.getHaltOnParseError()
-        && parseResults.stream().anyMatch(r -> r.getFailureCause() != null)) {
-      BatfishException e = new BatfishException("Exiting due to parser errors");
-      parseResults.stream()
-          .map(ParseVendorConfigurationResult::getFailureCause)
-          .filter(Objects::nonNull)
-          .forEach(e::addSuppressed);
-      throw e;
+      _logger.infof(
+          "Snapshot %s in network %s has total number of network configs:%d",
+          getTestrigName(), getContainerName(), parseResults.size());
+
+      /* Assemble answer, in file order. */
+      Multimap<String, String> modifiedNames = HashMultimap.create();
+      for (ParseVendorConfigurationResult result : parseResults) {
+        String name = result.getHostname();
+        if (name != null && duplicateHostnames.contains(name)) {
+          String filename = result.getFilename();
+          String modifiedName =
+              ParseVendorConfigurationResult.getModifiedName(name, filename, modifiedNames);
+          // the claiming configuration was serialized under the hostname, the others were staged
+          Path serialized =
+              filename.equals(filenameByHostname.get(name))
+                  ? outputPath.resolve(name)
+                  : stagedByFilename.get(filename);
+          VendorConfiguration vc = deserializeObject(serialized, VendorConfiguration.class);
+          vc.setHostname(modifiedName);
+          serializeObject(vc, outputPath.resolve(modifiedName));
+          CommonUtil.deleteIfExists(serialized);
+          if (modifiedNames.containsKey(name)) {
+            result
+                .getWarnings()
+                .redFlag(String.format("Duplicate hostname %s. Changed to %s", name, modifiedName));
+          }
+          modifiedNames.put(name, modifiedName);
+          name = modifiedName;
+        }
+        result.applyTo(name, _logger, answerElement);
+        if (name != null && name.contains(File.separator)) {
+          // iptables will get a hostname like configs/iptables-save if they
+          // are not set up correctly using host files
+          _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
+          answerElement.addRedFlagWarning(
+              name,
+              new Warning(
+                  "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
+                  "MISCELLANEOUS"));
+        }
+      }
+    } finally {
+      CommonUtil.deleteDirectory(stagingPath);
     }
+    _logger.printElapsedTime();
+  }
 
-    _logger.infof(
-        "Snapshot %s in network %s has total number of network configs:%d",
-        getTestrigName(), getContainerName(), parseResults.size());
-
-    /* Assemble answer. */
-    SortedMap<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
-    parseResults.forEach(pvcr -> pvcr.applyTo(vendorConfigurations, _logger, answerElement));
-
-    try (ActiveSpan serializeNetworkConfigsSpan =
-        GlobalTracer.get().buildSpan("Serialize network configs").startActive()) {
-      assert serializeNetworkConfigsSpan != null; // avoid unused warning
-      _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-      _logger.resetTimer();
-      createDirectories(outputPath);
-      Map<Path, VendorConfiguration> output = new TreeMap<>();
-      vendorConfigurations.forEach(
-          (name, vc) -> {
-            if (name.contains(File.separator)) {
-              // iptables will get a hostname like configs/iptables-save if they
-              // are not set up correctly using host files
-              _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
-              answerElement.addRedFlagWarning(
-                  name,
-                  new Warning(
-                      "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
-                      "MISCELLANEOUS"));
-            } else {
-              Path currentOutputPath = outputPath.resolve(name);
-              output.put(currentOutputPath, vc);
-            }
-          });
-
-      serializeObjects(output);
-      _logger.printElapsedTime();
-    }
+  /**
+   * Reads, parses, and serializes the network configuration in {@code file}, and returns the parse
+   * result without the parsed configuration. The configuration is serialized under its hostname
+   * in {@code outputPath}, or to {@code stagingFile} if another configuration already claimed that
+   * hostname.
+   */
+  private ParseVendorConfigurationResult parseAndSerializeNetworkConfig(
+      Path userUploadPath,
+      Path file,
+      Path outputPath,
+      Path stagingFile,
+      @Nullable SpanContext span,
+      ConcurrentMap<String, String> filenameByHostname,
+      Set<String> duplicateHostnames,
+      ConcurrentMap<String, Path> stagedByFilename) {
+    String filename = userUploadPath.relativize(file).toString();
+    ParseVendorConfigurationJob job =
+        new ParseVendorConfigurationJob(
+            _settings,
+            readFileText(file, _logger),
+            filename,
+            buildWarnings(_settings),
+            ConfigurationFormat.UNKNOWN,
+            HashMultimap.create(),
+            span);
+    job.setCostModel(getParseCostModel());
+    if (_settings.getParserWarmup()) {
+      job.setParserWarmup(getParserWarmup());
+    }
+    ParseVendorConfigurationResult result = getOrParse(job, span, _settings);
+    VendorConfiguration vc = result.getVendorConfiguration();
+    result.releaseVendorConfiguration();
+    if (vc == null || vc.getHostname().contains(File.separator)) {
+      return result;
+    }
+    String hostname = vc.getHostname();
+    if (filenameByHostname.putIfAbsent(hostname, filename) != null) {
+      duplicateHostnames.add(hostname);
+      createDirectories(stagingFile.getParent());
+      serializeObject(vc, stagingFile);
+      stagedByFilename.put(filename, stagingFile);
+      return result;
+    }
+    serializeObject(vc, outputPath.resolve(hostname));
+    return result;
   }
 
   private void oldSerializeNetworkConfigs(
@@ -3059,6 +3479,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // serialize warnings
     serializeObject(answerElement, _testrigSettings.getParseAnswerPath());
 
+    storeParseCostModel(answerElement.getParseStatus().keySet());
+    storeParserWarmup();
+
     return answer;
   }
 
@@ -3194,11 +3617,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
       BDDPacket pkt = new BDDPacket();
       boolean ignoreFilters = params.getIgnoreFilters();
-      BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(pkt, ignoreFilters);
 
       Map<IngressLocation, BDD> reachableBDDs =
-          bddReachabilityAnalysisFactory.getAllBDDs(
+          getAllBDDs(
+              pkt,
+              ignoreFilters,
               params.getSourceIpAssignment(),
               params.getHeaderSpace(),
               params.getForbiddenTransitNodes(),
@@ -3292,8 +3715,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
       BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
-      BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(pkt, ignoreFilters);
       IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
       Set<String> finalNodes = parameters.getFinalNodes();
       Set<FlowDisposition> failureDispositions =
@@ -3313,7 +3734,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Set<String> forbiddenTransitNodes = parameters.getForbiddenTransitNodes();
       Set<String> requiredTransitNodes = parameters.getRequiredTransitNodes();
       Map<IngressLocation, BDD> successBdds =
-          bddReachabilityAnalysisFactory.getAllBDDs(
+          getAllBDDs(
+              pkt,
+              ignoreFilters,
               srcIpSpaceAssignment,
               parameters.getHeaderSpace(),
               forbiddenTransitNodes,
@@ -3321,7 +3744,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
               finalNodes,
               successDispositions);
       Map<IngressLocation, BDD> failureBdds =
-          bddReachabilityAnalysisFactory.getAllBDDs(
+          getAllBDDs(
+              pkt,
+              ignoreFilters,
               srcIpSpaceAssignment,
               parameters.getHeaderSpace(),
               forbiddenTransitNodes,
@@ -3356,6 +3781,56 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  /**
+   * Compute the packets that reach the query from each {@link IngressLocation}. See {@link
+   * BDDReachabilityAnalysisFactory#getAllBDDs}. The query is split up and solved in parallel if
+   * more than one BDD reachability partition is configured.
+   */
+  @Nonnull
+  private Map<IngressLocation, BDD> getAllBDDs(
+      BDDPacket pkt,
+      boolean ignoreFilters,
+      IpSpaceAssignment srcIpSpaceAssignment,
+      AclLineMatchExpr initialHeaderSpace,
+      Set<String> forbiddenTransitNodes,
+      Set<String> requiredTransitNodes,
+      Set<String> finalNodes,
+      Set<FlowDisposition> actions) {
+    int numPartitions = _settings.getBddReachabilityPartitions();
+    if (numPartitions > 1) {
+      return new ParallelBDDReachability(
+              loadConfigurations(),
+              loadDataPlane().getForwardingAnalysis(),
+              ignoreFilters,
+              numPartitions,
+              _settings.getAvailableThreads(),
+              _logger.isActive(BatfishLogger.LEVEL_DEBUG)
+                  ? stats -> _logger.debugf("BDD reachability factory stats: %s\n", stats)
+                  : null)
+          .getAllBDDs(
+              pkt,
+              srcIpSpaceAssignment,
+              initialHeaderSpace,
+              forbiddenTransitNodes,
+              requiredTransitNodes,
+              finalNodes,
+              actions);
+    }
+    Map<IngressLocation, BDD> result =
+        getBddReachabilityAnalysisFactory(pkt, ignoreFilters)
+            .getAllBDDs(
+                srcIpSpaceAssignment,
+                initialHeaderSpace,
+                forbiddenTransitNodes,
+                requiredTransitNodes,
+                finalNodes,
+                actions);
+    if (_logger.isActive(BatfishLogger.LEVEL_DEBUG)) {
+      _logger.debugf("BDD reachability factory stats: %s\n", pkt.getFactory().getFactoryStats());
+    }
+    return result;
+  }
+
   /**
    * Return a set of flows (at most 1 per source {@link Location}) for which reachability has been
    * reduced by the change from base to delta snapshot.
@@ -3383,26 +3858,28 @@ public class Batfish extends PluginConsumer implements IBatfish {
        */
       pushBaseSnapshot();
       Map<IngressLocation, BDD> baseAcceptBDDs =
-          getBddReachabilityAnalysisFactory(pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
-                  parameters.getIpSpaceAssignment(),
-                  headerSpace,
-                  parameters.getForbiddenTransitNodes(),
-                  parameters.getRequiredTransitNodes(),
-                  parameters.getFinalNodes(),
-                  parameters.getFlowDispositions());
+          getAllBDDs(
+              pkt,
+              parameters.getIgnoreFilters(),
+              parameters.getIpSpaceAssignment(),
+              headerSpace,
+              parameters.getForbiddenTransitNodes(),
+              parameters.getRequiredTransitNodes(),
+              parameters.getFinalNodes(),
+              parameters.getFlowDispositions());
       popSnapshot();
 
       pushDeltaSnapshot();
       Map<IngressLocation, BDD> deltaAcceptBDDs =
-          getBddReachabilityAnalysisFactory(pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
-                  parameters.getIpSpaceAssignment(),
-                  headerSpace,
-                  parameters.getForbiddenTransitNodes(),
-                  parameters.getRequiredTransitNodes(),
-                  parameters.getFinalNodes(),
-                  parameters.getFlowDispositions());
+          getAllBDDs(
+              pkt,
+              parameters.getIgnoreFilters(),
+              parameters.getIpSpaceAssignment(),
+              headerSpace,
+              parameters.getForbiddenTransitNodes(),
+              parameters.getRequiredTransitNodes(),
+              parameters.getFinalNodes(),
+              parameters.getFlowDispositions());
       popSnapshot();
 
       Set<IngressLocation> commonSources =
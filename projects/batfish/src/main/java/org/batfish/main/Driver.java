@@ -4,6 +4,7 @@ import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.uber.jaeger.Configuration.ReporterConfiguration;
 import com.uber.jaeger.Configuration.SamplerConfiguration;
 import com.uber.jaeger.samplers.ConstSampler;
@@ -26,6 +27,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -107,7 +109,8 @@ public class Driver {
     }
   }
 
-  private static boolean _idle = true;
+  /** The number of tasks running on this service, at most {@link Settings#getServiceSlots()} */
+  private static int _busySlots = 0;
 
   private static Date _lastPollFromCoordinator = new Date();
 
@@ -117,6 +120,9 @@ public class Driver {
 
   private static Settings _mainSettings = null;
 
+  /** The port on which the service listens, once started */
+  private static int _servicePort;
+
   private static ConcurrentMap<String, Task> _taskLog;
 
   private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
@@ -169,18 +175,38 @@ public class Driver {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
   }
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
+  private static synchronized boolean claimSlot() {
+    if (_busySlots < _mainSettings.getServiceSlots()) {
+      _busySlots++;
       return true;
     }
 
     return false;
   }
 
+  /** Returns the snapshots whose data planes are in this service's cache. */
+  public static Set<NetworkSnapshot> getCachedDataPlanes() {
+    return ImmutableSet.copyOf(CACHED_DATA_PLANES.asMap().keySet());
+  }
+
+  /** Returns the snapshots whose configurations are in this service's cache. */
+  public static Set<NetworkSnapshot> getCachedSnapshots() {
+    return ImmutableSet.copyOf(CACHED_TESTRIGS.asMap().keySet());
+  }
+
+  /** Returns the number of additional tasks this service can run now. */
+  public static synchronized int getFreeSlots() {
+    return _mainSettings.getServiceSlots() - _busySlots;
+  }
+
   public static synchronized boolean getIdle() {
     _lastPollFromCoordinator = new Date();
-    return _idle;
+    return _busySlots < _mainSettings.getServiceSlots();
+  }
+
+  /** Returns the number of tasks this service can run concurrently. */
+  public static int getSlots() {
+    return _mainSettings.getServiceSlots();
   }
 
   public static BatfishLogger getMainLogger() {
@@ -438,6 +464,7 @@ public class Driver {
                 Driver.class);
       }
       int selectedListenPort = server.getListeners().iterator().next().getPort();
+      _servicePort = selectedListenPort;
       if (_mainSettings.getCoordinatorRegister()) {
         // this function does not return until registration succeeds
         registerWithCoordinatorPersistent(selectedListenPort);
@@ -484,8 +511,32 @@ public class Driver {
     }
   }
 
-  private static synchronized void makeIdle() {
-    _idle = true;
+  private static synchronized void releaseSlot() {
+    _busySlots--;
+  }
+
+  /**
+   * Tells the coordinator that the task with id {@code taskId} has terminated, so it can collect
+   * the result and assign new work without waiting for its next poll.
+   */
+  private static void notifyTaskDone(String taskId) {
+    if (!_mainSettings.getCoordinatorRegister()) {
+      return;
+    }
+    String protocol = _mainSettings.getSslDisable() ? "http" : "https";
+    String taskDoneUrl =
+        String.format(
+            "%s://%s:%s%s/%s",
+            protocol,
+            _mainSettings.getCoordinatorHost(),
+            _mainSettings.getCoordinatorPoolPort(),
+            CoordConsts.SVC_CFG_POOL_MGR,
+            CoordConsts.SVC_RSC_POOL_TASK_DONE);
+    Map<String, String> params = new HashMap<>();
+    params.put(CoordConsts.SVC_KEY_WORKER, _mainSettings.getServiceHost() + ":" + _servicePort);
+    params.put(CoordConsts.SVC_KEY_WORKID, taskId);
+    // if this fails, the coordinator still finds out when it next checks the task
+    talkToCoordinator(taskDoneUrl, params, _mainLogger);
   }
 
   public static synchronized AtomicInteger newBatch(
@@ -668,11 +719,11 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Non-executable command");
     }
 
-    if (!claimIdle()) {
+    if (!claimSlot()) {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Not idle");
     }
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the slot is released in case of problem submitting thread.
     try {
 
       final BatfishLogger jobLogger =
@@ -694,7 +745,7 @@ public class Driver {
               ? null
               : GlobalTracer.get().activeSpan().context();
 
-      // run batfish on a new thread and set idle to true when done
+      // run batfish on a new thread and release the slot when done
       Thread thread =
           new Thread(
               () -> {
@@ -714,7 +765,8 @@ public class Driver {
                   }
                   task.setTerminated(new Date());
                   jobLogger.close();
-                  makeIdle();
+                  releaseSlot();
+                  notifyTaskDone(taskId);
                 }
               });
 
@@ -723,7 +775,7 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_SUCCESS_KEY, "running now");
     } catch (Exception e) {
       _mainLogger.error("Exception while running task: " + e.getMessage());
-      makeIdle();
+      releaseSlot();
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage());
     }
   }
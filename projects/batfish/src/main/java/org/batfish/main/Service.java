@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -13,6 +14,7 @@ import javax.ws.rs.core.MediaType;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Task;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.codehaus.jettison.json.JSONArray;
@@ -41,7 +43,17 @@ public class Service {
       return new JSONArray(
           Arrays.asList(
               BfConsts.SVC_SUCCESS_KEY,
-              (new JSONObject().put("idle", Driver.getIdle())).toString()));
+              new JSONObject()
+                  .put(BfConsts.SVC_IDLE_KEY, Driver.getIdle())
+                  .put(BfConsts.SVC_SLOTS_KEY, Driver.getSlots())
+                  .put(BfConsts.SVC_FREE_SLOTS_KEY, Driver.getFreeSlots())
+                  .put(
+                      BfConsts.SVC_CACHED_SNAPSHOTS_KEY,
+                      toJsonArray(Driver.getCachedSnapshots()))
+                  .put(
+                      BfConsts.SVC_CACHED_DATA_PLANES_KEY,
+                      toJsonArray(Driver.getCachedDataPlanes()))
+                  .toString()));
     } catch (Exception e) {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
@@ -129,6 +141,17 @@ public class Service {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
   }
+
+  /** Encodes each snapshot as a {@code [networkId, snapshotId]} pair. */
+  private static JSONArray toJsonArray(Set<NetworkSnapshot> snapshots) {
+    JSONArray array = new JSONArray();
+    for (NetworkSnapshot snapshot : snapshots) {
+      array.put(
+          new JSONArray(
+              Arrays.asList(snapshot.getNetwork().getId(), snapshot.getSnapshot().getId())));
+    }
+    return array;
+  }
 }
 
 // package org.batfish.main;
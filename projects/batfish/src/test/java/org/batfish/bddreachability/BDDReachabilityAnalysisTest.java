@@ -522,4 +522,35 @@ public final class BDDReachabilityAnalysisTest {
                   c, start)));
     }
   }
+
+  @Test
+  public void testFixpointCycle() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+
+    BDD one = PKT.getFactory().one();
+    BDD startA = PKT.getSrcPort().value(1);
+    BDD startB = PKT.getSrcPort().value(2);
+    BDD bddBC = PKT.getSrcIp().value(1);
+
+    // a and b form a cycle, and c is downstream of it
+    Table<StateExpr, StateExpr, Edge> forwardEdges =
+        computeForwardEdgeTable(
+            ImmutableList.of(new Edge(a, b, one), new Edge(b, a, one), new Edge(b, c, bddBC)));
+
+    Map<StateExpr, BDD> forwardReachability = new HashMap<>();
+    forwardReachability.put(a, startA);
+    forwardReachability.put(b, startB);
+    fixpoint(forwardReachability, forwardEdges, Edge::traverseForward);
+
+    BDD startAOrB = startA.or(startB);
+    assertThat(
+        forwardReachability,
+        equalTo(
+            ImmutableMap.of(
+                a, startAOrB, //
+                b, startAOrB, //
+                c, startAOrB.and(bddBC))));
+  }
 }
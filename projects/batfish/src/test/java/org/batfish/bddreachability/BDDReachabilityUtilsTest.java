@@ -0,0 +1,63 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeStronglyConnectedComponents;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Table;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.z3.expr.StateExpr;
+import org.batfish.z3.state.NodeAccept;
+import org.junit.Test;
+
+/** Tests of {@link BDDReachabilityUtils} */
+public final class BDDReachabilityUtilsTest {
+
+  @Test
+  public void testComputeStronglyConnectedComponents() {
+    BDD one = new BDDPacket().getFactory().one();
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    StateExpr d = new NodeAccept("D");
+    StateExpr e = new NodeAccept("E");
+
+    // a -> {b <-> c} -> d, and e is not reachable from a
+    Table<StateExpr, StateExpr, Edge> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, one),
+                new Edge(b, c, one),
+                new Edge(c, b, one),
+                new Edge(c, d, one),
+                new Edge(e, d, one)));
+
+    List<List<StateExpr>> sccs = computeStronglyConnectedComponents(ImmutableList.of(a), edges);
+    assertThat(sccs, hasSize(3));
+    assertThat(sccs.get(0), contains(a));
+    assertThat(sccs.get(1), containsInAnyOrder(b, c));
+    assertThat(sccs.get(2), contains(d));
+  }
+
+  @Test
+  public void testComputeStronglyConnectedComponentsSelfLoop() {
+    BDD one = new BDDPacket().getFactory().one();
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+
+    Table<StateExpr, StateExpr, Edge> edges =
+        computeForwardEdgeTable(ImmutableList.of(new Edge(a, a, one), new Edge(b, a, one)));
+
+    // roots are visited in order, but the result is still topologically sorted
+    List<List<StateExpr>> sccs = computeStronglyConnectedComponents(ImmutableList.of(a, b), edges);
+    assertThat(sccs, hasSize(2));
+    assertThat(sccs.get(0), contains(b));
+    assertThat(sccs.get(1), contains(a));
+  }
+}
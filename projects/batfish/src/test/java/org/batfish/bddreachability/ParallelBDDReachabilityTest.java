@@ -0,0 +1,75 @@
+package org.batfish.bddreachability;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.acl.AclLineMatchExprs;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.z3.IngressLocation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link ParallelBDDReachability} */
+public final class ParallelBDDReachabilityTest {
+
+  @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testDstPrefixClasses() {
+    assertThat(ParallelBDDReachability.dstPrefixClasses(1), contains(Prefix.parse("0.0.0.0/0")));
+    assertThat(
+        ParallelBDDReachability.dstPrefixClasses(3),
+        contains(
+            Prefix.parse("0.0.0.0/2"),
+            Prefix.parse("64.0.0.0/2"),
+            Prefix.parse("128.0.0.0/2"),
+            Prefix.parse("192.0.0.0/2")));
+  }
+
+  @Test
+  public void testGetAllBDDs() throws IOException {
+    Batfish batfish = BatfishTestUtils.getBatfish(new TestNetwork()._configs, temp);
+    batfish.computeDataPlane();
+    Map<String, Configuration> configs = batfish.loadConfigurations();
+    ForwardingAnalysis forwardingAnalysis = batfish.loadDataPlane().getForwardingAnalysis();
+    IpSpaceAssignment assignment = batfish.getAllSourcesInferFromLocationIpSpaceAssignment();
+    Set<FlowDisposition> actions =
+        ImmutableSet.of(FlowDisposition.ACCEPTED, FlowDisposition.EXITS_NETWORK);
+
+    BDDPacket pkt = new BDDPacket();
+    Map<IngressLocation, BDD> expected =
+        new BDDReachabilityAnalysisFactory(pkt, configs, forwardingAnalysis, false, false)
+            .getAllBDDs(
+                assignment,
+                AclLineMatchExprs.TRUE,
+                ImmutableSet.of(),
+                ImmutableSet.of(),
+                configs.keySet(),
+                actions);
+    Map<IngressLocation, BDD> actual =
+        new ParallelBDDReachability(configs, forwardingAnalysis, false, 4, 2)
+            .getAllBDDs(
+                pkt,
+                assignment,
+                AclLineMatchExprs.TRUE,
+                ImmutableSet.of(),
+                ImmutableSet.of(),
+                configs.keySet(),
+                actions);
+    assertThat(actual, equalTo(expected));
+  }
+}
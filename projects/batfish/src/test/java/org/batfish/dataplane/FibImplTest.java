@@ -7,6 +7,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 
@@ -15,6 +16,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Configuration;
@@ -235,6 +237,65 @@ public class FibImplTest {
     assertThat(fibRoutesEth2, empty());
   }
 
+  @Test
+  public void testResolutionWithSharedNextHop() {
+    Rib rib = new Rib();
+
+    StaticRoute interfaceRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopInterface("Eth1")
+            .setAdministrativeCost(1)
+            .build();
+    rib.mergeRoute(annotateRoute(interfaceRoute));
+
+    /* Several routes whose next hops all resolve via the /24, some of them recursively */
+    List<StaticRoute> testRoutes =
+        ImmutableList.of(
+            StaticRoute.builder()
+                .setNetwork(Prefix.parse("2.2.2.0/24"))
+                .setNextHopIp(Ip.parse("1.1.1.1"))
+                .setAdministrativeCost(1)
+                .build(),
+            StaticRoute.builder()
+                .setNetwork(Prefix.parse("3.3.3.0/24"))
+                .setNextHopIp(Ip.parse("1.1.1.1"))
+                .setAdministrativeCost(1)
+                .build(),
+            StaticRoute.builder()
+                .setNetwork(Prefix.parse("4.4.4.0/24"))
+                .setNextHopIp(Ip.parse("1.1.1.2"))
+                .setAdministrativeCost(1)
+                .build(),
+            StaticRoute.builder()
+                .setNetwork(Prefix.parse("5.5.5.0/24"))
+                .setNextHopIp(Ip.parse("2.2.2.2"))
+                .setAdministrativeCost(1)
+                .build());
+    testRoutes.forEach(r -> rib.mergeRoute(annotateRoute(r)));
+
+    FibImpl fib = new FibImpl(rib);
+
+    assertThat(
+        getTopLevelRoutesByInterface(fib, "Eth1"),
+        containsInAnyOrder(
+            hasPrefix(Prefix.parse("1.1.1.0/24")),
+            hasPrefix(Prefix.parse("2.2.2.0/24")),
+            hasPrefix(Prefix.parse("3.3.3.0/24")),
+            hasPrefix(Prefix.parse("4.4.4.0/24")),
+            hasPrefix(Prefix.parse("5.5.5.0/24"))));
+    assertThat(fib.get(Ip.parse("5.5.5.5")), contains(hasInterface("Eth1")));
+
+    /* Resolutions shared while building the FIB match resolving each route on its own */
+    for (StaticRoute route : testRoutes) {
+      assertThat(
+          fib.allEntries().stream()
+              .filter(e -> e.getTopLevelRoute().equals(route))
+              .collect(ImmutableSet.toImmutableSet()),
+          equalTo(fib.resolveRoute(rib, route)));
+    }
+  }
+
   @Test
   public void testResolutionWhenNextHopMatchesNonForwardingRouteWithECMP() {
     Rib rib = new Rib();
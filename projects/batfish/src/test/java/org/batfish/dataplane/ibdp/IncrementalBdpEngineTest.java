@@ -0,0 +1,180 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.InterfaceAddress;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.ospf.OspfTopology;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link IncrementalBdpEngine} */
+public class IncrementalBdpEngineTest {
+
+  private static final Prefix STATIC_PREFIX = Prefix.parse("10.10.10.0/24");
+
+  private static final Topology TOPOLOGY =
+      new Topology(
+          ImmutableSortedSet.of(
+              Edge.of("n1", "i1", "n2", "i2"), Edge.of("n2", "i2", "n1", "i1")));
+
+  private IncrementalBdpEngine _engine;
+
+  private Map<String, Configuration> _configs;
+
+  private IncrementalDataPlane _previous;
+
+  private static Configuration makeConfig(
+      String hostname, String interfaceName, String address, boolean withStaticRoute) {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
+    nf.interfaceBuilder()
+        .setOwner(c)
+        .setVrf(vrf)
+        .setName(interfaceName)
+        .setAddress(new InterfaceAddress(address))
+        .build();
+    if (withStaticRoute) {
+      vrf.getStaticRoutes()
+          .add(
+              StaticRoute.builder()
+                  .setNetwork(STATIC_PREFIX)
+                  .setNextHopInterface(interfaceName)
+                  .setAdministrativeCost(1)
+                  .build());
+    }
+    return c;
+  }
+
+  private ComputeDataPlaneResult compute(
+      Map<String, Configuration> configs,
+      Topology topology,
+      @Nullable IncrementalDataPlane previous) {
+    return _engine.computeDataPlane(
+        configs, topology, null, OspfTopology.empty(), ImmutableSet.of(), previous);
+  }
+
+  @Before
+  public void setup() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.setReuseParentDataPlane(true);
+    _engine =
+        new IncrementalBdpEngine(settings, new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false));
+    _configs =
+        ImmutableMap.of(
+            "n1", makeConfig("n1", "i1", "10.0.0.0/31", false),
+            "n2", makeConfig("n2", "i2", "10.0.0.1/31", false),
+            "n3", makeConfig("n3", "i3", "10.0.1.0/31", false));
+    _previous = (IncrementalDataPlane) compute(_configs, TOPOLOGY, null)._dataPlane;
+  }
+
+  @Test
+  public void testComputeReusableNodesUnchanged() {
+    assertThat(
+        IncrementalBdpEngine.computeReusableNodes(
+            _configs,
+            IncrementalBdpEngine.hashConfigurations(_configs),
+            TOPOLOGY,
+            OspfTopology.empty(),
+            ImmutableSet.of(),
+            _previous),
+        containsInAnyOrder("n1", "n2", "n3"));
+  }
+
+  @Test
+  public void testComputeReusableNodesChangedConfiguration() {
+    // A change to n1 invalidates n2, which may learn routes from n1
+    Map<String, Configuration> configs =
+        ImmutableMap.of(
+            "n1", makeConfig("n1", "i1", "10.0.0.0/31", true),
+            "n2", _configs.get("n2"),
+            "n3", _configs.get("n3"));
+    assertThat(
+        IncrementalBdpEngine.computeReusableNodes(
+            configs,
+            IncrementalBdpEngine.hashConfigurations(configs),
+            TOPOLOGY,
+            OspfTopology.empty(),
+            ImmutableSet.of(),
+            _previous),
+        containsInAnyOrder("n3"));
+  }
+
+  @Test
+  public void testComputeReusableNodesChangedTopology() {
+    Topology topology = new Topology(ImmutableSortedSet.of());
+    assertThat(
+        IncrementalBdpEngine.computeReusableNodes(
+            _configs,
+            IncrementalBdpEngine.hashConfigurations(_configs),
+            topology,
+            OspfTopology.empty(),
+            ImmutableSet.of(),
+            _previous),
+        containsInAnyOrder("n3"));
+  }
+
+  @Test
+  public void testComputeReusableNodesUnknownPrevious() {
+    Configuration n4 = makeConfig("n4", "i4", "10.0.2.0/31", false);
+    Map<String, Configuration> configs =
+        ImmutableMap.<String, Configuration>builder().putAll(_configs).put("n4", n4).build();
+    assertThat(
+        IncrementalBdpEngine.computeReusableNodes(
+            configs,
+            IncrementalBdpEngine.hashConfigurations(configs),
+            TOPOLOGY,
+            OspfTopology.empty(),
+            ImmutableSet.of(),
+            _previous),
+        not(hasItem("n4")));
+  }
+
+  @Test
+  public void testComputeDataPlaneWithPrevious() {
+    Map<String, Configuration> configs =
+        ImmutableMap.of(
+            "n1", _configs.get("n1"),
+            "n2", _configs.get("n2"),
+            "n3", makeConfig("n3", "i3", "10.0.1.0/31", true));
+    IncrementalDataPlane dp =
+        (IncrementalDataPlane) compute(configs, TOPOLOGY, _previous)._dataPlane;
+
+    // Unaffected nodes are reused as-is
+    assertThat(dp.getNodes().get("n1"), sameInstance(_previous.getNodes().get("n1")));
+    assertThat(dp.getNodes().get("n2"), sameInstance(_previous.getNodes().get("n2")));
+
+    // The changed node is recomputed
+    assertThat(
+        dp.getRibs().get("n3").get(DEFAULT_VRF_NAME).getRoutes(),
+        hasItem(hasPrefix(STATIC_PREFIX)));
+    assertThat(
+        _previous.getRibs().get("n3").get(DEFAULT_VRF_NAME).getRoutes(),
+        not(hasItem(hasPrefix(STATIC_PREFIX))));
+  }
+}
@@ -0,0 +1,79 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Topology;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link IncrementalDataPlane} */
+public class IncrementalDataPlaneTest {
+
+  private Map<String, Node> _nodes;
+
+  private IncrementalDataPlane _dp;
+
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Configuration c1 = cb.setHostname("n1").build();
+    nf.vrfBuilder().setOwner(c1).setName(DEFAULT_VRF_NAME).build();
+    Configuration c2 = cb.setHostname("n2").build();
+    nf.vrfBuilder().setOwner(c2).setName(DEFAULT_VRF_NAME).build();
+    _nodes = ImmutableMap.of("n1", new Node(c1), "n2", new Node(c2));
+    _dp =
+        IncrementalDataPlane.builder()
+            .setIpVrfOwners(ImmutableMap.of())
+            .setNodes(_nodes)
+            .setTopology(new Topology(new TreeSet<>()))
+            .build();
+  }
+
+  @Test
+  public void testGetShards() {
+    assertThat(_dp.getShards(), equalTo(_nodes));
+  }
+
+  @Test
+  public void testShardsLoadedLazily() {
+    IncrementalDataPlane index = SerializationUtils.clone(_dp.withoutShards());
+    List<String> loaded = new ArrayList<>();
+    index.setShardLoader(
+        hostname -> {
+          loaded.add(hostname);
+          return _nodes.get(hostname);
+        });
+
+    // Nothing is loaded until a node's state is requested
+    assertThat(index.getRibs().keySet(), contains("n1", "n2"));
+    assertThat(loaded, empty());
+
+    // Only the requested node is loaded, and only once
+    assertThat(index.getFibs().get("n1").keySet(), contains(DEFAULT_VRF_NAME));
+    assertThat(index.getRibs().get("n1").keySet(), contains(DEFAULT_VRF_NAME));
+    assertThat(index.getNodes().get("n1"), sameInstance(_nodes.get("n1")));
+    assertThat(loaded, contains("n1"));
+
+    // Full iteration loads the rest
+    assertThat(index.getConfigurations().keySet(), containsInAnyOrder("n1", "n2"));
+    index.getConfigurations().values().forEach(c -> {});
+    assertThat(loaded, containsInAnyOrder("n1", "n2"));
+  }
+}
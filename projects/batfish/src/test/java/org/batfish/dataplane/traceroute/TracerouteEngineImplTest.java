@@ -86,6 +86,7 @@ import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.TcpFlagsMatchConditions;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.acl.AclLineMatchExprs;
+import org.batfish.datamodel.acl.CompiledAcl;
 import org.batfish.datamodel.acl.MatchSrcInterface;
 import org.batfish.datamodel.acl.OriginatingFromDevice;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -511,16 +512,12 @@ public class TracerouteEngineImplTest {
             .build();
 
     Flow flow = makeFlow();
+    CompiledAcl compiledFilter =
+        CompiledAcl.compile(filter, ImmutableMap.of(filterName, filter), ImmutableMap.of());
 
     FilterStep step =
         TracerouteUtils.createFilterStep(
-            flow,
-            iface1,
-            filter,
-            FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
-            false);
+            flow, iface1, compiledFilter, FilterType.INGRESS_FILTER, false);
 
     assertThat(step.getAction(), equalTo(StepAction.PERMITTED));
 
@@ -529,13 +526,7 @@ public class TracerouteEngineImplTest {
 
     step =
         TracerouteUtils.createFilterStep(
-            flow,
-            iface2,
-            filter,
-            FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
-            false);
+            flow, iface2, compiledFilter, FilterType.INGRESS_FILTER, false);
 
     assertThat(step.getAction(), equalTo(StepAction.DENIED));
 
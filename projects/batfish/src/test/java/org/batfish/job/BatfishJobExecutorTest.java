@@ -1,7 +1,12 @@
 package org.batfish.job;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
@@ -118,15 +123,45 @@ public class BatfishJobExecutorTest {
         Lists.newArrayList(new BfTestJob(settings, "result1")), failureCauses, true);
   }
 
+  @Test
+  public void testOrderJobs() {
+    Settings settings = new Settings();
+    BfTestJob small = new BfTestJob(settings, "small", 1L);
+    BfTestJob large = new BfTestJob(settings, "large", 10L);
+    BfTestJob medium1 = new BfTestJob(settings, "medium1", 5L);
+    BfTestJob medium2 = new BfTestJob(settings, "medium2", 5L);
+    List<BfTestJob> jobs = ImmutableList.of(small, large, medium1, medium2);
+
+    // longest first, and jobs with equal estimates keep their order
+    assertThat(BatfishJobExecutor.orderJobs(jobs, false), contains(large, medium1, medium2, small));
+
+    // shuffling only reorders jobs with equal estimates
+    List<BfTestJob> shuffled = BatfishJobExecutor.orderJobs(jobs, true);
+    assertThat(shuffled.get(0), equalTo(large));
+    assertThat(shuffled.subList(1, 3), containsInAnyOrder(medium1, medium2));
+    assertThat(shuffled.get(3), equalTo(small));
+  }
+
   /** Class for Batfish test job */
   private class BfTestJob extends BatfishJob<BfTestResult> {
+    private final long _estimatedCost;
     private String _testValue;
 
     public BfTestJob(Settings settings, String testValue) {
+      this(settings, testValue, 0L);
+    }
+
+    public BfTestJob(Settings settings, String testValue, long estimatedCost) {
       super(settings);
+      _estimatedCost = estimatedCost;
       _testValue = testValue;
     }
 
+    @Override
+    public long getEstimatedCost() {
+      return _estimatedCost;
+    }
+
     @Override
     public BfTestResult call() {
       long startTime = System.currentTimeMillis();
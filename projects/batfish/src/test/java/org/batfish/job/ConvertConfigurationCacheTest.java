@@ -0,0 +1,60 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.job.ConvertConfigurationCache.CachedConversion;
+import org.batfish.storage.FileBasedStorage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link ConvertConfigurationCache} */
+public final class ConvertConfigurationCacheTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private ConvertConfigurationCache _cache;
+
+  @Before
+  public void setup() {
+    BatfishLogger logger = new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false);
+    _cache =
+        new ConvertConfigurationCache(
+            new FileBasedStorage(_folder.getRoot().toPath(), logger),
+            new NetworkId("network"),
+            logger);
+  }
+
+  @Test
+  public void testLoadMissing() {
+    assertThat(_cache.load("missing"), nullValue());
+  }
+
+  @Test
+  public void testStoreAndLoad() {
+    Configuration c = new Configuration("c", ConfigurationFormat.CISCO_IOS);
+    _cache.store(
+        "key",
+        new CachedConversion(
+            new ConvertConfigurationAnswerElement(),
+            ImmutableMap.of("c", c),
+            ImmutableMap.of("c", new Warnings())));
+
+    CachedConversion loaded = _cache.load("key");
+    assertThat(loaded, notNullValue());
+    assertThat(loaded.getConfigurations().keySet(), equalTo(ImmutableMap.of("c", c).keySet()));
+    assertThat(loaded.getConfigurations().get("c").getHostname(), equalTo("c"));
+    assertThat(loaded.getWarningsByHost().keySet(), equalTo(ImmutableMap.of("c", c).keySet()));
+  }
+}
@@ -0,0 +1,69 @@
+package org.batfish.job;
+
+import static org.batfish.job.ParseCostModel.DEFAULT_MILLIS_PER_CHAR;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.junit.Test;
+
+/** Tests of {@link ParseCostModel} */
+public class ParseCostModelTest {
+
+  @Test
+  public void testEstimateDefault() {
+    ParseCostModel model = new ParseCostModel();
+
+    assertThat(
+        model.estimate("a.cfg", 10000L, ConfigurationFormat.UNKNOWN),
+        equalTo((long) Math.ceil(10000L * DEFAULT_MILLIS_PER_CHAR)));
+  }
+
+  @Test
+  public void testEstimateKnownFile() {
+    ParseCostModel model = new ParseCostModel();
+    model.record("a.cfg", ConfigurationFormat.CISCO_IOS, 1000L, 50L);
+
+    // scaled by the change in size
+    assertThat(model.estimate("a.cfg", 2000L, ConfigurationFormat.UNKNOWN), equalTo(100L));
+  }
+
+  @Test
+  public void testEstimateByFormat() {
+    ParseCostModel model = new ParseCostModel();
+    model.record("ios.cfg", ConfigurationFormat.CISCO_IOS, 1000L, 10L);
+    model.record("junos.cfg", ConfigurationFormat.JUNIPER, 1000L, 30L);
+
+    assertThat(model.estimate("b.cfg", 100L, ConfigurationFormat.CISCO_IOS), equalTo(1L));
+    assertThat(model.estimate("b.cfg", 100L, ConfigurationFormat.JUNIPER), equalTo(3L));
+    // unknown and unseen formats parse at the overall rate
+    assertThat(model.estimate("b.cfg", 100L, ConfigurationFormat.UNKNOWN), equalTo(2L));
+    assertThat(model.estimate("b.cfg", 100L, ConfigurationFormat.ARISTA), equalTo(2L));
+  }
+
+  @Test
+  public void testRetainFiles() {
+    ParseCostModel model = new ParseCostModel();
+    model.record("a.cfg", ConfigurationFormat.CISCO_IOS, 1000L, 50L);
+    model.record("b.cfg", ConfigurationFormat.CISCO_IOS, 1000L, 10L);
+    assertThat(model.estimate("c.cfg", 1000L, ConfigurationFormat.CISCO_IOS), equalTo(30L));
+
+    model.retainFiles(ImmutableSet.of("b.cfg"));
+
+    // a.cfg is now estimated at the rate of the remaining files
+    assertThat(model.estimate("a.cfg", 1000L, ConfigurationFormat.CISCO_IOS), equalTo(10L));
+    assertThat(model.estimate("b.cfg", 1000L, ConfigurationFormat.UNKNOWN), equalTo(10L));
+  }
+
+  @Test
+  public void testSerialization() {
+    ParseCostModel model = new ParseCostModel();
+    model.record("a.cfg", ConfigurationFormat.CISCO_IOS, 1000L, 50L);
+
+    ParseCostModel clone = SerializationUtils.clone(model);
+    assertThat(clone.estimate("a.cfg", 1000L, ConfigurationFormat.UNKNOWN), equalTo(50L));
+    assertThat(clone.estimate("b.cfg", 1000L, ConfigurationFormat.CISCO_IOS), equalTo(50L));
+  }
+}
@@ -1,16 +1,32 @@
 package org.batfish.job;
 
+import static org.batfish.job.ParseVendorConfigurationJob.CISCO_STANZA_START;
+import static org.batfish.job.ParseVendorConfigurationJob.FLAT_JUNIPER_STANZA_START;
 import static org.batfish.job.ParseVendorConfigurationJob.detectFormat;
+import static org.batfish.job.ParseVendorConfigurationJob.getChunkStarts;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.batfish.common.Warnings;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.grammar.BatfishLexer;
+import org.batfish.grammar.BatfishParser;
+import org.batfish.grammar.cisco.CiscoCombinedParser;
+import org.batfish.grammar.flatjuniper.FlatJuniperCombinedParser;
 import org.junit.Test;
 
 /** Tests of {@link ParseVendorConfigurationJob}. */
@@ -43,6 +59,112 @@ public class ParseVendorConfigurationJobTest {
     assertThat(result.getFailureCause(), not(equalTo(null)));
   }
 
+  @Test
+  public void testGetChunkStarts() {
+    String text = "set a\nset b\nset c\nset d\n";
+    Pattern stanzaStart = Pattern.compile("\n(?=set )");
+
+    assertThat(getChunkStarts(text, stanzaStart, 1), contains(0));
+    // chunks start at the first stanza after each even split
+    assertThat(getChunkStarts(text, stanzaStart, 2), contains(0, 18));
+    assertThat(getChunkStarts(text, stanzaStart, 4), contains(0, 12, 18));
+    // no more chunks than stanzas, and no empty chunks
+    assertThat(getChunkStarts(text, stanzaStart, 100), contains(0, 6, 12, 18));
+    assertThat(getChunkStarts("set a\n", stanzaStart, 4), contains(0));
+  }
+
+  /**
+   * Asserts that parsing the input of the parsers from {@code newParser} in chunks at every match
+   * of {@code stanzaStart} gives the same tokens and parse tree as parsing it as a whole.
+   */
+  private static <P extends BatfishParser, L extends BatfishLexer> void assertParsesSameInChunks(
+      Supplier<BatfishCombinedParser<P, L>> newParser, Pattern stanzaStart) {
+    BatfishCombinedParser<P, L> whole = newParser.get();
+    ParserRuleContext wholeTree = whole.parse();
+    String text = whole.getInput();
+    List<Integer> chunkStarts = getChunkStarts(text, stanzaStart, text.length());
+    BatfishCombinedParser<P, L> chunked = newParser.get();
+    ParserRuleContext chunkedTree = chunked.parseInChunks(chunkStarts, newParser);
+
+    assertThat(whole.getErrors(), empty());
+    assertThat(chunkStarts.size(), greaterThan(2));
+    assertThat(chunkedTree, notNullValue());
+    assertThat(
+        chunkedTree.toStringTree(chunked.getParser()),
+        equalTo(wholeTree.toStringTree(whole.getParser())));
+    assertThat(tokenStrings(chunked), equalTo(tokenStrings(whole)));
+  }
+
+  private static List<String> tokenStrings(BatfishCombinedParser<?, ?> parser) {
+    return parser.getTokens().getTokens().stream()
+        .map(
+            token ->
+                String.format(
+                    "%d:%d:%d:%s",
+                    token.getType(),
+                    token.getLine(),
+                    token.getStartIndex(),
+                    token.getText()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @Test
+  public void testParseInChunksCisco() {
+    String text =
+        "hostname r1\n"
+            + "!\n"
+            + "interface GigabitEthernet0/0\n"
+            + " ip address 10.0.0.1 255.255.255.0\n"
+            + " no shutdown\n"
+            + "!\n"
+            + "ip access-list extended acl1\n"
+            + " permit ip any any\n"
+            + "!\n"
+            + "ip community-list standard cl1 permit 1:1\n"
+            + "!\n"
+            + "router bgp 1\n"
+            + " neighbor 10.0.0.2 remote-as 2\n"
+            + "!\n";
+    Settings settings = new Settings();
+    assertParsesSameInChunks(
+        () -> new CiscoCombinedParser(text, settings, ConfigurationFormat.CISCO_IOS),
+        CISCO_STANZA_START);
+  }
+
+  @Test
+  public void testParseInChunksCiscoAsa() {
+    // the ASA lexer enters a mode for interface stanzas only at the start of a line
+    String text =
+        "hostname asa1\n"
+            + "!\n"
+            + "interface GigabitEthernet0/0\n"
+            + " nameif outside\n"
+            + " ip address 10.0.0.1 255.255.255.0\n"
+            + "!\n"
+            + "interface GigabitEthernet0/1\n"
+            + " nameif inside\n"
+            + " ip address 10.0.1.1 255.255.255.0\n"
+            + "!\n"
+            + "access-list acl1 extended permit ip any any\n"
+            + "!\n";
+    Settings settings = new Settings();
+    assertParsesSameInChunks(
+        () -> new CiscoCombinedParser(text, settings, ConfigurationFormat.CISCO_ASA),
+        CISCO_STANZA_START);
+  }
+
+  @Test
+  public void testParseInChunksFlatJuniper() {
+    String text =
+        "set system host-name r1\n"
+            + "set interfaces ge-0/0/0 unit 0 family inet address 10.0.0.1/24\n"
+            + "deactivate interfaces ge-0/0/0\n"
+            + "set protocols bgp group g neighbor 10.0.0.2 peer-as 2\n";
+    Settings settings = new Settings();
+    assertParsesSameInChunks(
+        () -> new FlatJuniperCombinedParser(text, settings, null), FLAT_JUNIPER_STANZA_START);
+  }
+
   // Tests that empty files are detected as empty, even when another format is provided.
   @Test
   public void testDetectFormatEmpty() {
@@ -1,10 +1,15 @@
 package org.batfish.job;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import java.io.File;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import org.batfish.common.BatfishLogger;
@@ -12,6 +17,7 @@ import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warnings;
 import org.batfish.common.Warnings.ParseWarning;
+import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.representation.cisco.CiscoConfiguration;
@@ -37,6 +43,7 @@ public class ParseVendorConfigurationResultTest {
             0,
             new BatfishLoggerHistory(),
             filename,
+            ConfigurationFormat.CISCO_IOS,
             config,
             warnings,
             parseTree,
@@ -58,4 +65,99 @@ public class ParseVendorConfigurationResultTest {
     // Confirm result warning was properly applied to answerElement
     assertThat(answerWarnings, hasEntry(filename, warnings));
   }
+
+  @Test
+  public void testApplyToHostnameAfterRelease() {
+    String filename = "file.cfg";
+    VendorConfiguration config = new CiscoConfiguration();
+    config.setHostname("hostname");
+
+    ParseVendorConfigurationResult result =
+        new ParseVendorConfigurationResult(
+            5,
+            new BatfishLoggerHistory(),
+            filename,
+            ConfigurationFormat.CISCO_IOS,
+            config,
+            new Warnings(),
+            new ParseTreeSentences(),
+            ParseStatus.PASSED,
+            HashMultimap.create());
+
+    result.releaseVendorConfiguration();
+
+    // The configuration is gone, but its hostname is kept
+    assertThat(result.getVendorConfiguration(), nullValue());
+    assertThat(result.getHostname(), equalTo("hostname"));
+
+    ParseVendorConfigurationAnswerElement answerElement =
+        new ParseVendorConfigurationAnswerElement();
+    result.applyTo("renamed", new BatfishLogger("debug", false), answerElement);
+
+    assertThat(answerElement.getParseStatus(), hasEntry(filename, ParseStatus.PASSED));
+    assertThat(answerElement.getFileMap().get("renamed"), contains(filename));
+
+    // The parse time is counted for the format of the file
+    assertThat(
+        answerElement.getParseTimes().get(ConfigurationFormat.CISCO_IOS).getTotalMillis(),
+        equalTo(5L));
+  }
+
+  @Test
+  public void testApplyToCached() {
+    ParseVendorConfigurationResult result =
+        new ParseVendorConfigurationResult(
+            5,
+            new BatfishLoggerHistory(),
+            "file.cfg",
+            ConfigurationFormat.CISCO_IOS,
+            new Warnings(),
+            ParseStatus.EMPTY);
+    result.setCached(true);
+
+    ParseVendorConfigurationAnswerElement answerElement =
+        new ParseVendorConfigurationAnswerElement();
+    result.applyTo(null, new BatfishLogger("debug", false), answerElement);
+
+    // Loading a cached result is not counted as parse time
+    assertThat(answerElement.getParseStatus(), hasEntry("file.cfg", ParseStatus.EMPTY));
+    assertThat(answerElement.getParseTimes(), anEmptyMap());
+  }
+
+  @Test
+  public void testApplyToDfaMisses() {
+    ParseVendorConfigurationResult result =
+        new ParseVendorConfigurationResult(
+            5,
+            new BatfishLoggerHistory(),
+            "file.cfg",
+            ConfigurationFormat.CISCO_IOS,
+            new Warnings(),
+            ParseStatus.EMPTY);
+    ParseVendorConfigurationAnswerElement answerElement =
+        new ParseVendorConfigurationAnswerElement();
+
+    // Files that were not parsed are not listed
+    result.applyTo((String) null, new BatfishLogger("debug", false), answerElement);
+    assertThat(answerElement.getDfaMisses(), anEmptyMap());
+
+    result.setDfaMisses(7L);
+    result.applyTo((String) null, new BatfishLogger("debug", false), answerElement);
+    assertThat(answerElement.getDfaMisses(), hasEntry("file.cfg", 7L));
+  }
+
+  @Test
+  public void testGetModifiedNameDistinct() {
+    // the two filenames have the same modified name base
+    String filename1 = String.join(File.separator, "configs", "a", "b");
+    String filename2 = String.join(File.separator, "configs", "a__b");
+    HashMultimap<String, String> modifiedNames = HashMultimap.create();
+
+    String name1 = ParseVendorConfigurationResult.getModifiedName("h", filename1, modifiedNames);
+    modifiedNames.put("h", name1);
+    String name2 = ParseVendorConfigurationResult.getModifiedName("h", filename2, modifiedNames);
+
+    assertThat(name1, equalTo("h__configs__a__b"));
+    assertThat(name2, equalTo("h__configs__a__b.0"));
+  }
 }
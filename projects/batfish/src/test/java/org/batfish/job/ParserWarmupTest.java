@@ -0,0 +1,97 @@
+package org.batfish.job;
+
+import static org.batfish.job.ParserWarmup.MAX_SAMPLES_PER_FORMAT;
+import static org.batfish.job.ParserWarmup.MAX_SAMPLE_LENGTH;
+import static org.batfish.job.ParserWarmup.truncate;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.base.Strings;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.junit.Test;
+
+/** Tests of {@link ParserWarmup} */
+public class ParserWarmupTest {
+
+  @Test
+  public void testMerge() {
+    ParserWarmup warmup = new ParserWarmup();
+    warmup.record(ConfigurationFormat.CISCO_IOS, "a", 10L);
+    warmup.record(ConfigurationFormat.CISCO_IOS, "b", 30L);
+    ParserWarmup other = new ParserWarmup();
+    other.record(ConfigurationFormat.CISCO_IOS, "a", 10L);
+    other.record(ConfigurationFormat.CISCO_IOS, "c", 20L);
+    other.record(ConfigurationFormat.JUNIPER, "d", 5L);
+
+    warmup.merge(other);
+
+    assertThat(warmup.getSamples().get(ConfigurationFormat.CISCO_IOS), contains("b", "c", "a"));
+    assertThat(warmup.getSamples().get(ConfigurationFormat.JUNIPER), contains("d"));
+  }
+
+  @Test
+  public void testRecord() {
+    ParserWarmup warmup = new ParserWarmup();
+    warmup.record(ConfigurationFormat.CISCO_IOS, "a", 10L);
+    warmup.record(ConfigurationFormat.CISCO_IOS, "b", 30L);
+    warmup.record(ConfigurationFormat.CISCO_IOS, "c", 20L);
+    // files that added nothing to the DFA, and duplicates, are not kept
+    warmup.record(ConfigurationFormat.CISCO_IOS, "d", 0L);
+    warmup.record(ConfigurationFormat.CISCO_IOS, "a", 40L);
+    warmup.record(ConfigurationFormat.JUNIPER, "e", 5L);
+
+    assertThat(warmup.getSamples().get(ConfigurationFormat.CISCO_IOS), contains("b", "c", "a"));
+    assertThat(warmup.getSamples().get(ConfigurationFormat.JUNIPER), contains("e"));
+  }
+
+  @Test
+  public void testRecordKeepsMostMisses() {
+    ParserWarmup warmup = new ParserWarmup();
+    for (int i = 0; i <= MAX_SAMPLES_PER_FORMAT; i++) {
+      warmup.record(ConfigurationFormat.ARISTA, Integer.toString(i), i + 1);
+    }
+
+    assertThat(
+        warmup.getSamples().get(ConfigurationFormat.ARISTA).size(),
+        equalTo(MAX_SAMPLES_PER_FORMAT));
+    assertThat(
+        warmup.getSamples().get(ConfigurationFormat.ARISTA).get(0),
+        equalTo(Integer.toString(MAX_SAMPLES_PER_FORMAT)));
+  }
+
+  @Test
+  public void testSerialization() {
+    ParserWarmup warmup = new ParserWarmup();
+    warmup.record(ConfigurationFormat.CISCO_IOS, "a", 10L);
+
+    assertThat(SerializationUtils.clone(warmup).getSamples(), equalTo(warmup.getSamples()));
+  }
+
+  @Test
+  public void testTruncate() {
+    assertThat(truncate("a\nb\n"), equalTo("a\nb\n"));
+
+    String line = Strings.repeat("x", MAX_SAMPLE_LENGTH / 2) + "\n";
+    assertThat(truncate(line + line + line), equalTo(line));
+    // without a line break, the sample is cut at the limit
+    assertThat(
+        truncate(Strings.repeat("x", MAX_SAMPLE_LENGTH + 1)).length(),
+        equalTo(MAX_SAMPLE_LENGTH));
+  }
+
+  @Test
+  public void testWarmUp() {
+    ParserWarmup warmup = new ParserWarmup();
+    assertThat(warmup.getSamples(), anEmptyMap());
+    assertThat(warmup.warmUp(new Settings()), equalTo(0));
+
+    warmup.record(ConfigurationFormat.CISCO_IOS, "hostname a\n", 10L);
+    // failures are dropped
+    warmup.record(ConfigurationFormat.CISCO_IOS, "hostname\n", 5L);
+    assertThat(warmup.warmUp(new Settings()), equalTo(2));
+  }
+}
@@ -41,6 +41,7 @@ import java.security.AccessControlException;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -1225,6 +1226,190 @@ public abstract class BDDFactory {
     return cachestats;
   }
 
+  /** Hit and miss counts of one operator cache, e.g. the cache for results of binary operators. */
+  public static final class OperatorCacheStats {
+    private final String _name;
+    private final int _size;
+    private final long _hits;
+    private final long _misses;
+
+    public OperatorCacheStats(String name, int size, long hits, long misses) {
+      _name = name;
+      _size = size;
+      _hits = hits;
+      _misses = misses;
+    }
+
+    /** The name of the cache. */
+    public String getName() {
+      return _name;
+    }
+
+    /** The number of entries in the cache. */
+    public int getSize() {
+      return _size;
+    }
+
+    /** The number of lookups that found the result in the cache. */
+    public long getHits() {
+      return _hits;
+    }
+
+    /** The number of lookups that did not find the result in the cache. */
+    public long getMisses() {
+      return _misses;
+    }
+
+    /** The fraction of lookups that found the result in the cache, or 0 if there were none. */
+    public double getHitRate() {
+      long lookups = _hits + _misses;
+      return lookups == 0 ? 0 : (double) _hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s cache: size=%d hits=%d misses=%d hitRate=%.3f",
+          _name, _size, _hits, _misses, getHitRate());
+    }
+  }
+
+  /**
+   * Return hit and miss counts for each operator cache of this factory that has been used. The
+   * counts are cumulative since the factory was created or {@link #resetOperatorCacheStats()} was
+   * last called. Unlike {@link #getCacheStats()}, these counts are always collected, so they can be
+   * used to choose the cache size for a given workload.
+   */
+  public List<OperatorCacheStats> getOperatorCacheStats() {
+    return Collections.emptyList();
+  }
+
+  /** Reset the counts returned by {@link #getOperatorCacheStats()} to zero. */
+  public void resetOperatorCacheStats() {}
+
+  /**
+   * Enable or disable adaptive sizing of the node table and operator caches. With adaptive sizing,
+   * the node table grows geometrically whenever garbage collections are frequent or expensive, and
+   * the operator caches are grown (up to a quarter of the node table) while their hit rate is low,
+   * and shrunk back towards the size set by {@link #setCacheRatio(int)} while it is high. The
+   * caches are only resized when the node table grows.
+   *
+   * <p>Not all factories support adaptive sizing; for those, this method has no effect.
+   *
+   * @return whether adaptive sizing was previously enabled
+   */
+  public boolean setAdaptiveSizing(boolean enabled) {
+    return false;
+  }
+
+  /** Node table, garbage collection, and operator cache statistics of a BDD factory. */
+  public static final class FactoryStats {
+    private final int _nodeTableSize;
+    private final int _freeNodes;
+    private final long _producedNodes;
+    private final int _gcCount;
+    private final long _gcTimeMillis;
+    private final int _nodeTableResizes;
+    private final int _cacheSize;
+    private final int _cacheRatio;
+    private final List<OperatorCacheStats> _operatorCacheStats;
+
+    public FactoryStats(
+        int nodeTableSize,
+        int freeNodes,
+        long producedNodes,
+        int gcCount,
+        long gcTimeMillis,
+        int nodeTableResizes,
+        int cacheSize,
+        int cacheRatio,
+        List<OperatorCacheStats> operatorCacheStats) {
+      _nodeTableSize = nodeTableSize;
+      _freeNodes = freeNodes;
+      _producedNodes = producedNodes;
+      _gcCount = gcCount;
+      _gcTimeMillis = gcTimeMillis;
+      _nodeTableResizes = nodeTableResizes;
+      _cacheSize = cacheSize;
+      _cacheRatio = cacheRatio;
+      _operatorCacheStats = operatorCacheStats;
+    }
+
+    /** The number of nodes in the node table. */
+    public int getNodeTableSize() {
+      return _nodeTableSize;
+    }
+
+    /** The number of unused nodes in the node table. */
+    public int getFreeNodes() {
+      return _freeNodes;
+    }
+
+    /** The number of nodes created since the factory was initialized. */
+    public long getProducedNodes() {
+      return _producedNodes;
+    }
+
+    /** The number of garbage collections since the factory was initialized. */
+    public int getGcCount() {
+      return _gcCount;
+    }
+
+    /** The total time spent in garbage collection, in milliseconds. */
+    public long getGcTimeMillis() {
+      return _gcTimeMillis;
+    }
+
+    /** The number of times the node table has grown since the factory was initialized. */
+    public int getNodeTableResizes() {
+      return _nodeTableResizes;
+    }
+
+    /** The number of entries in each operator cache. */
+    public int getCacheSize() {
+      return _cacheSize;
+    }
+
+    /** The ratio of node table size to operator cache size, or 0 if the caches have fixed size. */
+    public int getCacheRatio() {
+      return _cacheRatio;
+    }
+
+    /** Hit and miss counts of each operator cache, as in {@link #getOperatorCacheStats()}. */
+    public List<OperatorCacheStats> getOperatorCacheStats() {
+      return _operatorCacheStats;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(
+          String.format(
+              "nodes=%d free=%d produced=%d resizes=%d gcs=%d gcTime=%dms"
+                  + " cacheSize=%d cacheRatio=%d",
+              _nodeTableSize,
+              _freeNodes,
+              _producedNodes,
+              _nodeTableResizes,
+              _gcCount,
+              _gcTimeMillis,
+              _cacheSize,
+              _cacheRatio));
+      for (OperatorCacheStats stats : _operatorCacheStats) {
+        sb.append('\n').append(stats);
+      }
+      return sb.toString();
+    }
+  }
+
+  /**
+   * Return node table, garbage collection, and operator cache statistics of this factory. Factories
+   * that do not collect statistics report zeros.
+   */
+  public FactoryStats getFactoryStats() {
+    return new FactoryStats(0, 0, 0, 0, 0, 0, 0, 0, Collections.emptyList());
+  }
+
   // TODO: bdd_sizeprobe_hook
   // TODO: bdd_reorder_probe
 
@@ -33,6 +33,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -43,6 +44,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.StringTokenizer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This is a 100% Java implementation of the BDD factory. It is based on the C source code for
@@ -518,75 +520,97 @@ public final class JFactory extends BDDFactory {
     }
   }
 
-  private abstract static class BddCacheData {
-    int a, b, c;
+  /**
+   * An operator cache. Entries are stored as a structure of arrays: entry {@code i} is made up of
+   * {@code a[i]}, {@code b[i]}, {@code c[i]}, and either {@code res[i]}, {@code value[i]}, or
+   * {@code operands[i]}, depending on the kind of cache. Compared to an array of entry objects,
+   * this avoids a pointer dereference per lookup and keeps the cache out of the way of the garbage
+   * collector. An entry is unused if {@code a[i] == -1}.
+   *
+   * <p>The meaning of the fields depends on the cache:
+   *
+   * <ul>
+   *   <li>Int-valued caches: {@code a}, {@code b}, and {@code c} are the key and {@code res} is the
+   *       result.
+   *   <li>{@code countcache}: {@code a} is the node, {@code c} is the operator, and {@code value}
+   *       is the result.
+   *   <li>{@code multiopcache}: {@code a} is the operator, {@code operands} are the (sorted)
+   *       operands, and {@code b} is the result.
+   * </ul>
+   */
+  private static final class BddCache {
+    int[] a;
+    int[] b;
+    int[] c;
+    int[] res;
+    @Nullable BigInteger[] value;
+    @Nullable int[][] operands;
+    int tablesize;
 
-    abstract BddCacheData copy();
-  }
+    /** Number of lookups that found the result in the cache. */
+    long hits;
 
-  private static class BddCacheDataI extends BddCacheData {
-    int res;
+    /** Number of lookups that did not find the result in the cache. */
+    long misses;
 
-    @Override
-    BddCacheData copy() {
-      BddCacheDataI that = new BddCacheDataI();
-      that.a = this.a;
-      that.b = this.b;
-      that.c = this.c;
-      that.res = this.res;
-      return that;
+    private BddCache(int size, boolean hasValue, boolean hasOperands) {
+      allocate(size, hasValue, hasOperands);
     }
-  }
-
-  // a = index, c = operator, value = value.
-  private static class BigIntegerBddCacheData extends BddCacheData {
-    BigInteger value;
 
-    @Override
-    BddCacheData copy() {
-      BigIntegerBddCacheData that = new BigIntegerBddCacheData();
-      that.a = a;
-      that.b = b;
-      that.c = c;
-      that.value = value;
-      return that;
+    private void allocate(int size, boolean hasValue, boolean hasOperands) {
+      a = new int[size];
+      Arrays.fill(a, -1);
+      b = new int[size];
+      c = new int[size];
+      res = new int[size];
+      value = hasValue ? new BigInteger[size] : null;
+      operands = hasOperands ? new int[size][] : null;
+      tablesize = size;
     }
-  }
 
-  // a = operator, b = result, c = unused
-  private static class MultiOpBddCacheData extends BddCacheData {
-    int[] operands;
+    /** Replace the contents of this cache with {@code size} unused entries. */
+    void resize(int size) {
+      allocate(size, value != null, operands != null);
+    }
 
-    @Override
-    BddCacheData copy() {
-      MultiOpBddCacheData that = new MultiOpBddCacheData();
-      that.a = a;
-      that.b = b;
-      that.c = c;
-      that.operands = Arrays.copyOf(operands, operands.length);
-      return that;
+    /** Mark all entries unused. */
+    void reset() {
+      Arrays.fill(a, -1);
+      if (value != null) {
+        Arrays.fill(value, null);
+      }
+      if (operands != null) {
+        Arrays.fill(operands, null);
+      }
     }
-  }
 
-  private static class BddCache {
-    BddCacheData[] table;
-    int tablesize;
+    /** Mark entry {@code i} unused. */
+    void invalidate(int i) {
+      a[i] = -1;
+      if (value != null) {
+        value[i] = null;
+      }
+      if (operands != null) {
+        operands[i] = null;
+      }
+    }
 
     BddCache copy() {
-      BddCache that = new BddCache();
-      if (this.table instanceof BddCacheDataI[]) {
-        that.table = new BddCacheDataI[this.table.length];
-      } else if (this.table instanceof BigIntegerBddCacheData[]) {
-        that.table = new BigIntegerBddCacheData[this.table.length];
-      } else if (this.table instanceof MultiOpBddCacheData[]) {
-        that.table = new MultiOpBddCacheData[this.table.length];
-      } else {
-        throw new IllegalStateException("Unexpected BddCache type");
-      }
-      that.tablesize = this.tablesize;
-      for (int i = 0; i < table.length; ++i) {
-        that.table[i] = this.table[i].copy();
+      BddCache that = new BddCache(tablesize, value != null, operands != null);
+      System.arraycopy(a, 0, that.a, 0, tablesize);
+      System.arraycopy(b, 0, that.b, 0, tablesize);
+      System.arraycopy(c, 0, that.c, 0, tablesize);
+      System.arraycopy(res, 0, that.res, 0, tablesize);
+      if (value != null) {
+        System.arraycopy(value, 0, that.value, 0, tablesize);
+      }
+      if (operands != null) {
+        for (int i = 0; i < tablesize; ++i) {
+          that.operands[i] = operands[i] == null ? null : operands[i].clone();
+        }
       }
+      that.hits = hits;
+      that.misses = misses;
       return that;
     }
 
@@ -597,7 +621,7 @@ public final class JFactory extends BDDFactory {
      */
     private int used() {
       // Array lengths in Java must be representable by a signed int.
-      return (int) Arrays.stream(table).filter(e -> e.a != -1).count();
+      return (int) Arrays.stream(a).filter(e -> e != -1).count();
     }
   }
 
@@ -636,6 +660,31 @@ public final class JFactory extends BDDFactory {
 
   private int minfreenodes = 20;
 
+  /*=== ADAPTIVE SIZING ==================================================*/
+
+  /*
+   * With adaptive sizing, the node table also grows when garbage collection has taken more than
+   * this percentage of the time since the table was last resized.
+   */
+  private static final int ADAPTIVE_MAX_GC_TIME_PERCENT = 20;
+
+  /* Operator cache hit rates below this make adaptive sizing double the caches. */
+  private static final double ADAPTIVE_LOW_HIT_RATE = 0.25;
+
+  /* Operator cache hit rates above this make adaptive sizing halve caches it previously grew. */
+  private static final double ADAPTIVE_HIGH_HIT_RATE = 0.75;
+
+  /* Adaptive sizing never makes the caches larger than bddnodesize / ADAPTIVE_MIN_CACHE_RATIO. */
+  private static final int ADAPTIVE_MIN_CACHE_RATIO = 4;
+
+  private boolean adaptivesizing; /* Whether to size tables adaptively */
+  private int maxcacheratio; /* Cache ratio set by the user, an upper bound for adaptive sizing */
+  private int bddresizenum; /* Number of node table resizes */
+  private long resizeclock; /* Time of the last node table resize */
+  private long resizegbcclock; /* Value of gbcclock at the last node table resize */
+  private long cachehitsmark; /* Operator cache hits at the last cache rebalance */
+  private long cachemissesmark; /* Operator cache misses at the last cache rebalance */
+
   /*=== PRIVATE KERNEL VARIABLES =========================================*/
 
   private int[] bddvarset; /* Set of defined BDD variables */
@@ -999,7 +1048,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int not_rec(int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISZERO(r)) {
@@ -1008,29 +1057,25 @@ public final class JFactory extends BDDFactory {
       return BDDZERO;
     }
 
-    entry = BddCache_lookupI(applycache, NOTHASH(r));
+    entry = BddCache_lookup(applycache, NOTHASH(r));
 
-    if (entry.a == r && entry.c == bddop_not) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[entry] == r && applycache.c[entry] == bddop_not) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     PUSHREF(not_rec(LOW(r)));
     PUSHREF(not_rec(HIGH(r)));
     res = bdd_makenode(LEVEL(r), READREF(2), READREF(1));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = bddop_not;
-    entry.res = res;
+    applycache.a[entry] = r;
+    applycache.c[entry] = bddop_not;
+    applycache.res[entry] = res;
 
     return res;
   }
@@ -1075,7 +1120,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int ite_rec(int f, int g, int h) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISONE(f)) {
@@ -1102,16 +1147,13 @@ public final class JFactory extends BDDFactory {
     //
     // The only possible collision is apply(l, r, bddop_and) and ite(l, r, 0==BDDZERO).
     // Fortuitously, these are logically equivalent -- if f then g else false === f and g.
-    entry = BddCache_lookupI(applycache, APPLYHASH(f, g, -h));
-    if (entry.a == f && entry.b == g && entry.c == -h) { // To explain -h, see caching note above.
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(applycache, APPLYHASH(f, g, -h));
+    // To explain -h, see caching note above.
+    if (applycache.a[entry] == f && applycache.b[entry] == g && applycache.c[entry] == -h) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     if (LEVEL(f) == LEVEL(g)) {
       if (LEVEL(f) == LEVEL(h)) {
@@ -1159,13 +1201,13 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = f;
-    entry.b = g;
-    entry.c = -h; // To explain -h, see caching note above.
-    entry.res = res;
+    applycache.a[entry] = f;
+    applycache.b[entry] = g;
+    applycache.c[entry] = -h; // To explain -h, see caching note above.
+    applycache.res[entry] = res;
 
     return res;
   }
@@ -1211,23 +1253,19 @@ public final class JFactory extends BDDFactory {
   }
 
   private int replace_rec(int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISCONST(r) || LEVEL(r) > replacelast) {
       return r;
     }
 
-    entry = BddCache_lookupI(replacecache, REPLACEHASH(replaceid, r));
-    if (entry.a == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(replacecache, REPLACEHASH(replaceid, r));
+    if (replacecache.a[entry] == r && replacecache.c[entry] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[entry];
     }
+    replacecache.misses++;
 
     PUSHREF(replace_rec(LOW(r)));
     PUSHREF(replace_rec(HIGH(r)));
@@ -1249,12 +1287,12 @@ public final class JFactory extends BDDFactory {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && replacecache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = replaceid;
-    entry.res = res;
+    replacecache.a[entry] = r;
+    replacecache.c[entry] = replaceid;
+    replacecache.res[entry] = res;
 
     return res;
   }
@@ -1282,16 +1320,14 @@ public final class JFactory extends BDDFactory {
       return 0;
     }
 
-    BddCacheDataI entry = BddCache_lookupI(replacecache, CORRECTIFYHASH(replaceid, l, r));
-    if (entry.a == l && entry.b == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int entry = BddCache_lookup(replacecache, CORRECTIFYHASH(replaceid, l, r));
+    if (replacecache.a[entry] == l
+        && replacecache.b[entry] == r
+        && replacecache.c[entry] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[entry];
     }
+    replacecache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(bdd_correctify(level, LOW(l), LOW(r)));
@@ -1308,13 +1344,13 @@ public final class JFactory extends BDDFactory {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && replacecache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = replaceid;
-    entry.res = res;
+    replacecache.a[entry] = l;
+    replacecache.b[entry] = r;
+    replacecache.c[entry] = replaceid;
+    replacecache.res[entry] = res;
 
     return res;
   }
@@ -1376,7 +1412,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int apply_rec(int l, int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (VERIFY_ASSERTIONS) {
@@ -1522,17 +1558,13 @@ public final class JFactory extends BDDFactory {
         break;
     }
 
-    entry = BddCache_lookupI(applycache, APPLYHASH(l, r, applyop));
+    entry = BddCache_lookup(applycache, APPLYHASH(l, r, applyop));
 
-    if (entry.a == l && entry.b == r && entry.c == applyop) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[entry] == l && applycache.b[entry] == r && applycache.c[entry] == applyop) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(apply_rec(LOW(l), LOW(r)));
@@ -1550,19 +1582,19 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = applyop;
-    entry.res = res;
+    applycache.a[entry] = l;
+    applycache.b[entry] = r;
+    applycache.c[entry] = applyop;
+    applycache.res[entry] = res;
 
     return res;
   }
 
   private int and_rec(int l, int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (l == r) {
@@ -1579,17 +1611,13 @@ public final class JFactory extends BDDFactory {
       l = r;
       r = t;
     }
-    entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_and));
+    entry = BddCache_lookup(applycache, APPLYHASH(l, r, bddop_and));
 
-    if (entry.a == l && entry.b == r && entry.c == bddop_and) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[entry] == l && applycache.b[entry] == r && applycache.c[entry] == bddop_and) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(and_rec(LOW(l), LOW(r)));
@@ -1607,13 +1635,13 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_and;
-    entry.res = res;
+    applycache.a[entry] = l;
+    applycache.b[entry] = r;
+    applycache.c[entry] = bddop_and;
+    applycache.res[entry] = res;
 
     return res;
   }
@@ -1657,17 +1685,13 @@ public final class JFactory extends BDDFactory {
     Arrays.sort(operands);
     operands = dedupSorted(operands);
 
-    MultiOpBddCacheData entry =
-        BddCache_lookupMultiOp(multiopcache, MULTIOPHASH(operands, bddop_or));
-    if (entry.a == bddop_or && Arrays.equals(operands, entry.operands)) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.b;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    int entry = BddCache_lookup(multiopcache, MULTIOPHASH(operands, bddop_or));
+    if (multiopcache.a[entry] == bddop_or
+        && Arrays.equals(operands, multiopcache.operands[entry])) {
+      multiopcache.hits++;
+      return multiopcache.b[entry];
     }
+    multiopcache.misses++;
 
     /* Compute the result in a way that generalizes or_rec. Identify the variable to branch on, and
      * make two recursive calls (for when that variable is high or low).
@@ -1781,17 +1805,17 @@ public final class JFactory extends BDDFactory {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && multiopcache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = bddop_or;
-    entry.b = res;
-    entry.operands = operands;
+    multiopcache.a[entry] = bddop_or;
+    multiopcache.b[entry] = res;
+    multiopcache.operands[entry] = operands;
     return res;
   }
 
   private int or_rec(int l, int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (l == r) {
@@ -1808,17 +1832,13 @@ public final class JFactory extends BDDFactory {
       l = r;
       r = t;
     }
-    entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_or));
+    entry = BddCache_lookup(applycache, APPLYHASH(l, r, bddop_or));
 
-    if (entry.a == l && entry.b == r && entry.c == bddop_or) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[entry] == l && applycache.b[entry] == r && applycache.c[entry] == bddop_or) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     if (LEVEL(l) == LEVEL(r)) {
       PUSHREF(or_rec(LOW(l), LOW(r)));
@@ -1836,19 +1856,19 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = l;
-    entry.b = r;
-    entry.c = bddop_or;
-    entry.res = res;
+    applycache.a[entry] = l;
+    applycache.b[entry] = r;
+    applycache.c[entry] = bddop_or;
+    applycache.res[entry] = res;
 
     return res;
   }
 
   private int relprod_rec(int l, int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (l == BDDZERO || r == BDDZERO) {
@@ -1868,16 +1888,12 @@ public final class JFactory extends BDDFactory {
       res = and_rec(l, r);
       applyop = bddop_or;
     } else {
-      entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, bddop_and));
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      entry = BddCache_lookup(appexcache, APPEXHASH(l, r, bddop_and));
+      if (appexcache.a[entry] == l && appexcache.b[entry] == r && appexcache.c[entry] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[entry];
       }
+      appexcache.misses++;
 
       if (LEVEL_l == LEVEL_r) {
         PUSHREF(relprod_rec(LOW(l), LOW(r)));
@@ -1907,13 +1923,13 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
+      if (CACHESTATS && appexcache.a[entry] != -1) {
         cachestats.opOverwrite++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
+      appexcache.a[entry] = l;
+      appexcache.b[entry] = r;
+      appexcache.c[entry] = appexid;
+      appexcache.res[entry] = res;
     }
 
     return res;
@@ -2050,7 +2066,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int appquant_rec(int l, int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (VERIFY_ASSERTIONS) {
@@ -2108,16 +2124,12 @@ public final class JFactory extends BDDFactory {
       }
       applyop = oldop;
     } else {
-      entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, appexop));
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      entry = BddCache_lookup(appexcache, APPEXHASH(l, r, appexop));
+      if (appexcache.a[entry] == l && appexcache.b[entry] == r && appexcache.c[entry] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[entry];
       }
+      appexcache.misses++;
 
       int lev;
       if (LEVEL(l) == LEVEL(r)) {
@@ -2152,20 +2164,20 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
+      if (CACHESTATS && appexcache.a[entry] != -1) {
         cachestats.opOverwrite++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
+      appexcache.a[entry] = l;
+      appexcache.b[entry] = r;
+      appexcache.c[entry] = appexid;
+      appexcache.res[entry] = res;
     }
 
     return res;
   }
 
   private int appuni_rec(int l, int r, int var) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     int LEVEL_l, LEVEL_r, LEVEL_var;
@@ -2196,16 +2208,12 @@ public final class JFactory extends BDDFactory {
       }
       applyop = oldop;
     } else {
-      entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, appexop));
-      if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
-        }
-        return entry.res;
-      }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      entry = BddCache_lookup(appexcache, APPEXHASH(l, r, appexop));
+      if (appexcache.a[entry] == l && appexcache.b[entry] == r && appexcache.c[entry] == appexid) {
+        appexcache.hits++;
+        return appexcache.res[entry];
       }
+      appexcache.misses++;
 
       int lev;
       if (LEVEL_l == LEVEL_r) {
@@ -2256,20 +2264,20 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
+      if (CACHESTATS && appexcache.a[entry] != -1) {
         cachestats.opOverwrite++;
       }
-      entry.a = l;
-      entry.b = r;
-      entry.c = appexid;
-      entry.res = res;
+      appexcache.a[entry] = l;
+      appexcache.b[entry] = r;
+      appexcache.c[entry] = appexid;
+      appexcache.res[entry] = res;
     }
 
     return res;
   }
 
   private int unique_rec(int r, int q) {
-    BddCacheDataI entry;
+    int entry;
     int res;
     int LEVEL_r, LEVEL_q;
 
@@ -2284,16 +2292,12 @@ public final class JFactory extends BDDFactory {
       return r;
     }
 
-    entry = BddCache_lookupI(quantcache, QUANTHASH(r));
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(quantcache, QUANTHASH(r));
+    if (quantcache.a[entry] == r && quantcache.c[entry] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[entry];
     }
+    quantcache.misses++;
 
     if (LEVEL_r == LEVEL_q) {
       PUSHREF(unique_rec(LOW(r), HIGH(q)));
@@ -2307,34 +2311,30 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && quantcache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
+    quantcache.a[entry] = r;
+    quantcache.c[entry] = quantid;
+    quantcache.res[entry] = res;
 
     return res;
   }
 
   private int quant_rec(int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (r < 2 || LEVEL(r) > quantlast) {
       return r;
     }
 
-    entry = BddCache_lookupI(quantcache, QUANTHASH(r));
-    if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(quantcache, QUANTHASH(r));
+    if (quantcache.a[entry] == r && quantcache.c[entry] == quantid) {
+      quantcache.hits++;
+      return quantcache.res[entry];
     }
+    quantcache.misses++;
 
     PUSHREF(quant_rec(LOW(r)));
     PUSHREF(quant_rec(HIGH(r)));
@@ -2358,12 +2358,12 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && quantcache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = quantid;
-    entry.res = res;
+    quantcache.a[entry] = r;
+    quantcache.c[entry] = quantid;
+    quantcache.res[entry] = res;
 
     return res;
   }
@@ -2408,7 +2408,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int constrain_rec(int f, int c) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISONE(c)) {
@@ -2421,16 +2421,12 @@ public final class JFactory extends BDDFactory {
       return BDDZERO;
     }
 
-    entry = BddCache_lookupI(misccache, CONSTRAINHASH(f, c));
-    if (entry.a == f && entry.b == c && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(misccache, CONSTRAINHASH(f, c));
+    if (misccache.a[entry] == f && misccache.b[entry] == c && misccache.c[entry] == miscid) {
+      misccache.hits++;
+      return misccache.res[entry];
     }
+    misccache.misses++;
 
     if (LEVEL(f) == LEVEL(c)) {
       if (ISZERO(LOW(c))) {
@@ -2461,13 +2457,13 @@ public final class JFactory extends BDDFactory {
       }
     }
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && misccache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = f;
-    entry.b = c;
-    entry.c = miscid;
-    entry.res = res;
+    misccache.a[entry] = f;
+    misccache.b[entry] = c;
+    misccache.c[entry] = miscid;
+    misccache.res[entry] = res;
 
     return res;
   }
@@ -2523,23 +2519,21 @@ public final class JFactory extends BDDFactory {
   }
 
   private int compose_rec(int f, int g) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (LEVEL(f) > composelevel) {
       return f;
     }
 
-    entry = BddCache_lookupI(replacecache, COMPOSEHASH(replaceid, f, g));
-    if (entry.a == f && entry.b == g && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(replacecache, COMPOSEHASH(replaceid, f, g));
+    if (replacecache.a[entry] == f
+        && replacecache.b[entry] == g
+        && replacecache.c[entry] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[entry];
     }
+    replacecache.misses++;
 
     if (LEVEL(f) < composelevel) {
       if (LEVEL(f) == LEVEL(g)) {
@@ -2561,13 +2555,13 @@ public final class JFactory extends BDDFactory {
       res = ite_rec(g, HIGH(f), LOW(f));
     }
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && replacecache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = f;
-    entry.b = g;
-    entry.c = replaceid;
-    entry.res = res;
+    replacecache.a[entry] = f;
+    replacecache.b[entry] = g;
+    replacecache.c[entry] = replaceid;
+    replacecache.res[entry] = res;
 
     return res;
   }
@@ -2616,35 +2610,31 @@ public final class JFactory extends BDDFactory {
   }
 
   private int veccompose_rec(int f) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (LEVEL(f) > replacelast) {
       return f;
     }
 
-    entry = BddCache_lookupI(replacecache, VECCOMPOSEHASH(replaceid, f));
-    if (entry.a == f && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(replacecache, VECCOMPOSEHASH(replaceid, f));
+    if (replacecache.a[entry] == f && replacecache.c[entry] == replaceid) {
+      replacecache.hits++;
+      return replacecache.res[entry];
     }
+    replacecache.misses++;
 
     PUSHREF(veccompose_rec(LOW(f)));
     PUSHREF(veccompose_rec(HIGH(f)));
     res = ite_rec(replacepair[LEVEL(f)], READREF(1), READREF(2));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && replacecache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = f;
-    entry.c = replaceid;
-    entry.res = res;
+    replacecache.a[entry] = f;
+    replacecache.c[entry] = replaceid;
+    replacecache.res[entry] = res;
 
     return res;
   }
@@ -2844,23 +2834,19 @@ public final class JFactory extends BDDFactory {
   }
 
   private int restrict_rec(int r) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISCONST(r) || LEVEL(r) > quantlast) {
       return r;
     }
 
-    entry = BddCache_lookupI(misccache, RESTRHASH(r, miscid));
-    if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    entry = BddCache_lookup(misccache, RESTRHASH(r, miscid));
+    if (misccache.a[entry] == r && misccache.c[entry] == miscid) {
+      misccache.hits++;
+      return misccache.res[entry];
     }
+    misccache.misses++;
 
     if (INSVARSET(LEVEL(r))) {
       if (quantvarset[LEVEL(r)] > 0) {
@@ -2875,12 +2861,12 @@ public final class JFactory extends BDDFactory {
       POPREF(2);
     }
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && misccache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = miscid;
-    entry.res = res;
+    misccache.a[entry] = r;
+    misccache.c[entry] = miscid;
+    misccache.res[entry] = res;
 
     return res;
   }
@@ -2925,7 +2911,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int simplify_rec(int f, int d) {
-    BddCacheDataI entry;
+    int entry;
     int res;
 
     if (ISONE(d) || ISCONST(f)) {
@@ -2936,17 +2922,15 @@ public final class JFactory extends BDDFactory {
       return BDDZERO;
     }
 
-    entry = BddCache_lookupI(applycache, APPLYHASH(f, d, bddop_simplify));
+    entry = BddCache_lookup(applycache, APPLYHASH(f, d, bddop_simplify));
 
-    if (entry.a == f && entry.b == d && entry.c == bddop_simplify) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.res;
-    }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (applycache.a[entry] == f
+        && applycache.b[entry] == d
+        && applycache.c[entry] == bddop_simplify) {
+      applycache.hits++;
+      return applycache.res[entry];
     }
+    applycache.misses++;
 
     if (LEVEL(f) == LEVEL(d)) {
       if (ISZERO(LOW(d))) {
@@ -2970,13 +2954,13 @@ public final class JFactory extends BDDFactory {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && applycache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = f;
-    entry.b = d;
-    entry.c = bddop_simplify;
-    entry.res = res;
+    applycache.a[entry] = f;
+    applycache.b[entry] = d;
+    applycache.c[entry] = bddop_simplify;
+    applycache.res[entry] = res;
 
     return res;
   }
@@ -3438,25 +3422,21 @@ public final class JFactory extends BDDFactory {
       return BigInteger.ONE;
     }
 
-    BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, PATHCOUHASH(r, miscid));
-    if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.value;
+    int entry = BddCache_lookup(countcache, PATHCOUHASH(r, miscid));
+    if (countcache.a[entry] == r && countcache.c[entry] == miscid) {
+      countcache.hits++;
+      return countcache.value[entry];
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
-    }
+    countcache.misses++;
     BigInteger size = bdd_pathcount_rec(LOW(r)).add(bdd_pathcount_rec(HIGH(r)));
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && countcache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = r;
-    entry.c = miscid;
-    entry.value = size;
+    countcache.a[entry] = r;
+    countcache.c[entry] = miscid;
+    countcache.value[entry] = size;
 
     return size;
   }
@@ -3479,17 +3459,13 @@ public final class JFactory extends BDDFactory {
       return BigInteger.ONE;
     }
 
-    BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, SATCOUHASH(root, miscid));
-    if (entry.a == root && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
-      }
-      return entry.value;
+    int entry = BddCache_lookup(countcache, SATCOUHASH(root, miscid));
+    if (countcache.a[entry] == root && countcache.c[entry] == miscid) {
+      countcache.hits++;
+      return countcache.value[entry];
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
-    }
+    countcache.misses++;
 
     int low = LOW(root);
     int high = HIGH(root);
@@ -3498,12 +3474,12 @@ public final class JFactory extends BDDFactory {
             .shiftLeft(LEVEL(low) - LEVEL(root) - 1)
             .add(satcount_rec(high).shiftLeft(LEVEL(high) - LEVEL(root) - 1));
 
-    if (CACHESTATS && entry.a != -1) {
+    if (CACHESTATS && countcache.a[entry] != -1) {
       cachestats.opOverwrite++;
     }
-    entry.a = root;
-    entry.c = miscid;
-    entry.value = size;
+    countcache.a[entry] = root;
+    countcache.c[entry] = miscid;
+    countcache.value[entry] = size;
 
     return size;
   }
@@ -3568,6 +3544,10 @@ public final class JFactory extends BDDFactory {
     gbcclock += c2 - c1;
     gbcollectnum++;
 
+    if (adaptivesizing) {
+      adaptive_rebalancecaches();
+    }
+
     // if (gbc_handler != NULL)
     {
       gcstats.nodes = bddnodesize;
@@ -3581,6 +3561,76 @@ public final class JFactory extends BDDFactory {
     // validate_all();
   }
 
+  /**
+   * Whether the node table should grow after a garbage collection that freed more than
+   * minfreenodes percent of it. Collections are expensive, so the table grows if they have taken a
+   * large fraction of the time since the table last grew. (Collections that free little already
+   * make the table grow, as set by {@link #setMinFreeNodes(double)}.)
+   */
+  private boolean adaptive_shouldgrow() {
+    long elapsed = System.currentTimeMillis() - resizeclock;
+    long gctime = gbcclock - resizegbcclock;
+    return elapsed > 0 && gctime * 100 > elapsed * ADAPTIVE_MAX_GC_TIME_PERCENT;
+  }
+
+  /**
+   * Adjust the cache ratio based on the operator cache hit rate since the last call. Caches are
+   * doubled while the hit rate is low, and halved again (but never below the size chosen with
+   * {@link #setCacheRatio(int)}) while it is high. Resizing a cache empties it, so the new ratio
+   * only takes effect when the node table next grows, which resizes the caches anyway.
+   */
+  private void adaptive_rebalancecaches() {
+    if (cacheratio <= 0) {
+      return;
+    }
+    long hits = 0;
+    long misses = 0;
+    for (BddCache cache : operatorCaches()) {
+      if (cache != null) {
+        hits += cache.hits;
+        misses += cache.misses;
+      }
+    }
+    long windowhits = hits - cachehitsmark;
+    long windowlookups = windowhits + misses - cachemissesmark;
+    if (windowlookups < cachesize) {
+      // too few lookups to judge the hit rate
+      return;
+    }
+    cachehitsmark = hits;
+    cachemissesmark = misses;
+
+    double hitrate = (double) windowhits / windowlookups;
+    int newratio = cacheratio;
+    if (hitrate < ADAPTIVE_LOW_HIT_RATE) {
+      newratio = Math.max(ADAPTIVE_MIN_CACHE_RATIO, cacheratio / 2);
+    } else if (hitrate > ADAPTIVE_HIGH_HIT_RATE) {
+      newratio = Math.min(maxcacheratio, cacheratio * 2);
+    }
+    cacheratio = newratio;
+  }
+
+  @Override
+  public boolean setAdaptiveSizing(boolean enabled) {
+    boolean old = adaptivesizing;
+    adaptivesizing = enabled;
+    return old;
+  }
+
+  @Override
+  public FactoryStats getFactoryStats() {
+    return new FactoryStats(
+        bddnodesize,
+        bddfreenum,
+        bddproduced,
+        gbcollectnum,
+        gbcclock,
+        bddresizenum,
+        cachesize,
+        cacheratio,
+        getOperatorCacheStats());
+  }
+
   private int bdd_addref(int root) {
     if (root == INVALID_BDD) {
       bdd_error(BDD_BREAK); /* distinctive */
@@ -3721,7 +3771,8 @@ public final class JFactory extends BDDFactory {
         throw new ReorderException();
       }
 
-      if ((bddfreenum * 100) / bddnodesize <= minfreenodes) {
+      if ((bddfreenum * 100) / bddnodesize <= minfreenodes
+          || (adaptivesizing && adaptive_shouldgrow())) {
         bdd_noderesize(true);
         hash2 = NODEHASH(level, low, high);
       }
@@ -3767,7 +3818,9 @@ public final class JFactory extends BDDFactory {
       newsize = newsize << 1;
     }
 
-    if (bddmaxnodeincrease > 0) {
+    // Adaptive sizing grows the table geometrically, so the number of resizes (and collections
+    // that precede them) is logarithmic in the final size.
+    if (bddmaxnodeincrease > 0 && !adaptivesizing) {
       if (newsize > oldsize + bddmaxnodeincrease) {
         newsize = oldsize + bddmaxnodeincrease;
       }
@@ -3828,6 +3881,9 @@ public final class JFactory extends BDDFactory {
     }
 
     bddresized = true;
+    bddresizenum++;
+    resizeclock = System.currentTimeMillis();
+    resizegbcclock = gbcclock;
 
     return 0;
   }
@@ -3870,6 +3926,9 @@ public final class JFactory extends BDDFactory {
     bddvarnum = 0;
     gbcollectnum = 0;
     gbcclock = 0;
+    bddresizenum = 0;
+    resizeclock = System.currentTimeMillis();
+    resizegbcclock = 0;
     cachesize = cs;
     usednodes_nextreorder = bddnodesize;
     bddmaxnodeincrease = DEFAULTMAXNODEINC;
@@ -4057,52 +4116,15 @@ public final class JFactory extends BDDFactory {
   }
 
   private BddCache BddCacheI_init(int size) {
-    int n;
-
-    size = bdd_prime_gte(size);
-
-    BddCache cache = new BddCache();
-    cache.table = new BddCacheDataI[size];
-
-    for (n = 0; n < size; n++) {
-      cache.table[n] = new BddCacheDataI();
-      cache.table[n].a = -1;
-    }
-    cache.tablesize = size;
-
-    return cache;
+    return new BddCache(bdd_prime_gte(size), false, false);
   }
 
   private BddCache BddCacheMultiOp_init(int size) {
-    int n;
-
-    size = bdd_prime_gte(size);
-
-    BddCache cache = new BddCache();
-    cache.table = new MultiOpBddCacheData[size];
-
-    for (n = 0; n < size; n++) {
-      cache.table[n] = new MultiOpBddCacheData();
-      cache.table[n].a = -1;
-    }
-    cache.tablesize = size;
-
-    return cache;
+    return new BddCache(bdd_prime_gte(size), false, true);
   }
 
   private BddCache BddCacheBigInteger_init(int size) {
-    size = bdd_prime_gte(size);
-
-    BddCache cache = new BddCache();
-    cache.table = new BigIntegerBddCacheData[size];
-
-    for (int n = 0; n < size; n++) {
-      cache.table[n] = new BigIntegerBddCacheData();
-      cache.table[n].a = -1;
-    }
-    cache.tablesize = size;
-
-    return cache;
+    return new BddCache(bdd_prime_gte(size), true, false);
   }
 
   private static void BddCache_done(BddCache cache) {
@@ -4110,7 +4132,12 @@ public final class JFactory extends BDDFactory {
       return;
     }
 
-    cache.table = null;
+    cache.a = null;
+    cache.b = null;
+    cache.c = null;
+    cache.res = null;
+    cache.value = null;
+    cache.operands = null;
     cache.tablesize = 0;
   }
 
@@ -4139,6 +4166,56 @@ public final class JFactory extends BDDFactory {
     }
   }
 
+  /** All operator caches, some of which may not have been initialized yet. */
+  private BddCache[] operatorCaches() {
+    return new BddCache[] {
+      applycache, quantcache, appexcache, replacecache, misccache, multiopcache, countcache
+    };
+  }
+
+  /**
+   * Return the current cache statistics. The operator hit and miss counts are those of {@link
+   * #getOperatorCacheStats()}, summed over all operator caches.
+   */
+  @Override
+  public CacheStats getCacheStats() {
+    long hits = 0;
+    long misses = 0;
+    for (BddCache cache : operatorCaches()) {
+      if (cache != null) {
+        hits += cache.hits;
+        misses += cache.misses;
+      }
+    }
+    cachestats.opHit = (int) Math.min(hits, Integer.MAX_VALUE);
+    cachestats.opMiss = (int) Math.min(misses, Integer.MAX_VALUE);
+    return cachestats;
+  }
+
+  @Override
+  public List<OperatorCacheStats> getOperatorCacheStats() {
+    List<OperatorCacheStats> stats = new ArrayList<>();
+    for (BddCache cache : operatorCaches()) {
+      if (cache != null) {
+        stats.add(
+            new OperatorCacheStats(getCacheName(cache), cache.tablesize, cache.hits, cache.misses));
+      }
+    }
+    return stats;
+  }
+
+  @Override
+  public void resetOperatorCacheStats() {
+    for (BddCache cache : operatorCaches()) {
+      if (cache != null) {
+        cache.hits = 0;
+        cache.misses = 0;
+      }
+    }
+    cachehitsmark = 0;
+    cachemissesmark = 0;
+  }
+
   private int BddCache_resize(BddCache cache, int newsize) {
     if (cache == null) {
       return 0;
@@ -4147,48 +4224,17 @@ public final class JFactory extends BDDFactory {
     if (CACHESTATS) {
       System.err.printf(
           "Cache %s resize: %d/%d slots used%n",
-          getCacheName(cache), cache.used(), cache.table.length);
+          getCacheName(cache), cache.used(), cache.tablesize);
     }
 
-    newsize = bdd_prime_gte(newsize);
-
-    if (cache.table instanceof BddCacheDataI[]) {
-      cache.table = new BddCacheDataI[newsize];
-    } else if (cache.table instanceof BigIntegerBddCacheData[]) {
-      cache.table = new BigIntegerBddCacheData[newsize];
-    } else if (cache.table instanceof MultiOpBddCacheData[]) {
-      cache.table = new MultiOpBddCacheData[newsize];
-    } else {
-      throw new IllegalStateException("unknown cache table type");
-    }
-
-    for (int n = 0; n < newsize; n++) {
-      if (cache.table instanceof BddCacheDataI[]) {
-        cache.table[n] = new BddCacheDataI();
-      } else if (cache.table instanceof BigIntegerBddCacheData[]) {
-        cache.table[n] = new BigIntegerBddCacheData();
-      } else if (cache.table instanceof MultiOpBddCacheData[]) {
-        cache.table[n] = new MultiOpBddCacheData();
-      } else {
-        throw new IllegalStateException("unknown cache table type");
-      }
-      cache.table[n].a = -1;
-    }
-    cache.tablesize = newsize;
+    cache.resize(bdd_prime_gte(newsize));
 
     return 0;
   }
 
-  private static BddCacheDataI BddCache_lookupI(BddCache cache, int hash) {
-    return (BddCacheDataI) cache.table[Math.abs(hash % cache.tablesize)];
-  }
-
-  private static BigIntegerBddCacheData BddCache_lookupBigInteger(BddCache cache, int hash) {
-    return (BigIntegerBddCacheData) cache.table[Math.abs(hash % cache.tablesize)];
-  }
-
-  private static MultiOpBddCacheData BddCache_lookupMultiOp(BddCache cache, int hash) {
-    return (MultiOpBddCacheData) cache.table[Math.abs(hash % cache.tablesize)];
+  /** Returns the index of the entry for {@code hash} in {@code cache}. */
+  private static int BddCache_lookup(BddCache cache, int hash) {
+    return Math.abs(hash % cache.tablesize);
   }
 
   private void BddCache_reset(BddCache cache) {
@@ -4198,13 +4244,10 @@ public final class JFactory extends BDDFactory {
     if (CACHESTATS) {
       System.err.printf(
           "Cache %s reset: %d/%d slots used%n",
-          getCacheName(cache), cache.used(), cache.table.length);
+          getCacheName(cache), cache.used(), cache.tablesize);
     }
 
-    int n;
-    for (n = 0; n < cache.tablesize; n++) {
-      cache.table[n].a = -1;
-    }
+    cache.reset();
   }
 
   private void BddCache_clean_d(BddCache cache) {
@@ -4213,9 +4256,9 @@ public final class JFactory extends BDDFactory {
     }
     int n;
     for (n = 0; n < cache.tablesize; n++) {
-      int a = cache.table[n].a;
+      int a = cache.a[n];
       if (a >= 0 && LOW(a) == INVALID_BDD) {
-        cache.table[n].a = -1;
+        cache.invalidate(n);
       }
     }
   }
@@ -4226,12 +4269,12 @@ public final class JFactory extends BDDFactory {
     }
     int n;
     for (n = 0; n < cache.tablesize; n++) {
-      int a = cache.table[n].a;
+      int a = cache.a[n];
       if (a < 0) {
         continue;
       }
-      if (LOW(a) == INVALID_BDD || LOW(((BddCacheDataI) cache.table[n]).res) == INVALID_BDD) {
-        cache.table[n].a = -1;
+      if (LOW(a) == INVALID_BDD || LOW(cache.res[n]) == INVALID_BDD) {
+        cache.invalidate(n);
       }
     }
   }
@@ -4242,14 +4285,14 @@ public final class JFactory extends BDDFactory {
     }
     int n;
     for (n = 0; n < cache.tablesize; n++) {
-      int a = cache.table[n].a;
+      int a = cache.a[n];
       if (a < 0) {
         continue;
       }
       if (LOW(a) == INVALID_BDD
-          || (cache.table[n].b != 0 && LOW(cache.table[n].b) == INVALID_BDD)
-          || LOW(((BddCacheDataI) cache.table[n]).res) == INVALID_BDD) {
-        cache.table[n].a = -1;
+          || (cache.b[n] != 0 && LOW(cache.b[n]) == INVALID_BDD)
+          || LOW(cache.res[n]) == INVALID_BDD) {
+        cache.invalidate(n);
       }
     }
   }
@@ -4260,15 +4303,15 @@ public final class JFactory extends BDDFactory {
     }
     int n;
     for (n = 0; n < cache.tablesize; n++) {
-      int a = cache.table[n].a;
+      int a = cache.a[n];
       if (a < 0) {
         continue;
       }
       if (LOW(a) == -1
-          || LOW(cache.table[n].b) == INVALID_BDD
-          || LOW(cache.table[n].c) == INVALID_BDD
-          || LOW(((BddCacheDataI) cache.table[n]).res) == INVALID_BDD) {
-        cache.table[n].a = -1;
+          || LOW(cache.b[n]) == INVALID_BDD
+          || LOW(cache.c[n]) == INVALID_BDD
+          || LOW(cache.res[n]) == INVALID_BDD) {
+        cache.invalidate(n);
       }
     }
   }
@@ -5583,6 +5626,7 @@ public final class JFactory extends BDDFactory {
     }
 
     cacheratio = r;
+    maxcacheratio = r;
     bdd_operator_noderesize();
     return old;
   }
@@ -7269,7 +7313,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private void bdd_fprintstat(PrintStream out) {
-    CacheStats s = cachestats;
+    CacheStats s = getCacheStats();
     out.print(s.toString());
   }
 
@@ -7518,6 +7562,13 @@ public final class JFactory extends BDDFactory {
     INSTANCE.bddrefstacktop = this.bddrefstacktop;
     INSTANCE.bddresized = this.bddresized;
     INSTANCE.minfreenodes = this.minfreenodes;
+    INSTANCE.adaptivesizing = this.adaptivesizing;
+    INSTANCE.maxcacheratio = this.maxcacheratio;
+    INSTANCE.bddresizenum = this.bddresizenum;
+    INSTANCE.resizeclock = this.resizeclock;
+    INSTANCE.resizegbcclock = this.resizegbcclock;
+    INSTANCE.cachehitsmark = this.cachehitsmark;
+    INSTANCE.cachemissesmark = this.cachemissesmark;
     INSTANCE.bddnodes = new int[this.bddnodes.length];
     System.arraycopy(this.bddnodes, 0, INSTANCE.bddnodes, 0, this.bddnodes.length);
     INSTANCE.bddrefstack = new int[this.bddrefstack.length];
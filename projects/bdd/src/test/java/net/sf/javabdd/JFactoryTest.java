@@ -1,18 +1,98 @@
 package net.sf.javabdd;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import net.sf.javabdd.BDDFactory.CacheStats;
+import net.sf.javabdd.BDDFactory.FactoryStats;
+import net.sf.javabdd.BDDFactory.OperatorCacheStats;
 import org.junit.Test;
 
 /** Tests of {@link JFactory}. */
 public class JFactoryTest {
   private JFactory _factory = (JFactory) JFactory.init(10000, 10000);
 
+  private OperatorCacheStats getApplyCacheStats() {
+    return _factory.getOperatorCacheStats().stream()
+        .filter(stats -> stats.getName().equals("apply"))
+        .findFirst()
+        .get();
+  }
+
+  @Test
+  public void testOperatorCacheStats() {
+    _factory.setVarNum(10);
+    BDD x = _factory.ithVar(0).or(_factory.ithVar(1));
+    BDD y = _factory.ithVar(2).or(_factory.ithVar(3));
+
+    _factory.resetOperatorCacheStats();
+    BDD xy = x.and(y);
+    OperatorCacheStats first = getApplyCacheStats();
+    assertTrue(first.getMisses() > 0);
+
+    // the same operation again is answered from the cache
+    assertThat(x.and(y), equalTo(xy));
+    OperatorCacheStats second = getApplyCacheStats();
+    assertThat(second.getHits(), equalTo(first.getHits() + 1));
+    assertThat(second.getMisses(), equalTo(first.getMisses()));
+
+    _factory.resetOperatorCacheStats();
+    assertThat(getApplyCacheStats().getHits(), equalTo(0L));
+    assertThat(getApplyCacheStats().getMisses(), equalTo(0L));
+  }
+
+  @Test
+  public void testCacheStatsCountsOperatorCacheLookups() {
+    _factory.setVarNum(10);
+    BDD x = _factory.ithVar(0).or(_factory.ithVar(1));
+    BDD y = _factory.ithVar(2).or(_factory.ithVar(3));
+    _factory.resetOperatorCacheStats();
+    x.and(y);
+    x.and(y);
+    long hits = 0;
+    long misses = 0;
+    for (OperatorCacheStats stats : _factory.getOperatorCacheStats()) {
+      hits += stats.getHits();
+      misses += stats.getMisses();
+    }
+    CacheStats cacheStats = _factory.getCacheStats();
+    assertThat(cacheStats.opHit, greaterThan(0));
+    assertEquals(hits, cacheStats.opHit);
+    assertEquals(misses, cacheStats.opMiss);
+  }
+
+  @Test
+  public void testAdaptiveSizing() {
+    JFactory factory = (JFactory) JFactory.init(1000, 100);
+    factory.setCacheRatio(8);
+    factory.setAdaptiveSizing(true);
+    factory.setVarNum(20);
+
+    // a disjunction of many unrelated minterms needs many more nodes than the initial table has
+    BDD result = factory.zero();
+    for (int i = 0; i < 2000; i++) {
+      int bits = i * 7919;
+      BDD minterm = factory.one();
+      for (int var = 0; var < 20; var++) {
+        minterm.andWith((bits & (1 << var)) != 0 ? factory.ithVar(var) : factory.nithVar(var));
+      }
+      result.orWith(minterm);
+    }
+    assertThat(result.satCount(), equalTo(2000.0));
+
+    FactoryStats stats = factory.getFactoryStats();
+    assertThat(stats.getNodeTableSize(), greaterThan(1000));
+    assertThat(stats.getNodeTableResizes(), greaterThan(0));
+    assertThat(stats.getGcCount(), greaterThan(0));
+    assertThat(stats.getProducedNodes(), greaterThan(0L));
+    assertThat(stats.getCacheSize(), greaterThan(0));
+  }
+
   @Test
   public void testAnd() {
     _factory.setVarNum(10);
@@ -0,0 +1,82 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.BDDReachabilityAnalysis;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.specifier.InterfaceLinkLocation;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.specifier.Location;
+import org.batfish.z3.IngressLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of building the {@link BDDReachabilityAnalysis} graph for a synthetic leaf-spine
+ * network and of running its fixpoint, from every leaf's host-facing interface.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BddReachabilityBenchmark {
+
+  @Param({"4"})
+  public int _numSpines;
+
+  @Param({"16", "64"})
+  public int _numLeaves;
+
+  private BDDReachabilityAnalysis _analysis;
+
+  private IpSpaceAssignment _assignment;
+
+  private SyntheticNetwork _network;
+
+  private ForwardingAnalysis _forwardingAnalysis;
+
+  @Setup
+  public void setup() {
+    _network = SyntheticNetworks.leafSpine(_numSpines, _numLeaves);
+    _forwardingAnalysis = BenchmarkDataPlanes.computeDataPlane(_network).getForwardingAnalysis();
+    _assignment =
+        IpSpaceAssignment.builder()
+            .assign(
+                _network.getHostPrefixes().keySet().stream()
+                    .map(
+                        hostname ->
+                            new InterfaceLinkLocation(hostname, SyntheticNetworks.HOST_INTERFACE))
+                    .collect(ImmutableSet.<Location>toImmutableSet()),
+                UniverseIpSpace.INSTANCE)
+            .build();
+    _analysis = buildAnalysis();
+  }
+
+  @Benchmark
+  public BDDReachabilityAnalysis buildAnalysis() {
+    return new BDDReachabilityAnalysisFactory(
+            new BDDPacket(), _network.getConfigurations(), _forwardingAnalysis, false, false)
+        .bddReachabilityAnalysis(_assignment);
+  }
+
+  @Benchmark
+  public Map<IngressLocation, BDD> fixpoint() {
+    return _analysis.getIngressLocationReachableBDDs();
+  }
+}
@@ -0,0 +1,19 @@
+package org.batfish.benchmarks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.dataplane.ibdp.IncrementalDataPlane;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+
+/** Computes data planes of synthetic networks directly with the ibdp engine. */
+@ParametersAreNonnullByDefault
+public final class BenchmarkDataPlanes {
+
+  /** Computes the data plane of the given network with default settings and no external routes */
+  public static @Nonnull IncrementalDataPlane computeDataPlane(SyntheticNetwork network) {
+    return IncrementalDataPlanePlugin.computeStandaloneDataPlane(
+        network.getConfigurations(), network.getTopology());
+  }
+
+  private BenchmarkDataPlanes() {}
+}
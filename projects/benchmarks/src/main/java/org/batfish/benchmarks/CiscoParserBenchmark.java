@@ -0,0 +1,71 @@
+package org.batfish.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.grammar.cisco.CiscoCombinedParser;
+import org.batfish.grammar.cisco.CiscoControlPlaneExtractor;
+import org.batfish.main.Batfish;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of parsing a large Cisco IOS configuration with {@link CiscoCombinedParser} and
+ * extracting it with {@link CiscoControlPlaneExtractor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CiscoParserBenchmark {
+
+  private static final ConfigurationFormat FORMAT = ConfigurationFormat.CISCO_IOS;
+
+  /** Number of interfaces in the generated configuration */
+  @Param({"100", "1000", "5000"})
+  public int _numInterfaces;
+
+  private BatfishLogger _logger;
+
+  private Settings _settings;
+
+  private String _text;
+
+  @Setup
+  public void setup() {
+    _logger = new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false);
+    _settings = new Settings();
+    _settings.setLogger(_logger);
+    _settings.setDisableUnrecognized(true);
+    _text = SyntheticNetworks.ciscoIosConfig("router", _numInterfaces);
+  }
+
+  @Benchmark
+  public ParserRuleContext parse() {
+    return Batfish.parse(new CiscoCombinedParser(_text, _settings, FORMAT), _logger, _settings);
+  }
+
+  @Benchmark
+  public VendorConfiguration parseAndExtract() {
+    CiscoCombinedParser parser = new CiscoCombinedParser(_text, _settings, FORMAT);
+    CiscoControlPlaneExtractor extractor =
+        new CiscoControlPlaneExtractor(_text, parser, FORMAT, new Warnings());
+    extractor.processParseTree(Batfish.parse(parser, _logger, _settings));
+    return extractor.getVendorConfiguration();
+  }
+}
@@ -0,0 +1,43 @@
+package org.batfish.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.batfish.dataplane.ibdp.IncrementalDataPlane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks of the ibdp data plane engine on synthetic leaf-spine networks. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DataPlaneBenchmark {
+
+  @Param({"4"})
+  public int _numSpines;
+
+  @Param({"16", "64"})
+  public int _numLeaves;
+
+  private SyntheticNetwork _network;
+
+  @Setup
+  public void setup() {
+    _network = SyntheticNetworks.leafSpine(_numSpines, _numLeaves);
+  }
+
+  @Benchmark
+  public IncrementalDataPlane computeDataPlane() {
+    return BenchmarkDataPlanes.computeDataPlane(_network);
+  }
+}
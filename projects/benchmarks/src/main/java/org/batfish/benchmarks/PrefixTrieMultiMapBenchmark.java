@@ -0,0 +1,64 @@
+package org.batfish.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks of {@link PrefixTrieMultiMap#longestPrefixMatch(Ip)} on random routing tables. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PrefixTrieMultiMapBenchmark {
+
+  private static final int NUM_LOOKUPS = 1024;
+
+  /** Number of prefixes in the trie */
+  @Param({"1000", "100000"})
+  public int _numPrefixes;
+
+  private Ip[] _lookups;
+
+  private PrefixTrieMultiMap<Integer> _trie;
+
+  @Setup
+  public void setup() {
+    // Fixed seed so every run uses the same table and lookups
+    Random random = new Random(0);
+    _trie = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    for (int i = 0; i < _numPrefixes; i++) {
+      // Route lengths between /8 and /32, biased towards /24 as in real tables
+      int length = random.nextInt(4) == 0 ? 8 + random.nextInt(25) : 24;
+      _trie.put(Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), length), i);
+    }
+    _lookups = new Ip[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      _lookups[i] = Ip.create(random.nextInt() & 0xFFFFFFFFL);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public void longestPrefixMatch(Blackhole blackhole) {
+    for (Ip ip : _lookups) {
+      blackhole.consume(_trie.longestPrefixMatch(ip));
+    }
+  }
+}
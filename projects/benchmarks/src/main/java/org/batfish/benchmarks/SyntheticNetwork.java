@@ -0,0 +1,46 @@
+package org.batfish.benchmarks;
+
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Topology;
+
+/** A generated network: its configurations and layer-3 topology. */
+@ParametersAreNonnullByDefault
+public final class SyntheticNetwork {
+
+  private final SortedMap<String, Configuration> _configurations;
+
+  private final SortedMap<String, Prefix> _hostPrefixes;
+
+  private final Topology _topology;
+
+  SyntheticNetwork(
+      SortedMap<String, Configuration> configurations,
+      SortedMap<String, Prefix> hostPrefixes,
+      Topology topology) {
+    _configurations = configurations;
+    _hostPrefixes = hostPrefixes;
+    _topology = topology;
+  }
+
+  /** The configurations of all nodes, keyed by hostname */
+  public @Nonnull SortedMap<String, Configuration> getConfigurations() {
+    return _configurations;
+  }
+
+  /**
+   * The prefix of the host-facing interface of each edge node, keyed by hostname. Traffic between
+   * these prefixes exercises the whole fabric.
+   */
+  public @Nonnull SortedMap<String, Prefix> getHostPrefixes() {
+    return _hostPrefixes;
+  }
+
+  /** The layer-3 edges between the nodes, in both directions */
+  public @Nonnull Topology getTopology() {
+    return _topology;
+  }
+}
@@ -0,0 +1,218 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.InterfaceAddress;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+
+/**
+ * Deterministic generators of synthetic networks and configuration files, so that benchmark results
+ * are reproducible without access to real snapshots.
+ */
+@ParametersAreNonnullByDefault
+public final class SyntheticNetworks {
+
+  /** Name of the routing policy that accepts every route */
+  private static final String ACCEPT_ALL = "ACCEPT_ALL";
+
+  /** Name of the host-facing interface on every leaf */
+  public static final String HOST_INTERFACE = "host";
+
+  /** The AS number shared by all spines */
+  private static final long SPINE_AS = 65000L;
+
+  private static final Ip HOST_BASE = Ip.parse("172.16.0.0");
+  private static final Ip LINK_BASE = Ip.parse("10.0.0.0");
+  private static final Ip ROUTER_ID_BASE = Ip.parse("192.168.0.0");
+
+  /**
+   * Generates a two-tier leaf-spine (Clos) fabric. Every leaf connects to every spine over a
+   * point-to-point /31 link and peers with it over eBGP. Each leaf has its own AS, the spines share
+   * one, and every node exports all of its routes, so each leaf learns every other leaf's host
+   * prefix over all spines (with ECMP).
+   *
+   * @param numSpines number of spine switches, at least 1
+   * @param numLeaves number of leaf switches, at least 1
+   */
+  public static @Nonnull SyntheticNetwork leafSpine(int numSpines, int numLeaves) {
+    checkArgument(numSpines > 0, "Need at least one spine");
+    checkArgument(numLeaves > 0, "Need at least one leaf");
+    NetworkFactory nf = new NetworkFactory();
+    Configuration[] spines = new Configuration[numSpines];
+    Configuration[] leaves = new Configuration[numLeaves];
+    BgpProcess[] spineProcs = new BgpProcess[numSpines];
+    BgpProcess[] leafProcs = new BgpProcess[numLeaves];
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    ImmutableSortedMap.Builder<String, Prefix> hostPrefixes = ImmutableSortedMap.naturalOrder();
+    ImmutableSortedSet.Builder<Edge> edges = ImmutableSortedSet.naturalOrder();
+
+    int routerIndex = 0;
+    for (int s = 0; s < numSpines; s++) {
+      spines[s] = newRouter(nf, String.format("spine%d", s));
+      spineProcs[s] = newBgpProcess(nf, spines[s], routerIndex++);
+      configs.put(spines[s].getHostname(), spines[s]);
+    }
+    for (int l = 0; l < numLeaves; l++) {
+      leaves[l] = newRouter(nf, String.format("leaf%d", l));
+      leafProcs[l] = newBgpProcess(nf, leaves[l], routerIndex++);
+      configs.put(leaves[l].getHostname(), leaves[l]);
+
+      Prefix hostPrefix = Prefix.create(Ip.create(HOST_BASE.asLong() + 256L * l), 24);
+      Ip gateway = Ip.create(hostPrefix.getStartIp().asLong() + 1);
+      addInterface(nf, leaves[l], HOST_INTERFACE, new InterfaceAddress(gateway, 24));
+      hostPrefixes.put(leaves[l].getHostname(), hostPrefix);
+    }
+
+    long link = 0;
+    for (int l = 0; l < numLeaves; l++) {
+      for (int s = 0; s < numSpines; s++) {
+        Ip spineIp = Ip.create(LINK_BASE.asLong() + 2 * link);
+        Ip leafIp = Ip.create(spineIp.asLong() + 1);
+        link++;
+        Interface spineIface =
+            addInterface(
+                nf, spines[s], leaves[l].getHostname(), new InterfaceAddress(spineIp, 31));
+        Interface leafIface =
+            addInterface(
+                nf, leaves[l], spines[s].getHostname(), new InterfaceAddress(leafIp, 31));
+        edges.add(new Edge(spineIface, leafIface));
+        edges.add(new Edge(leafIface, spineIface));
+
+        long leafAs = SPINE_AS + 1 + l;
+        nf.bgpNeighborBuilder()
+            .setBgpProcess(spineProcs[s])
+            .setLocalAs(SPINE_AS)
+            .setRemoteAs(leafAs)
+            .setLocalIp(spineIp)
+            .setPeerAddress(leafIp)
+            .setExportPolicy(ACCEPT_ALL)
+            .build();
+        nf.bgpNeighborBuilder()
+            .setBgpProcess(leafProcs[l])
+            .setLocalAs(leafAs)
+            .setRemoteAs(SPINE_AS)
+            .setLocalIp(leafIp)
+            .setPeerAddress(spineIp)
+            .setExportPolicy(ACCEPT_ALL)
+            .build();
+      }
+    }
+    return new SyntheticNetwork(configs.build(), hostPrefixes.build(), new Topology(edges.build()));
+  }
+
+  private static Configuration newRouter(NetworkFactory nf, String hostname) {
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    nf.vrfBuilder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
+    nf.routingPolicyBuilder()
+        .setOwner(c)
+        .setName(ACCEPT_ALL)
+        .setStatements(ImmutableList.of(Statements.ExitAccept.toStaticStatement()))
+        .build();
+    return c;
+  }
+
+  private static BgpProcess newBgpProcess(NetworkFactory nf, Configuration c, int index) {
+    Vrf vrf = c.getVrfs().get(DEFAULT_VRF_NAME);
+    BgpProcess proc =
+        nf.bgpProcessBuilder()
+            .setRouterId(Ip.create(ROUTER_ID_BASE.asLong() + index))
+            .setVrf(vrf)
+            .build();
+    proc.setMultipathEbgp(true);
+    return proc;
+  }
+
+  private static Interface addInterface(
+      NetworkFactory nf, Configuration c, String name, InterfaceAddress address) {
+    return nf.interfaceBuilder()
+        .setOwner(c)
+        .setVrf(c.getVrfs().get(DEFAULT_VRF_NAME))
+        .setName(name)
+        .setAddress(address)
+        .build();
+  }
+
+  /**
+   * Generates the text of a Cisco IOS configuration with the given number of routed interfaces. The
+   * configuration also has one ACL, prefix-list, and route-map per ten interfaces and one BGP
+   * neighbor per interface, so its size and mix of stanzas scale together.
+   */
+  public static @Nonnull String ciscoIosConfig(String hostname, int numInterfaces) {
+    checkArgument(numInterfaces > 0, "Need at least one interface");
+    int numPolicies = Math.max(1, numInterfaces / 10);
+    StringBuilder sb = new StringBuilder();
+    sb.append("!\n");
+    sb.append("hostname ").append(hostname).append('\n');
+    sb.append("!\n");
+    sb.append("interface Loopback0\n");
+    sb.append(" ip address 192.168.0.1 255.255.255.255\n");
+    sb.append("!\n");
+    for (int i = 0; i < numInterfaces; i++) {
+      Ip ip = Ip.create(LINK_BASE.asLong() + 2L * i);
+      sb.append("interface GigabitEthernet0/").append(i).append('\n');
+      sb.append(" description link to peer ").append(i).append('\n');
+      sb.append(" ip address ").append(ip).append(" 255.255.255.254\n");
+      sb.append(" ip access-group ACL_").append(i % numPolicies).append(" in\n");
+      sb.append(" no shutdown\n");
+      sb.append("!\n");
+    }
+    for (int p = 0; p < numPolicies; p++) {
+      sb.append("ip access-list extended ACL_").append(p).append('\n');
+      sb.append(" permit tcp 10.").append(p % 256).append(".0.0 0.0.255.255 any eq 22\n");
+      sb.append(" permit tcp any any eq 443\n");
+      sb.append(" permit udp any range 1024 65535 any eq 53\n");
+      sb.append(" deny ip any 172.16.").append(p % 256).append(".0 0.0.0.255\n");
+      sb.append(" permit icmp any any echo-reply\n");
+      sb.append(" permit ip any any\n");
+      sb.append("!\n");
+      sb.append("ip prefix-list PL_")
+          .append(p)
+          .append(" seq 5 permit 10.")
+          .append(p % 256)
+          .append(".0.0/16 le 24\n");
+      sb.append("!\n");
+      sb.append("route-map RM_").append(p).append(" permit 10\n");
+      sb.append(" match ip address prefix-list PL_").append(p).append('\n');
+      sb.append(" set local-preference 200\n");
+      sb.append("route-map RM_").append(p).append(" deny 20\n");
+      sb.append("!\n");
+    }
+    sb.append("router bgp ").append(SPINE_AS).append('\n');
+    sb.append(" bgp router-id 192.168.0.1\n");
+    for (int i = 0; i < numInterfaces; i++) {
+      Ip peer = Ip.create(LINK_BASE.asLong() + 2L * i + 1);
+      sb.append(" neighbor ").append(peer).append(" remote-as ").append(SPINE_AS + 1 + i);
+      sb.append('\n');
+      sb.append(" neighbor ")
+          .append(peer)
+          .append(" route-map RM_")
+          .append(i % numPolicies)
+          .append(" in\n");
+    }
+    sb.append("!\n");
+    sb.append("end\n");
+    return sb.toString();
+  }
+
+  private SyntheticNetworks() {}
+}
@@ -0,0 +1,94 @@
+package org.batfish.benchmarks;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of tracing a batch of leaf-to-leaf flows through a synthetic leaf-spine network with
+ * {@link TracerouteEngineImpl}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TracerouteBenchmark {
+
+  @Param({"4"})
+  public int _numSpines;
+
+  @Param({"16"})
+  public int _numLeaves;
+
+  /** Number of flows traced per invocation */
+  @Param({"100", "1000"})
+  public int _numFlows;
+
+  private TracerouteEngineImpl _engine;
+
+  private Set<Flow> _flows;
+
+  @Setup
+  public void setup() {
+    SyntheticNetwork network = SyntheticNetworks.leafSpine(_numSpines, _numLeaves);
+    _engine = new TracerouteEngineImpl(BenchmarkDataPlanes.computeDataPlane(network));
+
+    // Round-robin over all ordered pairs of distinct leaves, varying the source port
+    List<Entry<String, Prefix>> hosts =
+        ImmutableList.copyOf(network.getHostPrefixes().entrySet());
+    int numHosts = hosts.size();
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    for (int i = 0; i < _numFlows; i++) {
+      int offset = numHosts > 1 ? 1 + (i / numHosts) % (numHosts - 1) : 0;
+      Entry<String, Prefix> src = hosts.get(i % numHosts);
+      Entry<String, Prefix> dst = hosts.get((i + offset) % numHosts);
+      flows.add(
+          Flow.builder()
+              .setTag("benchmark")
+              .setIngressNode(src.getKey())
+              .setIngressVrf(DEFAULT_VRF_NAME)
+              .setSrcIp(hostIp(src.getValue()))
+              .setDstIp(hostIp(dst.getValue()))
+              .setIpProtocol(IpProtocol.TCP)
+              .setSrcPort(49152 + i % 16384)
+              .setDstPort(443)
+              .build());
+    }
+    _flows = flows.build();
+  }
+
+  /** An address on the given host subnet other than the leaf's own */
+  private static Ip hostIp(Prefix hostPrefix) {
+    return Ip.create(hostPrefix.getStartIp().asLong() + 10);
+  }
+
+  @Benchmark
+  public Map<Flow, List<TraceAndReverseFlow>> traceFlows() {
+    return _engine.computeTracesAndReverseFlows(_flows, ImmutableSet.of(), false);
+  }
+}
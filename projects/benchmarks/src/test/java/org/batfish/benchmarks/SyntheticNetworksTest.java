@@ -0,0 +1,51 @@
+package org.batfish.benchmarks;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.batfish.datamodel.Prefix;
+import org.batfish.dataplane.ibdp.IncrementalDataPlane;
+import org.junit.Test;
+
+/** Tests of {@link SyntheticNetworks} */
+public final class SyntheticNetworksTest {
+
+  @Test
+  public void testLeafSpine() {
+    SyntheticNetwork network = SyntheticNetworks.leafSpine(2, 3);
+    assertThat(network.getConfigurations().keySet(), hasSize(5));
+    assertThat(network.getHostPrefixes().keySet(), hasSize(3));
+    // one link per leaf-spine pair, in both directions
+    assertThat(network.getTopology().getEdges(), hasSize(12));
+  }
+
+  @Test
+  public void testLeafSpineConverges() {
+    SyntheticNetwork network = SyntheticNetworks.leafSpine(2, 3);
+    IncrementalDataPlane dp = BenchmarkDataPlanes.computeDataPlane(network);
+
+    // Every leaf learns every host prefix
+    for (String leaf : network.getHostPrefixes().keySet()) {
+      Set<Prefix> prefixes =
+          dp.getRibs().get(leaf).get(DEFAULT_VRF_NAME).getRoutes().stream()
+              .map(r -> r.getNetwork())
+              .collect(Collectors.toSet());
+      assertThat(prefixes, hasItems(network.getHostPrefixes().values().toArray(new Prefix[0])));
+    }
+  }
+
+  @Test
+  public void testCiscoIosConfig() {
+    String text = SyntheticNetworks.ciscoIosConfig("r1", 20);
+    assertThat(text, startsWith("!\nhostname r1\n"));
+    assertThat(text.split("\ninterface GigabitEthernet", -1).length - 1, equalTo(20));
+    // generation is deterministic
+    assertThat(SyntheticNetworks.ciscoIosConfig("r1", 20), equalTo(text));
+  }
+}
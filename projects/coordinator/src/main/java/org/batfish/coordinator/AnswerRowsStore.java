@@ -0,0 +1,441 @@
+package org.batfish.coordinator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.nullsFirst;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.batfish.identifiers.AnswerId;
+import org.batfish.storage.StorageProvider;
+
+/**
+ * Serves filtered, sorted, projected, and truncated views of table answers from a row-oriented copy
+ * of each answer kept in storage, so that fetching a page of a large answer does not load and sort
+ * the whole table.
+ *
+ * <p>The first request for an answer splits it into the following answer objects:
+ *
+ * <ul>
+ *   <li>{@value #KEY_ROWS}: the rows of the table, one JSON object per line
+ *   <li>{@value #KEY_INDEX}: the number of rows, followed by the byte offset in {@value #KEY_ROWS}
+ *       of each row and of the end of the last row
+ *   <li>{@value #KEY_HEADER}: the answer without the rows of its table
+ * </ul>
+ *
+ * <p>The first request for a sort order computes it from just the values of the sort columns, and
+ * stores it as a permutation of the row indices. Subsequent requests read only the rows of the
+ * requested page, unless they filter rows or ask for unique rows, in which case the rows are
+ * scanned once more.
+ *
+ * <p>Filters and sorts load just the columns they need into a {@link ColumnarTable}, so that each
+ * distinct value is matched or compared once, as for answers filtered in memory.
+ */
+@ParametersAreNonnullByDefault
+public final class AnswerRowsStore {
+
+  @VisibleForTesting static final String KEY_HEADER = "table/header";
+
+  @VisibleForTesting static final String KEY_INDEX = "table/index";
+
+  @VisibleForTesting static final String KEY_ROWS = "table/rows";
+
+  private static final String KEY_SORT_PREFIX = "table/sort/";
+
+  /** Writes the contents of an answer object */
+  private interface ObjectWriter {
+    void write(OutputStream outputStream) throws IOException;
+  }
+
+  /** Reads row offsets from {@value #KEY_INDEX} in increasing order of row index */
+  private static final class IndexReader {
+
+    private final DataInputStream _input;
+
+    /** The index of the next offset in {@link #_input} */
+    private int _position;
+
+    private long _lastOffset;
+
+    private IndexReader(InputStream indexStream) throws IOException {
+      _input = new DataInputStream(new BufferedInputStream(indexStream));
+      _input.readInt();
+    }
+
+    /** Returns the offset of row {@code rowIndex}, which must not precede the last row read. */
+    private long getOffset(int rowIndex) throws IOException {
+      if (rowIndex == _position - 1) {
+        return _lastOffset;
+      }
+      ByteStreams.skipFully(_input, Long.BYTES * (long) (rowIndex - _position));
+      _lastOffset = _input.readLong();
+      _position = rowIndex + 1;
+      return _lastOffset;
+    }
+  }
+
+  private final Function<Schema, Comparator<?>> _schemaComparator;
+
+  private final StorageProvider _storage;
+
+  /**
+   * Creates a store that reads and writes answer objects in {@code storage}, and orders the
+   * non-null values of each schema with the comparator returned by {@code schemaComparator}.
+   */
+  public AnswerRowsStore(
+      StorageProvider storage, Function<Schema, Comparator<?>> schemaComparator) {
+    _storage = storage;
+    _schemaComparator = schemaComparator;
+  }
+
+  /** Returns the indices of the rows of {@code rows} that match all of {@code filters}. */
+  static @Nonnull BitSet matching(ColumnarTable rows, List<ColumnFilter> filters) {
+    BitSet matching = new BitSet(rows.size());
+    matching.set(0, rows.size());
+    for (ColumnFilter filter : filters) {
+      matching.and(rows.matching(filter.getColumn(), filter::matchesValue));
+    }
+    return matching;
+  }
+
+  /**
+   * Returns {@code rowIndices} sorted in {@code sortOrder} by the values of the rows of {@code
+   * rows}, with nulls first and other values ordered by {@code schemaComparator}. The sort is
+   * stable.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static @Nonnull int[] sort(
+      ColumnarTable rows,
+      int[] rowIndices,
+      TableMetadata metadata,
+      List<ColumnSortOption> sortOrder,
+      Function<Schema, Comparator<?>> schemaComparator) {
+    Map<String, ColumnMetadata> columnMap = metadata.toColumnMap();
+    ImmutableList.Builder<ColumnMetadata> sortColumns = ImmutableList.builder();
+    ImmutableList.Builder<Comparator<Object>> comparators = ImmutableList.builder();
+    for (ColumnSortOption columnSortOption : sortOrder) {
+      ColumnMetadata columnMetadata = columnMap.get(columnSortOption.getColumn());
+      Comparator<Object> comparator =
+          nullsFirst((Comparator) schemaComparator.apply(columnMetadata.getSchema()));
+      sortColumns.add(columnMetadata);
+      comparators.add(columnSortOption.getReversed() ? comparator.reversed() : comparator);
+    }
+    return rows.sort(rowIndices, sortColumns.build(), comparators.build());
+  }
+
+  /**
+   * Returns the answer with the specified ID. If it is a successful table answer, its table is
+   * replaced by a {@link TableView} filtered, sorted, projected, and truncated according to {@code
+   * options}; otherwise it is returned as-is.
+   *
+   * @throws IOException if there is an error reading or writing the answer objects
+   */
+  public @Nonnull Answer getAnswer(AnswerId answerId, AnswerRowsOptions options)
+      throws IOException {
+    Answer header = loadHeader(answerId);
+    if (header.getStatus() != AnswerStatus.SUCCESS
+        || header.getAnswerElements().isEmpty()
+        || !(header.getAnswerElements().get(0) instanceof TableAnswerElement)) {
+      return header;
+    }
+    TableAnswerElement rawTable = (TableAnswerElement) header.getAnswerElements().get(0);
+    Answer answer = new Answer();
+    answer.setStatus(header.getStatus());
+    answer.addAnswerElement(getTableView(answerId, rawTable, options));
+    return answer;
+  }
+
+  private @Nonnull TableView getTableView(
+      AnswerId answerId, TableAnswerElement rawTable, AnswerRowsOptions options)
+      throws IOException {
+    int numRows = loadNumRows(answerId);
+    IntStream order =
+        options.getSortOrder().isEmpty()
+            ? IntStream.range(0, numRows)
+            : Arrays.stream(
+                loadSortPermutation(answerId, rawTable.getMetadata(), options.getSortOrder()));
+    int numResults = numRows;
+    if (!options.getFilters().isEmpty()) {
+      Set<String> filterColumns = new LinkedHashSet<>();
+      options.getFilters().forEach(filter -> filterColumns.add(filter.getColumn()));
+      BitSet matching = matching(loadColumns(answerId, filterColumns), options.getFilters());
+      order = order.filter(matching::get);
+      numResults = matching.cardinality();
+    }
+
+    List<TableViewRow> rows;
+    if (options.getUniqueRows()) {
+      rows = getUniqueRows(answerId, numRows, order, options);
+    } else {
+      int[] selected =
+          order.skip(options.getRowOffset()).limit(options.getMaxRows()).toArray();
+      Map<Integer, Row> rawRows = readRows(answerId, selected);
+      ImmutableList.Builder<TableViewRow> rowsBuilder = ImmutableList.builder();
+      for (int rowIndex : selected) {
+        rowsBuilder.add(new TableViewRow(rowIndex, project(rawRows.get(rowIndex), options)));
+      }
+      rows = rowsBuilder.build();
+    }
+
+    TableView tableView =
+        new TableView(options, rows, projectMetadata(rawTable.getMetadata(), options));
+    tableView.setSummary(
+        rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
+    tableView.getSummary().setNumResults(numResults);
+    return tableView;
+  }
+
+  /**
+   * Returns the first occurrence of each distinct projected row, in the order given by {@code
+   * order}, after the row offset and up to the maximum number of rows. Since any row may be a
+   * duplicate of a later one, the projected rows are all read into memory.
+   */
+  private @Nonnull List<TableViewRow> getUniqueRows(
+      AnswerId answerId, int numRows, IntStream order, AnswerRowsOptions options)
+      throws IOException {
+    Row[] projectedRows = new Row[numRows];
+    forEachRow(answerId, (row, rowIndex) -> projectedRows[rowIndex] = project(row, options));
+    Map<Row, Integer> firstOccurrences = new LinkedHashMap<>();
+    order.forEach(rowIndex -> firstOccurrences.putIfAbsent(projectedRows[rowIndex], rowIndex));
+    return firstOccurrences.entrySet().stream()
+        .skip(options.getRowOffset())
+        .limit(options.getMaxRows())
+        .map(entry -> new TableViewRow(entry.getValue(), entry.getKey()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static @Nonnull Row project(Row row, AnswerRowsOptions options) {
+    return options.getColumns().isEmpty()
+        ? row
+        : Row.builder().putAll(row, options.getColumns()).build();
+  }
+
+  private static @Nonnull TableMetadata projectMetadata(
+      TableMetadata metadata, AnswerRowsOptions options) {
+    if (options.getColumns().isEmpty()) {
+      return metadata;
+    }
+    Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(metadata.toColumnMap());
+    columnMap.keySet().retainAll(options.getColumns());
+    return new TableMetadata(ImmutableList.copyOf(columnMap.values()), metadata.getTextDesc());
+  }
+
+  /** Returns the header of the answer, splitting the answer into answer objects if necessary. */
+  private @Nonnull Answer loadHeader(AnswerId answerId) throws IOException {
+    if (!_storage.hasAnswerObject(answerId, KEY_HEADER)) {
+      storeAnswerObjects(answerId);
+    }
+    try (InputStream inputStream = _storage.loadAnswerObject(answerId, KEY_HEADER)) {
+      return BatfishObjectMapper.mapper().readValue(inputStream, Answer.class);
+    }
+  }
+
+  /**
+   * Splits the answer into answer objects. The header is stored last, so its presence means the
+   * other answer objects are complete. Concurrent calls for the same answer store the same
+   * contents, and each object is replaced atomically, so they need no coordination.
+   */
+  private void storeAnswerObjects(AnswerId answerId) throws IOException {
+    Answer answer =
+        BatfishObjectMapper.mapper().readValue(_storage.loadAnswer(answerId), Answer.class);
+    Answer header = answer;
+    List<AnswerElement> answerElements = answer.getAnswerElements();
+    if (answer.getStatus() == AnswerStatus.SUCCESS
+        && !answerElements.isEmpty()
+        && answerElements.get(0) instanceof TableAnswerElement) {
+      TableAnswerElement table = (TableAnswerElement) answerElements.get(0);
+      // rows are materialized one at a time as they are written
+      ColumnarTable rows = table.getColumnarRows();
+      long[] offsets = new long[rows.size() + 1];
+      storeAnswerObject(
+          answerId,
+          KEY_ROWS,
+          outputStream -> {
+            long offset = 0;
+            for (int i = 0; i < rows.size(); i++) {
+              offsets[i] = offset;
+              byte[] rowBytes = BatfishObjectMapper.mapper().writeValueAsBytes(rows.getRow(i));
+              outputStream.write(rowBytes);
+              outputStream.write('\n');
+              offset += rowBytes.length + 1;
+            }
+            offsets[rows.size()] = offset;
+          });
+      storeAnswerObject(
+          answerId,
+          KEY_INDEX,
+          outputStream -> {
+            DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+            dataOutputStream.writeInt(rows.size());
+            for (long offset : offsets) {
+              dataOutputStream.writeLong(offset);
+            }
+            dataOutputStream.flush();
+          });
+      TableAnswerElement headerTable = new TableAnswerElement(table.getMetadata());
+      headerTable.setSummary(table.getSummary());
+      header = new Answer();
+      header.setStatus(answer.getStatus());
+      header.addAnswerElement(headerTable);
+    }
+    Answer finalHeader = header;
+    storeAnswerObject(
+        answerId,
+        KEY_HEADER,
+        outputStream -> BatfishObjectMapper.mapper().writeValue(outputStream, finalHeader));
+  }
+
+  /** Writes an answer object through a temporary file, so it is never held in memory whole. */
+  private void storeAnswerObject(AnswerId answerId, String key, ObjectWriter writer)
+      throws IOException {
+    Path tmpFile = CommonUtil.createTempFile("answer_object", null);
+    try {
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        writer.write(outputStream);
+      }
+      _storage.storeAnswerObject(Files.newInputStream(tmpFile), answerId, key);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  private int loadNumRows(AnswerId answerId) throws IOException {
+    try (InputStream inputStream = _storage.loadAnswerObject(answerId, KEY_INDEX)) {
+      return new DataInputStream(inputStream).readInt();
+    }
+  }
+
+  /** Calls {@code action} on each row and its index, in order. */
+  private void forEachRow(AnswerId answerId, ObjIntConsumer<Row> action) throws IOException {
+    try (InputStream inputStream = _storage.loadAnswerObject(answerId, KEY_ROWS)) {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8));
+      String line;
+      int rowIndex = 0;
+      while ((line = reader.readLine()) != null) {
+        action.accept(BatfishObjectMapper.mapper().readValue(line, Row.class), rowIndex);
+        rowIndex++;
+      }
+    }
+  }
+
+  /** Returns the values of just {@code columns} in each row. */
+  private @Nonnull ColumnarTable loadColumns(AnswerId answerId, Set<String> columns)
+      throws IOException {
+    ColumnarTable table = new ColumnarTable();
+    forEachRow(answerId, (row, rowIndex) -> table.add(Row.builder().putAll(row, columns).build()));
+    return table;
+  }
+
+  /** Reads just the rows with the given indices, skipping over the others. */
+  private @Nonnull Map<Integer, Row> readRows(AnswerId answerId, int[] rowIndices)
+      throws IOException {
+    int[] sortedIndices = rowIndices.clone();
+    Arrays.sort(sortedIndices);
+    Map<Integer, Row> rows = new HashMap<>();
+    try (InputStream indexStream = _storage.loadAnswerObject(answerId, KEY_INDEX);
+        InputStream rowsStream = _storage.loadAnswerObject(answerId, KEY_ROWS)) {
+      IndexReader index = new IndexReader(indexStream);
+      InputStream inputStream = new BufferedInputStream(rowsStream);
+      long position = 0;
+      for (int rowIndex : sortedIndices) {
+        long start = index.getOffset(rowIndex);
+        long end = index.getOffset(rowIndex + 1);
+        ByteStreams.skipFully(inputStream, start - position);
+        byte[] rowBytes = new byte[(int) (end - start)];
+        ByteStreams.readFully(inputStream, rowBytes);
+        position = end;
+        rows.put(rowIndex, BatfishObjectMapper.mapper().readValue(rowBytes, Row.class));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the row indices in the given sort order, computing and storing them if this is the
+   * first request for the sort order. Ties keep the order of the rows in the answer.
+   */
+  private @Nonnull int[] loadSortPermutation(
+      AnswerId answerId, TableMetadata metadata, List<ColumnSortOption> sortOrder)
+      throws IOException {
+    String key =
+        KEY_SORT_PREFIX
+            + Hashing.sha256()
+                .hashString(BatfishObjectMapper.writeString(sortOrder), UTF_8)
+                .toString();
+    if (!_storage.hasAnswerObject(answerId, key)) {
+      Set<String> sortColumns = new LinkedHashSet<>();
+      sortOrder.forEach(columnSortOption -> sortColumns.add(columnSortOption.getColumn()));
+      ColumnarTable sortRows = loadColumns(answerId, sortColumns);
+      int[] permutation =
+          sort(
+              sortRows,
+              IntStream.range(0, sortRows.size()).toArray(),
+              metadata,
+              sortOrder,
+              _schemaComparator);
+      storeAnswerObject(
+          answerId,
+          key,
+          outputStream -> {
+            DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+            dataOutputStream.writeInt(permutation.length);
+            for (int rowIndex : permutation) {
+              dataOutputStream.writeInt(rowIndex);
+            }
+            dataOutputStream.flush();
+          });
+      return permutation;
+    }
+    try (InputStream inputStream = _storage.loadAnswerObject(answerId, key)) {
+      DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+      int[] permutation = new int[dataInputStream.readInt()];
+      for (int i = 0; i < permutation.length; i++) {
+        permutation[i] = dataInputStream.readInt();
+      }
+      return permutation;
+    }
+  }
+}
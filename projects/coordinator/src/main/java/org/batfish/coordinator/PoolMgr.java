@@ -1,11 +1,14 @@
 package org.batfish.coordinator;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -17,9 +20,13 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.coordinator.config.Settings;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 public class PoolMgr {
@@ -31,6 +38,10 @@ public class PoolMgr {
     }
   }
 
+  private long _affinityHits;
+
+  private long _affinityMisses;
+
   private final BatfishLogger _logger;
 
   private final Settings _settings;
@@ -48,11 +59,21 @@ public class PoolMgr {
     // start out as unknown and trigger refresh in the background
     _workerPool.put(worker, new WorkerStatus(WorkerStatus.StatusCode.UNKNOWN));
 
-    Thread thread = new Thread(() -> refreshWorkerStatus(worker));
+    Thread thread =
+        new Thread(
+            () -> {
+              refreshWorkerStatus(worker);
+              Main.getWorkMgr().triggerAssignWork();
+            });
 
     thread.start();
   }
 
+  @VisibleForTesting
+  synchronized void addToPool(String worker, WorkerStatus status) {
+    _workerPool.put(worker, status);
+  }
+
   public synchronized void deleteFromPool(String worker) {
     _workerPool.remove(worker);
   }
@@ -77,17 +98,76 @@ public class PoolMgr {
     return copy;
   }
 
+  /**
+   * Returns true if {@link #getWorkerForAssignment(NetworkSnapshot, boolean)} would find a worker
+   * for work on {@code snapshot}.
+   */
+  public synchronized boolean canAssign(
+      @Nullable NetworkSnapshot snapshot, boolean waitForAffinity) {
+    return selectWorker(snapshot, waitForAffinity) != null;
+  }
+
+  /**
+   * Returns a worker for work on {@code snapshot} and claims one of its slots, or {@code null} if
+   * no worker should take the work now. The caller must report the outcome with {@link
+   * #markAssignmentResult(String, boolean, NetworkSnapshot)}.
+   *
+   * <p>Among workers with a free slot, prefers those that have the snapshot's data plane cached,
+   * then those that have its configurations cached, then those with the most free slots. If {@code
+   * waitForAffinity} is set and only busy workers have the snapshot cached, returns {@code null} so
+   * that the work waits for one of them.
+   */
   @Nullable
-  public synchronized String getWorkerForAssignment() {
+  public synchronized String getWorkerForAssignment(
+      @Nullable NetworkSnapshot snapshot, boolean waitForAffinity) {
+    String worker = selectWorker(snapshot, waitForAffinity);
+    if (worker != null) {
+      WorkerStatus status = _workerPool.get(worker);
+      if (status.getAffinity(snapshot) > 0) {
+        _affinityHits++;
+      } else if (snapshot != null) {
+        _affinityMisses++;
+      }
+      status.claimSlot();
+    }
+    return worker;
+  }
 
+  @Nullable
+  private String selectWorker(@Nullable NetworkSnapshot snapshot, boolean waitForAffinity) {
+    String bestWorker = null;
+    int bestAffinity = 0;
+    int bestFreeSlots = 0;
+    boolean busyWorkerHasAffinity = false;
     for (Entry<String, WorkerStatus> workerEntry : _workerPool.entrySet()) {
-      if (workerEntry.getValue().getStatus() == WorkerStatus.StatusCode.IDLE) {
-        updateWorkerStatus(workerEntry.getKey(), WorkerStatus.StatusCode.TRYINGTOASSIGN);
-        return workerEntry.getKey();
+      WorkerStatus status = workerEntry.getValue();
+      int affinity = status.getAffinity(snapshot);
+      if (!status.hasFreeSlot()) {
+        busyWorkerHasAffinity |= affinity > 0 && status.isAvailable();
+        continue;
+      }
+      if (bestWorker == null
+          || affinity > bestAffinity
+          || (affinity == bestAffinity && status.getFreeSlots() > bestFreeSlots)) {
+        bestWorker = workerEntry.getKey();
+        bestAffinity = affinity;
+        bestFreeSlots = status.getFreeSlots();
       }
     }
+    if (bestAffinity == 0 && busyWorkerHasAffinity && waitForAffinity) {
+      return null;
+    }
+    return bestWorker;
+  }
 
-    return null;
+  /** Returns the number of assignments to a worker that had the work's snapshot cached. */
+  public synchronized long getAffinityHits() {
+    return _affinityHits;
+  }
+
+  /** Returns the number of assignments to a worker that did not have the work's snapshot cached. */
+  public synchronized long getAffinityMisses() {
+    return _affinityMisses;
   }
 
   @Nullable
@@ -95,9 +175,23 @@ public class PoolMgr {
     return _workerPool.get(worker);
   }
 
-  public void markAssignmentResult(String worker, boolean assignmentSuccessful) {
-    updateWorkerStatus(
-        worker, assignmentSuccessful ? WorkerStatus.StatusCode.BUSY : WorkerStatus.StatusCode.IDLE);
+  public synchronized void markAssignmentResult(
+      String worker, boolean assignmentSuccessful, @Nullable NetworkSnapshot snapshot) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.assignmentDone(assignmentSuccessful);
+      if (assignmentSuccessful && snapshot != null) {
+        status.recordAssignedSnapshot(snapshot);
+      }
+    }
+  }
+
+  /** Frees the slot of a task that {@code worker} reported as terminated. */
+  public synchronized void markTaskDone(String worker) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.releaseSlot();
+    }
   }
 
   public void refreshWorkerStatus() {
@@ -154,20 +248,29 @@ public class PoolMgr {
 
         JSONObject jObj = new JSONObject(array.get(1).toString());
 
-        if (!jObj.has("idle")) {
+        if (!jObj.has(BfConsts.SVC_IDLE_KEY)) {
           _logger.error("did not see idle key in json response\n");
           updateWorkerStatus(worker, WorkerStatus.StatusCode.UNKNOWN);
           return;
         }
 
-        boolean status = jObj.getBoolean("idle");
+        boolean idle = jObj.getBoolean(BfConsts.SVC_IDLE_KEY);
 
-        // update the status, except leave the ones with TRYINGTOASSIGN
-        // alone
-        if (getWorkerStatus(worker).getStatus() != WorkerStatus.StatusCode.TRYINGTOASSIGN) {
-          updateWorkerStatus(
-              worker, status ? WorkerStatus.StatusCode.IDLE : WorkerStatus.StatusCode.BUSY);
-        }
+        // workers that predate slots run one task at a time
+        int slots = jObj.has(BfConsts.SVC_SLOTS_KEY) ? jObj.getInt(BfConsts.SVC_SLOTS_KEY) : 1;
+        int freeSlots =
+            jObj.has(BfConsts.SVC_FREE_SLOTS_KEY)
+                ? jObj.getInt(BfConsts.SVC_FREE_SLOTS_KEY)
+                : idle ? 1 : 0;
+
+        // update the slots, except while an assignment is in flight
+        updateWorkerSlots(worker, slots, freeSlots);
+
+        // workers that predate affinity scheduling do not report their caches
+        updateWorkerCache(
+            worker,
+            parseSnapshots(jObj.optJSONArray(BfConsts.SVC_CACHED_SNAPSHOTS_KEY)),
+            parseSnapshots(jObj.optJSONArray(BfConsts.SVC_CACHED_DATA_PLANES_KEY)));
       }
     } catch (ProcessingException e) {
       _logger.error(String.format("unable to connect to %s: %s\n", worker, e.getMessage()));
@@ -193,6 +296,36 @@ public class PoolMgr {
             TimeUnit.MILLISECONDS);
   }
 
+  /** Decodes {@code [networkId, snapshotId]} pairs reported by a worker. */
+  @VisibleForTesting
+  static Set<NetworkSnapshot> parseSnapshots(@Nullable JSONArray array) throws JSONException {
+    if (array == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<NetworkSnapshot> snapshots = ImmutableSet.builder();
+    for (int i = 0; i < array.length(); i++) {
+      JSONArray pair = array.getJSONArray(i);
+      snapshots.add(
+          new NetworkSnapshot(new NetworkId(pair.getString(0)), new SnapshotId(pair.getString(1))));
+    }
+    return snapshots.build();
+  }
+
+  private synchronized void updateWorkerCache(
+      String worker, Set<NetworkSnapshot> cachedSnapshots, Set<NetworkSnapshot> cachedDataPlanes) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.updateCache(cachedSnapshots, cachedDataPlanes);
+    }
+  }
+
+  private synchronized void updateWorkerSlots(String worker, int slots, int freeSlots) {
+    WorkerStatus status = _workerPool.get(worker);
+    if (status != null) {
+      status.updateSlots(slots, freeSlots);
+    }
+  }
+
   private synchronized void updateWorkerStatus(String worker, WorkerStatus.StatusCode statusCode) {
     if (_workerPool.containsKey(worker)) {
       _workerPool.get(worker).updateStatus(statusCode);
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -78,6 +79,29 @@ public class PoolMgrService {
     }
   }
 
+  /**
+   * Notification from a worker that it has finished the task for the work with id {@code workId}.
+   */
+  @GET
+  @Path(CoordConsts.SVC_RSC_POOL_TASK_DONE)
+  @Produces(MediaType.APPLICATION_JSON)
+  public JSONArray taskDone(
+      @QueryParam(CoordConsts.SVC_KEY_WORKER) String worker,
+      @QueryParam(CoordConsts.SVC_KEY_WORKID) String workId) {
+    try {
+      _logger.infof("PMS:taskDone %s %s\n", worker, workId);
+      if (worker == null || workId == null) {
+        return new JSONArray(
+            Arrays.asList(CoordConsts.SVC_KEY_FAILURE, "Worker or work id not specified"));
+      }
+      Main.getWorkMgr().taskDone(worker, UUID.fromString(workId));
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, "done"));
+    } catch (Exception e) {
+      _logger.errorf("PMS:taskDone exception: %s\n", Throwables.getStackTraceAsString(e));
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+    }
+  }
+
   // functions for pool management
   @GET
   @Path(CoordConsts.SVC_RSC_POOL_UPDATE)
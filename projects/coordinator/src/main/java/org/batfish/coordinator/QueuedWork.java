@@ -12,22 +12,26 @@ import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.datamodel.pojo.WorkStatus;
 
+/**
+ * Work in a {@link WorkQueueMgr} queue. Its fields are volatile because {@link
+ * WorkQueueMgr#getWork(UUID)} reads it without holding the manager's lock.
+ */
 public class QueuedWork {
 
-  String _assignedWorker;
+  volatile String _assignedWorker;
 
-  Date _dateAssigned;
+  volatile Date _dateAssigned;
 
-  Date _dateCreated;
-  Date _dateLastTaskCheckedStatus;
-  Date _dateTerminated;
+  final Date _dateCreated;
+  volatile Date _dateLastTaskCheckedStatus;
+  volatile Date _dateTerminated;
 
-  WorkDetails _details;
+  final WorkDetails _details;
 
-  Task _lastTaskCheckResult;
-  WorkStatusCode _status;
+  volatile Task _lastTaskCheckResult;
+  volatile WorkStatusCode _status;
 
-  WorkItem _workItem;
+  final WorkItem _workItem;
 
   public QueuedWork(WorkItem workItem, WorkDetails details) {
     _workItem = workItem;
@@ -24,7 +24,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.MustBeClosed;
 import io.opentracing.ActiveSpan;
@@ -35,7 +34,6 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
@@ -44,6 +42,7 @@ import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -59,8 +58,10 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -82,6 +83,7 @@ import org.batfish.common.ColumnSortOption;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.Container;
 import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Task;
 import org.batfish.common.Warnings;
 import org.batfish.common.WorkItem;
@@ -104,7 +106,6 @@ import org.batfish.datamodel.SnapshotMetadataEntry;
 import org.batfish.datamodel.acl.AclTrace;
 import org.batfish.datamodel.acl.TraceEvent;
 import org.batfish.datamodel.answers.Answer;
-import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerMetadataUtil;
 import org.batfish.datamodel.answers.AnswerStatus;
@@ -127,12 +128,11 @@ import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.Variable;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.table.ExcludedRows;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
-import org.batfish.datamodel.table.TableView;
-import org.batfish.datamodel.table.TableViewRow;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.IssueSettingsId;
@@ -145,6 +145,7 @@ import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.role.NodeRolesData;
 import org.batfish.storage.FileBasedStorageDirectoryProvider;
 import org.batfish.storage.StorageProvider;
+import org.batfish.storage.StorageUtils;
 import org.batfish.storage.StoredObjectMetadata;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
@@ -180,7 +181,6 @@ public class WorkMgr extends AbstractCoordinator {
                               Comparator.<Step<?>, String>comparing(
                                       step -> step.getDetail().toString())
                                   .thenComparing(Step::getAction)))));
-  private static final int STREAMED_FILE_BUFFER_SIZE = 1024;
 
   private static Path getCanonicalPath(Path path) {
     try {
@@ -203,12 +203,8 @@ public class WorkMgr extends AbstractCoordinator {
   }
 
   private static void writeStreamToFile(InputStream inputStream, Path outputFile) {
-    try (OutputStream fileOutputStream = new FileOutputStream(outputFile.toFile())) {
-      int read = 0;
-      final byte[] bytes = new byte[STREAMED_FILE_BUFFER_SIZE];
-      while ((read = inputStream.read(bytes)) != -1) {
-        fileOutputStream.write(bytes, 0, read);
-      }
+    try {
+      StorageUtils.writeStreamToFile(inputStream, outputFile);
     } catch (IOException e) {
       throw new BatfishException(
           "Failed to write input stream to output file: '" + outputFile + "'", e);
@@ -219,7 +215,7 @@ public class WorkMgr extends AbstractCoordinator {
     @Override
     public void run() {
       Main.getWorkMgr().checkTasks();
-      Main.getWorkMgr().assignWork();
+      Main.getWorkMgr().triggerAssignWork();
     }
   }
 
@@ -237,6 +233,14 @@ public class WorkMgr extends AbstractCoordinator {
 
   private static final int MAX_SHOWN_SNAPSHOT_INFO_SUBDIR_ENTRIES = 10;
 
+  private final AnswerRowsStore _answerRowsStore;
+
+  /** Runs assignment passes, one at a time */
+  private final ExecutorService _assignWorkExecutor;
+
+  /** Whether an assignment pass is scheduled but has not started */
+  private final AtomicBoolean _assignWorkPending;
+
   private final IdManager _idManager;
 
   private final BatfishLogger _logger;
@@ -257,7 +261,16 @@ public class WorkMgr extends AbstractCoordinator {
     _idManager = idManager;
     _storage = storage;
     _logger = logger;
+    _answerRowsStore = new AnswerRowsStore(storage, this::schemaComparator);
     _workQueueMgr = new WorkQueueMgr(logger);
+    _assignWorkExecutor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "WorkMgr.assignWork");
+              thread.setDaemon(true);
+              return thread;
+            });
+    _assignWorkPending = new AtomicBoolean();
   }
 
   @VisibleForTesting
@@ -265,34 +278,82 @@ public class WorkMgr extends AbstractCoordinator {
     return _storage;
   }
 
-  private void assignWork() {
+  /**
+   * Schedules a pass that assigns queued work to free worker slots until either runs out. Called
+   * when work is queued and when a task terminates, so work does not wait for the periodic {@link
+   * AssignWorkTask}. At most one pass is pending at a time; a trigger during a pass schedules
+   * another, so no trigger is lost.
+   */
+  public void triggerAssignWork() {
+    if (_assignWorkPending.compareAndSet(false, true)) {
+      _assignWorkExecutor.execute(
+          () -> {
+            _assignWorkPending.set(false);
+            while (assignWork()) {
+              // keep assigning while there is work and a free slot
+            }
+          });
+    }
+  }
+
+  /** Tries to assign one unit of queued work. Returns true if work was assigned. */
+  private boolean assignWork() {
 
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
+      PoolMgr poolMgr = Main.getPoolMgr();
+      long now = System.currentTimeMillis();
+      QueuedWork work =
+          _workQueueMgr.getWorkForAssignment(
+              w -> poolMgr.canAssign(getAffinitySnapshot(w), waitForAffinity(w, now)));
 
       // get out if no work was found
       if (work == null) {
         // _logger.info("WM:AssignWork: No unassigned work\n");
-        return;
+        return false;
       }
 
-      String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
+      String idleWorker =
+          poolMgr.getWorkerForAssignment(getAffinitySnapshot(work), waitForAffinity(work, now));
 
       // get out if no idle worker was found, but release the work first
       if (idleWorker == null) {
         _workQueueMgr.markAssignmentFailure(work);
 
         _logger.info("WM:AssignWork: No idle worker\n");
-        return;
+        return false;
       }
 
-      assignWork(work, idleWorker);
+      return assignWork(work, idleWorker);
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
+      return false;
     }
   }
 
-  private void assignWork(QueuedWork work, String worker) {
+  /**
+   * Returns the snapshot that work should preferably run on a worker that has cached, or {@code
+   * null} if it has no such preference.
+   */
+  @Nullable
+  private static NetworkSnapshot getAffinitySnapshot(QueuedWork work) {
+    WorkDetails details = work.getDetails();
+    if (details.getWorkType() == WorkType.PARSING) {
+      // parsing does not use a cached snapshot
+      return null;
+    }
+    return new NetworkSnapshot(details.getNetworkId(), details.getSnapshotId());
+  }
+
+  /**
+   * Returns true if {@code work} is recent enough to wait for a busy worker that has its snapshot
+   * cached, rather than be assigned to a worker that must load it.
+   */
+  private boolean waitForAffinity(QueuedWork work, long now) {
+    return now - work.getDateCreated().getTime() < _settings.getAffinityDelayMs();
+  }
+
+  /** Tries to assign {@code work} to {@code worker}. Returns true if the worker accepted it. */
+  private boolean assignWork(QueuedWork work, String worker) {
 
     _logger.infof("WM:AssignWork: Trying to assign %s to %s\n", work, worker);
 
@@ -377,7 +438,7 @@ public class WorkMgr extends AbstractCoordinator {
       if (assigned) {
         killWork(work, worker);
       }
-      return;
+      return assigned;
     }
 
     // mark the assignment results for both work and worker
@@ -400,7 +461,8 @@ public class WorkMgr extends AbstractCoordinator {
       _workQueueMgr.markAssignmentFailure(work);
     }
 
-    Main.getPoolMgr().markAssignmentResult(worker, assigned);
+    Main.getPoolMgr().markAssignmentResult(worker, assigned, getAffinitySnapshot(work));
+    return assigned;
   }
 
   private void checkTasks() {
@@ -538,7 +600,34 @@ public class WorkMgr extends AbstractCoordinator {
     // if the task ended, send a hint to the pool manager to look up worker status
     if (task.getStatus().isTerminated()) {
       Main.getPoolMgr().refreshWorkerStatus(worker);
+      triggerAssignWork();
+    }
+  }
+
+  /**
+   * Handles a notification from {@code worker} that the task for the work with id {@code workId}
+   * has terminated: frees the worker's slot, collects the task status, and assigns more work.
+   * Notifications for work that is not assigned (e.g., already checked) are ignored.
+   */
+  public void taskDone(String worker, UUID workId) {
+    QueuedWork work = _workQueueMgr.claimWorkForChecking(workId);
+    if (work == null) {
+      _logger.infof("WM:TaskDone: no assigned work %s\n", workId);
+      return;
+    }
+    String assignedWorker = work.getAssignedWorker();
+    if (assignedWorker == null) {
+      _logger.errorf("WM:TaskDone no assigned worker for %s\n", work);
+      _workQueueMgr.makeWorkUnassigned(work);
+      triggerAssignWork();
+      return;
+    }
+    if (!assignedWorker.equals(worker)) {
+      _logger.errorf(
+          "WM:TaskDone: work %s is assigned to %s, not %s\n", workId, assignedWorker, worker);
     }
+    Main.getPoolMgr().markTaskDone(assignedWorker);
+    checkTask(work, assignedWorker);
   }
 
   WorkDetails computeWorkDetails(WorkItem workItem) {
@@ -868,6 +957,37 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /**
+   * Get the answer for the specified question, with its table filtered, sorted, projected, and
+   * truncated according to {@code options}. Only the rows needed are read from storage. Returns
+   * {@code null} if the question is not answered, and a failure answer if the answer cannot be
+   * read or processed according to {@code options}.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   * @throws IOException if there are any other errors
+   */
+  public @Nullable Answer getFilteredAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws IOException {
+    AnswerId answerId = getFinalAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+    if (answerId == null) {
+      return null;
+    }
+    try {
+      return _answerRowsStore.getAnswer(answerId, options);
+    } catch (Exception e) {
+      _logger.errorf(
+          "Failed to process answer %s: %s\n", answerId, Throwables.getStackTraceAsString(e));
+      return Answer.failureAnswer(e.getMessage(), null);
+    }
+  }
+
   /**
    * Get the answer string for the specified question. Returns {@code null} if the question is not
    * answered.
@@ -879,6 +999,21 @@ public class WorkMgr extends AbstractCoordinator {
       @Nullable String referenceSnapshot,
       @Nullable String analysis)
       throws IOException {
+    AnswerId answerId = getFinalAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+    return answerId == null ? null : _storage.loadAnswer(answerId);
+  }
+
+  /**
+   * Get the ID of the final answer for the specified question, computing the final answer if
+   * necessary. Returns {@code null} if the question is not answered.
+   */
+  private @Nullable AnswerId getFinalAnswerId(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis)
+      throws IOException {
     NetworkId networkId = _idManager.getNetworkId(network);
     AnalysisId analysisId = analysis != null ? _idManager.getAnalysisId(analysis, networkId) : null;
     QuestionId questionId = _idManager.getQuestionId(question, networkId, analysisId);
@@ -902,16 +1037,14 @@ public class WorkMgr extends AbstractCoordinator {
       return null;
     }
     AnswerMetadata baseAnswerMetadata = _storage.loadAnswerMetadata(baseAnswerId);
-    AnswerId finalAnswerId =
-        computeFinalAnswerAndId(
-            baseAnswerMetadata,
-            networkId,
-            snapshotId,
-            questionId,
-            baseAnswerId,
-            referenceSnapshotId,
-            analysisId);
-    return _storage.loadAnswer(finalAnswerId);
+    return computeFinalAnswerAndId(
+        baseAnswerMetadata,
+        networkId,
+        snapshotId,
+        questionId,
+        baseAnswerId,
+        referenceSnapshotId,
+        analysisId);
   }
 
   /**
@@ -1194,7 +1327,8 @@ public class WorkMgr extends AbstractCoordinator {
             .collect(ImmutableSet.toImmutableSet());
     // apply issue configuration to all rows and excluded rows, then collect them
     ImmutableList.Builder<Row> allRows = ImmutableList.builder();
-    applyIssuesConfigurationToRows(oldTable.getRowsList(), issueColumns, majorIssueConfigs)
+    applyIssuesConfigurationToRows(
+            oldTable.getColumnarRows().getRows(), issueColumns, majorIssueConfigs)
         .forEach(allRows::add);
     applyIssuesConfigurationToAllExcludedRows(
             oldTable.getExcludedRows(), issueColumns, majorIssueConfigs)
@@ -2221,8 +2355,7 @@ public class WorkMgr extends AbstractCoordinator {
     }
     // as an optimization trigger AssignWork to see if we can schedule this (or another) work
     if (success) {
-      Thread thread = new Thread(this::assignWork);
-      thread.start();
+      triggerAssignWork();
     }
     return success;
   }
@@ -2240,6 +2373,18 @@ public class WorkMgr extends AbstractCoordinator {
 
     loadPlugins();
 
+    // resume work that was incomplete when the coordinator last stopped
+    for (WorkItem workItem : _workQueueMgr.takeRecoveredWork()) {
+      try {
+        queueWork(workItem);
+        _logger.infof("WM: Resumed work %s\n", workItem.getId());
+      } catch (Exception e) {
+        _logger.errorf(
+            "WM: Could not resume work %s: %s\n",
+            workItem.getId(), Throwables.getStackTraceAsString(e));
+      }
+    }
+
     Executors.newScheduledThreadPool(1)
         .scheduleAtFixedRate(
             new AssignWorkTask(),
@@ -2403,57 +2548,15 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
-  @VisibleForTesting
-  @Nonnull
-  Answer processAnswerRows2(String rawAnswerStr, AnswerRowsOptions options) {
-    if (rawAnswerStr == null) {
-      Answer answer = Answer.failureAnswer("Not found", null);
-      answer.setStatus(AnswerStatus.NOTFOUND);
-      return answer;
-    }
-    try {
-      Answer rawAnswer =
-          BatfishObjectMapper.mapper().readValue(rawAnswerStr, new TypeReference<Answer>() {});
-      // If the AnswerStatus is not SUCCESS, the answer cannot have any AnswerElements related to
-      // actual answers (but, e.g., it might have a BatfishStackTrace). Return that as-is.
-      if (rawAnswer.getStatus() != AnswerStatus.SUCCESS) {
-        return rawAnswer;
-      }
-      return filterAnswer(rawAnswer, options);
-    } catch (Exception e) {
-      _logger.errorf(
-          "Failed to convert answer string to Answer: %s\n", Throwables.getStackTraceAsString(e));
-      return Answer.failureAnswer(e.getMessage(), null);
-    }
-  }
-
-  /** Filter the supplied rawAnswer based on the options provided */
-  public Answer filterAnswer(Answer rawAnswer, AnswerRowsOptions options) {
-    AnswerElement answerElement = rawAnswer.getAnswerElements().get(0);
-    if (!(answerElement instanceof TableAnswerElement)) {
-      return rawAnswer;
-    }
-    TableAnswerElement rawTable = (TableAnswerElement) answerElement;
-    Answer answer = new Answer();
-    answer.setStatus(rawAnswer.getStatus());
-    answer.addAnswerElement(processAnswerTable2(rawTable, options));
-    return answer;
-  }
-
   @VisibleForTesting
   @Nonnull
   TableAnswerElement processAnswerTable(TableAnswerElement rawTable, AnswerRowsOptions options) {
     Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
+    ColumnarTable rawRows = rawTable.getColumnarRows();
+    int[] rowIndices = selectRows(rawTable, options);
 
-    Stream<Row> rowStream = filteredRows.stream();
-    if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
+    // only rows that survive the offset and truncation are materialized
+    Stream<Row> rowStream = Arrays.stream(rowIndices).mapToObj(rawRows::getRow);
     TableAnswerElement table;
     if (options.getColumns().isEmpty()) {
       table = new TableAnswerElement(rawTable.getMetadata());
@@ -2476,62 +2579,27 @@ public class WorkMgr extends AbstractCoordinator {
     // offset, truncate, and add to table
     rowStream.skip(options.getRowOffset()).limit(options.getMaxRows()).forEach(table::addRow);
     table.setSummary(rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    table.getSummary().setNumResults(filteredRows.size());
+    table.getSummary().setNumResults(rowIndices.length);
     return table;
   }
 
-  @VisibleForTesting
-  @Nonnull
-  TableView processAnswerTable2(TableAnswerElement rawTable, AnswerRowsOptions options) {
-    Map<Row, Integer> rowIds = Maps.newIdentityHashMap();
-    CommonUtil.forEachWithIndex(rawTable.getRowsList(), (i, row) -> rowIds.put(row, i));
-    Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
-
-    Stream<Row> rowStream = filteredRows.stream();
-    if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
-    TableMetadata tableMetadata;
-    if (options.getColumns().isEmpty()) {
-      tableMetadata = rawTable.getMetadata();
-    } else {
-      // project to desired columns
-      rowStream =
-          rowStream.map(
-              rawRow -> {
-                Row row = Row.builder().putAll(rawRow, options.getColumns()).build();
-                rowIds.put(row, rowIds.get(rawRow));
-                return row;
-              });
-      Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawColumnMap);
-      columnMap.keySet().retainAll(options.getColumns());
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      tableMetadata = new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc());
-    }
-    if (options.getUniqueRows()) {
-      // uniquify if desired
-      rowStream = rowStream.distinct();
-    }
-    // offset, truncate, and add to table
-    TableView tableView =
-        new TableView(
-            options,
-            rowStream
-                .skip(options.getRowOffset())
-                .limit(options.getMaxRows())
-                .map(row -> new TableViewRow(rowIds.get(row), row))
-                .collect(ImmutableList.toImmutableList()),
-            tableMetadata);
-    tableView.setSummary(
-        rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    tableView.getSummary().setNumResults(filteredRows.size());
-    return tableView;
+  /**
+   * Returns the indices of the rows of {@code rawTable} that pass the filters in {@code options},
+   * in the specified sort order. Filters and sorts run on the columnar rows, so that no row is
+   * materialized.
+   */
+  private @Nonnull int[] selectRows(TableAnswerElement rawTable, AnswerRowsOptions options) {
+    ColumnarTable rawRows = rawTable.getColumnarRows();
+    int[] rowIndices = AnswerRowsStore.matching(rawRows, options.getFilters()).stream().toArray();
+    if (options.getSortOrder().isEmpty()) {
+      return rowIndices;
+    }
+    return AnswerRowsStore.sort(
+        rawRows,
+        rowIndices,
+        rawTable.getMetadata(),
+        options.getSortOrder(),
+        this::schemaComparator);
   }
 
   @VisibleForTesting
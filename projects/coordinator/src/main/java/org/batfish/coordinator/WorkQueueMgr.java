@@ -3,12 +3,14 @@ package org.batfish.coordinator;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -20,7 +22,8 @@ import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.common.util.WorkItemBuilder;
 import org.batfish.coordinator.WorkDetails.WorkType;
-import org.batfish.coordinator.queues.MemoryQueue;
+import org.batfish.coordinator.queues.IndexedWorkQueue;
+import org.batfish.coordinator.queues.WorkJournal;
 import org.batfish.coordinator.queues.WorkQueue;
 import org.batfish.datamodel.InitializationMetadata;
 import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
@@ -30,7 +33,8 @@ import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 // the design of this WorkQueueMgr is such that all synchronization sits here
-// individual queues do not need to be synchronized
+// individual queues do not need to be synchronized, except that looking up work by id is
+// lock-free, so that polling for the status of work does not contend with the scheduler
 
 public class WorkQueueMgr {
 
@@ -44,29 +48,63 @@ public class WorkQueueMgr {
 
   private BatfishLogger _logger;
 
-  @GuardedBy("this")
-  private WorkQueue _queueCompletedWork;
+  private final WorkQueue _queueCompletedWork;
+
+  private final WorkQueue _queueIncompleteWork;
 
+  /** Work recorded in the journal by an earlier run of the coordinator, not yet queued again */
   @GuardedBy("this")
-  private WorkQueue _queueIncompleteWork;
+  private List<WorkItem> _recoveredWork;
 
   WorkQueueMgr(BatfishLogger logger) {
-    this(Main.getSettings().getQueueType(), logger);
+    this(
+        Main.getSettings().getQueueType(),
+        logger,
+        Main.getSettings().getQueueJournal(),
+        Main.getSettings().getQueueCompletedWorkMax());
   }
 
   WorkQueueMgr(WorkQueue.Type wqType, BatfishLogger logger) {
+    this(wqType, logger, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a manager whose incomplete work is recorded in {@code journal}, if not null, and which
+   * keeps at most {@code maxCompletedWork} completed work items.
+   */
+  WorkQueueMgr(
+      WorkQueue.Type wqType,
+      BatfishLogger logger,
+      @Nullable Path journal,
+      int maxCompletedWork) {
     _blockingWork = new HashSet<>();
     _logger = logger;
+    _recoveredWork = ImmutableList.of();
     switch (wqType) {
       case memory:
-        _queueCompletedWork = new MemoryQueue();
-        _queueIncompleteWork = new MemoryQueue();
+        WorkJournal workJournal = null;
+        if (journal != null) {
+          workJournal = new WorkJournal(journal, logger);
+          _recoveredWork = workJournal.recover();
+        }
+        _queueCompletedWork = new IndexedWorkQueue(false, maxCompletedWork, null);
+        _queueIncompleteWork = new IndexedWorkQueue(true, Integer.MAX_VALUE, workJournal);
         break;
       default:
         throw new BatfishException("Unsupported queue type: " + wqType);
     }
   }
 
+  /**
+   * Returns the work that was incomplete when the coordinator last stopped, which the caller should
+   * queue again. Subsequent calls return an empty list.
+   */
+  public synchronized List<WorkItem> takeRecoveredWork() {
+    List<WorkItem> recoveredWork = _recoveredWork;
+    _recoveredWork = ImmutableList.of();
+    return recoveredWork;
+  }
+
   private void cleanUpInitMetaDataIfNeeded(NetworkId networkId, SnapshotId snapshotId)
       throws IOException {
     InitializationMetadata metadata =
@@ -243,7 +281,7 @@ public class WorkQueueMgr {
   public synchronized List<QueuedWork> getCompletedWork(
       NetworkId networkId, SnapshotId snapshotId) {
     ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
-    for (QueuedWork work : _queueCompletedWork) {
+    for (QueuedWork work : _queueCompletedWork.getWork(networkId, snapshotId)) {
       if (work.getDetails().getNetworkId().equals(networkId)
           && work.getDetails().getSnapshotId().equals(snapshotId)) {
         b.add(work);
@@ -254,7 +292,7 @@ public class WorkQueueMgr {
 
   private synchronized QueuedWork getIncompleteWork(
       NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
-    for (QueuedWork work : _queueIncompleteWork) {
+    for (QueuedWork work : _queueIncompleteWork.getWork(networkId, snapshotId)) {
       WorkDetails wDetails = work.getDetails();
       if (networkId.equals(work.getDetails().getNetworkId())
           && ((snapshotId.equals(wDetails.getSnapshotId()))
@@ -315,7 +353,12 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized QueuedWork getWork(UUID workId) {
+  /**
+   * Returns the incomplete or completed work with id {@code workId}, or {@code null} if there is
+   * none. Does not lock the queues: work moves to the completed queue before it leaves the
+   * incomplete queue, so it is always found in one of them.
+   */
+  public QueuedWork getWork(UUID workId) {
     QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
     if (work == null) {
       work = getWork(workId, QueueType.COMPLETED);
@@ -324,7 +367,7 @@ public class WorkQueueMgr {
   }
 
   @Nullable
-  private synchronized QueuedWork getWork(UUID workId, QueueType qType) {
+  private QueuedWork getWork(UUID workId, QueueType qType) {
     switch (qType) {
       case COMPLETED:
         return _queueCompletedWork.getWork(workId);
@@ -337,9 +380,19 @@ public class WorkQueueMgr {
 
   @Nullable
   public synchronized QueuedWork getWorkForAssignment() {
+    return getWorkForAssignment(work -> true);
+  }
+
+  /**
+   * Returns the first unassigned work that satisfies {@code assignable}, marked as being assigned,
+   * or {@code null} if there is none. Work that does not satisfy {@code assignable} keeps its place
+   * in the queue.
+   */
+  @Nullable
+  public synchronized QueuedWork getWorkForAssignment(Predicate<QueuedWork> assignable) {
 
     for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
+      if (work.getStatus() == WorkStatusCode.UNASSIGNED && assignable.test(work)) {
         work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
         return work;
       }
@@ -360,10 +413,28 @@ public class WorkQueueMgr {
     return workToCheck;
   }
 
+  /**
+   * Returns the assigned work with id {@code workId}, marked as being checked, or {@code null} if
+   * there is no such work (e.g., it is already being checked).
+   */
+  @Nullable
+  public synchronized QueuedWork claimWorkForChecking(UUID workId) {
+    QueuedWork work = _queueIncompleteWork.getWork(workId);
+    if (work == null || work.getStatus() != WorkStatusCode.ASSIGNED) {
+      return null;
+    }
+    work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+    return work;
+  }
+
   public synchronized List<QueuedWork> listIncompleteWork(
       NetworkId networkId, @Nullable SnapshotId snapshotId, @Nullable WorkType workType) {
     List<QueuedWork> retList = new LinkedList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
+    Iterable<QueuedWork> candidates =
+        snapshotId == null
+            ? _queueIncompleteWork
+            : _queueIncompleteWork.getWork(networkId, snapshotId);
+    for (QueuedWork work : candidates) {
       // Add to queue if it matches container, testrig if provided, and work type if provided
       if (work.getDetails().getNetworkId().equals(networkId)
           && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
@@ -380,8 +451,8 @@ public class WorkQueueMgr {
 
   // when assignment attempt ends in error, we do not try to reassign
   public synchronized void markAssignmentError(QueuedWork work) {
-    _queueIncompleteWork.delete(work);
     _queueCompletedWork.enque(work);
+    _queueIncompleteWork.delete(work);
     work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
   }
 
@@ -421,8 +492,8 @@ public class WorkQueueMgr {
       case RequeueFailure:
         {
           // move the work to completed queue
-          _queueIncompleteWork.delete(work);
           _queueCompletedWork.enque(work);
+          _queueIncompleteWork.delete(work);
           work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
           work.recordTaskCheckResult(task);
 
@@ -1,7 +1,16 @@
 package org.batfish.coordinator;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.batfish.common.NetworkSnapshot;
 
+/**
+ * The coordinator's view of a worker: its status, how many of the tasks it can run concurrently
+ * (its slots) are free, and which snapshots it has cached.
+ */
 public class WorkerStatus {
 
   public enum StatusCode {
@@ -12,29 +21,155 @@ public class WorkerStatus {
     UNREACHABLE
   }
 
+  /** Number of assignments to this worker that are in flight */
+  private int _assigning;
+  private Set<NetworkSnapshot> _cachedDataPlanes;
+  private Set<NetworkSnapshot> _cachedSnapshots;
+  private int _freeSlots;
   private Date _lastUpdated;
+  private int _slots;
   private StatusCode _statusCode;
 
   public WorkerStatus(StatusCode statusCode) {
+    _slots = 1;
+    _freeSlots = statusCode == StatusCode.IDLE ? 1 : 0;
+    _cachedDataPlanes = new HashSet<>();
+    _cachedSnapshots = new HashSet<>();
     _statusCode = statusCode;
     _lastUpdated = new Date();
   }
 
+  /**
+   * Reserves a free slot for an assignment, which must be concluded with {@link
+   * #assignmentDone(boolean)}.
+   */
+  public void claimSlot() {
+    _freeSlots--;
+    _assigning++;
+    _statusCode = StatusCode.TRYINGTOASSIGN;
+    _lastUpdated = new Date();
+  }
+
+  /**
+   * Concludes an assignment started with {@link #claimSlot()}; the slot is given back if the
+   * assignment was not successful.
+   */
+  public void assignmentDone(boolean assignmentSuccessful) {
+    _assigning = Math.max(0, _assigning - 1);
+    if (!assignmentSuccessful) {
+      _freeSlots = Math.min(_slots, _freeSlots + 1);
+    }
+    updateStatusFromSlots();
+  }
+
+  /**
+   * Returns how well suited this worker is to run work on {@code snapshot}: 2 if it has the data
+   * plane cached, 1 if it has only the configurations cached, and 0 otherwise.
+   */
+  public int getAffinity(@Nullable NetworkSnapshot snapshot) {
+    if (snapshot == null) {
+      return 0;
+    } else if (_cachedDataPlanes.contains(snapshot)) {
+      return 2;
+    } else if (_cachedSnapshots.contains(snapshot)) {
+      return 1;
+    }
+    return 0;
+  }
+
+  public Set<NetworkSnapshot> getCachedDataPlanes() {
+    return ImmutableSet.copyOf(_cachedDataPlanes);
+  }
+
+  public Set<NetworkSnapshot> getCachedSnapshots() {
+    return ImmutableSet.copyOf(_cachedSnapshots);
+  }
+
+  public int getFreeSlots() {
+    return _freeSlots;
+  }
+
   public Date getLastUpdateTime() {
     return _lastUpdated;
   }
 
+  public int getSlots() {
+    return _slots;
+  }
+
   public StatusCode getStatus() {
     return _statusCode;
   }
 
+  /** Returns true if work can be assigned to this worker now. */
+  public boolean hasFreeSlot() {
+    return (_statusCode == StatusCode.IDLE || _statusCode == StatusCode.TRYINGTOASSIGN)
+        && _freeSlots > 0;
+  }
+
+  /** Returns true if this worker is reachable and reported its status. */
+  public boolean isAvailable() {
+    return _statusCode != StatusCode.UNKNOWN && _statusCode != StatusCode.UNREACHABLE;
+  }
+
+  /** Returns true if an assignment to this worker is in flight. */
+  public boolean isAssigning() {
+    return _assigning > 0;
+  }
+
+  /**
+   * Records that work on {@code snapshot} was assigned to this worker, which will load it into its
+   * cache, so that later work on the same snapshot is placed here before the worker next reports.
+   */
+  public void recordAssignedSnapshot(NetworkSnapshot snapshot) {
+    _cachedSnapshots.add(snapshot);
+  }
+
+  /** Frees the slot of a task that the worker reported as terminated. */
+  public void releaseSlot() {
+    _freeSlots = Math.min(_slots, _freeSlots + 1);
+    updateStatusFromSlots();
+  }
+
   @Override
   public String toString() {
-    return String.format("%s (%s)", _statusCode, _lastUpdated);
+    return String.format("%s %d/%d (%s)", _statusCode, _freeSlots, _slots, _lastUpdated);
+  }
+
+  /**
+   * Updates the slots as reported by the worker. Ignored while an assignment is in flight, since
+   * the report may predate it.
+   */
+  public void updateSlots(int slots, int freeSlots) {
+    if (isAssigning()) {
+      return;
+    }
+    _slots = slots;
+    _freeSlots = Math.max(0, Math.min(slots, freeSlots));
+    updateStatusFromSlots();
+  }
+
+  /** Replaces the cached snapshots and data planes with the ones reported by the worker. */
+  public void updateCache(
+      Set<NetworkSnapshot> cachedSnapshots, Set<NetworkSnapshot> cachedDataPlanes) {
+    _cachedSnapshots = new HashSet<>(cachedSnapshots);
+    _cachedDataPlanes = new HashSet<>(cachedDataPlanes);
   }
 
   public void updateStatus(StatusCode statusCode) {
     _statusCode = statusCode;
+    if (statusCode == StatusCode.UNKNOWN || statusCode == StatusCode.UNREACHABLE) {
+      _freeSlots = 0;
+    }
+    _lastUpdated = new Date();
+  }
+
+  private void updateStatusFromSlots() {
+    if (isAssigning()) {
+      _statusCode = StatusCode.TRYINGTOASSIGN;
+    } else {
+      _statusCode = _freeSlots > 0 ? StatusCode.IDLE : StatusCode.BUSY;
+    }
     _lastUpdated = new Date();
   }
 }
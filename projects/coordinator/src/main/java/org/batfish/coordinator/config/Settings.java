@@ -4,6 +4,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.batfish.common.BaseSettings;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
@@ -14,6 +15,7 @@ import org.batfish.datamodel.Ip;
 
 public class Settings extends BaseSettings {
 
+  private static final String ARG_AFFINITY_DELAY_MS = "affinitydelayms";
   private static final String ARG_ALLOW_DEFAULT_KEY_LISTINGS = "allowdefaultkeylistings";
   private static final String ARG_AUTHORIZER_TYPE = "authorizertype";
   private static final String ARG_CONTAINERS_LOCATION = "containerslocation";
@@ -34,7 +36,9 @@ public class Settings extends BaseSettings {
   private static final String ARG_POOL_BIND_HOST = "poolbindhost";
   private static final String ARG_QUESTION_TEMPLATE_DIRS = "templatedirs";
   private static final String ARG_QUEUE_COMPLETED_WORK = "qcompletedwork";
+  private static final String ARG_QUEUE_COMPLETED_WORK_MAX = "qcompletedworkmax";
   private static final String ARG_QUEUE_INCOMPLETE_WORK = "qincompletework";
+  private static final String ARG_QUEUE_JOURNAL = "qjournal";
   private static final String ARG_QUEUE_TYPE = "qtype";
 
   public static final String ARG_SERVICE_NAME = "servicename";
@@ -66,6 +70,7 @@ public class Settings extends BaseSettings {
 
   private static final String EXECUTABLE_NAME = "coordinator";
 
+  private long _affinityDelayMs;
   private Authorizer.Type _authorizerType;
   private Path _containersLocation;
   private String _dbAuthorizerConnString;
@@ -82,6 +87,8 @@ public class Settings extends BaseSettings {
   private String _poolBindHost;
   private List<Path> _questionTemplateDirs;
   private String _queueCompletedWork;
+  private int _queueCompletedWorkMax;
+  private Path _queueJournal;
   private WorkQueue.Type _queueType;
   private String _queuIncompleteWork;
   private String _serviceName;
@@ -120,6 +127,10 @@ public class Settings extends BaseSettings {
     parseCommandLine(args);
   }
 
+  public long getAffinityDelayMs() {
+    return _affinityDelayMs;
+  }
+
   public Authorizer.Type getAuthorizationType() {
     return _authorizerType;
   }
@@ -180,10 +191,19 @@ public class Settings extends BaseSettings {
     return _queueCompletedWork;
   }
 
+  public int getQueueCompletedWorkMax() {
+    return _queueCompletedWorkMax;
+  }
+
   public String getQueueIncompleteWork() {
     return _queuIncompleteWork;
   }
 
+  @Nullable
+  public Path getQueueJournal() {
+    return _queueJournal;
+  }
+
   public WorkQueue.Type getQueueType() {
     return _queueType;
   }
@@ -285,6 +305,7 @@ public class Settings extends BaseSettings {
   }
 
   private void initConfigDefaults() {
+    setDefaultProperty(ARG_AFFINITY_DELAY_MS, 2000);
     setDefaultProperty(ARG_AUTHORIZER_TYPE, Authorizer.Type.none.toString());
     setDefaultProperty(ARG_ALLOW_DEFAULT_KEY_LISTINGS, false);
     setDefaultProperty(ARG_CONTAINERS_LOCATION, "containers");
@@ -305,7 +326,9 @@ public class Settings extends BaseSettings {
     setDefaultProperty(ARG_PERIOD_WORKER_STATUS_REFRESH_MS, 10000);
     setDefaultProperty(ARG_QUESTION_TEMPLATE_DIRS, Collections.emptyList());
     setDefaultProperty(ARG_QUEUE_COMPLETED_WORK, "batfishcompletedwork");
+    setDefaultProperty(ARG_QUEUE_COMPLETED_WORK_MAX, 10000);
     setDefaultProperty(ARG_QUEUE_INCOMPLETE_WORK, "batfishincompletework");
+    setDefaultProperty(ARG_QUEUE_JOURNAL, null);
     setDefaultProperty(ARG_QUEUE_TYPE, WorkQueue.Type.memory.toString());
     setDefaultProperty(ARG_POOL_BIND_HOST, Ip.ZERO.toString());
     setDefaultProperty(ARG_SERVICE_POOL_PORT, CoordConsts.SVC_CFG_POOL_PORT);
@@ -331,6 +354,11 @@ public class Settings extends BaseSettings {
   }
 
   private void initOptions() {
+    addOption(
+        ARG_AFFINITY_DELAY_MS,
+        "how long work waits for a busy worker that has its snapshot cached (ms)",
+        "affinity_delay_ms");
+
     addOption(ARG_AUTHORIZER_TYPE, "type of authorizer to use", "authorizer type");
 
     addOption(ARG_CONTAINERS_LOCATION, "where to store containers", "containers_location");
@@ -367,6 +395,16 @@ public class Settings extends BaseSettings {
     addListOption(
         ARG_QUESTION_TEMPLATE_DIRS, "paths to question template directories", ARGNAME_PATHS);
 
+    addOption(
+        ARG_QUEUE_COMPLETED_WORK_MAX,
+        "number of completed work items to keep; older ones are forgotten",
+        "qcompletedworkmax");
+
+    addOption(
+        ARG_QUEUE_JOURNAL,
+        "file in which to record incomplete work, to resume it when restarted",
+        "qjournal");
+
     addOption(ARG_QUEUE_TYPE, "queue type to use {memory}", "qtype");
 
     addOption(
@@ -419,6 +457,7 @@ public class Settings extends BaseSettings {
       System.exit(0);
     }
 
+    _affinityDelayMs = getLongOptionValue(ARG_AFFINITY_DELAY_MS);
     _authorizerType = Authorizer.Type.valueOf(getStringOptionValue(ARG_AUTHORIZER_TYPE));
     _dbAuthorizerConnString = getStringOptionValue(ARG_DB_AUTHORIZER_CONN_STRING);
     _dbCacheExpiryMs = getLongOptionValue(ARG_DB_AUTHORIZER_CACHE_EXPIRY_MS);
@@ -429,6 +468,8 @@ public class Settings extends BaseSettings {
     _questionTemplateDirs = getPathListOptionValue(ARG_QUESTION_TEMPLATE_DIRS);
     _queuIncompleteWork = getStringOptionValue(ARG_QUEUE_INCOMPLETE_WORK);
     _queueCompletedWork = getStringOptionValue(ARG_QUEUE_COMPLETED_WORK);
+    _queueCompletedWorkMax = getIntegerOptionValue(ARG_QUEUE_COMPLETED_WORK_MAX);
+    _queueJournal = getPathOptionValue(ARG_QUEUE_JOURNAL);
     _queueType = WorkQueue.Type.valueOf(getStringOptionValue(ARG_QUEUE_TYPE));
     _poolBindHost = getStringOptionValue(ARG_POOL_BIND_HOST);
     _serviceName = getStringOptionValue(ARG_SERVICE_NAME);
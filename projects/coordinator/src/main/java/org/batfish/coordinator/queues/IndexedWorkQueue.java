@@ -0,0 +1,200 @@
+package org.batfish.coordinator.queues;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.QueuedWork;
+import org.batfish.coordinator.WorkDetails;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+
+/**
+ * A {@link WorkQueue} indexed by work id and by snapshot.
+ *
+ * <p>If prioritized, work is iterated in {@link WorkPriority} order, and in the order it was queued
+ * within each priority. The queue may be bounded, in which case queuing work beyond the bound
+ * evicts the oldest work of the lowest priority. If it has a {@link WorkJournal}, work that enters
+ * and leaves the queue is recorded in it.
+ *
+ * <p>Like the rest of the queue, this class is synchronized by {@link
+ * org.batfish.coordinator.WorkQueueMgr}, except that {@link #getWork(UUID)} may be called
+ * concurrently with other methods.
+ */
+@ParametersAreNonnullByDefault
+public final class IndexedWorkQueue implements WorkQueue {
+
+  /** Compact the journal once it has this many times more entries than there is work queued. */
+  private static final int JOURNAL_COMPACTION_FACTOR = 4;
+
+  /** Do not compact journals with fewer entries than this. */
+  private static final int JOURNAL_COMPACTION_MIN_LENGTH = 1024;
+
+  private final ConcurrentMap<UUID, QueuedWork> _byId;
+
+  /** Work in each priority class, in the order it was queued */
+  private final List<Map<UUID, QueuedWork>> _byPriority;
+
+  /** Work on each snapshot, including work that uses it as the reference snapshot */
+  private final Map<NetworkSnapshot, Set<QueuedWork>> _bySnapshot;
+
+  private final @Nullable WorkJournal _journal;
+
+  private final int _maxLength;
+
+  private final boolean _prioritized;
+
+  /**
+   * Creates a queue.
+   *
+   * @param prioritized whether to order work by {@link WorkPriority}, rather than only by the order
+   *     it was queued
+   * @param maxLength the maximum number of work items kept in the queue
+   * @param journal where to record work that enters and leaves the queue, if anywhere
+   */
+  public IndexedWorkQueue(boolean prioritized, int maxLength, @Nullable WorkJournal journal) {
+    _prioritized = prioritized;
+    _maxLength = maxLength;
+    _journal = journal;
+    _byId = new ConcurrentHashMap<>();
+    _byPriority = new ArrayList<>();
+    for (int i = 0; i < WorkPriority.values().length; i++) {
+      _byPriority.add(new LinkedHashMap<>());
+    }
+    _bySnapshot = new HashMap<>();
+  }
+
+  @Override
+  public boolean delete(QueuedWork qWork) {
+    if (!remove(qWork)) {
+      return false;
+    }
+    if (_journal != null) {
+      _journal.remove(qWork.getId());
+      if (_journal.getLength()
+          > Math.max(JOURNAL_COMPACTION_MIN_LENGTH, JOURNAL_COMPACTION_FACTOR * _byId.size())) {
+        _journal.compact(getWorkItems());
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public QueuedWork deque() {
+    Iterator<QueuedWork> iterator = iterator();
+    if (!iterator.hasNext()) {
+      return null;
+    }
+    QueuedWork work = iterator.next();
+    delete(work);
+    return work;
+  }
+
+  @Override
+  public boolean enque(QueuedWork work) {
+    if (_byId.containsKey(work.getId())) {
+      return false;
+    }
+    if (_journal != null) {
+      // record the work first, so that work in the queue is always in the journal
+      _journal.add(work.getWorkItem());
+    }
+    _byPriority.get(priority(work)).put(work.getId(), work);
+    for (NetworkSnapshot snapshot : getSnapshots(work)) {
+      _bySnapshot.computeIfAbsent(snapshot, s -> new LinkedHashSet<>()).add(work);
+    }
+    _byId.put(work.getId(), work);
+    while (_byId.size() > _maxLength) {
+      evict();
+    }
+    return true;
+  }
+
+  @Override
+  public long getLength() {
+    return _byId.size();
+  }
+
+  @Nullable
+  @Override
+  public QueuedWork getWork(UUID workItemId) {
+    return _byId.get(workItemId);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<QueuedWork> getWork(NetworkId networkId, SnapshotId snapshotId) {
+    Set<QueuedWork> work = _bySnapshot.get(new NetworkSnapshot(networkId, snapshotId));
+    return work == null ? ImmutableList.of() : ImmutableList.copyOf(work);
+  }
+
+  @Override
+  public @Nonnull Iterator<QueuedWork> iterator() {
+    return Iterators.unmodifiableIterator(
+        Iterators.concat(_byPriority.stream().map(m -> m.values().iterator()).iterator()));
+  }
+
+  /** Removes the oldest work of the lowest priority, without recording it in the journal. */
+  private void evict() {
+    for (int i = _byPriority.size() - 1; i >= 0; i--) {
+      Iterator<QueuedWork> iterator = _byPriority.get(i).values().iterator();
+      if (iterator.hasNext()) {
+        remove(iterator.next());
+        return;
+      }
+    }
+  }
+
+  private static List<NetworkSnapshot> getSnapshots(QueuedWork work) {
+    WorkDetails details = work.getDetails();
+    NetworkSnapshot snapshot = new NetworkSnapshot(details.getNetworkId(), details.getSnapshotId());
+    SnapshotId referenceSnapshotId = details.getReferenceSnapshotId();
+    if (!details.isDifferential() || referenceSnapshotId == null) {
+      return ImmutableList.of(snapshot);
+    }
+    return ImmutableList.of(
+        snapshot, new NetworkSnapshot(details.getNetworkId(), referenceSnapshotId));
+  }
+
+  private List<WorkItem> getWorkItems() {
+    ImmutableList.Builder<WorkItem> workItems = ImmutableList.builder();
+    forEach(work -> workItems.add(work.getWorkItem()));
+    return workItems.build();
+  }
+
+  private int priority(QueuedWork work) {
+    return _prioritized ? WorkPriority.of(work).ordinal() : 0;
+  }
+
+  private boolean remove(QueuedWork work) {
+    if (_byId.get(work.getId()) != work) {
+      return false;
+    }
+    _byPriority.get(priority(work)).remove(work.getId());
+    for (NetworkSnapshot snapshot : getSnapshots(work)) {
+      Set<QueuedWork> snapshotWork = _bySnapshot.get(snapshot);
+      snapshotWork.remove(work);
+      if (snapshotWork.isEmpty()) {
+        _bySnapshot.remove(snapshot);
+      }
+    }
+    _byId.remove(work.getId());
+    return true;
+  }
+}
@@ -0,0 +1,184 @@
+package org.batfish.coordinator.queues;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.WorkItem;
+import org.batfish.common.util.BatfishObjectMapper;
+
+/**
+ * An append-only file recording the {@link WorkItem WorkItems} that enter and leave a {@link
+ * WorkQueue}, so that the queue can be restored when the coordinator restarts.
+ *
+ * <p>Each line is a JSON object, either <code>{"add": workItem}</code> or <code>{"remove": id}
+ * </code>. Each entry is flushed as it is written, so it survives the coordinator process, though
+ * not necessarily the machine, crashing.
+ */
+@ParametersAreNonnullByDefault
+public final class WorkJournal implements Closeable {
+
+  private static final String PROP_ADD = "add";
+
+  private static final String PROP_REMOVE = "remove";
+
+  private final Path _file;
+
+  /** Number of entries in the file */
+  private long _length;
+
+  private final BatfishLogger _logger;
+
+  /**
+   * Ids of recovered work that is still recorded as added, so need not be recorded again when it
+   * is queued again
+   */
+  private final Set<UUID> _recovered;
+
+  private BufferedWriter _writer;
+
+  /**
+   * Opens the journal in {@code file}. The work it records must be read with {@link #recover()}
+   * before any new work is recorded.
+   */
+  public WorkJournal(Path file, BatfishLogger logger) {
+    _file = file;
+    _logger = logger;
+    _recovered = new HashSet<>();
+  }
+
+  /**
+   * Returns the work items recorded as added but not removed, in the order they were added, and
+   * compacts the journal to just those work items. Adding one of those work items again, when it
+   * is queued again, does not record it a second time.
+   */
+  public @Nonnull List<WorkItem> recover() {
+    Map<UUID, WorkItem> workItems = new LinkedHashMap<>();
+    if (Files.exists(_file)) {
+      try (BufferedReader reader = Files.newBufferedReader(_file, UTF_8)) {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+          lineNumber++;
+          if (line.isEmpty()) {
+            continue;
+          }
+          try {
+            JsonNode entry = BatfishObjectMapper.mapper().readTree(line);
+            if (entry.has(PROP_ADD)) {
+              WorkItem workItem =
+                  BatfishObjectMapper.mapper().treeToValue(entry.get(PROP_ADD), WorkItem.class);
+              workItems.put(workItem.getId(), workItem);
+            } else if (entry.has(PROP_REMOVE)) {
+              workItems.remove(UUID.fromString(entry.get(PROP_REMOVE).asText()));
+            } else {
+              _logger.errorf("Ignoring unknown entry in %s line %d\n", _file, lineNumber);
+            }
+          } catch (IOException | IllegalArgumentException e) {
+            // most likely the last entry, partially written when the coordinator stopped
+            _logger.errorf(
+                "Ignoring unreadable entry in %s line %d: %s\n", _file, lineNumber, e.getMessage());
+          }
+        }
+      } catch (IOException e) {
+        throw new BatfishException("Failed to read work journal " + _file, e);
+      }
+    }
+    List<WorkItem> recovered = ImmutableList.copyOf(workItems.values());
+    compact(recovered);
+    _recovered.addAll(workItems.keySet());
+    return recovered;
+  }
+
+  /** Records that {@code workItem} entered the queue, unless it was recovered and is recorded. */
+  public void add(WorkItem workItem) {
+    if (_recovered.remove(workItem.getId())) {
+      return;
+    }
+    ObjectNode entry = BatfishObjectMapper.mapper().createObjectNode();
+    entry.set(PROP_ADD, BatfishObjectMapper.mapper().valueToTree(workItem));
+    write(entry);
+  }
+
+  /** Records that the work with id {@code workId} left the queue. */
+  public void remove(UUID workId) {
+    _recovered.remove(workId);
+    ObjectNode entry = BatfishObjectMapper.mapper().createObjectNode();
+    entry.put(PROP_REMOVE, workId.toString());
+    write(entry);
+  }
+
+  /** Returns the number of entries in the journal. */
+  public long getLength() {
+    return _length;
+  }
+
+  /**
+   * Replaces the journal with one that records only the addition of {@code workItems}. Recovered
+   * work not among them is dropped, and is recorded again if it is queued again.
+   */
+  public void compact(Collection<WorkItem> workItems) {
+    _recovered.clear();
+    Path tmpFile = _file.resolveSibling(_file.getFileName() + ".tmp");
+    try {
+      close();
+      Files.createDirectories(_file.toAbsolutePath().getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(tmpFile, UTF_8)) {
+        for (WorkItem workItem : workItems) {
+          ObjectNode entry = BatfishObjectMapper.mapper().createObjectNode();
+          entry.set(PROP_ADD, BatfishObjectMapper.mapper().valueToTree(workItem));
+          writer.write(BatfishObjectMapper.mapper().writeValueAsString(entry));
+          writer.newLine();
+        }
+      }
+      Files.move(
+          tmpFile, _file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      _length = workItems.size();
+      _writer = Files.newBufferedWriter(_file, UTF_8, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new BatfishException("Failed to compact work journal " + _file, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (_writer != null) {
+      _writer.close();
+      _writer = null;
+    }
+  }
+
+  private void write(JsonNode entry) {
+    if (_writer == null) {
+      throw new BatfishException("Work journal " + _file + " must be recovered before use");
+    }
+    try {
+      _writer.write(BatfishObjectMapper.mapper().writeValueAsString(entry));
+      _writer.newLine();
+      _writer.flush();
+      _length++;
+    } catch (IOException e) {
+      throw new BatfishException("Failed to write work journal " + _file, e);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.batfish.coordinator.queues;
+
+import org.batfish.coordinator.QueuedWork;
+
+/** Priority classes of queued work, from highest to lowest priority. */
+public enum WorkPriority {
+  /** Answering questions and analyses, which users are waiting for */
+  INTERACTIVE,
+  /** Parsing, data plane computation, and other work on a whole snapshot */
+  BULK;
+
+  public static WorkPriority of(QueuedWork work) {
+    switch (work.getDetails().getWorkType()) {
+      case DATAPLANE_DEPENDENT_ANSWERING:
+      case INDEPENDENT_ANSWERING:
+      case PARSING_DEPENDENT_ANSWERING:
+        return INTERACTIVE;
+      default:
+        return BULK;
+    }
+  }
+}
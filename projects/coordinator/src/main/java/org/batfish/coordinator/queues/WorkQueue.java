@@ -1,7 +1,10 @@
 package org.batfish.coordinator.queues;
 
+import java.util.Collection;
 import java.util.UUID;
 import org.batfish.coordinator.QueuedWork;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 
 public interface WorkQueue extends Iterable<QueuedWork> {
 
@@ -18,4 +21,10 @@ public interface WorkQueue extends Iterable<QueuedWork> {
   long getLength();
 
   QueuedWork getWork(UUID workItemId);
+
+  /**
+   * Returns the work on the given snapshot, including differential work that uses it as the
+   * reference snapshot.
+   */
+  Collection<QueuedWork> getWork(NetworkId networkId, SnapshotId snapshotId);
 }
@@ -0,0 +1,181 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.batfish.identifiers.AnswerId;
+import org.batfish.storage.FileBasedStorage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link AnswerRowsStore} */
+public class AnswerRowsStoreTest {
+
+  private static final String COL_NAME = "name";
+
+  private static final String COL_VALUE = "value";
+
+  private static final AnswerId ANSWER_ID = new AnswerId("answer");
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private FileBasedStorage _storage;
+
+  private AnswerRowsStore _store;
+
+  @Before
+  public void setup() throws IOException {
+    _storage =
+        new FileBasedStorage(
+            _folder.getRoot().toPath(), new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false));
+    // orders the values of every schema naturally
+    _store = new AnswerRowsStore(_storage, schema -> Comparator.naturalOrder());
+    storeAnswer(
+        Row.of(COL_NAME, "a", COL_VALUE, 3),
+        Row.of(COL_NAME, "b", COL_VALUE, 1),
+        Row.of(COL_NAME, "c", COL_VALUE, 2),
+        Row.of(COL_NAME, "d", COL_VALUE, 1),
+        Row.of(COL_NAME, "ab", COL_VALUE, 2));
+  }
+
+  private void storeAnswer(Row... rows) throws IOException {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata(COL_NAME, Schema.STRING, "name"),
+                    new ColumnMetadata(COL_VALUE, Schema.INTEGER, "value"))));
+    for (Row row : rows) {
+      table.addRow(row);
+    }
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _storage.storeAnswer(BatfishObjectMapper.writeString(answer), ANSWER_ID);
+  }
+
+  private TableView getTableView(AnswerRowsOptions options) throws IOException {
+    return (TableView) _store.getAnswer(ANSWER_ID, options).getAnswerElements().get(0);
+  }
+
+  private static List<Integer> getIds(TableView tableView) {
+    return tableView.getRows().stream().map(TableViewRow::getId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testSortAndPage() throws IOException {
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            2,
+            1,
+            ImmutableList.of(new ColumnSortOption(COL_VALUE, false)),
+            false);
+
+    // ties keep the order of the rows in the answer
+    TableView tableView = getTableView(options);
+    assertThat(getIds(tableView), contains(3, 2));
+    assertThat(
+        tableView.getInnerRows(),
+        contains(Row.of(COL_NAME, "d", COL_VALUE, 1), Row.of(COL_NAME, "c", COL_VALUE, 2)));
+    assertThat(tableView.getSummary().getNumResults(), equalTo(5));
+    assertTrue(_storage.hasAnswerObject(ANSWER_ID, AnswerRowsStore.KEY_HEADER));
+
+    // the second request uses the stored sort order
+    assertThat(getIds(getTableView(options)), contains(3, 2));
+  }
+
+  @Test
+  public void testFilter() throws IOException {
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(new ColumnFilter(COL_NAME, "a")),
+            1,
+            1,
+            ImmutableList.of(),
+            false);
+
+    TableView tableView = getTableView(options);
+    assertThat(getIds(tableView), contains(4));
+    assertThat(tableView.getSummary().getNumResults(), equalTo(2));
+  }
+
+  @Test
+  public void testProjectUniqueRows() throws IOException {
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(COL_VALUE),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption(COL_VALUE, true)),
+            true);
+
+    TableView tableView = getTableView(options);
+    assertThat(getIds(tableView), contains(0, 2, 1));
+    assertThat(
+        tableView.getInnerRows(),
+        contains(Row.of(COL_VALUE, 3), Row.of(COL_VALUE, 2), Row.of(COL_VALUE, 1)));
+    assertThat(
+        tableView.getTableMetadata().getColumnMetadata().stream()
+            .map(ColumnMetadata::getName)
+            .collect(Collectors.toList()),
+        contains(COL_VALUE));
+    assertThat(tableView.getSummary().getNumResults(), equalTo(5));
+  }
+
+  @Test
+  public void testNonTableAnswer() throws IOException {
+    Answer answer = Answer.failureAnswer("failed", null);
+    _storage.storeAnswer(BatfishObjectMapper.writeString(answer), ANSWER_ID);
+
+    assertThat(
+        _store.getAnswer(ANSWER_ID, AnswerRowsOptions.NO_FILTER).getStatus(),
+        equalTo(AnswerStatus.FAILURE));
+  }
+
+  @Test
+  public void testAnswerReplaced() throws IOException {
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption(COL_VALUE, false)),
+            false);
+    getTableView(options);
+
+    storeAnswer(Row.of(COL_NAME, "e", COL_VALUE, 2), Row.of(COL_NAME, "f", COL_VALUE, 1));
+
+    TableView tableView = getTableView(options);
+    assertThat(getIds(tableView), contains(1, 0));
+    assertThat(tableView.getSummary().getNumResults(), equalTo(2));
+  }
+}
@@ -0,0 +1,111 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+import org.batfish.coordinator.config.Settings;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.codehaus.jettison.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link PoolMgr} */
+public class PoolMgrTest {
+
+  private static final NetworkSnapshot SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("net"), new SnapshotId("snap"));
+
+  private static final NetworkSnapshot OTHER_SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("net"), new SnapshotId("other"));
+
+  private PoolMgr _poolMgr;
+
+  @Before
+  public void setup() {
+    _poolMgr = new PoolMgr(new Settings(new String[] {}), new BatfishLogger("fatal", false));
+  }
+
+  private WorkerStatus addWorker(String worker, int slots, int freeSlots) {
+    WorkerStatus status = new WorkerStatus(StatusCode.UNKNOWN);
+    status.updateSlots(slots, freeSlots);
+    _poolMgr.addToPool(worker, status);
+    return status;
+  }
+
+  @Test
+  public void testMostFreeSlots() {
+    addWorker("w1", 2, 1);
+    addWorker("w2", 2, 2);
+    assertThat(_poolMgr.getWorkerForAssignment(null, false), equalTo("w2"));
+    // w2 now has one free slot, so either may be picked; both then become full
+    _poolMgr.getWorkerForAssignment(null, false);
+    _poolMgr.getWorkerForAssignment(null, false);
+    assertThat(_poolMgr.getWorkerForAssignment(null, false), nullValue());
+  }
+
+  @Test
+  public void testPreferDataPlane() {
+    addWorker("w1", 1, 1).updateCache(ImmutableSet.of(SNAPSHOT), ImmutableSet.of());
+    addWorker("w2", 1, 1).updateCache(ImmutableSet.of(SNAPSHOT), ImmutableSet.of(SNAPSHOT));
+    addWorker("w3", 4, 4);
+    assertThat(_poolMgr.getWorkerForAssignment(SNAPSHOT, true), equalTo("w2"));
+    assertThat(_poolMgr.getWorkerForAssignment(SNAPSHOT, true), equalTo("w1"));
+    assertThat(_poolMgr.getWorkerForAssignment(OTHER_SNAPSHOT, true), equalTo("w3"));
+    assertThat(_poolMgr.getAffinityHits(), equalTo(2L));
+    assertThat(_poolMgr.getAffinityMisses(), equalTo(1L));
+  }
+
+  @Test
+  public void testWaitForAffinity() {
+    addWorker("w1", 1, 0).updateCache(ImmutableSet.of(SNAPSHOT), ImmutableSet.of(SNAPSHOT));
+    addWorker("w2", 1, 1);
+
+    // the only worker with the snapshot is busy
+    assertFalse(_poolMgr.canAssign(SNAPSHOT, true));
+    assertThat(_poolMgr.getWorkerForAssignment(SNAPSHOT, true), nullValue());
+
+    // work on other snapshots is not held up
+    assertTrue(_poolMgr.canAssign(OTHER_SNAPSHOT, true));
+
+    // once the delay has passed, any worker will do
+    assertThat(_poolMgr.getWorkerForAssignment(SNAPSHOT, false), equalTo("w2"));
+  }
+
+  @Test
+  public void testAssignmentRecordsSnapshot() {
+    addWorker("w1", 2, 2);
+    addWorker("w2", 1, 1);
+    String worker = _poolMgr.getWorkerForAssignment(SNAPSHOT, true);
+    assertThat(worker, equalTo("w1"));
+    _poolMgr.markAssignmentResult(worker, true, SNAPSHOT);
+
+    // the next work on the same snapshot follows it, though w2 has as many free slots
+    assertThat(_poolMgr.getWorkerForAssignment(SNAPSHOT, true), equalTo("w1"));
+  }
+
+  @Test
+  public void testFailedAssignmentDoesNotRecordSnapshot() {
+    WorkerStatus status = addWorker("w1", 1, 1);
+    _poolMgr.getWorkerForAssignment(SNAPSHOT, true);
+    _poolMgr.markAssignmentResult("w1", false, SNAPSHOT);
+    assertThat(status.getCachedSnapshots(), empty());
+    assertThat(status.getFreeSlots(), equalTo(1));
+  }
+
+  @Test
+  public void testParseSnapshots() throws Exception {
+    JSONArray array = new JSONArray("[[\"net\",\"snap\"]]");
+    assertThat(PoolMgr.parseSnapshots(array), contains(SNAPSHOT));
+    assertThat(PoolMgr.parseSnapshots(null), empty());
+  }
+}
@@ -998,6 +998,202 @@ public final class WorkMgrTest {
         _manager.getAnswer(network, snapshot, questionName, referenceSnapshot, null), nullValue());
   }
 
+  @Test
+  public void testGetFilteredAnswer() throws IOException {
+    String columnName = "issue";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.ISSUE, "foobar"))));
+    table.addRow(Row.of(columnName, new Issue("blah", 5, new Issue.Type("m", "n"))));
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(columnName),
+            ImmutableList.of(),
+            1,
+            0,
+            ImmutableList.of(new ColumnSortOption(columnName, true)),
+            false);
+
+    TableView tableView = getFilteredTable("network", "snapshot", "question", options);
+
+    // Confirm filter options were applied correctly
+    assertThat(tableView.getInnerRows(), equalTo(table.getRowsList()));
+  }
+
+  @Test
+  public void testGetFilteredAnswerFailure() throws IOException {
+    String columnName = "val";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.STRING, "foobar"))));
+    table.addRow(Row.of(columnName, "hello"));
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(new ColumnFilter("missing", "hello")),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(),
+            false);
+
+    // An answer that cannot be processed is reported as a failure, not thrown
+    Answer answer =
+        _manager.getFilteredAnswer("network", "snapshot", "question", null, null, options);
+
+    assertThat(answer.getStatus(), equalTo(AnswerStatus.FAILURE));
+  }
+
+  @Test
+  public void testGetFilteredAnswerFiltered() throws IOException {
+    String columnName = "val";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.STRING, "foobar"))));
+    String whitelistedValue = "hello";
+    Row row1 = Row.of(columnName, whitelistedValue);
+    Row row2 = Row.of(columnName, "goodbye");
+    table.addRow(row1);
+    table.addRow(row2);
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions optionsNotFiltered =
+        new AnswerRowsOptions(
+            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false);
+    AnswerRowsOptions optionsFiltered =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(new ColumnFilter(columnName, whitelistedValue)),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(),
+            false);
+
+    TableView notFiltered = getFilteredTable("network", "snapshot", "question", optionsNotFiltered);
+    TableView filtered = getFilteredTable("network", "snapshot", "question", optionsFiltered);
+
+    assertThat(notFiltered.getInnerRows(), equalTo(ImmutableList.of(row1, row2)));
+    assertThat(filtered.getInnerRows(), equalTo(ImmutableList.of(row1)));
+
+    assertThat(notFiltered.getSummary().getNumResults(), equalTo(2));
+    assertThat(filtered.getSummary().getNumResults(), equalTo(1));
+  }
+
+  @Test
+  public void testGetFilteredAnswerNotFound() throws IOException {
+    _manager.initNetwork("network", null);
+    uploadTestSnapshot("network", "snapshot");
+    setupQuestionAndAnswer("network", "snapshot", "question", null, null);
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false);
+
+    assertThat(
+        _manager.getFilteredAnswer("network", "snapshot", "question", null, null, options),
+        nullValue());
+  }
+
+  @Test
+  public void testGetFilteredAnswerProject() throws IOException {
+    String columnName = "val";
+    String otherColumnName = "val2";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata(columnName, Schema.INTEGER, "foobar"),
+                    new ColumnMetadata(otherColumnName, Schema.INTEGER, "foobaz"))));
+    table.addRow(Row.of(columnName, 1, otherColumnName, 3));
+    table.addRow(Row.of(columnName, 2, otherColumnName, 4));
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions optionsProject =
+        new AnswerRowsOptions(
+            ImmutableSet.of(columnName),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(),
+            false);
+
+    TableView projected = getFilteredTable("network", "snapshot", "question", optionsProject);
+
+    // Projected rows keep the ids of the rows they came from
+    assertThat(
+        projected.getRows(),
+        equalTo(
+            ImmutableList.of(
+                new TableViewRow(0, Row.of(columnName, 1)),
+                new TableViewRow(1, Row.of(columnName, 2)))));
+    assertThat(
+        projected.getTableMetadata().getColumnMetadata(),
+        equalTo(ImmutableList.of(new ColumnMetadata(columnName, Schema.INTEGER, "foobar"))));
+  }
+
+  @Test
+  public void testGetFilteredAnswerSorted() throws IOException {
+    String columnName = "val";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.INTEGER, "foobar"))));
+    Row row1 = Row.of(columnName, 1);
+    Row row2 = Row.of(columnName, 2);
+    table.addRow(row1);
+    table.addRow(row2);
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions optionsSortingReverse =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption(columnName, true)),
+            false);
+
+    TableView sorted = getFilteredTable("network", "snapshot", "question", optionsSortingReverse);
+
+    assertThat(
+        sorted.getRows(),
+        equalTo(ImmutableList.of(new TableViewRow(1, row2), new TableViewRow(0, row1))));
+  }
+
+  @Test
+  public void testGetFilteredAnswerUniqueRows() throws IOException {
+    String columnName = "val";
+    String otherColumnName = "val2";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata(columnName, Schema.INTEGER, "foobar"),
+                    new ColumnMetadata(otherColumnName, Schema.INTEGER, "foobaz"))));
+    table.addRow(Row.of(columnName, 1, otherColumnName, 3));
+    table.addRow(Row.of(columnName, 1, otherColumnName, 4));
+    table.addRow(Row.of(columnName, 2, otherColumnName, 5));
+    setupTableAnswer("network", "snapshot", "question", table);
+    AnswerRowsOptions optionsUnique =
+        new AnswerRowsOptions(
+            ImmutableSet.of(columnName),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(),
+            true);
+
+    TableView unique = getFilteredTable("network", "snapshot", "question", optionsUnique);
+
+    // Each distinct row keeps the id of its first occurrence
+    assertThat(
+        unique.getRows(),
+        equalTo(
+            ImmutableList.of(
+                new TableViewRow(0, Row.of(columnName, 1)),
+                new TableViewRow(2, Row.of(columnName, 2)))));
+  }
+
   @Test
   public void testGetAnswerStringAnalysis() throws IOException {
     String containerName = "container1";
@@ -1736,36 +1932,6 @@ public final class WorkMgrTest {
     assertThat(processedRows, equalTo(table.getRowsList()));
   }
 
-  @Test
-  public void testProcessAnswerRows2() throws IOException {
-    String columnName = "issue";
-    int maxRows = 1;
-    int rowOffset = 0;
-    TableAnswerElement table =
-        new TableAnswerElement(
-            new TableMetadata(
-                ImmutableList.of(new ColumnMetadata(columnName, Schema.ISSUE, "foobar"))));
-    table.addRow(Row.of(columnName, new Issue("blah", 5, new Issue.Type("m", "n"))));
-    Answer answer = new Answer();
-    answer.addAnswerElement(table);
-    answer.setStatus(AnswerStatus.SUCCESS);
-    String answerStr = BatfishObjectMapper.writePrettyString(answer);
-    AnswerRowsOptions options =
-        new AnswerRowsOptions(
-            ImmutableSet.of(columnName),
-            ImmutableList.of(),
-            maxRows,
-            rowOffset,
-            ImmutableList.of(new ColumnSortOption(columnName, true)),
-            false);
-
-    List<Row> processedRows =
-        ((TableView) _manager.processAnswerRows2(answerStr, options).getAnswerElements().get(0))
-            .getInnerRows();
-
-    assertThat(processedRows, equalTo(table.getRowsList()));
-  }
-
   @Test
   public void testProcessAnswerRowsFailure() throws IOException {
     String columnName = "issue";
@@ -1932,40 +2098,6 @@ public final class WorkMgrTest {
     assertThat(filtered.getSummary().getNumResults(), equalTo(1));
   }
 
-  @Test
-  public void testProcessAnswerTable2Filtered() {
-    String columnName = "val";
-    TableAnswerElement table =
-        new TableAnswerElement(
-            new TableMetadata(
-                ImmutableList.of(new ColumnMetadata(columnName, Schema.STRING, "foobar"))));
-    String whitelistedValue = "hello";
-    Row row1 = Row.of(columnName, whitelistedValue);
-    Row row2 = Row.of(columnName, "goodbye");
-    table.addRow(row1);
-    table.addRow(row2);
-    AnswerRowsOptions optionsNotFiltered =
-        new AnswerRowsOptions(
-            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false);
-    AnswerRowsOptions optionsFiltered =
-        new AnswerRowsOptions(
-            ImmutableSet.of(),
-            ImmutableList.of(new ColumnFilter(columnName, whitelistedValue)),
-            Integer.MAX_VALUE,
-            0,
-            ImmutableList.of(),
-            false);
-
-    TableView notFiltered = _manager.processAnswerTable2(table, optionsNotFiltered);
-    TableView filtered = _manager.processAnswerTable2(table, optionsFiltered);
-
-    assertThat(notFiltered.getInnerRows(), equalTo(ImmutableList.of(row1, row2)));
-    assertThat(filtered.getInnerRows(), equalTo(ImmutableList.of(row1)));
-
-    assertThat(notFiltered.getSummary().getNumResults(), equalTo(2));
-    assertThat(filtered.getSummary().getNumResults(), equalTo(1));
-  }
-
   @Test
   public void testProcessAnswerTableMaxRows() {
     String columnName = "val";
@@ -2030,47 +2162,6 @@ public final class WorkMgrTest {
     assertThat(projectedRows, equalTo(ImmutableList.of(row1Projected, row2Projected)));
   }
 
-  @Test
-  public void testProcessAnswerTable2Project() {
-    String columnName = "val";
-    String otherColumnName = "val2";
-    TableMetadata originalMetadata =
-        new TableMetadata(
-            ImmutableList.of(
-                new ColumnMetadata(columnName, Schema.INTEGER, "foobar"),
-                new ColumnMetadata(otherColumnName, Schema.INTEGER, "foobaz")));
-    TableAnswerElement table = new TableAnswerElement(originalMetadata);
-    Row row1 = Row.of(columnName, 1, otherColumnName, 3);
-    Row row2 = Row.of(columnName, 2, otherColumnName, 4);
-    table.addRow(row1);
-    table.addRow(row2);
-    AnswerRowsOptions optionsNoProject =
-        new AnswerRowsOptions(
-            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false);
-    AnswerRowsOptions optionsProject =
-        new AnswerRowsOptions(
-            ImmutableSet.of(columnName),
-            ImmutableList.of(),
-            Integer.MAX_VALUE,
-            0,
-            ImmutableList.of(),
-            false);
-
-    TableViewRow row1Projected = new TableViewRow(0, Row.of(columnName, 1));
-    TableViewRow row2Projected = new TableViewRow(1, Row.of(columnName, 2));
-
-    assertThat(
-        _manager.processAnswerTable(table, optionsNoProject).getRowsList(),
-        equalTo(ImmutableList.of(row1, row2)));
-
-    List<TableViewRow> projectedRows =
-        _manager.processAnswerTable2(table, optionsProject).getRows();
-
-    assertThat(projectedRows, equalTo(ImmutableList.of(row1Projected, row2Projected)));
-    assertThat(projectedRows.get(0).getId(), equalTo(0));
-    assertThat(projectedRows.get(1).getId(), equalTo(1));
-  }
-
   @Test
   public void testProcessAnswerTableUniqueRows() {
     String columnName = "val";
@@ -2744,6 +2835,26 @@ public final class WorkMgrTest {
         not(equalTo(questionSettingsId)));
   }
 
+  /** Creates the network and snapshot, and answers {@code question} with {@code table} */
+  private void setupTableAnswer(
+      String network, String snapshot, String question, TableAnswerElement table)
+      throws IOException {
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, question, null, answer);
+  }
+
+  private TableView getFilteredTable(
+      String network, String snapshot, String question, AnswerRowsOptions options)
+      throws IOException {
+    Answer answer = _manager.getFilteredAnswer(network, snapshot, question, null, null, options);
+    assertThat(answer.getStatus(), equalTo(AnswerStatus.SUCCESS));
+    return (TableView) answer.getAnswerElements().get(0);
+  }
+
   private void uploadTestSnapshot(String network, String snapshot) throws IOException {
     WorkMgrTestUtils.uploadTestSnapshot(network, snapshot, _folder);
   }
@@ -3088,34 +3199,4 @@ public final class WorkMgrTest {
     _idManager.assignQuestion(question, networkId, _idManager.generateQuestionId(), analysisId);
     assertTrue(_manager.checkQuestionExists(network, question, analysis));
   }
-
-  @Test
-  public void testFilterAnswer() {
-    String columnName = "issue";
-    int maxRows = 1;
-    int rowOffset = 0;
-    TableAnswerElement table =
-        new TableAnswerElement(
-            new TableMetadata(
-                ImmutableList.of(new ColumnMetadata(columnName, Schema.ISSUE, "foobar"))));
-    table.addRow(Row.of(columnName, new Issue("blah", 5, new Issue.Type("m", "n"))));
-    Answer answer = new Answer();
-    answer.addAnswerElement(table);
-    answer.setStatus(AnswerStatus.SUCCESS);
-    AnswerRowsOptions options =
-        new AnswerRowsOptions(
-            ImmutableSet.of(columnName),
-            ImmutableList.of(),
-            maxRows,
-            rowOffset,
-            ImmutableList.of(new ColumnSortOption(columnName, true)),
-            false);
-
-    List<Row> processedRows =
-        ((TableView) _manager.filterAnswer(answer, options).getAnswerElements().get(0))
-            .getInnerRows();
-
-    // Confirm filter options were applied correctly
-    assertThat(processedRows, equalTo(table.getRowsList()));
-  }
 }
@@ -3,6 +3,7 @@ package org.batfish.coordinator;
 import static org.batfish.coordinator.matchers.WorkQueueMatchers.hasWorkItem;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -16,6 +17,7 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts.TaskStatus;
@@ -1267,6 +1269,35 @@ public final class WorkQueueMgrTest {
     assertThat(workToCheck, iterableWithSize(2));
   }
 
+  @Test
+  public void testClaimWorkForChecking() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    QueuedWork work =
+        new QueuedWork(
+            new WorkItem(NETWORK, snapshot),
+            WorkDetails.builder()
+                .setNetworkId(_networkId)
+                .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId))
+                .setWorkType(WorkType.UNKNOWN)
+                .build());
+    _workQueueMgr.queueUnassignedWork(work);
+
+    // unassigned work is not claimed
+    assertThat(_workQueueMgr.claimWorkForChecking(work.getId()), nullValue());
+
+    work.setStatus(WorkStatusCode.ASSIGNED);
+    assertSame(_workQueueMgr.claimWorkForChecking(work.getId()), work);
+    assertThat(work.getStatus(), equalTo(WorkStatusCode.CHECKINGSTATUS));
+
+    // work that is already being checked is not claimed again
+    assertThat(_workQueueMgr.claimWorkForChecking(work.getId()), nullValue());
+    assertThat(_workQueueMgr.getWorkForChecking(), empty());
+
+    // unknown work is not claimed
+    assertThat(_workQueueMgr.claimWorkForChecking(UUID.randomUUID()), nullValue());
+  }
+
   @Test
   public void queueUnassignedWorkDuplicate() throws Exception {
     String snapshot = "snapshot1";
@@ -0,0 +1,83 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+import org.junit.Test;
+
+/** Tests of {@link WorkerStatus} */
+public class WorkerStatusTest {
+
+  @Test
+  public void testInitialStatus() {
+    WorkerStatus idle = new WorkerStatus(StatusCode.IDLE);
+    assertThat(idle.getSlots(), equalTo(1));
+    assertThat(idle.getFreeSlots(), equalTo(1));
+    assertTrue(idle.hasFreeSlot());
+
+    WorkerStatus unknown = new WorkerStatus(StatusCode.UNKNOWN);
+    assertThat(unknown.getFreeSlots(), equalTo(0));
+    assertFalse(unknown.hasFreeSlot());
+  }
+
+  @Test
+  public void testClaimSlots() {
+    WorkerStatus status = new WorkerStatus(StatusCode.UNKNOWN);
+    status.updateSlots(2, 2);
+    assertThat(status.getStatus(), equalTo(StatusCode.IDLE));
+
+    status.claimSlot();
+    assertThat(status.getStatus(), equalTo(StatusCode.TRYINGTOASSIGN));
+    // the other slot can be claimed while the first assignment is in flight
+    assertTrue(status.hasFreeSlot());
+    status.claimSlot();
+    assertFalse(status.hasFreeSlot());
+
+    status.assignmentDone(true);
+    assertThat(status.getStatus(), equalTo(StatusCode.TRYINGTOASSIGN));
+    status.assignmentDone(false);
+    assertThat(status.getStatus(), equalTo(StatusCode.IDLE));
+    assertThat(status.getFreeSlots(), equalTo(1));
+
+    status.claimSlot();
+    status.assignmentDone(true);
+    assertThat(status.getStatus(), equalTo(StatusCode.BUSY));
+
+    status.releaseSlot();
+    assertThat(status.getStatus(), equalTo(StatusCode.IDLE));
+    assertThat(status.getFreeSlots(), equalTo(1));
+  }
+
+  @Test
+  public void testReleaseSlotBounded() {
+    WorkerStatus status = new WorkerStatus(StatusCode.IDLE);
+    status.releaseSlot();
+    assertThat(status.getFreeSlots(), equalTo(1));
+  }
+
+  @Test
+  public void testUpdateSlotsIgnoredWhileAssigning() {
+    WorkerStatus status = new WorkerStatus(StatusCode.UNKNOWN);
+    status.updateSlots(2, 2);
+    status.claimSlot();
+
+    // a report that predates the assignment must not free the claimed slot
+    status.updateSlots(2, 2);
+    assertThat(status.getFreeSlots(), equalTo(1));
+
+    status.assignmentDone(true);
+    status.updateSlots(2, 0);
+    assertThat(status.getFreeSlots(), equalTo(0));
+    assertThat(status.getStatus(), equalTo(StatusCode.BUSY));
+  }
+
+  @Test
+  public void testUnreachable() {
+    WorkerStatus status = new WorkerStatus(StatusCode.IDLE);
+    status.updateStatus(StatusCode.UNREACHABLE);
+    assertFalse(status.hasFreeSlot());
+  }
+}
@@ -0,0 +1,144 @@
+package org.batfish.coordinator.queues;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.Collectors;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.QueuedWork;
+import org.batfish.coordinator.WorkDetails;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link IndexedWorkQueue} */
+public class IndexedWorkQueueTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static final NetworkId NETWORK = new NetworkId("network");
+
+  private static final SnapshotId SNAPSHOT = new SnapshotId("snapshot");
+
+  private static final SnapshotId REFERENCE_SNAPSHOT = new SnapshotId("reference");
+
+  private static QueuedWork work(WorkType workType) {
+    return new QueuedWork(
+        new WorkItem("network", "snapshot"),
+        WorkDetails.builder()
+            .setNetworkId(NETWORK)
+            .setSnapshotId(SNAPSHOT)
+            .setWorkType(workType)
+            .build());
+  }
+
+  @Test
+  public void testPriorityOrder() {
+    IndexedWorkQueue queue = new IndexedWorkQueue(true, Integer.MAX_VALUE, null);
+    QueuedWork parsing = work(WorkType.PARSING);
+    QueuedWork answering1 = work(WorkType.INDEPENDENT_ANSWERING);
+    QueuedWork dataplaning = work(WorkType.DATAPLANING);
+    QueuedWork answering2 = work(WorkType.DATAPLANE_DEPENDENT_ANSWERING);
+    queue.enque(parsing);
+    queue.enque(answering1);
+    queue.enque(dataplaning);
+    queue.enque(answering2);
+
+    assertThat(queue, contains(answering1, answering2, parsing, dataplaning));
+    assertThat(queue.deque(), sameInstance(answering1));
+    assertThat(queue.getLength(), equalTo(3L));
+  }
+
+  @Test
+  public void testUnprioritizedOrder() {
+    IndexedWorkQueue queue = new IndexedWorkQueue(false, Integer.MAX_VALUE, null);
+    QueuedWork parsing = work(WorkType.PARSING);
+    QueuedWork answering = work(WorkType.INDEPENDENT_ANSWERING);
+    queue.enque(parsing);
+    queue.enque(answering);
+
+    assertThat(queue, contains(parsing, answering));
+  }
+
+  @Test
+  public void testGetWork() {
+    IndexedWorkQueue queue = new IndexedWorkQueue(true, Integer.MAX_VALUE, null);
+    QueuedWork work = work(WorkType.PARSING);
+    QueuedWork differential =
+        new QueuedWork(
+            new WorkItem("network", "other"),
+            WorkDetails.builder()
+                .setNetworkId(NETWORK)
+                .setSnapshotId(new SnapshotId("other"))
+                .setReferenceSnapshotId(REFERENCE_SNAPSHOT)
+                .setIsDifferential(true)
+                .setWorkType(WorkType.PARSING_DEPENDENT_ANSWERING)
+                .build());
+    queue.enque(work);
+    queue.enque(differential);
+
+    assertThat(queue.getWork(work.getId()), sameInstance(work));
+    assertThat(queue.getWork(NETWORK, SNAPSHOT), contains(work));
+    assertThat(queue.getWork(NETWORK, REFERENCE_SNAPSHOT), contains(differential));
+    assertThat(queue.getWork(new NetworkId("other"), SNAPSHOT), empty());
+
+    assertTrue(queue.delete(work));
+    assertFalse(queue.delete(work));
+    assertThat(queue.getWork(work.getId()), nullValue());
+    assertThat(queue.getWork(NETWORK, SNAPSHOT), empty());
+  }
+
+  @Test
+  public void testDuplicate() {
+    IndexedWorkQueue queue = new IndexedWorkQueue(true, Integer.MAX_VALUE, null);
+    QueuedWork work = work(WorkType.PARSING);
+    assertTrue(queue.enque(work));
+    assertFalse(queue.enque(work));
+    assertThat(queue.getLength(), equalTo(1L));
+  }
+
+  @Test
+  public void testEviction() {
+    IndexedWorkQueue queue = new IndexedWorkQueue(false, 2, null);
+    QueuedWork work1 = work(WorkType.PARSING);
+    QueuedWork work2 = work(WorkType.PARSING);
+    QueuedWork work3 = work(WorkType.PARSING);
+    queue.enque(work1);
+    queue.enque(work2);
+    queue.enque(work3);
+
+    assertThat(queue, contains(work2, work3));
+    assertThat(queue.getWork(work1.getId()), nullValue());
+    assertThat(queue.getWork(NETWORK, SNAPSHOT), containsInAnyOrder(work2, work3));
+  }
+
+  @Test
+  public void testJournal() {
+    WorkJournal journal =
+        new WorkJournal(
+            _folder.getRoot().toPath().resolve("journal"), new BatfishLogger("fatal", false));
+    assertThat(journal.recover(), empty());
+
+    IndexedWorkQueue queue = new IndexedWorkQueue(true, Integer.MAX_VALUE, journal);
+    QueuedWork work1 = work(WorkType.PARSING);
+    QueuedWork work2 = work(WorkType.PARSING);
+    queue.enque(work1);
+    queue.enque(work2);
+    queue.delete(work1);
+
+    assertThat(
+        journal.recover().stream().map(WorkItem::getId).collect(Collectors.toList()),
+        contains(work2.getId()));
+  }
+}
@@ -0,0 +1,134 @@
+package org.batfish.coordinator.queues;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.WorkItem;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link WorkJournal} */
+public class WorkJournalTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private BatfishLogger _logger;
+
+  private Path _file;
+
+  @Before
+  public void setup() {
+    _logger = new BatfishLogger("fatal", false);
+    _file = _folder.getRoot().toPath().resolve("queue").resolve("journal");
+  }
+
+  private static List<UUID> ids(List<WorkItem> workItems) {
+    return workItems.stream().map(WorkItem::getId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testRecover() {
+    WorkJournal journal = new WorkJournal(_file, _logger);
+    assertThat(journal.recover(), empty());
+
+    WorkItem workItem1 = new WorkItem("network", "snapshot1");
+    workItem1.addRequestParam("key", "value");
+    WorkItem workItem2 = new WorkItem("network", "snapshot2");
+    WorkItem workItem3 = new WorkItem("network", "snapshot3");
+    journal.add(workItem1);
+    journal.add(workItem2);
+    journal.add(workItem3);
+    journal.remove(workItem2.getId());
+    assertThat(journal.getLength(), equalTo(4L));
+
+    WorkJournal restarted = new WorkJournal(_file, _logger);
+    List<WorkItem> recovered = restarted.recover();
+    assertThat(ids(recovered), contains(workItem1.getId(), workItem3.getId()));
+    assertThat(recovered.get(0).getRequestParams().get("key"), equalTo("value"));
+    assertThat(recovered.get(0).getNetwork(), equalTo("network"));
+    assertThat(recovered.get(0).getSnapshot(), equalTo("snapshot1"));
+
+    // recovery compacts the journal
+    assertThat(restarted.getLength(), equalTo(2L));
+  }
+
+  @Test
+  public void testRecoverIgnoresTruncatedEntry() throws Exception {
+    WorkJournal journal = new WorkJournal(_file, _logger);
+    journal.recover();
+    WorkItem workItem = new WorkItem("network", "snapshot");
+    journal.add(workItem);
+    journal.close();
+    Files.write(
+        _file, "{\"add\":{\"id\"".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    assertThat(ids(new WorkJournal(_file, _logger).recover()), contains(workItem.getId()));
+  }
+
+  @Test
+  public void testCompact() {
+    WorkJournal journal = new WorkJournal(_file, _logger);
+    journal.recover();
+    WorkItem workItem1 = new WorkItem("network", "snapshot1");
+    WorkItem workItem2 = new WorkItem("network", "snapshot2");
+    journal.add(workItem1);
+    journal.add(workItem2);
+    journal.remove(workItem1.getId());
+    journal.compact(ImmutableList.of(workItem2));
+    assertThat(journal.getLength(), equalTo(1L));
+
+    // entries written after compaction are kept
+    WorkItem workItem3 = new WorkItem("network", "snapshot3");
+    journal.add(workItem3);
+    assertThat(
+        ids(new WorkJournal(_file, _logger).recover()),
+        contains(workItem2.getId(), workItem3.getId()));
+  }
+
+  @Test
+  public void testRequeueRecoveredWork() {
+    WorkJournal journal = new WorkJournal(_file, _logger);
+    journal.recover();
+    WorkItem workItem1 = new WorkItem("network", "snapshot1");
+    WorkItem workItem2 = new WorkItem("network", "snapshot2");
+    journal.add(workItem1);
+    journal.add(workItem2);
+
+    // queuing recovered work again does not record it again
+    WorkJournal restarted = new WorkJournal(_file, _logger);
+    restarted.recover().forEach(restarted::add);
+    assertThat(restarted.getLength(), equalTo(2L));
+
+    // but queuing it after it is removed does
+    restarted.remove(workItem1.getId());
+    restarted.add(workItem1);
+    assertThat(restarted.getLength(), equalTo(4L));
+    assertThat(
+        ids(new WorkJournal(_file, _logger).recover()),
+        contains(workItem2.getId(), workItem1.getId()));
+  }
+
+  @Test
+  public void testWriteBeforeRecover() {
+    WorkJournal journal = new WorkJournal(_file, _logger);
+    _thrown.expect(BatfishException.class);
+    journal.add(new WorkItem("network", "snapshot"));
+  }
+}